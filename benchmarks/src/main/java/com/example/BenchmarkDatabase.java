@@ -0,0 +1,158 @@
+package com.example;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The database the benchmarks run against.
+ *
+ * By default an embedded MariaDB (MariaDB4j) is started on a free port, with its data
+ * kept in target/bench-db/<customers>-<bookings> so the seeded dataset is reused by
+ * later runs. Pass -Dbench.db.url=jdbc:mysql://host:port (plus bench.db.user and
+ * bench.db.password) to use an existing server instead.
+ *
+ * Either way the AutoTech schema is created from setup.sql when missing, migrated,
+ * and topped up with SyntheticDataGenerator rows unless every generated table already
+ * holds the requested number of rows. The application's services find the database through the
+ * autotech.db.* system properties set here.
+ */
+public final class BenchmarkDatabase {
+    private static final String DATABASE = "AutoTech";
+
+    private static DB embedded;
+
+    private BenchmarkDatabase() {
+        // Static utility
+    }
+
+    /**
+     * Start (if needed) and seed the database, then point DatabaseUtil at it.
+     * Does nothing when autotech.db.url is already set, e.g. in a JMH fork whose
+     * parent prepared the database.
+     */
+    public static synchronized void prepare() throws Exception {
+        if (System.getProperty("autotech.db.url") != null) {
+            return;
+        }
+        SyntheticDataGenerator.Scale scale = SyntheticDataGenerator.Scale.fromSystemProperties();
+
+        String serverUrl = System.getProperty("bench.db.url");
+        String user = System.getProperty("bench.db.user", "root");
+        String password = System.getProperty("bench.db.password", "");
+        if (serverUrl == null) {
+            serverUrl = startEmbedded(scale);
+        }
+
+        try (Connection conn = DriverManager.getConnection(serverUrl, user, password)) {
+            if (!schemaExists(conn)) {
+                createSchema(conn);
+            }
+            conn.setCatalog(DATABASE);
+            SchemaMigrator.migrate(conn);
+            seed(conn, scale);
+        }
+
+        System.setProperty("autotech.db.url", serverUrl + "/" + DATABASE);
+        System.setProperty("autotech.db.user", user);
+        System.setProperty("autotech.db.password", password);
+    }
+
+    /**
+     * Stop the embedded server, if one was started
+     */
+    public static synchronized void stop() {
+        DatabaseUtil.shutdown();
+        if (embedded != null) {
+            try {
+                embedded.stop();
+            } catch (Exception e) {
+                System.err.println("Warning: Could not stop embedded database: " + e.getMessage());
+            }
+            embedded = null;
+        }
+    }
+
+    private static String startEmbedded(SyntheticDataGenerator.Scale scale) throws Exception {
+        File dataDir = new File("target/bench-db/" + scale.customers + "-" + scale.bookings);
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+        config.setPort(0); // Any free port
+        config.setDataDir(dataDir.getAbsolutePath());
+        config.setDeletingTemporaryBaseAndDataDirsOnShutdown(false);
+        // The app's queries group by columns MySQL 8 treats as functionally dependent
+        config.addArg("--sql-mode=STRICT_TRANS_TABLES,NO_ENGINE_SUBSTITUTION");
+        embedded = DB.newEmbeddedDB(config.build());
+        embedded.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(BenchmarkDatabase::stop));
+
+        System.out.println("Embedded database started on port " + embedded.getConfiguration().getPort() +
+                           " (data in " + dataDir + ")");
+        return "jdbc:mysql://localhost:" + embedded.getConfiguration().getPort();
+    }
+
+    private static boolean schemaExists(Connection conn) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getCatalogs()) {
+            while (rs.next()) {
+                if (DATABASE.equalsIgnoreCase(rs.getString(1))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void createSchema(Connection conn) throws Exception {
+        System.out.println("Creating " + DATABASE + " schema from setup.sql...");
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : SqlScript.load("/database/setup.sql")) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    private static void seed(Connection conn, SyntheticDataGenerator.Scale scale) throws SQLException {
+        // A dataset is reused only if every generated table is full; seeding runs in one
+        // transaction, so anything short comes from an older or differently scaled run
+        // and is topped up with a complete new set
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        expected.put("customers", scale.customers);
+        expected.put("vehicles", (int) Math.round(scale.customers * scale.vehiclesPerCustomer));
+        expected.put("mechanics", scale.mechanics);
+        expected.put("parts", scale.parts);
+        expected.put("service_bookings", scale.bookings);
+        // Every booking has at least one service
+        expected.put("booking_services", scale.bookings);
+        expected.put("billing", 1);
+
+        String shortTable = null;
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            if (count(conn, entry.getKey()) < entry.getValue()) {
+                shortTable = entry.getKey();
+                break;
+            }
+        }
+        if (shortTable == null) {
+            System.out.println("Reusing seeded dataset (" + count(conn, "customers") + " customers, " +
+                               count(conn, "service_bookings") + " bookings)");
+            return;
+        }
+        System.out.println("Seeding " + scale + " (" + shortTable + " has fewer rows than expected)...");
+        new SyntheticDataGenerator().generate(conn, scale);
+    }
+
+    private static int count(Connection conn, String table) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
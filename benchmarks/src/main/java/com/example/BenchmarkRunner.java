@@ -0,0 +1,151 @@
+package com.example;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prepares the benchmark database once, runs the benchmarks and archives the results.
+ *
+ *   java -jar target/benchmarks.jar [benchmark regex]
+ *
+ * Each run writes the full JMH report to results/<timestamp>-<commit>.json and appends
+ * one line per benchmark to results/history.csv. Scores are compared with the previous
+ * run on the same dataset size and changes beyond bench.regressionPercent (default 10)
+ * are reported; the exit code is 1 when something got slower by more than that.
+ */
+public final class BenchmarkRunner {
+    private static final Path RESULTS_DIR = Paths.get(System.getProperty("bench.resultsDir", "results"));
+    private static final Path HISTORY = RESULTS_DIR.resolve("history.csv");
+    private static final String HISTORY_HEADER = "run,commit,dataset,benchmark,score,error,unit";
+    private static final double REGRESSION_PERCENT =
+        Double.parseDouble(System.getProperty("bench.regressionPercent", "10"));
+
+    private BenchmarkRunner() {
+        // Static utility
+    }
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkDatabase.prepare();
+        int exitCode;
+        try {
+            exitCode = run(args.length > 0 ? args[0] : "com\\.example\\..*Benchmarks");
+        } finally {
+            BenchmarkDatabase.stop();
+        }
+        System.exit(exitCode);
+    }
+
+    private static int run(String include) throws Exception {
+        SyntheticDataGenerator.Scale scale = SyntheticDataGenerator.Scale.fromSystemProperties();
+        String dataset = scale.customers + "c-" + scale.bookings + "b";
+        String runId = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        String commit = gitCommit();
+        Files.createDirectories(RESULTS_DIR);
+        Path report = RESULTS_DIR.resolve(runId + "-" + commit + ".json");
+
+        // Forks use the database prepared here instead of starting their own
+        ChainedOptionsBuilder options = new OptionsBuilder()
+            .include(include)
+            .resultFormat(ResultFormatType.JSON)
+            .result(report.toString())
+            .jvmArgsAppend(
+                "-Dautotech.db.url=" + System.getProperty("autotech.db.url"),
+                "-Dautotech.db.user=" + System.getProperty("autotech.db.user", "root"),
+                "-Dautotech.db.password=" + System.getProperty("autotech.db.password", ""),
+                "-Dautotech.db.migrateOnStartup=false");
+        Collection<RunResult> results = new Runner(options.build()).run();
+
+        Map<String, Double> previous = previousScores(dataset);
+        List<String> lines = new ArrayList<>();
+        int regressions = 0;
+        System.out.println();
+        System.out.println("Results (" + dataset + ", commit " + commit + "), report in " + report);
+        for (RunResult result : results) {
+            String benchmark = shortName(result.getParams().getBenchmark());
+            double score = result.getPrimaryResult().getScore();
+            double error = result.getPrimaryResult().getScoreError();
+            String unit = result.getPrimaryResult().getScoreUnit();
+            lines.add(String.join(",", runId, commit, dataset, benchmark,
+                                  String.format("%.4f", score), String.format("%.4f", error), unit));
+
+            String change = "";
+            Double before = previous.get(benchmark);
+            if (before != null && before > 0) {
+                // Lower is better for the average-time scores used here
+                double percent = (score - before) / before * 100;
+                change = String.format("%+.1f%%", percent);
+                if (percent > REGRESSION_PERCENT) {
+                    change += "  ✗ REGRESSION";
+                    regressions++;
+                } else if (percent < -REGRESSION_PERCENT) {
+                    change += "  ✓ faster";
+                }
+            }
+            System.out.println(String.format("  %-45s %10.3f %-6s %s", benchmark, score, unit, change));
+        }
+        appendHistory(lines);
+        return regressions > 0 ? 1 : 0;
+    }
+
+    // Latest score of each benchmark on this dataset from earlier runs
+    private static Map<String, Double> previousScores(String dataset) throws IOException {
+        Map<String, Double> scores = new HashMap<>();
+        if (!Files.exists(HISTORY)) {
+            return scores;
+        }
+        for (String line : Files.readAllLines(HISTORY, StandardCharsets.UTF_8)) {
+            String[] fields = line.split(",");
+            if (fields.length == 7 && fields[2].equals(dataset)) {
+                scores.put(fields[3], Double.parseDouble(fields[4]));
+            }
+        }
+        return scores;
+    }
+
+    private static void appendHistory(List<String> lines) throws IOException {
+        if (!Files.exists(HISTORY)) {
+            Files.write(HISTORY, List.of(HISTORY_HEADER), StandardCharsets.UTF_8);
+        }
+        Files.write(HISTORY, lines, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    private static String shortName(String benchmark) {
+        return benchmark.startsWith("com.example.") ? benchmark.substring("com.example.".length()) : benchmark;
+    }
+
+    private static String gitCommit() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").start();
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(git.getInputStream()))) {
+                String line = in.readLine();
+                if (git.waitFor() == 0 && line != null) {
+                    return line.trim();
+                }
+            }
+        } catch (IOException e) {
+            // No git available
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "unknown";
+    }
+}
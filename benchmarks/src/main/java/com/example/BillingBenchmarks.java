@@ -0,0 +1,54 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bill creation for completed bookings. Each created bill is deleted again right
+ * after the call, so the same unbilled bookings can be reused indefinitely.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BillingBenchmarks {
+    private BillingService billingService;
+    private int[] unbilledBookings;
+    private int next = 0;
+    private int current;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkDatabase.prepare();
+        billingService = BillingService.getInstance();
+        unbilledBookings = ServiceBookingBenchmarks.ids(
+            "SELECT sb.id FROM service_bookings sb LEFT JOIN billing b ON b.service_id = sb.id " +
+            "WHERE sb.status = 'completed' AND b.id IS NULL ORDER BY sb.id LIMIT 1000");
+        if (unbilledBookings.length == 0) {
+            throw new IllegalStateException("No completed, unbilled bookings in the benchmark dataset");
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void pickBooking() {
+        current = unbilledBookings[next++ % unbilledBookings.length];
+    }
+
+    // Through BillingService, so the daily revenue totals stay in step
+    @TearDown(Level.Invocation)
+    public void deleteBill() throws SQLException {
+        Bill bill = billingService.getBillByServiceId(current);
+        if (bill != null) {
+            billingService.deleteBill(bill.getId());
+        }
+    }
+
+    @Benchmark
+    public boolean createBillFromService() throws SQLException {
+        return billingService.createBillFromService(current);
+    }
+}
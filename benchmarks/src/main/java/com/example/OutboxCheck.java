@@ -0,0 +1,254 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * End-to-end check of the email outbox against an in-process SMTP server.
+ *
+ * Points EmailService at the local server through the autotech.smtp.* overrides,
+ * queues messages on the benchmark database and runs two outboxes side by side, as
+ * two workstations would. Passes when every queued message arrives exactly once, a
+ * message leased by a live workstation is left alone and one with an expired lease
+ * is sent. Exits with 1 on failure.
+ *
+ *   java -cp target/benchmarks.jar com.example.OutboxCheck
+ *
+ * Uses a small dataset unless autotech.gen.* says otherwise; bench.db.url works as
+ * for the benchmarks. Clears email_outbox first, so don't point it at real data.
+ */
+public final class OutboxCheck {
+    private static final int MESSAGES = Integer.getInteger("bench.outbox.messages", 200);
+    private static final long TIMEOUT_MS = 60_000;
+
+    private OutboxCheck() {
+        // Command-line tool
+    }
+
+    public static void main(String[] args) throws Exception {
+        int exitCode = 0;
+        try (LocalSmtpServer smtp = new LocalSmtpServer()) {
+            // EmailService reads these once, so they must be set before it is first used
+            System.setProperty("autotech.smtp.host", "localhost");
+            System.setProperty("autotech.smtp.port", String.valueOf(smtp.getPort()));
+            System.setProperty("autotech.smtp.auth", "false");
+            System.setProperty("autotech.smtp.starttls", "false");
+            System.setProperty("autotech.gen.customers", System.getProperty("autotech.gen.customers", "200"));
+            System.setProperty("autotech.gen.bookings", System.getProperty("autotech.gen.bookings", "1000"));
+            BenchmarkDatabase.prepare();
+
+            exitCode = run(smtp) ? 0 : 1;
+        } catch (Exception e) {
+            System.err.println("✗ Outbox check failed: " + e.getMessage());
+            e.printStackTrace();
+            exitCode = 1;
+        } finally {
+            AppExecutors.shutdown();
+            BenchmarkDatabase.stop();
+        }
+        System.exit(exitCode);
+    }
+
+    private static boolean run(LocalSmtpServer smtp) throws Exception {
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM email_outbox");
+        }
+        // One message another workstation is sending right now, one it abandoned a day ago
+        int liveLease = insertClaimed("outbox-check live lease", "NOW()");
+        insertClaimed("outbox-check expired lease", "NOW() - INTERVAL 1 DAY");
+
+        EmailService emailService = EmailService.getInstance();
+        EmailOutbox first = new EmailOutbox(emailService);
+        EmailOutbox second = new EmailOutbox(emailService);
+        first.start();
+        for (int i = 0; i < MESSAGES; i++) {
+            if (!first.enqueue("customer" + i + "@example.com", "outbox-check " + i, "<p>Message " + i + "</p>",
+                               "Alert", 0)) {
+                throw new IllegalStateException("Message " + i + " was not queued");
+            }
+        }
+        // A second workstation starting up while the first is sending
+        second.start();
+
+        int expected = MESSAGES + 1;
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (smtp.getReceivedCount() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        // Give a duplicate the chance to show up
+        Thread.sleep(2000);
+        first.shutdown();
+        second.shutdown();
+
+        boolean ok = true;
+        for (int i = 0; i < MESSAGES; i++) {
+            ok &= expectCount(smtp, "outbox-check " + i, 1);
+        }
+        ok &= expectCount(smtp, "outbox-check expired lease", 1);
+        ok &= expectCount(smtp, "outbox-check live lease", 0);
+        String liveStatus = status(liveLease);
+        if (!"sending".equals(liveStatus)) {
+            System.err.println("✗ Message under a live lease was re-queued (status " + liveStatus + ")");
+            ok = false;
+        }
+
+        System.out.println((ok ? "✓" : "✗") + " Outbox check: " + smtp.getReceivedCount() + " message(s) received, " +
+                           expected + " expected");
+        return ok;
+    }
+
+    private static boolean expectCount(LocalSmtpServer smtp, String subject, int expected) {
+        int received = smtp.getCount(subject);
+        if (received != expected) {
+            System.err.println("✗ '" + subject + "' received " + received + " time(s), expected " + expected);
+            return false;
+        }
+        return true;
+    }
+
+    private static int insertClaimed(String subject, String claimedAt) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO email_outbox (recipient_email, email_type, subject, html_body, status, claimed_by, claimed_at) " +
+                "VALUES ('desk@example.com', 'Alert', ?, '<p>Claimed</p>', 'sending', 'other-workstation', " + claimedAt + ")",
+                Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, subject);
+            stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                keys.next();
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    private static String status(int messageId) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT status FROM email_outbox WHERE id = ?")) {
+            stmt.setInt(1, messageId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Just enough SMTP to accept mail from JavaMail, counting messages by subject
+     */
+    static final class LocalSmtpServer implements AutoCloseable {
+        private final ServerSocket socket;
+        private final Map<String, Integer> subjects = new ConcurrentHashMap<>();
+        private final Thread acceptor;
+
+        LocalSmtpServer() throws IOException {
+            socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            acceptor = new Thread(this::acceptLoop, "local-smtp");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return socket.getLocalPort();
+        }
+
+        int getCount(String subject) {
+            return subjects.getOrDefault(subject, 0);
+        }
+
+        int getReceivedCount() {
+            int total = 0;
+            for (int count : subjects.values()) {
+                total += count;
+            }
+            return total;
+        }
+
+        private void acceptLoop() {
+            while (!socket.isClosed()) {
+                try {
+                    Socket client = socket.accept();
+                    Thread session = new Thread(() -> serve(client), "local-smtp-session");
+                    session.setDaemon(true);
+                    session.start();
+                } catch (IOException e) {
+                    // Closed
+                }
+            }
+        }
+
+        private void serve(Socket client) {
+            try (Socket s = client;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+                 OutputStream out = s.getOutputStream()) {
+                reply(out, "220 localhost ESMTP");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                    switch (command) {
+                        case "EHLO":
+                        case "HELO":
+                            reply(out, "250 localhost");
+                            break;
+                        case "DATA":
+                            reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                            readMessage(in);
+                            reply(out, "250 OK");
+                            break;
+                        case "QUIT":
+                            reply(out, "221 Bye");
+                            return;
+                        case "MAIL":
+                        case "RCPT":
+                        case "RSET":
+                        case "NOOP":
+                            reply(out, "250 OK");
+                            break;
+                        default:
+                            reply(out, "500 Unrecognized command");
+                    }
+                }
+            } catch (IOException e) {
+                // Client went away
+            }
+        }
+
+        private void readMessage(BufferedReader in) throws IOException {
+            String subject = null;
+            boolean inHeaders = true;
+            String line;
+            while ((line = in.readLine()) != null && !".".equals(line)) {
+                if (line.isEmpty()) {
+                    inHeaders = false;
+                } else if (inHeaders && subject == null && line.regionMatches(true, 0, "Subject:", 0, 8)) {
+                    subject = line.substring(8).trim();
+                }
+            }
+            if (subject != null) {
+                subjects.merge(subject, 1, Integer::sum);
+            }
+        }
+
+        private static void reply(OutputStream out, String line) throws IOException {
+            out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
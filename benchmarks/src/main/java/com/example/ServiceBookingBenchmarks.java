@@ -0,0 +1,177 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking creation, listing, search, delayed-booking promotion and conflict checks.
+ *
+ * Benchmarks that write clean up after themselves (created bookings are deleted at
+ * the end of each iteration, promoted bookings are delayed again before each call)
+ * so every iteration sees the same dataset.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ServiceBookingBenchmarks {
+    // Bookings put back into 'delayed' before each promotion run
+    private static final int DELAYED_SAMPLE = Integer.getInteger("bench.delayedSample", 50);
+    // Rows per page of the booking list, as the bookings screen loads them
+    private static final int PAGE_SIZE = 50;
+
+    private final Random random = new Random(7);
+    private final List<Integer> createdBookings = Collections.synchronizedList(new ArrayList<>());
+
+    private ServiceBookingService bookingService;
+    private MechanicService mechanicService;
+    private int[] mechanicIds;
+    private int[][] customerVehicles;
+    private String[] searchTerms;
+    private List<Integer> delayedSample;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkDatabase.prepare();
+        bookingService = new ServiceBookingService();
+        mechanicService = new MechanicService();
+
+        mechanicIds = ids("SELECT id FROM mechanics WHERE availability <> 'Off Duty'");
+        List<int[]> pairs = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT customer_id, id FROM vehicles ORDER BY RAND(1) LIMIT 1000")) {
+            while (rs.next()) {
+                pairs.add(new int[] { rs.getInt(1), rs.getInt(2) });
+            }
+        }
+        customerVehicles = pairs.toArray(new int[0][]);
+        // A surname, a plate and a booking hex ID taken from the data: one term per kind
+        // the list search handles, each matching a few rows the way a real lookup does
+        searchTerms = new String[] { "Santos", firstValue("SELECT plate_number FROM vehicles ORDER BY id DESC LIMIT 1"),
+                                     firstValue("SELECT hex_id FROM service_bookings ORDER BY id DESC LIMIT 1") };
+        delayedSample = new ArrayList<>();
+        for (int id : ids("SELECT id FROM service_bookings WHERE status = 'scheduled' AND booking_date > CURRENT_DATE " +
+                          "ORDER BY id LIMIT " + DELAYED_SAMPLE)) {
+            delayedSample.add(id);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteCreatedBookings() throws SQLException {
+        synchronized (createdBookings) {
+            for (int id : createdBookings) {
+                bookingService.deleteBooking(id);
+            }
+            createdBookings.clear();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        // Leave the sample as it was found
+        setStatus(delayedSample, "scheduled");
+    }
+
+    @Benchmark
+    public int createBookingAndReturnId() throws SQLException {
+        int[] pair = customerVehicles[random.nextInt(customerVehicles.length)];
+        Map<String, String> service = new HashMap<>();
+        service.put("type", "Oil Change");
+        service.put("description", "Benchmark");
+        int id = bookingService.createBookingAndReturnId(pair[0], pair[1], mechanicIds[random.nextInt(mechanicIds.length)],
+                LocalDate.now().plusDays(1 + random.nextInt(30)), String.format("%02d:%02d", 8 + random.nextInt(9), 0),
+                Collections.singletonList(service), Collections.emptyList());
+        createdBookings.add(id);
+        return id;
+    }
+
+    @Benchmark
+    public void getAllBookings(Blackhole bh) throws SQLException {
+        bh.consume(bookingService.getAllBookings());
+    }
+
+    @Benchmark
+    public void searchBookings(Blackhole bh) throws SQLException {
+        bh.consume(bookingService.getBookingsPage(0, searchTerms[random.nextInt(searchTerms.length)], "Active", null,
+                                                  null, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public void searchBookingsByStatusAndDate(Blackhole bh) throws SQLException {
+        bh.consume(bookingService.getBookingsPage(0, null, "Completed", LocalDate.now().minusDays(1 + random.nextInt(60)),
+                                                  null, PAGE_SIZE));
+    }
+
+    @State(Scope.Thread)
+    public static class DelayedBookings {
+        @Setup(Level.Invocation)
+        public void delay(ServiceBookingBenchmarks bench) throws SQLException {
+            bench.setStatus(bench.delayedSample, "delayed");
+        }
+    }
+
+    @Benchmark
+    public int checkAndUpdateDelayedBookings(DelayedBookings delayed) throws SQLException {
+        return bookingService.checkAndUpdateDelayedBookings();
+    }
+
+    @Benchmark
+    public boolean hasTimeConflict() throws SQLException {
+        return mechanicService.hasTimeConflict(mechanicIds[random.nextInt(mechanicIds.length)],
+                Date.valueOf(LocalDate.now().plusDays(random.nextInt(30))),
+                Time.valueOf(String.format("%02d:30:00", 8 + random.nextInt(9))), 60);
+    }
+
+    private void setStatus(List<Integer> bookingIds, String status) throws SQLException {
+        if (bookingIds.isEmpty()) {
+            return;
+        }
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                 "UPDATE service_bookings SET status = ?, promoted_by_booking_id = NULL " +
+                 "WHERE id IN (" + SearchIndex.placeholders(bookingIds.size()) + ")")) {
+            stmt.setString(1, status);
+            for (int i = 0; i < bookingIds.size(); i++) {
+                stmt.setInt(i + 2, bookingIds.get(i));
+            }
+            stmt.executeUpdate();
+        }
+        MechanicScheduleIndex.getInstance().invalidate();
+    }
+
+    private static String firstValue(String sql) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            if (!rs.next()) {
+                throw new IllegalStateException("Benchmark dataset has no rows for: " + sql);
+            }
+            return rs.getString(1);
+        }
+    }
+
+    static int[] ids(String sql) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
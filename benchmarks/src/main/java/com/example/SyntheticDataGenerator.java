@@ -0,0 +1,517 @@
+package com.example;
+
+import java.sql.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Fills the database with synthetic rows for performance work: customers, vehicles,
+ * mechanics, parts, service bookings with their services and parts, bills and the
+ * email history of those bills.
+ *
+ * The data is shaped like a busy shop rather than uniform noise: a minority of regular
+ * customers bring in most of the work, some mechanics get more jobs than others,
+ * bookings cluster in the morning and the shop is closed on Sundays, cheap routine
+ * services outnumber overhauls, older bills are mostly paid and recent ones often
+ * are not.
+ *
+ * Rows get explicit IDs after the current maximum, so related rows can be written
+ * without reading generated keys back, and are sent in JDBC batches (rewritten into
+ * multi-row INSERTs by the driver) of BATCH_SIZE rows. Everything is written in one
+ * transaction, so a failed run leaves the database as it was. The same seed always
+ * produces the same data. Generated hex IDs use a 'G' after the prefix (e.g.
+ * CUST-G0000123), which HexIdGenerator never produces, so the two can't collide.
+ *
+ * Part of the benchmarks module, so it doesn't ship in the application jar. Run it
+ * against the configured database (autotech.db.*) from the benchmarks directory:
+ *   java -Dautotech.gen.customers=50000 -cp target/benchmarks.jar com.example.SyntheticDataGenerator
+ * Scale and seed come from autotech.gen.* system properties, see Scale.
+ */
+public class SyntheticDataGenerator {
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String[] FIRST_NAMES = {
+        "Juan", "Maria", "Jose", "Ana", "Pedro", "Rosa", "Carlos", "Elena", "Miguel", "Luz",
+        "Antonio", "Carmen", "Roberto", "Teresa", "Ramon", "Gloria", "Fernando", "Cristina", "Mark", "Grace"
+    };
+    private static final String[] LAST_NAMES = {
+        "Santos", "Reyes", "Cruz", "Bautista", "Garcia", "Mendoza", "Torres", "Flores", "Ramos", "Villanueva",
+        "Gonzales", "Castillo", "Aquino", "Dela Cruz", "Navarro", "Domingo", "Salazar", "Mercado", "Lim", "Tan"
+    };
+    private static final String[] STREETS = {
+        "Rizal St.", "Mabini St.", "Bonifacio Ave.", "Luna St.", "Quezon Blvd.", "Burgos St.", "Del Pilar St."
+    };
+    private static final String[][] VEHICLES = {
+        {"Sedan", "Toyota", "Vios"}, {"Sedan", "Toyota", "Corolla"}, {"Sedan", "Honda", "City"}, {"Sedan", "Honda", "Civic"},
+        {"SUV", "Toyota", "Fortuner"}, {"SUV", "Mitsubishi", "Montero"}, {"SUV", "Ford", "Everest"},
+        {"Truck", "Isuzu", "D-Max"}, {"Truck", "Toyota", "Hilux"}, {"Van", "Nissan", "Urvan"},
+        {"Motorcycle", "Honda", "Click"}, {"Motorcycle", "Yamaha", "NMAX"}
+    };
+    private static final String[] SPECIALTIES = {
+        "General Repairs", "Engine", "Brakes", "Transmission", "Electrical", "Air Conditioning", "Suspension", "Tires"
+    };
+    private static final String[][] PARTS = {
+        {"Engine Oil 1L", "Fluids"}, {"Oil Filter", "Filters"}, {"Air Filter", "Filters"}, {"Brake Pad Set", "Brakes"},
+        {"Brake Fluid", "Fluids"}, {"Spark Plug", "Ignition"}, {"Battery 12V", "Electrical"}, {"Coolant 1L", "Fluids"},
+        {"Timing Belt", "Engine"}, {"Wiper Blade", "Accessories"}, {"Headlight Bulb", "Electrical"}, {"Tire", "Tires"}
+    };
+    // Service types from service_labor_costs, routine work first
+    private static final String[] SERVICE_TYPES = {
+        "Oil Change", "Regular Maintenance", "Tire Rotation", "Brake Service", "Battery Replacement",
+        "Wheel Alignment", "Tire Service", "Air Conditioning Service", "Brake Replacement", "Electrical System",
+        "Engine Tune-up", "Engine Repair", "Electrical System Repair", "Transmission Service", "Engine Overhaul"
+    };
+    private static final int[] SERVICE_WEIGHTS = { 30, 20, 10, 8, 6, 6, 5, 4, 3, 2, 2, 1, 1, 1, 1 };
+    private static final String[] PAYMENT_METHODS = { "Cash", "Cash", "Bank Transfer", "Online Payment" };
+
+    /**
+     * How many rows to generate
+     */
+    public static final class Scale {
+        public final int customers;
+        public final double vehiclesPerCustomer;
+        public final int mechanics;
+        public final int parts;
+        public final int bookings;
+        // Bookings are spread from this many days ago until 30 days ahead
+        public final int historyDays;
+
+        public Scale(int customers, double vehiclesPerCustomer, int mechanics, int parts, int bookings, int historyDays) {
+            this.customers = customers;
+            this.vehiclesPerCustomer = vehiclesPerCustomer;
+            this.mechanics = mechanics;
+            this.parts = parts;
+            this.bookings = bookings;
+            this.historyDays = historyDays;
+        }
+
+        /**
+         * From autotech.gen.customers, .vehiclesPerCustomer, .mechanics, .parts, .bookings and .historyDays
+         */
+        public static Scale fromSystemProperties() {
+            return new Scale(
+                Integer.getInteger("autotech.gen.customers", 10_000),
+                Double.parseDouble(System.getProperty("autotech.gen.vehiclesPerCustomer", "1.3")),
+                Integer.getInteger("autotech.gen.mechanics", 25),
+                Integer.getInteger("autotech.gen.parts", 500),
+                Integer.getInteger("autotech.gen.bookings", 200_000),
+                Integer.getInteger("autotech.gen.historyDays", 365));
+        }
+
+        @Override
+        public String toString() {
+            return customers + " customers, " + vehiclesPerCustomer + " vehicles each, " + mechanics + " mechanics, " +
+                   parts + " parts, " + bookings + " bookings over " + historyDays + " days";
+        }
+    }
+
+    private final Random random;
+
+    // Populated as rows are generated
+    private int firstCustomerId;
+    private String[] customerEmails;
+    private int[] vehicleIds;
+    private int[] vehicleOwners;
+    private int[] mechanicIds;
+    private int[] partIds;
+    private double[] partPrices;
+    private int[] partsReserved;
+    private Map<String, Double> laborCosts;
+    private final Map<String, Integer> counts = new HashMap<>();
+
+    public SyntheticDataGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public SyntheticDataGenerator() {
+        this(Long.getLong("autotech.gen.seed", 42));
+    }
+
+    public static void main(String[] args) {
+        int exitCode = 0;
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            SchemaMigrator.migrate(conn);
+            new SyntheticDataGenerator().generate(conn, Scale.fromSystemProperties());
+        } catch (SQLException e) {
+            System.err.println("✗ Data generation failed: " + e.getMessage());
+            exitCode = 1;
+        } finally {
+            DatabaseUtil.shutdown();
+        }
+        System.exit(exitCode);
+    }
+
+    /**
+     * Add the rows on top of whatever the database already holds
+     */
+    public void generate(Connection conn, Scale scale) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            long start = System.currentTimeMillis();
+            laborCosts = loadLaborCosts(conn);
+            generateCustomers(conn, scale);
+            generateVehicles(conn, scale);
+            generateMechanics(conn, scale);
+            generateParts(conn, scale);
+            generateBookings(conn, scale);
+            applyReservations(conn);
+            // Bills were inserted directly, so recompute the revenue totals
+            RevenueLedger.getInstance().rebuild(conn);
+            conn.commit();
+            System.out.println("Generated " + scale + " in " + (System.currentTimeMillis() - start) + " ms " + counts);
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void generateCustomers(Connection conn, Scale scale) throws SQLException {
+        firstCustomerId = nextId(conn, "customers");
+        customerEmails = new String[scale.customers];
+        try (Batch batch = new Batch(conn, "customers",
+                "INSERT INTO customers (id, hex_id, name, phone, email, address) VALUES (?, ?, ?, ?, ?, ?)", null)) {
+            for (int i = 0; i < scale.customers; i++) {
+                int id = firstCustomerId + i;
+                String first = pick(FIRST_NAMES);
+                String last = pick(LAST_NAMES);
+                customerEmails[i] = (first + "." + last).toLowerCase().replace(" ", "") + id + "@example.com";
+                batch.add(id, String.format("CUST-G%07X", id), first + " " + last,
+                          String.format("09%09d", random.nextInt(1_000_000_000)), customerEmails[i],
+                          (1 + random.nextInt(999)) + " " + pick(STREETS));
+            }
+        }
+    }
+
+    private void generateVehicles(Connection conn, Scale scale) throws SQLException {
+        int count = (int) Math.round(scale.customers * scale.vehiclesPerCustomer);
+        int firstId = nextId(conn, "vehicles");
+        vehicleIds = new int[count];
+        vehicleOwners = new int[count];
+        try (Batch batch = new Batch(conn, "vehicles",
+                "INSERT INTO vehicles (id, hex_id, customer_id, type, brand, model, year, plate_number) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", null)) {
+            for (int i = 0; i < count; i++) {
+                int id = firstId + i;
+                // Every customer gets one vehicle before anyone gets a second
+                int owner = firstCustomerId + (i < scale.customers ? i : random.nextInt(scale.customers));
+                String[] vehicle = pick(VEHICLES);
+                batch.add(id, String.format("VEH-G%07X", id), owner, vehicle[0], vehicle[1], vehicle[2],
+                          String.valueOf(2005 + random.nextInt(20)), plateNumber(id));
+                vehicleIds[i] = id;
+                vehicleOwners[i] = owner;
+            }
+        }
+    }
+
+    private void generateMechanics(Connection conn, Scale scale) throws SQLException {
+        int firstUserId = nextId(conn, "users");
+        int firstId = nextId(conn, "mechanics");
+        mechanicIds = new int[scale.mechanics];
+        try (Batch users = new Batch(conn, "users",
+                "INSERT INTO users (id, username, password, email, role_id) " +
+                "VALUES (?, ?, 'mech123', ?, (SELECT id FROM roles WHERE name = 'MECHANIC'))", null);
+             Batch mechanics = new Batch(conn, "mechanics",
+                "INSERT INTO mechanics (id, hex_id, user_id, specialties, availability) VALUES (?, ?, ?, ?, ?)", users)) {
+            for (int i = 0; i < scale.mechanics; i++) {
+                int userId = firstUserId + i;
+                int id = firstId + i;
+                String username = "genmech" + userId;
+                users.add(userId, username, username + "@autotech.com");
+                String specialties = "General Repairs, " + SPECIALTIES[1 + random.nextInt(SPECIALTIES.length - 1)];
+                // A few mechanics are off duty at any time
+                mechanics.add(id, String.format("MECH-G%07X", id), userId, specialties,
+                              random.nextInt(10) == 0 ? "Off Duty" : "Available");
+                mechanicIds[i] = id;
+            }
+        }
+    }
+
+    private void generateParts(Connection conn, Scale scale) throws SQLException {
+        int firstId = nextId(conn, "parts");
+        partIds = new int[scale.parts];
+        partPrices = new double[scale.parts];
+        partsReserved = new int[scale.parts];
+        try (Batch batch = new Batch(conn, "parts",
+                "INSERT INTO parts (id, hex_id, part_number, name, cost_price, selling_price, quantity_in_stock, " +
+                "reorder_level, category, expiration_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", null)) {
+            for (int i = 0; i < scale.parts; i++) {
+                int id = firstId + i;
+                String[] part = pick(PARTS);
+                double cost = 50 + random.nextInt(5000);
+                // Fluids expire; most other parts don't
+                Date expiration = "Fluids".equals(part[1])
+                    ? Date.valueOf(LocalDate.now().plusDays(random.nextInt(720) - 60)) : null;
+                partIds[i] = id;
+                partPrices[i] = Math.round(cost * 1.3);
+                batch.add(id, String.format("PART-G%07X", id), String.format("PART-%04d", id),
+                          part[0] + " #" + id, cost, partPrices[i], random.nextInt(200), 5 + random.nextInt(20),
+                          part[1], expiration);
+            }
+        }
+        // Keep InventoryService's part number counter ahead of the generated numbers
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE id_sequences SET next_value = GREATEST(next_value, ?) WHERE name = 'part_number'")) {
+            stmt.setInt(1, firstId + scale.parts);
+            stmt.executeUpdate();
+        }
+    }
+
+    private void generateBookings(Connection conn, Scale scale) throws SQLException {
+        int firstId = nextId(conn, "service_bookings");
+        int billId = nextId(conn, "billing");
+        LocalDate today = LocalDate.now();
+        // Children are flushed after their parents, so foreign keys always resolve
+        try (Batch bookings = new Batch(conn, "service_bookings",
+                "INSERT INTO service_bookings (id, hex_id, customer_id, vehicle_id, mechanic_id, booking_date, " +
+                "booking_time, status, original_status, estimated_duration) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", null);
+             Batch services = new Batch(conn, "booking_services",
+                "INSERT INTO booking_services (booking_id, service_type, service_description) VALUES (?, ?, ?)", bookings);
+             Batch parts = new Batch(conn, "booking_parts",
+                "INSERT INTO booking_parts (booking_id, part_id, quantity, price_at_time) VALUES (?, ?, ?, ?)", bookings);
+             Batch bills = new Batch(conn, "billing",
+                "INSERT INTO billing (id, hex_id, customer_id, service_id, amount, payment_status, payment_method, " +
+                "reference_number, bill_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", bookings);
+             Batch emails = new Batch(conn, "email_sent_history",
+                "INSERT INTO email_sent_history (billing_id, recipient_email, email_type, subject, sent_date, status) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", bills)) {
+            for (int i = 0; i < scale.bookings; i++) {
+                int id = firstId + i;
+                int vehicle = skewed(vehicleIds.length, 2.0);
+                int customer = vehicleOwners[vehicle];
+                LocalDate date = bookingDate(today, scale.historyDays);
+                String status = statusFor(date, today);
+
+                List<String> types = new ArrayList<>();
+                double labor = 0;
+                int serviceCount = 1 + (random.nextInt(20) < 14 ? 0 : random.nextInt(20) < 17 ? 1 : 2);
+                for (int s = 0; s < serviceCount; s++) {
+                    String type = weightedServiceType();
+                    if (!types.contains(type)) {
+                        types.add(type);
+                        labor += laborCosts.getOrDefault(type, laborCosts.getOrDefault("Other", 500.0));
+                    }
+                }
+
+                // The booking goes into its batch before any child row, so a child batch
+                // that fills up flushes a parent batch that already holds it
+                bookings.add(id, String.format("BOOK-G%07X", id), customer, vehicleIds[vehicle],
+                             mechanicIds[skewed(mechanicIds.length, 1.5)], Date.valueOf(date),
+                             Time.valueOf(bookingTime()), status, status, SchedulingEngine.estimateDuration(types));
+                for (String type : types) {
+                    services.add(id, type, "");
+                }
+
+                // Six in ten jobs use parts; upcoming ones hold a reservation on them
+                double partsCost = 0;
+                if (!"cancelled".equals(status) && random.nextInt(10) < 6) {
+                    int partCount = 1 + random.nextInt(3);
+                    int previous = -1;
+                    for (int p = 0; p < partCount; p++) {
+                        int part = skewed(partIds.length, 2.0);
+                        if (part == previous) {
+                            continue;
+                        }
+                        previous = part;
+                        int quantity = 1 + random.nextInt(4);
+                        partsCost += quantity * partPrices[part];
+                        parts.add(id, partIds[part], quantity, partPrices[part]);
+                        if (!"completed".equals(status)) {
+                            partsReserved[part] += quantity;
+                        }
+                    }
+                }
+
+                // Nearly every completed job has been billed
+                if ("completed".equals(status) && random.nextInt(100) < 97) {
+                    addBill(bills, emails, billId++, id, customer, date, today, labor + partsCost);
+                }
+            }
+        }
+    }
+
+    private void addBill(Batch bills, Batch emails, int billId, int bookingId, int customer,
+                         LocalDate bookingDate, LocalDate today, double amount) throws SQLException {
+        LocalDate billDate = bookingDate.plusDays(random.nextInt(3));
+        if (billDate.isAfter(today)) {
+            billDate = today;
+        }
+        // Older bills have mostly been settled
+        int roll = random.nextInt(100);
+        String paymentStatus = billDate.isBefore(today.minusDays(30))
+            ? (roll < 92 ? "Paid" : roll < 97 ? "Partial" : "Unpaid")
+            : (roll < 50 ? "Paid" : roll < 60 ? "Partial" : "Unpaid");
+        String method = null;
+        String reference = null;
+        if (!"Unpaid".equals(paymentStatus)) {
+            method = pick(PAYMENT_METHODS);
+            if (!"Cash".equals(method)) {
+                reference = String.format("REF-G%09d", random.nextInt(1_000_000_000));
+            }
+        }
+        String hexId = String.format("BILL-G%07X", billId);
+        bills.add(billId, hexId, customer, bookingId, amount, paymentStatus, method, reference, Date.valueOf(billDate));
+
+        String recipient = customerEmails[customer - firstCustomerId];
+        Timestamp sentAt = Timestamp.valueOf(billDate.atTime(bookingTime().plusHours(2)));
+        if (random.nextInt(10) < 9) {
+            emails.add(billId, recipient, "Bill Notification",
+                       "✓ Service Completed - Invoice #" + hexId + " (₱" + String.format("%.2f", amount) + ") - AutoTech",
+                       sentAt, random.nextInt(50) == 0 ? "failed" : "sent");
+        }
+        if ("Paid".equals(paymentStatus) && random.nextInt(10) < 4) {
+            emails.add(billId, recipient, "Receipt", "Receipt #" + hexId + " - AutoTech Service Receipt",
+                       sentAt, "sent");
+        }
+    }
+
+    // Upcoming bookings keep their parts reserved, as ServiceBookingService does
+    private void applyReservations(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE parts SET reserved_quantity = reserved_quantity + ?, " +
+                "quantity_in_stock = GREATEST(quantity_in_stock, reserved_quantity) WHERE id = ?")) {
+            for (int i = 0; i < partIds.length; i++) {
+                if (partsReserved[i] > 0) {
+                    stmt.setInt(1, partsReserved[i]);
+                    stmt.setInt(2, partIds[i]);
+                    stmt.addBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    // Uniform over the period, except the shop is closed on Sundays
+    private LocalDate bookingDate(LocalDate today, int historyDays) {
+        LocalDate date = today.plusDays(random.nextInt(historyDays + 31) - historyDays);
+        return date.getDayOfWeek() == DayOfWeek.SUNDAY ? date.plusDays(1) : date;
+    }
+
+    // Half-hour slots from 08:00 to 16:30, busiest in the morning
+    private LocalTime bookingTime() {
+        int slot = Math.min(random.nextInt(18), random.nextInt(18));
+        return LocalTime.of(8 + slot / 2, slot % 2 * 30);
+    }
+
+    // Past bookings are mostly done; upcoming ones are waiting
+    private String statusFor(LocalDate date, LocalDate today) {
+        int roll = random.nextInt(100);
+        if (date.isBefore(today)) {
+            return roll < 85 ? "completed" : roll < 95 ? "cancelled" : "delayed";
+        }
+        if (date.equals(today)) {
+            return roll < 40 ? "in_progress" : roll < 80 ? "scheduled" : "completed";
+        }
+        return roll < 85 ? "scheduled" : roll < 95 ? "delayed" : "cancelled";
+    }
+
+    private String weightedServiceType() {
+        int total = 0;
+        for (int weight : SERVICE_WEIGHTS) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < SERVICE_TYPES.length; i++) {
+            roll -= SERVICE_WEIGHTS[i];
+            if (roll < 0) {
+                return SERVICE_TYPES[i];
+            }
+        }
+        return SERVICE_TYPES[0];
+    }
+
+    // Index in [0, n) favouring low indexes; the higher the skew, the more it favours them
+    private int skewed(int n, double skew) {
+        return (int) (n * Math.pow(random.nextDouble(), skew));
+    }
+
+    // Unique per ID: three letters from the ID's high digits, four digits from the low ones
+    private static String plateNumber(int id) {
+        int high = id / 10_000;
+        char[] letters = new char[3];
+        for (int i = 2; i >= 0; i--) {
+            letters[i] = (char) ('A' + high % 26);
+            high /= 26;
+        }
+        return new String(letters) + " " + String.format("%04d", id % 10_000);
+    }
+
+    private <T> T pick(T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static Map<String, Double> loadLaborCosts(Connection conn) throws SQLException {
+        Map<String, Double> costs = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT service_type, labor_cost FROM service_labor_costs")) {
+            while (rs.next()) {
+                costs.put(rs.getString("service_type"), rs.getDouble("labor_cost"));
+            }
+        }
+        return costs;
+    }
+
+    private static int nextId(Connection conn, String table) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * A batched INSERT that is sent every BATCH_SIZE rows, inside the caller's
+     * transaction. A batch with a parent flushes the parent first, so rows never
+     * reference unsent parent rows as long as each parent row is added before its children.
+     */
+    private final class Batch implements AutoCloseable {
+        private final String table;
+        private final PreparedStatement stmt;
+        private final Batch parent;
+        private int pending = 0;
+
+        Batch(Connection conn, String table, String sql, Batch parent) throws SQLException {
+            this.table = table;
+            this.stmt = conn.prepareStatement(sql);
+            this.parent = parent;
+        }
+
+        void add(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                stmt.setObject(i + 1, values[i]);
+            }
+            stmt.addBatch();
+            counts.merge(table, 1, Integer::sum);
+            if (++pending == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() throws SQLException {
+            if (parent != null) {
+                parent.flush();
+            }
+            if (pending > 0) {
+                stmt.executeBatch();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                stmt.close();
+            }
+        }
+    }
+}
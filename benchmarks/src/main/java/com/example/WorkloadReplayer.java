@@ -0,0 +1,370 @@
+package com.example;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives the real service classes from many threads, each playing a front desk
+ * (searching, opening bookings, checking schedules, booking jobs and billing them),
+ * and reports throughput and latency per operation.
+ *
+ * Meant for a database filled by SyntheticDataGenerator; it books and bills jobs, so
+ * don't point it at production data. Run it from the benchmarks directory with e.g.
+ *   java -Dautotech.replay.threads=16 -cp target/benchmarks.jar com.example.WorkloadReplayer
+ *
+ * Settings (system properties):
+ * - autotech.replay.threads: concurrent desks (default 8)
+ * - autotech.replay.seconds: measured duration (default 60), after
+ *   autotech.replay.warmupSeconds (default 10) that are not counted
+ * - autotech.replay.thinkMillis: pause between a desk's operations (default 0, as
+ *   fast as possible)
+ * - autotech.replay.seed: makes the operation sequence repeatable (default 42)
+ */
+public class WorkloadReplayer {
+    private static final int THREADS = Integer.getInteger("autotech.replay.threads", 8);
+    private static final int SECONDS = Integer.getInteger("autotech.replay.seconds", 60);
+    private static final int WARMUP_SECONDS = Integer.getInteger("autotech.replay.warmupSeconds", 10);
+    private static final long THINK_MS = Long.getLong("autotech.replay.thinkMillis", 0);
+    private static final long SEED = Long.getLong("autotech.replay.seed", 42);
+    private static final int PAGE_SIZE = 50;
+
+    /**
+     * One kind of request a desk makes
+     */
+    interface Action {
+        void run(Desk desk) throws SQLException;
+    }
+
+    /**
+     * An operation in the mix, with how often it is picked and its latency histogram
+     */
+    static final class Operation {
+        final String name;
+        final int weight;
+        final Action action;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        volatile String firstError;
+
+        Operation(String name, int weight, Action action) {
+            this.name = name;
+            this.weight = weight;
+            this.action = action;
+        }
+    }
+
+    /**
+     * Latencies in buckets that grow by 10%, so percentiles are within 10% at any
+     * scale without keeping every sample
+     */
+    static final class LatencyHistogram {
+        private static final double GROWTH = Math.log(1.1);
+        private static final int BUCKETS = 200; // Up to about three minutes
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMicros = new LongAdder();
+        private volatile long maxMicros;
+
+        void record(long micros) {
+            int bucket = micros <= 1 ? 0 : (int) Math.min(BUCKETS - 1, Math.ceil(Math.log(micros) / GROWTH));
+            counts.incrementAndGet(bucket);
+            count.increment();
+            totalMicros.add(micros);
+            if (micros > maxMicros) {
+                synchronized (this) {
+                    maxMicros = Math.max(maxMicros, micros);
+                }
+            }
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        double meanMillis() {
+            long n = count.sum();
+            return n == 0 ? 0 : totalMicros.sum() / 1000.0 / n;
+        }
+
+        double maxMillis() {
+            return maxMicros / 1000.0;
+        }
+
+        // Upper bound of the bucket holding the given percentile
+        double percentileMillis(double percentile) {
+            long n = count.sum();
+            if (n == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(n * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= target) {
+                    return Math.min(Math.exp(i * GROWTH), maxMicros) / 1000.0;
+                }
+            }
+            return maxMillis();
+        }
+    }
+
+    /**
+     * One simulated front desk, with its own services and random sequence
+     */
+    final class Desk {
+        final Random random;
+        final ServiceBookingService bookings = new ServiceBookingService();
+        final MechanicService mechanics = new MechanicService();
+
+        Desk(long seed) {
+            this.random = new Random(seed);
+        }
+
+        <T> T pick(List<T> values) {
+            return values.get(random.nextInt(values.size()));
+        }
+
+        int pick(int[] values) {
+            return values[random.nextInt(values.length)];
+        }
+    }
+
+    private final List<Operation> operations = new ArrayList<>();
+    private final Operation completeAndBill;
+    private final int totalWeight;
+
+    // Sample data the desks pick from
+    private int[] bookingIds;
+    private int[] mechanicIds;
+    private List<int[]> customerVehicles;
+    private List<String> customerTerms;
+    private List<String> plateTerms;
+    private List<String> partTerms;
+
+    // Bookings made during the run, waiting to be completed and billed
+    private final ConcurrentLinkedQueue<Integer> openJobs = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean measuring;
+    private volatile boolean stopping;
+
+    public WorkloadReplayer() {
+        operations.add(new Operation("search bookings", 20, desk ->
+            desk.bookings.getBookingsPage(0, desk.random.nextBoolean() ? desk.pick(customerTerms) : desk.pick(plateTerms),
+                                          "Active", null, null, PAGE_SIZE)));
+        operations.add(new Operation("booking list page", 10, desk ->
+            desk.bookings.getBookingsPage(0, null, desk.random.nextBoolean() ? "All" : "Active", null, null, PAGE_SIZE)));
+        operations.add(new Operation("open booking", 15, desk -> {
+            int id = desk.pick(bookingIds);
+            desk.bookings.getBookingById(id);
+            desk.bookings.getBookingServices(id);
+            desk.bookings.getBookingParts(id);
+        }));
+        operations.add(new Operation("search customers", 10, desk ->
+            CustomerService.getInstance().searchCustomers(desk.pick(customerTerms))));
+        operations.add(new Operation("customer vehicles", 5, desk ->
+            VehicleService.getInstance().getCustomerVehicles(desk.pick(customerVehicles)[0])));
+        operations.add(new Operation("search inventory", 5, desk ->
+            InventoryService.getInstance().searchItems(desk.pick(partTerms))));
+        operations.add(new Operation("conflict check", 15, desk ->
+            desk.mechanics.hasTimeConflict(desk.pick(mechanicIds),
+                Date.valueOf(LocalDate.now().plusDays(desk.random.nextInt(14))),
+                Time.valueOf(String.format("%02d:%02d:00", 8 + desk.random.nextInt(9), desk.random.nextBoolean() ? 0 : 30)),
+                60)));
+        operations.add(new Operation("create booking", 12, desk -> {
+            int[] pair = desk.pick(customerVehicles);
+            Map<String, String> service = new HashMap<>();
+            service.put("type", "Oil Change");
+            service.put("description", "");
+            int id = desk.bookings.createBookingAndReturnId(pair[0], pair[1], desk.pick(mechanicIds),
+                LocalDate.now().plusDays(desk.random.nextInt(14)),
+                String.format("%02d:%02d", 8 + desk.random.nextInt(9), desk.random.nextBoolean() ? 0 : 30),
+                Collections.singletonList(service), Collections.emptyList());
+            if (id > 0) {
+                openJobs.add(id);
+            }
+        }));
+        completeAndBill = new Operation("complete and bill", 8, desk -> {
+            Integer id = openJobs.poll();
+            if (id != null) {
+                desk.bookings.updateBookingStatus(id, "completed");
+                BillingService.getInstance().createBillFromService(id);
+            }
+        });
+        operations.add(completeAndBill);
+
+        int weight = 0;
+        for (Operation operation : operations) {
+            weight += operation.weight;
+        }
+        totalWeight = weight;
+    }
+
+    public static void main(String[] args) {
+        int exitCode = 0;
+        try {
+            new WorkloadReplayer().run();
+        } catch (Exception e) {
+            System.err.println("✗ Workload replay failed: " + e.getMessage());
+            exitCode = 1;
+        } finally {
+            AppExecutors.shutdown();
+            DatabaseUtil.shutdown();
+        }
+        System.exit(exitCode);
+    }
+
+    public void run() throws SQLException, InterruptedException {
+        loadSamples();
+        System.out.println("Replaying with " + THREADS + " desks for " + WARMUP_SECONDS + "s warm-up + " +
+                           SECONDS + "s (" + bookingIds.length + " sample bookings)");
+
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            Desk desk = new Desk(SEED + i);
+            Thread thread = new Thread(() -> {
+                try {
+                    work(desk);
+                } finally {
+                    done.countDown();
+                }
+            }, "replay-desk-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        Thread.sleep(WARMUP_SECONDS * 1000L);
+        measuring = true;
+        long start = System.nanoTime();
+        Thread.sleep(SECONDS * 1000L);
+        measuring = false;
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        stopping = true;
+        done.await();
+
+        report(elapsed);
+    }
+
+    private void work(Desk desk) {
+        while (!stopping) {
+            Operation operation = next(desk.random);
+            if (operation == completeAndBill && openJobs.isEmpty()) {
+                continue; // Nothing booked yet to complete
+            }
+            long start = System.nanoTime();
+            boolean failed = false;
+            try {
+                operation.action.run(desk);
+            } catch (SQLException | RuntimeException e) {
+                failed = true;
+                if (operation.firstError == null) {
+                    operation.firstError = e.toString();
+                }
+            }
+            if (measuring) {
+                operation.latency.record((System.nanoTime() - start) / 1000);
+                if (failed) {
+                    operation.errors.increment();
+                }
+            }
+            if (THINK_MS > 0) {
+                try {
+                    Thread.sleep(THINK_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private Operation next(Random random) {
+        int roll = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            roll -= operation.weight;
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        return operations.get(0);
+    }
+
+    private void loadSamples() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            bookingIds = ints(conn, "SELECT id FROM service_bookings ORDER BY RAND(1) LIMIT 5000");
+            mechanicIds = ints(conn, "SELECT id FROM mechanics WHERE availability <> 'Off Duty'");
+            customerVehicles = new ArrayList<>();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT customer_id, id FROM vehicles ORDER BY RAND(1) LIMIT 5000")) {
+                while (rs.next()) {
+                    customerVehicles.add(new int[] { rs.getInt(1), rs.getInt(2) });
+                }
+            }
+            // Words and prefixes the way people type them
+            customerTerms = strings(conn, "SELECT DISTINCT SUBSTRING_INDEX(name, ' ', -1) FROM customers LIMIT 200");
+            plateTerms = strings(conn, "SELECT DISTINCT LEFT(plate_number, 3) FROM vehicles LIMIT 200");
+            partTerms = strings(conn, "SELECT DISTINCT SUBSTRING_INDEX(name, ' ', 1) FROM parts LIMIT 200");
+        }
+        if (bookingIds.length == 0 || mechanicIds.length == 0 || customerVehicles.isEmpty()) {
+            throw new SQLException("No bookings, mechanics or vehicles to replay against; run SyntheticDataGenerator first");
+        }
+    }
+
+    private void report(double elapsedSeconds) {
+        long total = 0;
+        long errors = 0;
+        System.out.println();
+        System.out.println(String.format("%-20s %9s %7s %9s %9s %9s %9s %9s %9s",
+                           "operation", "count", "errors", "ops/s", "mean ms", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (Operation operation : operations) {
+            LatencyHistogram h = operation.latency;
+            total += h.count();
+            errors += operation.errors.sum();
+            System.out.println(String.format("%-20s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f",
+                operation.name, h.count(), operation.errors.sum(), h.count() / elapsedSeconds, h.meanMillis(),
+                h.percentileMillis(50), h.percentileMillis(95), h.percentileMillis(99), h.maxMillis()));
+        }
+        System.out.println(String.format("%-20s %9d %7d %9.1f", "total", total, errors, total / elapsedSeconds));
+        for (Operation operation : operations) {
+            if (operation.firstError != null) {
+                System.err.println("✗ " + operation.name + " failed, first error: " + operation.firstError);
+            }
+        }
+        System.out.println(DatabaseUtil.getPoolStatus());
+    }
+
+    private static int[] ints(Connection conn, String sql) throws SQLException {
+        List<Integer> values = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                values.add(rs.getInt(1));
+            }
+        }
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static List<String> strings(Connection conn, String sql) throws SQLException {
+        List<String> values = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                values.add(rs.getString(1));
+            }
+        }
+        if (values.isEmpty()) {
+            values.add("a");
+        }
+        return values;
+    }
+}
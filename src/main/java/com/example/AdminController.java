@@ -27,6 +27,10 @@ public class AdminController {
     
     private ObservableList<User> userList = FXCollections.observableArrayList();
     
+    // Searches run in the background as the user types
+    private final SearchPipeline<List<User>> searchPipeline =
+        new SearchPipeline<>("users", this::showUsers, this::showSearchError);
+    
     @FXML
     public void initialize() {
         System.out.println("Initializing AdminController...");
@@ -60,6 +64,12 @@ public class AdminController {
         
         // Load initial data
         loadUsers();
+        
+        // Search as you type
+        searchField.textProperty().addListener((obs, oldText, newText) -> {
+            String searchTerm = newText.trim();
+            searchPipeline.search(searchTerm, () -> findUsers(searchTerm));
+        });
     }
     
     private void setupActionsColumn() {
@@ -132,6 +142,7 @@ public class AdminController {
             if (success) {
                 // Update the user object locally
                 user.setActive(newStatus);
+                searchPipeline.invalidate();
                 
                 // Refresh the table
                 userTable.refresh();
@@ -167,6 +178,7 @@ public class AdminController {
                     
                     if (success) {
                         // Remove from the observable list
+                        searchPipeline.invalidate();
                         userList.remove(user);
                         
                         showAlert(Alert.AlertType.INFORMATION, 
@@ -190,20 +202,26 @@ public class AdminController {
     @FXML
     private void handleSearchUsers() {
         String searchTerm = searchField.getText().trim();
-        if (searchTerm.isEmpty()) {
-            loadUsers();
-        } else {
-            try {
-                List<User> users = UserService.getInstance().searchUsers(searchTerm);
-                userList.clear();
-                userList.addAll(users);
-            } catch (SQLException e) {
-                e.printStackTrace();
-                showAlert(Alert.AlertType.ERROR, 
-                         "Search Error", 
-                         "Error searching users: " + e.getMessage());
-            }
-        }
+        searchPipeline.searchNow(searchTerm, () -> findUsers(searchTerm));
+    }
+    
+    // Runs on a background thread
+    private List<User> findUsers(String searchTerm) throws SQLException {
+        return searchTerm.isEmpty()
+            ? UserService.getInstance().getAllUsers()
+            : UserService.getInstance().searchUsers(searchTerm);
+    }
+    
+    private void showUsers(List<User> users) {
+        userList.clear();
+        userList.addAll(users);
+    }
+    
+    private void showSearchError(SQLException e) {
+        e.printStackTrace();
+        showAlert(Alert.AlertType.ERROR, 
+                 "Search Error", 
+                 "Error searching users: " + e.getMessage());
     }
     
     @FXML
@@ -296,10 +314,10 @@ public class AdminController {
     }
     
     private void loadUsers() {
+        // Data changed (or a refresh was asked for), so cached search results are out of date
+        searchPipeline.invalidate();
         try {
-            List<User> users = UserService.getInstance().getAllUsers();
-            userList.clear();
-            userList.addAll(users);
+            showUsers(UserService.getInstance().getAllUsers());
         } catch (SQLException e) {
             e.printStackTrace();
             showAlert(Alert.AlertType.ERROR, 
@@ -457,6 +475,7 @@ public class AdminController {
                         stmt.setDouble(1, newCost);
                         stmt.setString(2, cost.getServiceType());
                         stmt.executeUpdate();
+                        LaborRateCatalog.getInstance().invalidate();
                         
                         // Update UI
                         cost.setLaborCost(newCost);
@@ -530,6 +549,7 @@ public class AdminController {
                         stmt.setDouble(2, laborCost);
                         stmt.setDouble(3, laborCost);
                         stmt.executeUpdate();
+                        LaborRateCatalog.getInstance().invalidate();
                         
                         // Reload table
                         loadLaborCostsFromDatabase(list);
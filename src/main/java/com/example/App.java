@@ -13,6 +13,23 @@ public class App extends Application {
 
     private static Scene scene;
 
+    @Override
+    public void init() {
+        // Runs on the launcher thread before any window exists, so a slow migration (or
+        // waiting for another workstation's) never freezes the UI. The services started
+        // below all expect the migrated schema.
+        if (Boolean.parseBoolean(System.getProperty("autotech.db.migrateOnStartup", "true"))) {
+            try {
+                SchemaMigrator.migrate();
+            } catch (Exception e) {
+                System.err.println("Schema migration failed: " + e.getMessage());
+            }
+        }
+        
+        // Parse the email templates now, so a broken one shows up at startup
+        EmailTemplates.preload();
+    }
+
     @Override
     public void start(Stage stage) throws IOException {
         // Load landing page as initial scene
@@ -22,10 +39,24 @@ public class App extends Application {
         stage.centerOnScreen();
         stage.show();
         
+        // Everything below reads the database, so it runs off the JavaFX thread
+        AppExecutors.runInBackground("startup-services", App::startServices);
+    }
+
+    private static void startServices() {
         // Start stock monitoring service
         StockMonitorService.getInstance().startMonitoring();
         System.out.println("Stock monitoring service started.");
         
+        // Start background email delivery (sends anything queued before the last shutdown)
+        EmailOutbox.getInstance().start();
+        
+        // Build the search indexes before anyone searches
+        CustomerService.getInstance().prepareSearch();
+        VehicleService.getInstance().prepareSearch();
+        InventoryService.getInstance().prepareSearch();
+        ServiceBookingService.getSearchIndex().buildInBackground();
+        
         // Check stock and expiration immediately on startup
         System.out.println("Performing initial stock and expiration check...");
         InventoryService.getInstance().checkAndSendLowStockAlert();
@@ -46,8 +77,14 @@ public class App extends Application {
             // Stop stock monitoring
             StockMonitorService.getInstance().stopMonitoring();
             
-            // Clean up database connections
-            DatabaseUtil.closeConnection();
+            // Stop email workers before the pool closes; unsent mail stays queued
+            EmailOutbox.getInstance().shutdown();
+            
+            // Finish or cancel queued background work
+            AppExecutors.shutdown();
+            
+            // Close the database connection pool
+            DatabaseUtil.shutdown();
             System.out.println("Application stopping, resources released.");
         } catch (Exception e) {
             System.err.println("Error during application shutdown: " + e.getMessage());
@@ -0,0 +1,267 @@
+package com.example;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared thread pools for background work, so bursts of activity (e.g. many
+ * bookings reserving parts) queue up on a few threads instead of each starting
+ * its own thread and database connection.
+ *
+ * - background: bounded platform-thread pool for short database tasks. When its
+ *   queue is full new tasks are rejected and counted rather than piling up.
+ * - scheduler: single thread for periodic and delayed tasks.
+ * - io: virtual threads for long blocking I/O loops (email delivery).
+ *
+ * runCoalesced() collapses repeated requests for the same job: while a job is
+ * queued or running, further requests only mark it to run once more afterwards.
+ *
+ * Sizes can be tuned with autotech.executor.* system properties.
+ */
+public final class AppExecutors {
+    private static final int BACKGROUND_THREADS = Integer.getInteger("autotech.executor.backgroundThreads", 2);
+    private static final int BACKGROUND_QUEUE_SIZE = Integer.getInteger("autotech.executor.backgroundQueueSize", 100);
+
+    private static ThreadPoolExecutor background;
+    private static ScheduledThreadPoolExecutor scheduler;
+    private static ExecutorService io;
+    private static boolean shutdown = false;
+
+    // Coalescing key -> true if another run was requested while it was queued/running
+    private static final Map<String, Boolean> coalescing = new HashMap<>();
+
+    private static final LongAdder rejectedCount = new LongAdder();
+    private static final LongAdder coalescedCount = new LongAdder();
+    private static final LongAdder failedCount = new LongAdder();
+
+    private AppExecutors() {
+        // Static utility
+    }
+
+    private static synchronized ThreadPoolExecutor background() {
+        if (shutdown) {
+            throw new RejectedExecutionException("Executors have been shut down");
+        }
+        if (background == null) {
+            background = new ThreadPoolExecutor(
+                BACKGROUND_THREADS, BACKGROUND_THREADS,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(BACKGROUND_QUEUE_SIZE),
+                namedDaemonFactory("autotech-bg"),
+                (task, executor) -> {
+                    rejectedCount.increment();
+                    throw new RejectedExecutionException("Background queue full (" + BACKGROUND_QUEUE_SIZE + " tasks)");
+                });
+            background.allowCoreThreadTimeOut(true);
+        }
+        return background;
+    }
+
+    private static synchronized ScheduledThreadPoolExecutor scheduler() {
+        if (shutdown) {
+            throw new RejectedExecutionException("Executors have been shut down");
+        }
+        if (scheduler == null) {
+            scheduler = new ScheduledThreadPoolExecutor(1, namedDaemonFactory("autotech-scheduler"));
+            scheduler.setRemoveOnCancelPolicy(true);
+        }
+        return scheduler;
+    }
+
+    private static synchronized ExecutorService io() {
+        if (shutdown) {
+            throw new RejectedExecutionException("Executors have been shut down");
+        }
+        if (io == null) {
+            io = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("autotech-io-", 1).factory());
+        }
+        return io;
+    }
+
+    /**
+     * Run a task on the background pool.
+     * @return false if the pool is saturated or shut down and the task was dropped
+     */
+    public static boolean runInBackground(String name, Runnable task) {
+        try {
+            background().execute(guarded(name, task));
+            return true;
+        } catch (RejectedExecutionException e) {
+            System.err.println("Background task '" + name + "' rejected: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Like runInBackground, but the returned Future lets the caller cancel the task
+     * while it is still queued.
+     * @return null if the pool is saturated or shut down and the task was dropped
+     */
+    public static Future<?> submitInBackground(String name, Runnable task) {
+        try {
+            return background().submit(guarded(name, task));
+        } catch (RejectedExecutionException e) {
+            System.err.println("Background task '" + name + "' rejected: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Run a task on the background pool unless the same job is already waiting.
+     * Requests that arrive while the job is running make it run once more when
+     * it finishes, so the last change is always picked up.
+     */
+    public static boolean runCoalesced(String key, Runnable task) {
+        synchronized (coalescing) {
+            if (coalescing.containsKey(key)) {
+                coalescing.put(key, true);
+                coalescedCount.increment();
+                return true;
+            }
+            coalescing.put(key, false);
+        }
+        return submitCoalesced(key, task);
+    }
+
+    private static boolean submitCoalesced(String key, Runnable task) {
+        boolean accepted = runInBackground(key, () -> {
+            try {
+                task.run();
+            } finally {
+                boolean rerun;
+                synchronized (coalescing) {
+                    rerun = Boolean.TRUE.equals(coalescing.remove(key));
+                    if (rerun) {
+                        coalescing.put(key, false);
+                    }
+                }
+                if (rerun) {
+                    submitCoalesced(key, task);
+                }
+            }
+        });
+
+        if (!accepted) {
+            synchronized (coalescing) {
+                coalescing.remove(key);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Run a task once after a delay
+     */
+    public static ScheduledFuture<?> schedule(String name, Runnable task, long delay, TimeUnit unit) {
+        return scheduler().schedule(guarded(name, task), delay, unit);
+    }
+
+    /**
+     * Run a task periodically; a failing run is logged and does not cancel later runs
+     */
+    public static ScheduledFuture<?> scheduleAtFixedRate(String name, Runnable task, long initialDelay,
+                                                         long period, TimeUnit unit) {
+        return scheduler().scheduleAtFixedRate(guarded(name, task), initialDelay, period, unit);
+    }
+
+    /**
+     * Start a long-running blocking loop on its own virtual thread
+     */
+    public static Future<?> runIo(String name, Runnable task) {
+        return io().submit(guarded(name, task));
+    }
+
+    /**
+     * Stop accepting work, let queued tasks finish for a few seconds, then interrupt the rest
+     */
+    public static void shutdown() {
+        ExecutorService[] executors;
+        synchronized (AppExecutors.class) {
+            if (shutdown) {
+                return;
+            }
+            shutdown = true;
+            executors = new ExecutorService[] { scheduler, background, io };
+        }
+
+        for (ExecutorService executor : executors) {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+        for (ExecutorService executor : executors) {
+            if (executor == null) {
+                continue;
+            }
+            try {
+                if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        System.out.println("Executors stopped: " + getStats());
+    }
+
+    // ===== Metrics =====
+
+    /**
+     * Tasks waiting in the background queue
+     */
+    public static synchronized int getBackgroundQueueDepth() {
+        return background != null ? background.getQueue().size() : 0;
+    }
+
+    public static synchronized int getBackgroundActiveCount() {
+        return background != null ? background.getActiveCount() : 0;
+    }
+
+    public static synchronized long getBackgroundCompletedCount() {
+        return background != null ? background.getCompletedTaskCount() : 0;
+    }
+
+    /**
+     * Scheduled tasks waiting for their next run
+     */
+    public static synchronized int getScheduledQueueDepth() {
+        return scheduler != null ? scheduler.getQueue().size() : 0;
+    }
+
+    public static long getRejectedCount() { return rejectedCount.sum(); }
+    public static long getCoalescedCount() { return coalescedCount.sum(); }
+    public static long getFailedCount() { return failedCount.sum(); }
+
+    public static String getStats() {
+        return String.format("background[queued=%d, active=%d, completed=%d], scheduled=%d, " +
+                             "rejected=%d, coalesced=%d, failed=%d",
+            getBackgroundQueueDepth(), getBackgroundActiveCount(), getBackgroundCompletedCount(),
+            getScheduledQueueDepth(), getRejectedCount(), getCoalescedCount(), getFailedCount());
+    }
+
+    // Log failures here; an exception escaping a pooled task would otherwise vanish silently
+    private static Runnable guarded(String name, Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                failedCount.increment();
+                System.err.println("Background task '" + name + "' failed: " + t);
+                t.printStackTrace();
+            }
+        };
+    }
+
+    private static ThreadFactory namedDaemonFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger(1);
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
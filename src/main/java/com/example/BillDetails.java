@@ -0,0 +1,216 @@
+package com.example;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything shown about a bill on its receipt and notification email: the bill,
+ * customer, vehicle, mechanic and the booking's services and parts.
+ *
+ * loadAll reads any number of bills in two queries per chunk on one connection;
+ * ReceiptRenderer and EmailTemplates.BillNotification both build on it.
+ */
+public class BillDetails {
+    // Bills per IN list
+    private static final int CHUNK_SIZE = 500;
+
+    private int billId;
+    private String billHexId;
+    private LocalDate billDate;
+    private double amount;
+    private String paymentStatus;
+    private String paymentMethod;
+    private String customerName;
+    private String customerEmail;
+    private int bookingId;
+    private String bookingHexId;
+    private LocalDate serviceDate;
+    private String serviceDescription;
+    private String vehicleInfo;
+    private String mechanicName;
+    private final List<String> services = new ArrayList<>();
+    private final List<BookingPart> parts = new ArrayList<>();
+    // XOR of the line IDs, to tell when a booking's lines changed
+    private long serviceXor;
+    private long partXor;
+
+    private BillDetails() {
+        // Built by loadAll
+    }
+
+    public int getBillId() { return billId; }
+    public String getBillHexId() { return billHexId; }
+    public LocalDate getBillDate() { return billDate; }
+    public double getAmount() { return amount; }
+    public String getPaymentStatus() { return paymentStatus; }
+    public String getPaymentMethod() { return paymentMethod; }
+    public String getCustomerName() { return customerName; }
+    public String getCustomerEmail() { return customerEmail; }
+    public int getBookingId() { return bookingId; }
+    public String getBookingHexId() { return bookingHexId; }
+    public LocalDate getServiceDate() { return serviceDate; }
+    public String getServiceDescription() { return serviceDescription; }
+    public String getVehicleInfo() { return vehicleInfo; }
+    public String getMechanicName() { return mechanicName; }
+    // Service types of the booking, in entry order
+    public List<String> getServices() { return Collections.unmodifiableList(services); }
+    // Parts used on the booking, in entry order
+    public List<BookingPart> getParts() { return Collections.unmodifiableList(parts); }
+
+    /**
+     * Identifies the booking's current services and parts. Lines are only ever added
+     * or deleted, so their count and the XOR of their IDs change with any edit.
+     */
+    public String getLinesVersion() {
+        return linesVersion(services.size(), serviceXor, parts.size(), partXor);
+    }
+
+    private static String linesVersion(int services, long serviceXor, int parts, long partXor) {
+        return services + ":" + serviceXor + "/" + parts + ":" + partXor;
+    }
+
+    public double getPartsTotal() {
+        double total = 0;
+        for (BookingPart part : parts) {
+            total += part.getTotalCost();
+        }
+        return total;
+    }
+
+    /**
+     * Details of the given bills, keyed by bill ID; bills that no longer exist are left out
+     */
+    public static Map<Integer, BillDetails> loadAll(Collection<Integer> billIds) throws SQLException {
+        Map<Integer, BillDetails> details = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(billIds);
+        if (ids.isEmpty()) {
+            return details;
+        }
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+                String in = String.join(",", Collections.nCopies(chunk.size(), "?"));
+
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT b.id, b.hex_id, b.bill_date, b.amount, b.payment_status, b.payment_method, " +
+                        "c.name AS customer_name, c.email, sb.id AS booking_id, sb.hex_id AS booking_hex_id, " +
+                        "sb.booking_date, " +
+                        "(SELECT MAX(bs.service_description) FROM booking_services bs " +
+                        " WHERE bs.booking_id = sb.id) AS service_description, " +
+                        "CONCAT(v.brand, ' ', v.model, ' (', v.plate_number, ')') AS vehicle_info, " +
+                        "u.username AS mechanic_name " +
+                        "FROM billing b " +
+                        "JOIN customers c ON b.customer_id = c.id " +
+                        "JOIN service_bookings sb ON b.service_id = sb.id " +
+                        "JOIN vehicles v ON sb.vehicle_id = v.id " +
+                        "LEFT JOIN mechanics m ON sb.mechanic_id = m.id " +
+                        "LEFT JOIN users u ON m.user_id = u.id " +
+                        "WHERE b.id IN (" + in + ")")) {
+                    bind(stmt, chunk, 0);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            BillDetails bill = new BillDetails();
+                            bill.billId = rs.getInt("id");
+                            bill.billHexId = rs.getString("hex_id");
+                            bill.billDate = rs.getDate("bill_date").toLocalDate();
+                            bill.amount = rs.getDouble("amount");
+                            bill.paymentStatus = rs.getString("payment_status");
+                            bill.paymentMethod = rs.getString("payment_method");
+                            bill.customerName = rs.getString("customer_name");
+                            bill.customerEmail = rs.getString("email");
+                            bill.bookingId = rs.getInt("booking_id");
+                            bill.bookingHexId = rs.getString("booking_hex_id");
+                            bill.serviceDate = rs.getDate("booking_date").toLocalDate();
+                            bill.serviceDescription = rs.getString("service_description");
+                            bill.vehicleInfo = rs.getString("vehicle_info");
+                            bill.mechanicName = rs.getString("mechanic_name");
+                            details.put(bill.billId, bill);
+                        }
+                    }
+                }
+
+                // Services and parts of every booking in the chunk, in entry order
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT b.id AS bill_id, 0 AS kind, bs.id AS line_id, bs.service_type AS name, " +
+                        "0 AS part_id, 0 AS quantity, 0 AS price " +
+                        "FROM booking_services bs JOIN billing b ON b.service_id = bs.booking_id " +
+                        "WHERE b.id IN (" + in + ") " +
+                        "UNION ALL " +
+                        "SELECT b.id, 1, bp.id, p.name, bp.part_id, bp.quantity, bp.price_at_time " +
+                        "FROM booking_parts bp JOIN parts p ON bp.part_id = p.id " +
+                        "JOIN billing b ON b.service_id = bp.booking_id " +
+                        "WHERE b.id IN (" + in + ") " +
+                        "ORDER BY bill_id, kind, line_id")) {
+                    bind(stmt, chunk, 0);
+                    bind(stmt, chunk, chunk.size());
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            BillDetails bill = details.get(rs.getInt("bill_id"));
+                            if (bill == null) {
+                                continue;
+                            }
+                            if (rs.getInt("kind") == 0) {
+                                bill.services.add(rs.getString("name"));
+                                bill.serviceXor ^= rs.getInt("line_id");
+                            } else {
+                                BookingPart part = new BookingPart(bill.bookingId, rs.getInt("part_id"),
+                                    rs.getString("name"), rs.getInt("quantity"), rs.getDouble("price"));
+                                part.setId(rs.getInt("line_id"));
+                                bill.parts.add(part);
+                                bill.partXor ^= part.getId();
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return details;
+    }
+
+    /**
+     * Current lines version of each of the given bills, keyed by bill ID. Much cheaper
+     * than loadAll; used to check that already loaded details are still complete.
+     */
+    public static Map<Integer, String> loadLinesVersions(Collection<Integer> billIds) throws SQLException {
+        Map<Integer, String> versions = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(billIds);
+        if (ids.isEmpty()) {
+            return versions;
+        }
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+                String in = String.join(",", Collections.nCopies(chunk.size(), "?"));
+
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT b.id, " +
+                        "(SELECT COUNT(*) FROM booking_services bs WHERE bs.booking_id = b.service_id) AS services, " +
+                        "(SELECT BIT_XOR(bs.id) FROM booking_services bs WHERE bs.booking_id = b.service_id) AS service_xor, " +
+                        "(SELECT COUNT(*) FROM booking_parts bp WHERE bp.booking_id = b.service_id) AS parts, " +
+                        "(SELECT BIT_XOR(bp.id) FROM booking_parts bp WHERE bp.booking_id = b.service_id) AS part_xor " +
+                        "FROM billing b WHERE b.id IN (" + in + ")")) {
+                    bind(stmt, chunk, 0);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            versions.put(rs.getInt("id"), linesVersion(rs.getInt("services"), rs.getLong("service_xor"),
+                                                                       rs.getInt("parts"), rs.getLong("part_xor")));
+                        }
+                    }
+                }
+            }
+        }
+        return versions;
+    }
+
+    private static void bind(PreparedStatement stmt, List<Integer> ids, int offset) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            stmt.setInt(offset + i + 1, ids.get(i));
+        }
+    }
+}
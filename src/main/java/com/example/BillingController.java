@@ -14,7 +14,10 @@ import javafx.scene.layout.Region;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.print.PrinterJob;
+import javafx.stage.DirectoryChooser;
 
+import java.io.File;
+import java.io.IOException;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -752,9 +755,8 @@ public class BillingController {
     
     private void printReceipt(Bill bill) {
         try {
-            // Fetch booking details for receipt
-            ServiceBookingService bookingService = new ServiceBookingService();
-            ServiceBookingViewModel booking = bookingService.getBookingById(bill.getServiceId());
+            // Everything on the receipt, loaded in one go and reused by print and email
+            ReceiptRenderer.Receipt receipt = ReceiptRenderer.getInstance().getReceipt(bill);
             
             // Create a dialog to display the receipt
             Dialog<Void> dialog = new Dialog<>();
@@ -804,9 +806,9 @@ public class BillingController {
             
             // Receipt date and time
             HBox dateBox = new HBox(50);
-            Label dateLabel = new Label("Date: " + bill.getBillDate());
+            Label dateLabel = new Label("Date: " + receipt.getBillDate());
             dateLabel.setStyle("-fx-font-size: 11px;");
-            Label timeLabel = new Label("Time: " + java.time.LocalTime.now().format(java.time.format.DateTimeFormatter.ofPattern("HH:mm:ss")));
+            Label timeLabel = new Label("Time: " + receipt.getIssuedTime());
             timeLabel.setStyle("-fx-font-size: 11px;");
             dateBox.getChildren().addAll(dateLabel, timeLabel);
             contentBox.getChildren().add(dateBox);
@@ -835,12 +837,12 @@ public class BillingController {
             customerTitleLabel.setStyle("-fx-font-size: 12px; -fx-font-weight: bold; -fx-text-fill: #1976D2;");
             infoGrid.add(customerTitleLabel, 0, 0);
             
-            Label customerNameLabel = new Label(bill.getCustomerName());
+            Label customerNameLabel = new Label(receipt.getCustomerName());
             customerNameLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 12px;");
             customerNameLabel.setWrapText(true);
             infoGrid.add(customerNameLabel, 0, 1);
             
-            Label vehicleLabel = new Label(bill.getVehicleInfo());
+            Label vehicleLabel = new Label(receipt.getVehicleInfo());
             vehicleLabel.setStyle("-fx-font-size: 11px;");
             vehicleLabel.setWrapText(true);
             infoGrid.add(vehicleLabel, 0, 2);
@@ -850,27 +852,19 @@ public class BillingController {
             serviceTitleLabel.setStyle("-fx-font-size: 12px; -fx-font-weight: bold; -fx-text-fill: #1976D2;");
             infoGrid.add(serviceTitleLabel, 1, 0);
             
-            if (booking != null) {
-                // Get services from database instead of using deprecated getServiceType()
-                try {
-                    List<java.util.Map<String, String>> services = bookingService.getBookingServices(booking.getId());
-                    if (!services.isEmpty()) {
-                        VBox servicesBox = new VBox(3);
-                        for (java.util.Map<String, String> service : services) {
-                            Label serviceLabel = new Label("• " + service.get("type"));
-                            serviceLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 11px;");
-                            serviceLabel.setWrapText(true);
-                            servicesBox.getChildren().add(serviceLabel);
-                        }
-                        infoGrid.add(servicesBox, 1, 1);
-                    }
-                } catch (Exception e) {
-                    Label serviceTypeLabel = new Label("Service details unavailable");
-                    serviceTypeLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 11px;");
-                    infoGrid.add(serviceTypeLabel, 1, 1);
+            if (!receipt.getServices().isEmpty()) {
+                VBox servicesBox = new VBox(3);
+                for (String service : receipt.getServices()) {
+                    Label serviceLabel = new Label("• " + service);
+                    serviceLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 11px;");
+                    serviceLabel.setWrapText(true);
+                    servicesBox.getChildren().add(serviceLabel);
                 }
-                
-                Label mechanicLabel = new Label("Mechanic: " + booking.getMechanic().getName());
+                infoGrid.add(servicesBox, 1, 1);
+            }
+            
+            if (receipt.getMechanicName() != null) {
+                Label mechanicLabel = new Label("Mechanic: " + receipt.getMechanicName());
                 mechanicLabel.setStyle("-fx-font-size: 10px;");
                 mechanicLabel.setWrapText(true);
                 infoGrid.add(mechanicLabel, 1, 2);
@@ -900,23 +894,23 @@ public class BillingController {
             Label amountTitleLabel = new Label("Amount:");
             amountTitleLabel.setStyle("-fx-font-weight: bold;");
             billingGrid.add(amountTitleLabel, 0, billingRow);
-            Label amountValueLabel = new Label("₱" + String.format("%.2f", bill.getAmount()));
+            Label amountValueLabel = new Label("₱" + String.format("%.2f", receipt.getAmount()));
             amountValueLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px; -fx-text-fill: #1B5E20;");
             billingGrid.add(amountValueLabel, 1, billingRow++);
             
             Label statusTitleLabel = new Label("Payment Status:");
             statusTitleLabel.setStyle("-fx-font-weight: bold;");
             billingGrid.add(statusTitleLabel, 0, billingRow);
-            Label statusValueLabel = new Label(bill.getPaymentStatus());
+            Label statusValueLabel = new Label(receipt.getPaymentStatus());
             statusValueLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 11px; -fx-text-fill: green;");
             billingGrid.add(statusValueLabel, 1, billingRow++);
             
             // Payment method if available
-            if (bill.getPaymentMethod() != null && !bill.getPaymentMethod().isEmpty()) {
+            if (receipt.getPaymentMethod() != null && !receipt.getPaymentMethod().isEmpty()) {
                 Label methodTitleLabel = new Label("Payment Method:");
                 methodTitleLabel.setStyle("-fx-font-weight: bold;");
                 billingGrid.add(methodTitleLabel, 0, billingRow);
-                Label methodValueLabel = new Label(bill.getPaymentMethod());
+                Label methodValueLabel = new Label(receipt.getPaymentMethod());
                 methodValueLabel.setStyle("-fx-font-size: 11px;");
                 billingGrid.add(methodValueLabel, 1, billingRow++);
             }
@@ -925,66 +919,62 @@ public class BillingController {
             contentBox.getChildren().add(new Label(" "));
             
             // === PARTS & MATERIALS (if any) ===
-            try {
-                List<BookingPart> parts = bookingService.getBookingParts(booking.getId());
-                if (!parts.isEmpty()) {
-                    Label partsHeaderLabel = new Label("PARTS & MATERIALS USED:");
-                    partsHeaderLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 11px; -fx-text-fill: #1976D2;");
-                    contentBox.getChildren().add(partsHeaderLabel);
-                    
-                    GridPane partsGrid = new GridPane();
-                    partsGrid.setHgap(15);
-                    partsGrid.setVgap(5);
-                    partsGrid.setPadding(new Insets(5, 0, 0, 0));
-                    
-                    // Header row
-                    Label partNameHeader = new Label("Part");
-                    partNameHeader.setStyle("-fx-font-weight: bold; -fx-font-size: 10px;");
-                    Label qtyHeader = new Label("Qty");
-                    qtyHeader.setStyle("-fx-font-weight: bold; -fx-font-size: 10px;");
-                    Label priceHeader = new Label("Unit Price");
-                    priceHeader.setStyle("-fx-font-weight: bold; -fx-font-size: 10px;");
-                    Label subtotalHeader = new Label("Subtotal");
-                    subtotalHeader.setStyle("-fx-font-weight: bold; -fx-font-size: 10px;");
+            List<BookingPart> parts = receipt.getParts();
+            if (!parts.isEmpty()) {
+                Label partsHeaderLabel = new Label("PARTS & MATERIALS USED:");
+                partsHeaderLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 11px; -fx-text-fill: #1976D2;");
+                contentBox.getChildren().add(partsHeaderLabel);
+                
+                GridPane partsGrid = new GridPane();
+                partsGrid.setHgap(15);
+                partsGrid.setVgap(5);
+                partsGrid.setPadding(new Insets(5, 0, 0, 0));
+                
+                // Header row
+                Label partNameHeader = new Label("Part");
+                partNameHeader.setStyle("-fx-font-weight: bold; -fx-font-size: 10px;");
+                Label qtyHeader = new Label("Qty");
+                qtyHeader.setStyle("-fx-font-weight: bold; -fx-font-size: 10px;");
+                Label priceHeader = new Label("Unit Price");
+                priceHeader.setStyle("-fx-font-weight: bold; -fx-font-size: 10px;");
+                Label subtotalHeader = new Label("Subtotal");
+                subtotalHeader.setStyle("-fx-font-weight: bold; -fx-font-size: 10px;");
+                
+                partsGrid.add(partNameHeader, 0, 0);
+                partsGrid.add(qtyHeader, 1, 0);
+                partsGrid.add(priceHeader, 2, 0);
+                partsGrid.add(subtotalHeader, 3, 0);
+                
+                int partRow = 1;
+                double totalPartsCost = 0;
+                for (BookingPart part : parts) {
+                    Label partNameLabel = new Label(part.getPartName());
+                    partNameLabel.setStyle("-fx-font-size: 10px;");
+                    partsGrid.add(partNameLabel, 0, partRow);
                     
-                    partsGrid.add(partNameHeader, 0, 0);
-                    partsGrid.add(qtyHeader, 1, 0);
-                    partsGrid.add(priceHeader, 2, 0);
-                    partsGrid.add(subtotalHeader, 3, 0);
+                    Label qtyLabel = new Label(String.valueOf(part.getQuantity()));
+                    qtyLabel.setStyle("-fx-font-size: 10px; -fx-alignment: center;");
+                    partsGrid.add(qtyLabel, 1, partRow);
                     
-                    int partRow = 1;
-                    double totalPartsCost = 0;
-                    for (BookingPart part : parts) {
-                        Label partNameLabel = new Label(part.getPartName());
-                        partNameLabel.setStyle("-fx-font-size: 10px;");
-                        partsGrid.add(partNameLabel, 0, partRow);
-                        
-                        Label qtyLabel = new Label(String.valueOf(part.getQuantity()));
-                        qtyLabel.setStyle("-fx-font-size: 10px; -fx-alignment: center;");
-                        partsGrid.add(qtyLabel, 1, partRow);
-                        
-                        Label priceLabel = new Label("₱" + String.format("%.2f", part.getPrice()));
-                        priceLabel.setStyle("-fx-font-size: 10px; -fx-alignment: center-right;");
-                        partsGrid.add(priceLabel, 2, partRow);
-                        
-                        double subtotal = part.getTotalCost();
-                        totalPartsCost += subtotal;
-                        Label subtotalLabel = new Label("₱" + String.format("%.2f", subtotal));
-                        subtotalLabel.setStyle("-fx-font-size: 10px; -fx-font-weight: bold; -fx-alignment: center-right;");
-                        partsGrid.add(subtotalLabel, 3, partRow);
-                        
-                        partRow++;
-                    }
+                    Label priceLabel = new Label("₱" + String.format("%.2f", part.getPrice()));
+                    priceLabel.setStyle("-fx-font-size: 10px; -fx-alignment: center-right;");
+                    partsGrid.add(priceLabel, 2, partRow);
                     
-                    contentBox.getChildren().add(partsGrid);
+                    double subtotal = part.getTotalCost();
+                    totalPartsCost += subtotal;
+                    Label subtotalLabel = new Label("₱" + String.format("%.2f", subtotal));
+                    subtotalLabel.setStyle("-fx-font-size: 10px; -fx-font-weight: bold; -fx-alignment: center-right;");
+                    partsGrid.add(subtotalLabel, 3, partRow);
                     
-                    Label totalPartsLabel = new Label("Total Parts: ₱" + String.format("%.2f", totalPartsCost));
-                    totalPartsLabel.setStyle("-fx-font-size: 11px; -fx-font-weight: bold; -fx-padding: 5 0 0 0;");
-                    contentBox.getChildren().add(totalPartsLabel);
-                    contentBox.getChildren().add(new Label(" "));
+                    partRow++;
                 }
-            } catch (SQLException e) {
-                System.err.println("Error loading parts: " + e.getMessage());
+                
+                contentBox.getChildren().add(partsGrid);
+                
+                Label totalPartsLabel = new Label("Total Parts: ₱" + String.format("%.2f", totalPartsCost));
+                totalPartsLabel.setStyle("-fx-font-size: 11px; -fx-font-weight: bold; -fx-padding: 5 0 0 0;");
+                contentBox.getChildren().add(totalPartsLabel);
+                contentBox.getChildren().add(new Label(" "));
             }
             
             // === SEPARATOR ===
@@ -1000,7 +990,7 @@ public class BillingController {
             Label totalLabelText = new Label("TOTAL AMOUNT DUE");
             totalLabelText.setStyle("-fx-font-size: 12px; -fx-font-weight: bold; -fx-text-fill: #2E7D32;");
             
-            Label totalAmount = new Label("₱" + String.format("%.2f", bill.getAmount()));
+            Label totalAmount = new Label("₱" + String.format("%.2f", receipt.getAmount()));
             totalAmount.setStyle("-fx-font-size: 28px; -fx-font-weight: bold; -fx-text-fill: #1B5E20;");
             
             totalBox.getChildren().addAll(totalLabelText, totalAmount);
@@ -1038,13 +1028,13 @@ public class BillingController {
             dialog.setOnShown(e -> {
                 Button printBtn = (Button) dialog.getDialogPane().lookupButton(printButton);
                 printBtn.setOnAction(event -> {
-                    printReceiptToPrinter(bill, booking, contentBox);
+                    printReceiptToPrinter(bill, contentBox);
                     dialog.close();
                 });
                 
                 Button emailBtn = (Button) dialog.getDialogPane().lookupButton(emailButton);
                 emailBtn.setOnAction(event -> {
-                    sendReceiptEmail(bill, booking);
+                    sendReceiptEmail(bill, receipt);
                     dialog.close();
                 });
             });
@@ -1057,7 +1047,7 @@ public class BillingController {
         }
     }
     
-    private void printReceiptToPrinter(Bill bill, ServiceBookingViewModel booking, VBox receiptContent) {
+    private void printReceiptToPrinter(Bill bill, VBox receiptContent) {
         try {
             PrinterJob printerJob = PrinterJob.createPrinterJob();
             if (printerJob != null && printerJob.showPrintDialog(null)) {
@@ -1079,7 +1069,7 @@ public class BillingController {
         }
     }
     
-    private void sendReceiptEmail(Bill bill, ServiceBookingViewModel booking) {
+    private void sendReceiptEmail(Bill bill, ReceiptRenderer.Receipt receipt) {
         try {
             // Get customer email
             Customer customer = CustomerService.getInstance().getCustomerById(bill.getCustomerId());
@@ -1089,139 +1079,21 @@ public class BillingController {
                 return;
             }
             
-            ServiceBookingService bookingService = new ServiceBookingService();
-            
-            // Build receipt HTML
-            StringBuilder htmlContent = new StringBuilder();
-            htmlContent.append("<html><body style='font-family: Arial, sans-serif; background-color: #f5f5f5;'>");
-            htmlContent.append("<div style='max-width: 600px; margin: 20px auto; background-color: white; border: 1px solid #ddd;'>");
-            
-            // Header
-            htmlContent.append("<div style='background-color: #1976D2; color: white; padding: 20px; text-align: center;'>");
-            htmlContent.append("<h1 style='margin: 0; font-size: 24px;'>AUTOTECH SERVICE CENTER</h1>");
-            htmlContent.append("<p style='margin: 5px 0 0 0; font-size: 12px;'>Professional Vehicle Maintenance & Repair</p>");
-            htmlContent.append("</div>");
-            
-            // Content
-            htmlContent.append("<div style='padding: 20px;'>");
-            
-            // Receipt title
-            htmlContent.append("<div style='display: flex; justify-content: space-between; margin-bottom: 20px;'>");
-            htmlContent.append("<h2 style='margin: 0; color: #333;'>RECEIPT</h2>");
-            htmlContent.append("<p style='margin: 0; font-weight: bold;'>Receipt #: ").append(bill.getHexId()).append("</p>");
-            htmlContent.append("</div>");
-            
-            // Date and time
-            htmlContent.append("<p style='margin: 5px 0; font-size: 12px; color: #666;'>");
-            htmlContent.append("Date: ").append(bill.getBillDate()).append(" | Time: ");
-            htmlContent.append(java.time.LocalTime.now().format(java.time.format.DateTimeFormatter.ofPattern("HH:mm:ss")));
-            htmlContent.append("</p>");
-            
-            htmlContent.append("<hr style='border: none; border-top: 1px solid #ddd; margin: 15px 0'>");
-            
-            // Customer and service info
-            htmlContent.append("<table style='width: 100%; margin-bottom: 15px;'>");
-            htmlContent.append("<tr>");
-            htmlContent.append("<td style='vertical-align: top; width: 50%;'>");
-            htmlContent.append("<p style='margin: 0 0 5px 0; font-weight: bold; color: #1976D2;'>CUSTOMER INFORMATION</p>");
-            htmlContent.append("<p style='margin: 5px 0; font-weight: bold;'>").append(bill.getCustomerName()).append("</p>");
-            htmlContent.append("<p style='margin: 5px 0; font-size: 12px;'>").append(bill.getVehicleInfo()).append("</p>");
-            htmlContent.append("</td>");
-            htmlContent.append("<td style='vertical-align: top; width: 50%;'>");
-            htmlContent.append("<p style='margin: 0 0 5px 0; font-weight: bold; color: #1976D2;'>SERVICE DETAILS</p>");
-            
-            // Get and display services
-            if (booking != null) {
-                try {
-                    List<java.util.Map<String, String>> services = bookingService.getBookingServices(booking.getId());
-                    if (!services.isEmpty()) {
-                        VBox servicesBox = new VBox(3);
-                        for (java.util.Map<String, String> service : services) {
-                            htmlContent.append("<p style='margin: 5px 0; font-weight: bold;'>• ").append(service.get("type")).append("</p>");
-                        }
-                    }
-                    htmlContent.append("<p style='margin: 5px 0; font-size: 12px;'>Mechanic: ").append(booking.getMechanic().getName()).append("</p>");
-                } catch (Exception e) {
-                    htmlContent.append("<p style='margin: 5px 0;'>Service details unavailable</p>");
-                }
-            }
-            htmlContent.append("</td>");
-            htmlContent.append("</tr>");
-            htmlContent.append("</table>");
-            
-            htmlContent.append("<hr style='border: none; border-top: 1px solid #ddd; margin: 15px 0'>");
-            
-            // Billing details
-            htmlContent.append("<table style='width: 100%; margin-bottom: 15px; font-size: 13px;'>");
-            htmlContent.append("<tr><td style='font-weight: bold;'>Bill ID:</td><td>").append(bill.getHexId()).append("</td></tr>");
-            htmlContent.append("<tr><td style='font-weight: bold;'>Amount:</td><td style='font-weight: bold; color: #1B5E20;'>₱").append(String.format("%.2f", bill.getAmount())).append("</td></tr>");
-            htmlContent.append("<tr><td style='font-weight: bold;'>Payment Status:</td><td style='color: green;'>").append(bill.getPaymentStatus()).append("</td></tr>");
-            if (bill.getPaymentMethod() != null && !bill.getPaymentMethod().isEmpty()) {
-                htmlContent.append("<tr><td style='font-weight: bold;'>Payment Method:</td><td>").append(bill.getPaymentMethod()).append("</td></tr>");
-            }
-            htmlContent.append("</table>");
-            
-            // Parts (if any)
-            try {
-                List<BookingPart> parts = bookingService.getBookingParts(booking.getId());
-                if (!parts.isEmpty()) {
-                    htmlContent.append("<div style='margin-bottom: 15px;'>");
-                    htmlContent.append("<p style='margin: 0 0 10px 0; font-weight: bold; color: #1976D2;'>PARTS & MATERIALS USED</p>");
-                    htmlContent.append("<table style='width: 100%; border-collapse: collapse; font-size: 12px;'>");
-                    htmlContent.append("<tr style='background-color: #f0f0f0;'>");
-                    htmlContent.append("<th style='text-align: left; padding: 8px; border: 1px solid #ddd;'>Part</th>");
-                    htmlContent.append("<th style='text-align: center; padding: 8px; border: 1px solid #ddd;'>Qty</th>");
-                    htmlContent.append("<th style='text-align: right; padding: 8px; border: 1px solid #ddd;'>Unit Price</th>");
-                    htmlContent.append("<th style='text-align: right; padding: 8px; border: 1px solid #ddd;'>Subtotal</th>");
-                    htmlContent.append("</tr>");
-                    
-                    double totalPartsCost = 0;
-                    for (BookingPart part : parts) {
-                        htmlContent.append("<tr>");
-                        htmlContent.append("<td style='padding: 8px; border: 1px solid #ddd;'>").append(part.getPartName()).append("</td>");
-                        htmlContent.append("<td style='text-align: center; padding: 8px; border: 1px solid #ddd;'>").append(part.getQuantity()).append("</td>");
-                        htmlContent.append("<td style='text-align: right; padding: 8px; border: 1px solid #ddd;'>₱").append(String.format("%.2f", part.getPrice())).append("</td>");
-                        htmlContent.append("<td style='text-align: right; padding: 8px; border: 1px solid #ddd; font-weight: bold;'>₱").append(String.format("%.2f", part.getTotalCost())).append("</td>");
-                        htmlContent.append("</tr>");
-                        totalPartsCost += part.getTotalCost();
-                    }
-                    
-                    htmlContent.append("</table>");
-                    htmlContent.append("<p style='margin: 10px 0 0 0; text-align: right; font-weight: bold;'>Total Parts: ₱").append(String.format("%.2f", totalPartsCost)).append("</p>");
-                    htmlContent.append("</div>");
-                }
-            } catch (SQLException e) {
-                System.err.println("Error loading parts: " + e.getMessage());
-            }
-            
-            htmlContent.append("<hr style='border: none; border-top: 2px solid #ddd; margin: 15px 0'>");
-            
-            // Total amount
-            htmlContent.append("<div style='background-color: #E8F5E9; padding: 15px; text-align: center; border: 2px solid #4CAF50; margin-bottom: 15px;'>");
-            htmlContent.append("<p style='margin: 0 0 10px 0; font-weight: bold; color: #2E7D32;'>TOTAL AMOUNT DUE</p>");
-            htmlContent.append("<p style='margin: 0; font-size: 24px; font-weight: bold; color: #1B5E20;'>₱").append(String.format("%.2f", bill.getAmount())).append("</p>");
-            htmlContent.append("</div>");
-            
-            // Footer
-            htmlContent.append("<p style='margin: 15px 0 5px 0; font-size: 12px; color: #666; text-align: center; font-style: italic;'>Thank you for choosing AutoTech!</p>");
-            htmlContent.append("<p style='margin: 0; font-size: 11px; color: #999; text-align: center;'>For inquiries: admin@autotech.com</p>");
-            
-            htmlContent.append("</div>");
-            htmlContent.append("</div></body></html>");
-            
-            // Send email
+            // Queue email; the outbox sends it in the background and logs the result to email history
             EmailService emailService = EmailService.getInstance();
-            boolean emailSent = emailService.sendReceiptEmail(customer.getEmail(), bill.getHexId(), bill.getCustomerName(), 
-                                        "₱" + String.format("%.2f", bill.getAmount()), htmlContent.toString());
+            boolean emailQueued = emailService.sendReceiptEmail(bill.getId(), customer.getEmail(), bill.getHexId(), bill.getCustomerName(), 
+                                        "₱" + String.format("%.2f", receipt.getAmount()), receipt.getHtml());
             
-            // Log email to database
-            EmailHistoryService.logEmailSent(bill.getId(), customer.getEmail(), "Receipt", 
-                                            "Receipt #" + bill.getHexId() + " - Service Receipt", 
-                                            emailSent ? "sent" : "failed", null);
+            if (!emailQueued) {
+                statusLabel.setText("Failed to email receipt to " + customer.getEmail());
+                showAlert(Alert.AlertType.ERROR, "Email Error", 
+                         "Receipt could not be sent to " + customer.getEmail() + ". Please try again later.");
+                return;
+            }
             
-            statusLabel.setText("Receipt emailed successfully to " + customer.getEmail());
+            statusLabel.setText("Receipt queued for " + customer.getEmail());
             showAlert(Alert.AlertType.INFORMATION, "Email Sent", 
-                     "Receipt has been sent to " + customer.getEmail());
+                     "Receipt will be sent to " + customer.getEmail() + " shortly.");
             
         } catch (SQLException e) {
             e.printStackTrace();
@@ -1258,6 +1130,72 @@ public class BillingController {
         billTable.setItems(billList);
     }
     
+    @FXML
+    private void handleBillCompletedJobs() {
+        Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
+        confirmAlert.setTitle("Bill Completed Jobs");
+        confirmAlert.setHeaderText("Create bills for all completed bookings that have none?");
+        confirmAlert.setContentText("Each customer can also be emailed their bill.");
+        ButtonType createAndNotify = new ButtonType("Create and Email");
+        ButtonType createOnly = new ButtonType("Create Only");
+        confirmAlert.getButtonTypes().setAll(createAndNotify, createOnly, ButtonType.CANCEL);
+        
+        var choice = confirmAlert.showAndWait();
+        if (choice.isEmpty() || choice.get() == ButtonType.CANCEL) {
+            return;
+        }
+        
+        try {
+            BillingService.BatchResult result =
+                billingService.createBillsForCompletedBookings(choice.get() == createAndNotify);
+            
+            if (result.getBillCount() == 0) {
+                showAlert(Alert.AlertType.INFORMATION, "Bill Completed Jobs", "Every completed booking already has a bill.");
+            } else {
+                String message = "Bills created: " + result.getBillCount() + "\n" +
+                                 "Total: ₱" + String.format("%.2f", result.getTotalAmount());
+                if (result.isNotificationsQueued()) {
+                    message += "\n\nCustomer emails are being queued in the background.";
+                }
+                showAlert(Alert.AlertType.INFORMATION, "Bill Completed Jobs", message);
+            }
+            loadBills();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            showAlert(Alert.AlertType.ERROR, "Error", "Failed to create bills: " + e.getMessage());
+        }
+    }
+    
+    @FXML
+    private void handleExportReceipts() {
+        // Receipts are only issued for paid bills
+        List<Bill> paidBills = allBills.stream()
+            .filter(b -> "Paid".equals(b.getPaymentStatus()))
+            .toList();
+        if (paidBills.isEmpty()) {
+            showAlert(Alert.AlertType.INFORMATION, "Export Receipts", "There are no paid bills in the list.");
+            return;
+        }
+        
+        DirectoryChooser chooser = new DirectoryChooser();
+        chooser.setTitle("Export Receipts");
+        File dir = chooser.showDialog(billTable.getScene().getWindow());
+        if (dir == null) {
+            return;
+        }
+        
+        try {
+            int written = ReceiptRenderer.getInstance().exportHtml(paidBills, dir.toPath());
+            statusLabel.setText("Exported " + written + " receipt(s) to " + dir);
+            showAlert(Alert.AlertType.INFORMATION, "Export Receipts",
+                      written + " receipt(s) written to " + dir + ".\n" +
+                      (paidBills.size() - written) + " were already there.");
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+            showAlert(Alert.AlertType.ERROR, "Error", "Failed to export receipts: " + e.getMessage());
+        }
+    }
+    
     private void showAlert(Alert.AlertType type, String title, String content) {
         Alert alert = new Alert(type);
         alert.setTitle(title);
@@ -3,10 +3,42 @@ package com.example;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class BillingService {
     private static BillingService instance;
+
+    // Appended to a FROM clause with service_bookings as sb: keeps completed bookings with no bill yet
+    private static final String UNBILLED_BOOKINGS =
+        "LEFT JOIN billing b ON b.service_id = sb.id " +
+        "WHERE sb.status = 'completed' AND b.id IS NULL ";
+
+    // The statements below are also checked by QueryPlanCheck
+    static final String BILL_EXISTS_QUERY = "SELECT COUNT(*) FROM billing WHERE service_id = ?";
+    static final String BOOKING_SERVICE_TYPES_QUERY = "SELECT service_type FROM booking_services WHERE booking_id = ?";
+    static final String BOOKING_PARTS_COST_QUERY =
+        "SELECT SUM(quantity * price_at_time) as total_parts_cost " +
+        "FROM booking_parts WHERE booking_id = ?";
+    static final String UNBILLED_BOOKINGS_QUERY =
+        "SELECT sb.id, sb.customer_id, c.name AS customer_name, " +
+        "CONCAT(v.brand, ' ', v.model, ' (', v.plate_number, ')') AS vehicle_info " +
+        "FROM service_bookings sb " +
+        "JOIN customers c ON sb.customer_id = c.id " +
+        "JOIN vehicles v ON sb.vehicle_id = v.id " +
+        UNBILLED_BOOKINGS +
+        "ORDER BY sb.id FOR UPDATE";
+    static final String UNBILLED_SERVICE_TYPES_QUERY =
+        "SELECT bs.booking_id, bs.service_type " +
+        "FROM booking_services bs JOIN service_bookings sb ON bs.booking_id = sb.id " +
+        UNBILLED_BOOKINGS;
+    static final String UNBILLED_PARTS_COSTS_QUERY =
+        "SELECT bp.booking_id, SUM(bp.quantity * bp.price_at_time) AS total_parts_cost " +
+        "FROM booking_parts bp JOIN service_bookings sb ON bp.booking_id = sb.id " +
+        UNBILLED_BOOKINGS +
+        "GROUP BY bp.booking_id";
     
     private BillingService() {
         // Constructor no longer needs to create tables
@@ -43,10 +75,12 @@ public class BillingService {
                 String vehicleInfo = rs.getString("vehicle_info");
                 double amount = rs.getDouble("amount");
                 String paymentStatus = rs.getString("payment_status");
+                String paymentMethod = rs.getString("payment_method");
+                String referenceNumber = rs.getString("reference_number");
                 LocalDate billDate = rs.getDate("bill_date").toLocalDate();
                 
                 bills.add(new Bill(id, hexId, customerId, serviceId, customerName, vehicleInfo, 
-                                  amount, paymentStatus, billDate));
+                                  amount, paymentStatus, paymentMethod, referenceNumber, billDate));
             }
         }
         
@@ -63,52 +97,51 @@ public class BillingService {
         
         try {
             conn = DatabaseUtil.getConnection();
+            conn.setAutoCommit(false);
             
-            // First, check if the service booking exists and is completed
+            // First, check if the service booking exists and is completed. Locking it makes a
+            // concurrent createBillsForCompletedBookings wait, so only one of them bills it.
             checkStmt = conn.prepareStatement(
                 "SELECT sb.id, sb.customer_id, sb.status " +
                 "FROM service_bookings sb " +
-                "WHERE sb.id = ? AND sb.status = 'completed'");
+                "WHERE sb.id = ? AND sb.status = 'completed' FOR UPDATE");
                 
             checkStmt.setInt(1, serviceBookingId);
             rs = checkStmt.executeQuery();
             
             if (!rs.next()) {
+                conn.rollback();
                 return false; // Service booking doesn't exist or is not completed
             }
             
             int customerId = rs.getInt("customer_id");
             
             // Check if bill already exists for this service
-            existsStmt = conn.prepareStatement(
-                "SELECT COUNT(*) FROM billing WHERE service_id = ?");
+            existsStmt = conn.prepareStatement(BILL_EXISTS_QUERY);
                 
             existsStmt.setInt(1, serviceBookingId);
             existsRs = existsStmt.executeQuery();
             
             if (existsRs.next() && existsRs.getInt(1) > 0) {
+                conn.rollback();
                 return false; // Bill already exists for this service
             }
             
-            // Get all service types for this booking and calculate total service charge
-            double totalServiceCharge = 0.0;
-            PreparedStatement servicesStmt = conn.prepareStatement(
-                "SELECT service_type FROM booking_services WHERE booking_id = ?");
-            servicesStmt.setInt(1, serviceBookingId);
-            ResultSet servicesRs = servicesStmt.executeQuery();
-            
-            while (servicesRs.next()) {
-                String serviceType = servicesRs.getString("service_type");
-                totalServiceCharge += calculateAmountByServiceType(serviceType);
+            // Get all service types for this booking; their labor rates come from the cached catalog
+            List<String> serviceTypes = new ArrayList<>();
+            try (PreparedStatement servicesStmt = conn.prepareStatement(BOOKING_SERVICE_TYPES_QUERY)) {
+                servicesStmt.setInt(1, serviceBookingId);
+                try (ResultSet servicesRs = servicesStmt.executeQuery()) {
+                    while (servicesRs.next()) {
+                        serviceTypes.add(servicesRs.getString("service_type"));
+                    }
+                }
             }
-            servicesRs.close();
-            servicesStmt.close();
+            double totalServiceCharge = LaborRateCatalog.getInstance().getTotal(conn, serviceTypes);
             
             // Get parts used in this booking and calculate parts cost
             double partsCost = 0.0;
-            PreparedStatement partsStmt = conn.prepareStatement(
-                "SELECT SUM(quantity * price_at_time) as total_parts_cost " +
-                "FROM booking_parts WHERE booking_id = ?");
+            PreparedStatement partsStmt = conn.prepareStatement(BOOKING_PARTS_COST_QUERY);
             partsStmt.setInt(1, serviceBookingId);
             ResultSet partsRs = partsStmt.executeQuery();
             if (partsRs.next()) {
@@ -120,7 +153,7 @@ public class BillingService {
             // Total amount = service charges + parts cost
             double totalAmount = totalServiceCharge + partsCost;
             
-            // Create the bill
+            // Create the bill and add it to the day's totals together
             insertStmt = conn.prepareStatement(
                 "INSERT INTO billing (customer_id, service_id, amount, payment_status, bill_date, hex_id) " +
                 "VALUES (?, ?, ?, 'Unpaid', CURRENT_DATE, ?)");
@@ -131,8 +164,17 @@ public class BillingService {
             insertStmt.setString(4, HexIdGenerator.generateBillId());
             
             int rowsAffected = insertStmt.executeUpdate();
+            if (rowsAffected > 0) {
+                RevenueLedger.getInstance().billCreated(conn, null, "Unpaid", totalAmount);
+            }
+            conn.commit();
             return rowsAffected > 0;
             
+        } catch (SQLException e) {
+            if (conn != null && !conn.getAutoCommit()) {
+                conn.rollback();
+            }
+            throw e;
         } finally {
             // Close all resources manually in reverse order
             if (existsRs != null) try { existsRs.close(); } catch (SQLException e) { /* ignore */ }
@@ -140,43 +182,129 @@ public class BillingService {
             if (insertStmt != null) try { insertStmt.close(); } catch (SQLException e) { /* ignore */ }
             if (existsStmt != null) try { existsStmt.close(); } catch (SQLException e) { /* ignore */ }
             if (checkStmt != null) try { checkStmt.close(); } catch (SQLException e) { /* ignore */ }
-            // Don't close the connection as it's managed by DatabaseUtil
+            // Return the connection to the pool
+            if (conn != null) try { conn.setAutoCommit(true); } catch (SQLException e) { /* ignore */ }
+            if (conn != null) try { conn.close(); } catch (SQLException e) { /* ignore */ }
         }
     }
     
-    // Get labor cost for a service type from database
-    private double calculateAmountByServiceType(String serviceType) {
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                 "SELECT labor_cost FROM service_labor_costs WHERE service_type = ?")) {
-            
-            stmt.setString(1, serviceType);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getDouble("labor_cost");
-            } else {
-                // If service type not found, try "Other" as fallback
-                PreparedStatement fallbackStmt = conn.prepareStatement(
-                    "SELECT labor_cost FROM service_labor_costs WHERE service_type = 'Other'");
-                ResultSet fallbackRs = fallbackStmt.executeQuery();
-                
-                if (fallbackRs.next()) {
-                    return fallbackRs.getDouble("labor_cost");
+    /**
+     * Bill every completed booking that has no bill yet, in one transaction.
+     *
+     * Bookings, service types and parts totals are read with three queries whatever
+     * the number of bookings, labor rates come from LaborRateCatalog and the bills are
+     * inserted as one batch. The bookings are locked while billing, as createBillFromService
+     * locks its booking, so two runs at once can't bill the same booking twice; the
+     * unique index on billing.service_id backs this up.
+     *
+     * @param queueNotifications also email each customer their bill; the emails are
+     *                           prepared in the background after the bills are saved
+     */
+    public BatchResult createBillsForCompletedBookings(boolean queueNotifications) throws SQLException {
+        long start = System.currentTimeMillis();
+        BatchResult result = new BatchResult();
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // Bills to create, in booking order; IDs, hex IDs and amounts are filled in below
+                List<Bill> drafts = new ArrayList<>();
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(UNBILLED_BOOKINGS_QUERY)) {
+                    while (rs.next()) {
+                        int bookingId = rs.getInt("id");
+                        drafts.add(new Bill(0, null, rs.getInt("customer_id"), bookingId,
+                            rs.getString("customer_name"), rs.getString("vehicle_info"), 0.0, "Unpaid", LocalDate.now()));
+                    }
                 }
-                
-                fallbackRs.close();
-                fallbackStmt.close();
+
+                if (drafts.isEmpty()) {
+                    conn.commit();
+                    result.elapsedMs = System.currentTimeMillis() - start;
+                    return result;
+                }
+
+                // Labor: every service type of every booking being billed
+                Map<Integer, List<String>> serviceTypes = new HashMap<>();
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(UNBILLED_SERVICE_TYPES_QUERY)) {
+                    while (rs.next()) {
+                        serviceTypes.computeIfAbsent(rs.getInt("booking_id"), id -> new ArrayList<>())
+                                    .add(rs.getString("service_type"));
+                    }
+                }
+
+                // Parts: totals per booking
+                Map<Integer, Double> partsCosts = new HashMap<>();
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(UNBILLED_PARTS_COSTS_QUERY)) {
+                    while (rs.next()) {
+                        partsCosts.put(rs.getInt("booking_id"), rs.getDouble("total_parts_cost"));
+                    }
+                }
+
+                LaborRateCatalog rates = LaborRateCatalog.getInstance();
+                String[] hexIds = new String[drafts.size()];
+                double[] amounts = new double[drafts.size()];
+                try (PreparedStatement insertStmt = conn.prepareStatement(
+                        "INSERT INTO billing (customer_id, service_id, amount, payment_status, bill_date, hex_id) " +
+                        "VALUES (?, ?, ?, 'Unpaid', CURRENT_DATE, ?)",
+                        Statement.RETURN_GENERATED_KEYS)) {
+                    for (int i = 0; i < drafts.size(); i++) {
+                        int bookingId = drafts.get(i).getServiceId();
+                        amounts[i] = rates.getTotal(conn, serviceTypes.getOrDefault(bookingId, Collections.emptyList()))
+                                   + partsCosts.getOrDefault(bookingId, 0.0);
+                        hexIds[i] = HexIdGenerator.generateBillId();
+                        insertStmt.setInt(1, drafts.get(i).getCustomerId());
+                        insertStmt.setInt(2, bookingId);
+                        insertStmt.setDouble(3, amounts[i]);
+                        insertStmt.setString(4, hexIds[i]);
+                        insertStmt.addBatch();
+                    }
+                    insertStmt.executeBatch();
+
+                    // Generated IDs come back in insert order
+                    try (ResultSet keys = insertStmt.getGeneratedKeys()) {
+                        for (int i = 0; i < drafts.size(); i++) {
+                            Bill draft = drafts.get(i);
+                            int id = keys.next() ? keys.getInt(1) : 0;
+                            result.bills.add(new Bill(id, hexIds[i], draft.getCustomerId(), draft.getServiceId(),
+                                draft.getCustomerName(), draft.getVehicleInfo(), amounts[i], "Unpaid", draft.getBillDate()));
+                            result.totalAmount += amounts[i];
+                        }
+                    }
+                }
+
+                // All bills are dated today, so one row of the daily totals changes
+                RevenueLedger.getInstance().adjust(conn, null, "Unpaid", result.bills.size(), result.totalAmount);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
-            
-            rs.close();
-            
+        }
+
+        result.elapsedMs = System.currentTimeMillis() - start;
+        System.out.println("Bulk billing: " + result);
+
+        if (queueNotifications) {
+            List<Bill> created = result.getBills();
+            result.notificationsQueued = AppExecutors.runInBackground("bulk-bill-notifications",
+                () -> sendBillNotifications(created));
+        }
+        return result;
+    }
+
+    // Email each bill's customer, skipping customers without an address
+    private void sendBillNotifications(List<Bill> bills) {
+        try {
+            int sent = EmailService.getInstance().sendBillNotifications(bills);
+            System.out.println("Bulk billing: queued " + sent + " of " + bills.size() + " bill notifications");
         } catch (SQLException e) {
-            e.printStackTrace();
+            System.err.println("Could not notify customers of " + bills.size() + " new bills: " + e.getMessage());
         }
-        
-        // Ultimate fallback if database query fails
-        return 500.00;
     }
     
     public Bill getBillByServiceId(int serviceId) throws SQLException {
@@ -202,71 +330,132 @@ public class BillingService {
                 String vehicleInfo = rs.getString("vehicle_info");
                 double amount = rs.getDouble("amount");
                 String paymentStatus = rs.getString("payment_status");
+                String paymentMethod = rs.getString("payment_method");
+                String referenceNumber = rs.getString("reference_number");
                 LocalDate billDate = rs.getDate("bill_date").toLocalDate();
                 
                 return new Bill(id, hexId, customerId, svcId, customerName, vehicleInfo, 
-                              amount, paymentStatus, billDate);
+                              amount, paymentStatus, paymentMethod, referenceNumber, billDate);
             }
         }
         return null;
     }
     
     public boolean updateBillStatus(int billId, String status) throws SQLException {
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                "UPDATE billing SET payment_status = ? WHERE id = ?")) {
-            
-            stmt.setString(1, status);
-            stmt.setInt(2, billId);
-            
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
-        }
+        return changeBill(billId, status, "UPDATE billing SET payment_status = ? WHERE id = ?", status);
     }
     
     public boolean updateBillPayment(int billId, String status, String paymentMethod, String referenceNumber) throws SQLException {
-        String sql;
-        
         // If status is "Paid", update all three fields
         if ("Paid".equalsIgnoreCase(status)) {
-            sql = "UPDATE billing SET payment_status = ?, payment_method = ?, reference_number = ? WHERE id = ?";
-            
-            try (Connection conn = DatabaseUtil.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-                
-                stmt.setString(1, status);
-                stmt.setString(2, paymentMethod != null ? paymentMethod : "");
-                stmt.setString(3, referenceNumber != null ? referenceNumber : "");
-                stmt.setInt(4, billId);
-                
-                int rowsAffected = stmt.executeUpdate();
-                return rowsAffected > 0;
-            }
+            return changeBill(billId, status,
+                "UPDATE billing SET payment_status = ?, payment_method = ?, reference_number = ? WHERE id = ?",
+                status, paymentMethod != null ? paymentMethod : "", referenceNumber != null ? referenceNumber : "");
         } else {
             // If status is NOT "Paid", only update status and set method/reference to NULL
-            sql = "UPDATE billing SET payment_status = ?, payment_method = NULL, reference_number = NULL WHERE id = ?";
-            
-            try (Connection conn = DatabaseUtil.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-                
-                stmt.setString(1, status);
-                stmt.setInt(2, billId);
-                
-                int rowsAffected = stmt.executeUpdate();
-                return rowsAffected > 0;
-            }
+            return changeBill(billId, status,
+                "UPDATE billing SET payment_status = ?, payment_method = NULL, reference_number = NULL WHERE id = ?",
+                status);
         }
     }
     
     public boolean deleteBill(int billId) throws SQLException {
+        return changeBill(billId, null, "DELETE FROM billing WHERE id = ?");
+    }
+
+    /**
+     * Update or delete one bill and move it in the daily revenue totals, in one transaction.
+     * The bill is locked first so concurrent payments can't both move it from the same status.
+     *
+     * @param newStatus status after the change, or null when the bill is deleted
+     * @param sql statement taking the given parameters followed by the bill ID
+     */
+    private boolean changeBill(int billId, String newStatus, String sql, String... params) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                LocalDate billDate;
+                String oldStatus;
+                double amount;
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT bill_date, payment_status, amount FROM billing WHERE id = ? FOR UPDATE")) {
+                    stmt.setInt(1, billId);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (!rs.next()) {
+                            conn.rollback();
+                            return false;
+                        }
+                        Date date = rs.getDate("bill_date");
+                        billDate = date != null ? date.toLocalDate() : null;
+                        oldStatus = rs.getString("payment_status");
+                        amount = rs.getDouble("amount");
+                    }
+                }
+
+                int rowsAffected;
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < params.length; i++) {
+                        stmt.setString(i + 1, params[i]);
+                    }
+                    stmt.setInt(params.length + 1, billId);
+                    rowsAffected = stmt.executeUpdate();
+                }
+
+                // Bills without a date were never in the totals
+                if (rowsAffected > 0 && billDate != null) {
+                    RevenueLedger ledger = RevenueLedger.getInstance();
+                    if (newStatus == null) {
+                        ledger.billDeleted(conn, billDate, oldStatus, amount);
+                    } else {
+                        ledger.billStatusChanged(conn, billDate, oldStatus, newStatus, amount);
+                    }
+                }
+                conn.commit();
+                return rowsAffected > 0;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Number of completed bookings that have no bill yet
+     */
+    public int getUnbilledCompletedCount() throws SQLException {
         try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                "DELETE FROM billing WHERE id = ?")) {
-            
-            stmt.setInt(1, billId);
-            
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT COUNT(*) FROM service_bookings sb " + UNBILLED_BOOKINGS)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Outcome of a bulk billing run
+     */
+    public static class BatchResult {
+        private final List<Bill> bills = new ArrayList<>();
+        private double totalAmount;
+        private long elapsedMs;
+        private boolean notificationsQueued;
+
+        public List<Bill> getBills() { return Collections.unmodifiableList(bills); }
+        public int getBillCount() { return bills.size(); }
+        public double getTotalAmount() { return totalAmount; }
+        public long getElapsedMs() { return elapsedMs; }
+
+        /**
+         * True if customer emails are being prepared in the background
+         */
+        public boolean isNotificationsQueued() { return notificationsQueued; }
+
+        @Override
+        public String toString() {
+            return "created " + bills.size() + " bills totalling " + String.format("%.2f", totalAmount) +
+                   " in " + elapsedMs + " ms";
         }
     }
 }
@@ -0,0 +1,53 @@
+package com.example;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One page of bookings from a keyset-paginated query.
+ * Bookings are ordered newest first by (booking_date, id); the cursor marks
+ * the last row returned so the next page starts right after it.
+ */
+public class BookingPage {
+    private final List<ServiceBookingViewModel> bookings;
+    private final Cursor nextCursor;
+
+    public BookingPage(List<ServiceBookingViewModel> bookings, Cursor nextCursor) {
+        this.bookings = List.copyOf(bookings);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ServiceBookingViewModel> getBookings() { return bookings; }
+
+    /**
+     * Cursor to pass for the following page, or null if this was the last page
+     */
+    public Cursor getNextCursor() { return nextCursor; }
+
+    public boolean hasMore() { return nextCursor != null; }
+
+    /**
+     * Position in the (booking_date DESC, id DESC) ordering
+     */
+    public static final class Cursor {
+        private final LocalDate bookingDate;
+        private final int id;
+
+        public Cursor(LocalDate bookingDate, int id) {
+            this.bookingDate = bookingDate;
+            this.id = id;
+        }
+
+        public static Cursor after(ServiceBookingViewModel booking) {
+            return new Cursor(booking.getDate(), booking.getId());
+        }
+
+        public LocalDate getBookingDate() { return bookingDate; }
+        public int getId() { return id; }
+
+        @Override
+        public String toString() {
+            return bookingDate + "#" + id;
+        }
+    }
+}
@@ -2,16 +2,44 @@ package com.example;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class CustomerService {
     private static CustomerService instance;
     
+    // Most matches a search returns
+    private static final int SEARCH_LIMIT = 500;
+    
+    private final SearchIndex searchIndex = new SearchIndex("customers",
+        new SearchIndex.Field[] {
+            new SearchIndex.Field("name", 3),
+            new SearchIndex.Field("hex_id", 2),
+            new SearchIndex.Field("phone", 2, true),
+            new SearchIndex.Field("email", 1),
+            new SearchIndex.Field("address", 1)
+        },
+        new SearchIndex.Loader() {
+            @Override
+            public Map<Integer, String[]> loadAll() throws SQLException {
+                return loadSearchRows(null);
+            }
+            
+            @Override
+            public Map<Integer, String[]> loadByIds(Collection<Integer> ids) throws SQLException {
+                return loadSearchRows(ids);
+            }
+        });
+    
     private CustomerService() {
         // Initialize service
     }
     
-    public static CustomerService getInstance() {
+    // Synchronized: the instance owns the search index, and App warms it up from a
+    // background thread while the UI is creating controllers
+    public static synchronized CustomerService getInstance() {
         if (instance == null) {
             instance = new CustomerService();
         }
@@ -40,20 +68,31 @@ public class CustomerService {
         return customers;
     }
     
+    /**
+     * Build the search index in the background, so the first search doesn't wait for it
+     */
+    public void prepareSearch() {
+        searchIndex.buildInBackground();
+    }
+    
+    /**
+     * Customers matching every word of the search term (prefixes and small typos
+     * included), best matches first. Served by the in-memory search index.
+     */
     public List<Customer> searchCustomers(String searchTerm) throws SQLException {
-        List<Customer> customers = new ArrayList<>();
+        List<Integer> ids = searchIndex.search(searchTerm, SEARCH_LIMIT);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
         
+        Map<Integer, Customer> found = new HashMap<>();
         try (Connection conn = DatabaseUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(
-                 "SELECT * FROM customers " +
-                 "WHERE name LIKE ? OR phone LIKE ? OR email LIKE ? OR address LIKE ? " +
-                 "ORDER BY name")) {
+                 "SELECT * FROM customers WHERE id IN (" + SearchIndex.placeholders(ids.size()) + ")")) {
             
-            String searchPattern = "%" + searchTerm + "%";
-            stmt.setString(1, searchPattern);
-            stmt.setString(2, searchPattern);
-            stmt.setString(3, searchPattern);
-            stmt.setString(4, searchPattern);
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setInt(i + 1, ids.get(i));
+            }
             
             ResultSet rs = stmt.executeQuery();
             
@@ -65,19 +104,49 @@ public class CustomerService {
                 String email = rs.getString("email");
                 String address = rs.getString("address");
                 
-                Customer customer = new Customer(id, name, phone, email, address);
-                customer.setHexId(hexId);
-                customers.add(customer);
+                found.put(id, new Customer(id, hexId, name, phone, email, address));
             }
         }
         
-        return customers;
+        return SearchIndex.inRankOrder(ids, found);
+    }
+    
+    // Searchable text of all customers, or only the given ones
+    private Map<Integer, String[]> loadSearchRows(Collection<Integer> ids) throws SQLException {
+        Map<Integer, String[]> rows = new HashMap<>();
+        if (ids != null && ids.isEmpty()) {
+            return rows;
+        }
+        
+        String query = "SELECT id, name, hex_id, phone, email, address FROM customers" +
+            (ids != null ? " WHERE id IN (" + SearchIndex.placeholders(ids.size()) + ")" : "");
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            
+            if (ids != null) {
+                int i = 1;
+                for (int id : ids) {
+                    stmt.setInt(i++, id);
+                }
+            }
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.put(rs.getInt("id"), new String[] {
+                        rs.getString("name"), rs.getString("hex_id"), rs.getString("phone"),
+                        rs.getString("email"), rs.getString("address")
+                    });
+                }
+            }
+        }
+        return rows;
     }
     
     public boolean addCustomer(String name, String phone, String email, String address) {
         try (Connection conn = DatabaseUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(
-                 "INSERT INTO customers (hex_id, name, phone, email, address) VALUES (?, ?, ?, ?, ?)")) {
+                 "INSERT INTO customers (hex_id, name, phone, email, address) VALUES (?, ?, ?, ?, ?)",
+                 Statement.RETURN_GENERATED_KEYS)) {
             
             String hexId = HexIdGenerator.generateCustomerId();
             stmt.setString(1, hexId);
@@ -87,6 +156,11 @@ public class CustomerService {
             stmt.setString(5, address);
             
             int rowsAffected = stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    searchIndex.invalidate(keys.getInt(1));
+                }
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -106,6 +180,9 @@ public class CustomerService {
             stmt.setInt(5, customer.getId());
             
             int rowsAffected = stmt.executeUpdate();
+            searchIndex.invalidate(customer.getId());
+            // Bookings are searchable by customer name
+            ServiceBookingService.getSearchIndex().requestRebuild();
             return rowsAffected > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -120,6 +197,7 @@ public class CustomerService {
             stmt.setInt(1, customerId);
             
             int rowsAffected = stmt.executeUpdate();
+            searchIndex.invalidate(customerId);
             return rowsAffected > 0;
         }
     }
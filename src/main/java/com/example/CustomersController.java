@@ -39,6 +39,10 @@ public class CustomersController {
     private static final int ITEMS_PER_PAGE = 25;
     private CustomerService customerService = CustomerService.getInstance();
     
+    // Searches run in the background as the user types
+    private final SearchPipeline<List<Customer>> searchPipeline =
+        new SearchPipeline<>("customers", this::showCustomers, this::showSearchError);
+    
     @FXML
     public void initialize() {
         System.out.println("Initializing CustomersController...");
@@ -65,6 +69,12 @@ public class CustomersController {
         // Load initial data
         loadCustomers();
         
+        // Search as you type
+        searchField.textProperty().addListener((obs, oldText, newText) -> {
+            String searchTerm = newText.trim();
+            searchPipeline.search(searchTerm, () -> findCustomers(searchTerm));
+        });
+        
         // Make name column clickable to open customer details
         nameColumn.setCellFactory(column -> {
             TableCell<Customer, String> cell = new TableCell<Customer, String>() {
@@ -147,21 +157,21 @@ public class CustomersController {
     @FXML
     private void handleSearchCustomers() {
         String searchTerm = searchField.getText().trim();
-        if (searchTerm.isEmpty()) {
-            loadCustomers();
-        } else {
-            try {
-                List<Customer> customers = CustomerService.getInstance().searchCustomers(searchTerm);
-                customerList.clear();
-                customerList.addAll(customers);
-                updateTotalCustomersLabel();
-            } catch (SQLException e) {
-                e.printStackTrace();
-                showAlert(Alert.AlertType.ERROR, 
-                         "Search Error", 
-                         "Error searching customers: " + e.getMessage());
-            }
-        }
+        searchPipeline.searchNow(searchTerm, () -> findCustomers(searchTerm));
+    }
+    
+    // Runs on a background thread
+    private List<Customer> findCustomers(String searchTerm) throws SQLException {
+        return searchTerm.isEmpty()
+            ? customerService.getAllCustomers()
+            : customerService.searchCustomers(searchTerm);
+    }
+    
+    private void showSearchError(SQLException e) {
+        e.printStackTrace();
+        showAlert(Alert.AlertType.ERROR, 
+                 "Search Error", 
+                 "Error searching customers: " + e.getMessage());
     }
     
     @FXML
@@ -191,6 +201,8 @@ public class CustomersController {
                 try {
                     boolean success = CustomerService.getInstance().deleteCustomer(customer.getId());
                     if (success) {
+                        searchPipeline.invalidate();
+                        allCustomers.remove(customer);
                         customerList.remove(customer);
                         updateTotalCustomersLabel();
                         statusLabel.setText("Customer deleted successfully");
@@ -714,24 +726,10 @@ public class CustomersController {
     }
     
     private void loadCustomers() {
+        // Data changed (or a refresh was asked for), so cached search results are out of date
+        searchPipeline.invalidate();
         try {
-            List<Customer> customers = CustomerService.getInstance().getAllCustomers();
-            allCustomers.clear();
-            allCustomers.addAll(customers);
-            
-            // Update pagination control
-            updatePaginationControl();
-            
-            // Update table - will show first page
-            if (customerPagination != null) {
-                updateTablePage(0);
-                customerPagination.setCurrentPageIndex(0);
-            } else {
-                customerList.clear();
-                customerList.addAll(customers);
-            }
-            
-            updateTotalCustomersLabel();
+            showCustomers(CustomerService.getInstance().getAllCustomers());
             statusLabel.setText("Customers loaded successfully");
         } catch (SQLException e) {
             e.printStackTrace();
@@ -741,6 +739,25 @@ public class CustomersController {
         }
     }
     
+    private void showCustomers(List<Customer> customers) {
+        allCustomers.clear();
+        allCustomers.addAll(customers);
+        
+        // Update pagination control
+        updatePaginationControl();
+        
+        // Update table - will show first page
+        if (customerPagination != null) {
+            updateTablePage(0);
+            customerPagination.setCurrentPageIndex(0);
+        } else {
+            customerList.clear();
+            customerList.addAll(customers);
+        }
+        
+        updateTotalCustomersLabel();
+    }
+    
     private void updateTotalCustomersLabel() {
         totalCustomersLabel.setText("Total customers: " + customerList.size());
     }
@@ -0,0 +1,54 @@
+package com.example;
+
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the counts shown on the home dashboard.
+ * Built by DashboardStatsService from a single aggregate query.
+ */
+public final class DashboardStats {
+    private final int customerCount;
+    private final Map<String, Integer> bookingsByStatus;
+    private final int lowStockCount;
+    private final int unpaidBillCount;
+
+    public DashboardStats(int customerCount, Map<String, Integer> bookingsByStatus,
+                          int lowStockCount, int unpaidBillCount) {
+        this.customerCount = customerCount;
+        this.bookingsByStatus = Map.copyOf(bookingsByStatus);
+        this.lowStockCount = lowStockCount;
+        this.unpaidBillCount = unpaidBillCount;
+    }
+
+    public int getCustomerCount() { return customerCount; }
+    public int getLowStockCount() { return lowStockCount; }
+    public int getUnpaidBillCount() { return unpaidBillCount; }
+
+    /**
+     * Booking counts keyed by lower-case status (scheduled, delayed, in_progress, completed, cancelled)
+     */
+    public Map<String, Integer> getBookingsByStatus() { return bookingsByStatus; }
+
+    public int getBookingCount(String status) {
+        return bookingsByStatus.getOrDefault(status.toLowerCase(), 0);
+    }
+
+    public int getTotalBookings() {
+        int total = 0;
+        for (int count : bookingsByStatus.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    // Pending = scheduled + in progress, matching the dashboard's "Pending" card
+    public int getPendingBookings() {
+        return getBookingCount("scheduled") + getBookingCount("in_progress");
+    }
+
+    @Override
+    public String toString() {
+        return "DashboardStats[customers=" + customerCount + ", bookings=" + bookingsByStatus +
+               ", lowStock=" + lowStockCount + ", unpaidBills=" + unpaidBillCount + "]";
+    }
+}
@@ -0,0 +1,86 @@
+package com.example;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Computes the home dashboard counts with SQL aggregates in one round trip,
+ * instead of loading every customer, booking, part and bill into Java lists.
+ */
+public class DashboardStatsService {
+    private static DashboardStatsService instance;
+
+    // Each branch yields (metric, total) rows; booking counts come back one row per status
+    private static final String STATS_QUERY =
+        "SELECT 'customers' AS metric, COUNT(*) AS total FROM customers " +
+        "UNION ALL " +
+        "SELECT 'low_stock', COUNT(*) FROM parts WHERE quantity_in_stock <= reorder_level " +
+        "UNION ALL " +
+        "SELECT 'unpaid_bills', COALESCE(SUM(bill_count), 0) FROM billing_daily_totals WHERE payment_status = 'Unpaid' " +
+        "UNION ALL " +
+        "SELECT CONCAT('status:', status), COUNT(*) FROM service_bookings %s GROUP BY status";
+
+    private DashboardStatsService() {
+        // Private constructor
+    }
+
+    public static DashboardStatsService getInstance() {
+        if (instance == null) {
+            instance = new DashboardStatsService();
+        }
+        return instance;
+    }
+
+    /**
+     * Shop-wide statistics (admin and cashier views)
+     */
+    public DashboardStats getStats() throws SQLException {
+        return loadStats(-1);
+    }
+
+    /**
+     * Same as getStats() but booking counts are limited to one mechanic's jobs
+     */
+    public DashboardStats getStatsForMechanic(int mechanicId) throws SQLException {
+        return loadStats(mechanicId);
+    }
+
+    private DashboardStats loadStats(int mechanicId) throws SQLException {
+        String query = String.format(STATS_QUERY, mechanicId > 0 ? "WHERE mechanic_id = ?" : "");
+
+        int customerCount = 0;
+        int lowStockCount = 0;
+        int unpaidBillCount = 0;
+        Map<String, Integer> bookingsByStatus = new HashMap<>();
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+
+            if (mechanicId > 0) {
+                stmt.setInt(1, mechanicId);
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String metric = rs.getString("metric");
+                    int total = rs.getInt("total");
+
+                    if (metric == null) {
+                        continue; // booking with a NULL status
+                    } else if (metric.startsWith("status:")) {
+                        bookingsByStatus.merge(metric.substring(7).toLowerCase(), total, Integer::sum);
+                    } else if ("customers".equals(metric)) {
+                        customerCount = total;
+                    } else if ("low_stock".equals(metric)) {
+                        lowStockCount = total;
+                    } else if ("unpaid_bills".equals(metric)) {
+                        unpaidBillCount = total;
+                    }
+                }
+            }
+        }
+
+        return new DashboardStats(customerCount, bookingsByStatus, lowStockCount, unpaidBillCount);
+    }
+}
@@ -3,8 +3,7 @@ package com.example;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.Statement;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.util.List;
 
 public class DatabaseReset {
     public static void main(String[] args) {
@@ -23,29 +22,27 @@ public class DatabaseReset {
             try (Connection conn = DriverManager.getConnection(url, user, password);
                  Statement stmt = conn.createStatement()) {
                 
-                // Read the setup.sql file
-                String sqlScript = Files.readString(
-                    Paths.get("src/main/resources/database/setup.sql"));
-                
-                // Split by semicolons and execute each statement
-                String[] statements = sqlScript.split(";");
+                // Statements of setup.sql; quotes and comments are respected when splitting
+                List<String> statements = SqlScript.load("/database/setup.sql");
+                int failed = 0;
                 
                 for (String sql : statements) {
-                    sql = sql.trim();
-                    if (!sql.isEmpty()) {
-                        try {
-                            stmt.execute(sql);
-                            System.out.println("✓ Executed: " + sql.substring(0, Math.min(60, sql.length())));
-                        } catch (Exception e) {
-                            System.err.println("✗ Error: " + e.getMessage());
-                            System.err.println("  SQL: " + sql.substring(0, Math.min(100, sql.length())));
-                        }
+                    try {
+                        stmt.execute(sql);
+                        System.out.println("✓ Executed: " + sql.substring(0, Math.min(60, sql.length())));
+                    } catch (Exception e) {
+                        failed++;
+                        System.err.println("✗ Error: " + e.getMessage());
+                        System.err.println("  SQL: " + sql.substring(0, Math.min(100, sql.length())));
                     }
                 }
                 
-                System.out.println("\n✓ Database reset completed successfully!");
-                System.out.println("✓ original_status column should now exist in service_bookings table");
-                System.out.println("✓ location column should now exist in parts table");
+                // Bring the fresh database up to the current schema version
+                conn.setCatalog("AutoTech");
+                int applied = SchemaMigrator.migrate(conn);
+                
+                System.out.println("\n✓ Database reset completed: " + statements.size() + " statements (" + failed +
+                                   " failed), " + applied + " migrations applied");
             }
         } catch (Exception e) {
             System.err.println("✗ Failed to reset database: " + e.getMessage());
@@ -1,14 +1,28 @@
 package com.example;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseUtil {
     private static final String DB_URL = "jdbc:mysql://localhost:3306/AutoTech";
     private static final String DB_USER = "root";
     private static final String DB_PASSWORD = "root";
-    
+
+    // Pool defaults - each can be overridden with -Dautotech.db.<name>=<value>
+    private static final int DEFAULT_MAX_POOL_SIZE = 10;
+    private static final int DEFAULT_MIN_IDLE = 2;
+    private static final long DEFAULT_CONNECTION_TIMEOUT_MS = 10_000;
+    private static final long DEFAULT_IDLE_TIMEOUT_MS = 5 * 60 * 1000;
+    private static final long DEFAULT_MAX_LIFETIME_MS = 30 * 60 * 1000;
+    private static final long DEFAULT_LEAK_DETECTION_MS = 20_000;
+
+    private static final ConnectionPoolMetrics metrics = new ConnectionPoolMetrics();
+    private static volatile HikariDataSource dataSource;
+
     static {
         try {
             // Load MySQL JDBC driver
@@ -18,16 +32,97 @@ public class DatabaseUtil {
             throw new RuntimeException("Failed to load MySQL JDBC driver");
         }
     }
-    
+
+    /**
+     * Borrow a connection from the shared pool.
+     * Callers must close it (try-with-resources) to hand it back to the pool.
+     */
     public static Connection getConnection() throws SQLException {
-        // Always create a new connection instead of reusing
-        // This prevents "connection closed" errors with background threads
-        return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        return getDataSource().getConnection();
     }
-    
-    // Cleanup method (no longer needed since connections are created per request)
-    public static void closeConnection() {
-        // Connections are now closed automatically via try-with-resources
+
+    /**
+     * Lazily builds the pool on first use so screens that never touch the
+     * database (landing, login form) don't pay for it.
+     */
+    public static HikariDataSource getDataSource() {
+        HikariDataSource ds = dataSource;
+        if (ds == null) {
+            synchronized (DatabaseUtil.class) {
+                ds = dataSource;
+                if (ds == null) {
+                    ds = new HikariDataSource(buildConfig());
+                    dataSource = ds;
+                    System.out.println("Database connection pool started (max " + ds.getMaximumPoolSize() + " connections)");
+                }
+            }
+        }
+        return ds;
+    }
+
+    private static HikariConfig buildConfig() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("AutoTechPool");
+        config.setJdbcUrl(System.getProperty("autotech.db.url", DB_URL));
+        config.setUsername(System.getProperty("autotech.db.user", DB_USER));
+        config.setPassword(System.getProperty("autotech.db.password", DB_PASSWORD));
+
+        config.setMaximumPoolSize(Integer.getInteger("autotech.db.maxPoolSize", DEFAULT_MAX_POOL_SIZE));
+        config.setMinimumIdle(Integer.getInteger("autotech.db.minIdle", DEFAULT_MIN_IDLE));
+        config.setConnectionTimeout(Long.getLong("autotech.db.connectionTimeoutMs", DEFAULT_CONNECTION_TIMEOUT_MS));
+        config.setIdleTimeout(Long.getLong("autotech.db.idleTimeoutMs", DEFAULT_IDLE_TIMEOUT_MS));
+        config.setMaxLifetime(Long.getLong("autotech.db.maxLifetimeMs", DEFAULT_MAX_LIFETIME_MS));
+        // Logs a stack trace for any connection held longer than this (0 disables)
+        config.setLeakDetectionThreshold(Long.getLong("autotech.db.leakDetectionMs", DEFAULT_LEAK_DETECTION_MS));
+        config.setMetricsTrackerFactory(metrics);
+
+        // MySQL driver tuning: cache prepared statements per pooled connection
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("useLocalSessionState", "true");
+        config.addDataSourceProperty("cacheResultSetMetadata", "true");
+        config.addDataSourceProperty("cacheServerConfiguration", "true");
+        config.addDataSourceProperty("elideSetAutoCommits", "true");
+        // Send each JDBC batch as multi-row statements in one round trip instead of one per row
+        config.addDataSourceProperty("rewriteBatchedStatements",
+            System.getProperty("autotech.db.rewriteBatchedStatements", "true"));
+        return config;
+    }
+
+    /**
+     * Connection wait-time and usage statistics collected by the pool.
+     */
+    public static ConnectionPoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * One-line summary of the pool state, handy for logging and diagnostics.
+     */
+    public static String getPoolStatus() {
+        HikariDataSource ds = dataSource;
+        if (ds == null || ds.isClosed()) {
+            return "Connection pool not running";
+        }
+        HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+        return String.format("Pool[total=%d, active=%d, idle=%d, waiting=%d] %s",
+            pool.getTotalConnections(), pool.getActiveConnections(),
+            pool.getIdleConnections(), pool.getThreadsAwaitingConnection(), metrics);
+    }
+
+    /**
+     * Close every pooled connection. Called once from App.stop().
+     */
+    public static void shutdown() {
+        synchronized (DatabaseUtil.class) {
+            if (dataSource != null) {
+                System.out.println("Closing database connection pool: " + getPoolStatus());
+                dataSource.close();
+                dataSource = null;
+            }
+        }
         System.out.println("Database connection cleanup completed");
     }
-}
\ No newline at end of file
+}
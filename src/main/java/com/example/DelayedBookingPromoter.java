@@ -0,0 +1,301 @@
+package com.example;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Decides which delayed bookings can move to "scheduled" using a few bulk queries
+ * instead of several queries per booking.
+ *
+ * All delayed bookings, their mechanics' workload and the stock of every part they
+ * need are read inside one transaction, promotions are decided in memory, and the
+ * winners are written back with a single batched UPDATE.
+ *
+ * When several delayed bookings compete for the same stock, earlier bookings
+ * (booking_date, booking_time, id) claim it first.
+ */
+public class DelayedBookingPromoter {
+    // Same threshold as booking creation: 5+ active jobs means the mechanic is overloaded
+    public static final int MAX_ACTIVE_JOBS = 5;
+
+    // This and DELAYED_PARTS_QUERY are also checked by QueryPlanCheck
+    static final String DELAYED_BOOKINGS_QUERY =
+        "SELECT sb.id, sb.mechanic_id, m.id AS mechanic_found, m.availability, " +
+        "COALESCE(jc.job_count, 0) AS job_count " +
+        "FROM service_bookings sb " +
+        "LEFT JOIN mechanics m ON sb.mechanic_id = m.id " +
+        "LEFT JOIN (SELECT mechanic_id, COUNT(*) AS job_count FROM service_bookings " +
+        "           WHERE status IN ('scheduled', 'in_progress') GROUP BY mechanic_id) jc " +
+        "       ON jc.mechanic_id = sb.mechanic_id " +
+        "WHERE sb.status = 'delayed' %s" +
+        "ORDER BY sb.booking_date ASC, sb.booking_time ASC, sb.id ASC";
+
+    // Parts of every delayed booking (not only the ones being considered) so that
+    // reservations held by delayed bookings can be told apart from committed ones
+    static final String DELAYED_PARTS_QUERY =
+        "SELECT bp.booking_id, bp.part_id, p.name AS part_name, bp.quantity, " +
+        "p.quantity_in_stock, p.reserved_quantity " +
+        "FROM booking_parts bp " +
+        "JOIN service_bookings sb ON bp.booking_id = sb.id " +
+        "JOIN parts p ON bp.part_id = p.id " +
+        "WHERE sb.status = 'delayed'";
+
+    /**
+     * Try to promote every delayed booking in the system
+     */
+    public Result promoteAll() throws SQLException {
+        return promote(0, -1);
+    }
+
+    /**
+     * Try to promote the delayed bookings of one mechanic.
+     * @param triggeringBookingId booking whose completion/cancellation freed capacity,
+     *        stored in promoted_by_booking_id so an undo can revert the promotion (-1 for none)
+     */
+    public Result promoteForMechanic(int mechanicId, int triggeringBookingId) throws SQLException {
+        return promote(mechanicId, triggeringBookingId);
+    }
+
+    private Result promote(int mechanicId, int triggeringBookingId) throws SQLException {
+        Result result = new Result();
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            // All reads below see one snapshot of bookings, mechanics and parts
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                List<DelayedBooking> bookings = loadDelayedBookings(conn, mechanicId);
+                if (bookings.isEmpty()) {
+                    conn.commit();
+                    return result;
+                }
+
+                Map<Integer, PartStock> stock = new HashMap<>();
+                Map<Integer, List<PartNeed>> needsByBooking = loadDelayedParts(conn, stock);
+
+                decide(bookings, needsByBooking, stock, result);
+
+                if (!result.promotedBookingIds.isEmpty()) {
+                    try {
+                        applyPromotions(conn, result.promotedBookingIds, triggeringBookingId);
+                    } catch (SQLException e) {
+                        if (triggeringBookingId <= 0) {
+                            throw e;
+                        }
+                        // Older schemas lack promoted_by_booking_id - promote without tracking
+                        System.err.println("Warning: Could not record promoting booking: " + e.getMessage());
+                        applyPromotions(conn, result.promotedBookingIds, -1);
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+
+        // Refresh the stored availability of mechanics who gained jobs
+        if (!result.promotedMechanicIds.isEmpty()) {
+            MechanicService mechanicService = new MechanicService();
+            for (int promotedMechanicId : result.promotedMechanicIds) {
+                try {
+                    mechanicService.updateMechanicAvailability(promotedMechanicId);
+                } catch (SQLException e) {
+                    System.err.println("Warning: Could not update mechanic availability: " + e.getMessage());
+                }
+            }
+        }
+
+        System.out.println("=== Delayed booking check: " + result + " ===");
+        return result;
+    }
+
+    private List<DelayedBooking> loadDelayedBookings(Connection conn, int mechanicId) throws SQLException {
+        List<DelayedBooking> bookings = new ArrayList<>();
+        String query = delayedBookingsQuery(mechanicId > 0);
+
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            if (mechanicId > 0) {
+                stmt.setInt(1, mechanicId);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    bookings.add(new DelayedBooking(
+                        rs.getInt("id"),
+                        rs.getInt("mechanic_id"),
+                        rs.getObject("mechanic_found") != null,
+                        rs.getString("availability"),
+                        rs.getInt("job_count")
+                    ));
+                }
+            }
+        }
+        return bookings;
+    }
+
+    // Delayed bookings of all mechanics, or of the one bound as the only parameter
+    static String delayedBookingsQuery(boolean forMechanic) {
+        return String.format(DELAYED_BOOKINGS_QUERY, forMechanic ? "AND sb.mechanic_id = ? " : "");
+    }
+
+    private Map<Integer, List<PartNeed>> loadDelayedParts(Connection conn, Map<Integer, PartStock> stock) throws SQLException {
+        Map<Integer, List<PartNeed>> needsByBooking = new HashMap<>();
+
+        try (PreparedStatement stmt = conn.prepareStatement(DELAYED_PARTS_QUERY);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                int partId = rs.getInt("part_id");
+                int quantity = rs.getInt("quantity");
+
+                PartStock part = stock.get(partId);
+                if (part == null) {
+                    part = new PartStock(rs.getInt("quantity_in_stock"), rs.getInt("reserved_quantity"));
+                    stock.put(partId, part);
+                }
+                part.delayedDemand += quantity;
+
+                needsByBooking.computeIfAbsent(rs.getInt("booking_id"), id -> new ArrayList<>())
+                    .add(new PartNeed(partId, rs.getString("part_name"), quantity));
+            }
+        }
+
+        // Stock free for delayed bookings = on hand minus what non-delayed bookings have reserved
+        for (PartStock part : stock.values()) {
+            int committed = Math.max(0, part.reserved - part.delayedDemand);
+            part.remaining = part.inStock - committed;
+        }
+        return needsByBooking;
+    }
+
+    private void decide(List<DelayedBooking> bookings, Map<Integer, List<PartNeed>> needsByBooking,
+                        Map<Integer, PartStock> stock, Result result) {
+        Map<Integer, Integer> promotedPerMechanic = new HashMap<>();
+
+        for (DelayedBooking booking : bookings) {
+            if (!booking.mechanicFound) {
+                result.block(booking.id, "Mechanic #" + booking.mechanicId + " not found");
+                continue;
+            }
+            if ("Off Duty".equalsIgnoreCase(booking.availability)) {
+                result.block(booking.id, "Mechanic is off duty");
+                continue;
+            }
+            int jobs = booking.activeJobs + promotedPerMechanic.getOrDefault(booking.mechanicId, 0);
+            if (jobs >= MAX_ACTIVE_JOBS) {
+                result.block(booking.id, "Mechanic at capacity (" + jobs + " active jobs)");
+                continue;
+            }
+
+            List<PartNeed> needs = needsByBooking.getOrDefault(booking.id, Collections.emptyList());
+            List<String> shortParts = new ArrayList<>();
+            for (PartNeed need : needs) {
+                PartStock part = stock.get(need.partId);
+                if (need.quantity > part.remaining) {
+                    shortParts.add(need.partName + " (need " + need.quantity + ", available " + Math.max(0, part.remaining) + ")");
+                }
+            }
+            if (!shortParts.isEmpty()) {
+                result.block(booking.id, "Insufficient parts: " + String.join(", ", shortParts));
+                continue;
+            }
+
+            // Claim the stock so later bookings in the queue only see what is left
+            for (PartNeed need : needs) {
+                stock.get(need.partId).remaining -= need.quantity;
+            }
+            promotedPerMechanic.merge(booking.mechanicId, 1, Integer::sum);
+            result.promotedBookingIds.add(booking.id);
+            result.promotedMechanicIds.add(booking.mechanicId);
+        }
+    }
+
+    private void applyPromotions(Connection conn, List<Integer> bookingIds, int triggeringBookingId) throws SQLException {
+        // Only track the triggering booking when there is one (manual checks leave the column alone)
+        String sql = triggeringBookingId > 0
+            ? "UPDATE service_bookings SET status = 'scheduled', promoted_by_booking_id = ? WHERE id = ? AND status = 'delayed'"
+            : "UPDATE service_bookings SET status = 'scheduled' WHERE id = ? AND status = 'delayed'";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int bookingId : bookingIds) {
+                int param = 1;
+                if (triggeringBookingId > 0) {
+                    stmt.setInt(param++, triggeringBookingId);
+                }
+                stmt.setInt(param, bookingId);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static class DelayedBooking {
+        final int id;
+        final int mechanicId;
+        final boolean mechanicFound;
+        final String availability;
+        final int activeJobs;
+
+        DelayedBooking(int id, int mechanicId, boolean mechanicFound, String availability, int activeJobs) {
+            this.id = id;
+            this.mechanicId = mechanicId;
+            this.mechanicFound = mechanicFound;
+            this.availability = availability;
+            this.activeJobs = activeJobs;
+        }
+    }
+
+    private static class PartNeed {
+        final int partId;
+        final String partName;
+        final int quantity;
+
+        PartNeed(int partId, String partName, int quantity) {
+            this.partId = partId;
+            this.partName = partName;
+            this.quantity = quantity;
+        }
+    }
+
+    private static class PartStock {
+        final int inStock;
+        final int reserved;
+        int delayedDemand;
+        int remaining;
+
+        PartStock(int inStock, int reserved) {
+            this.inStock = inStock;
+            this.reserved = reserved;
+        }
+    }
+
+    /**
+     * Outcome of a promotion run: which bookings were promoted and why the rest stayed delayed
+     */
+    public static class Result {
+        private final List<Integer> promotedBookingIds = new ArrayList<>();
+        private final Set<Integer> promotedMechanicIds = new LinkedHashSet<>();
+        private final Map<Integer, String> blockedReasons = new LinkedHashMap<>();
+
+        private void block(int bookingId, String reason) {
+            blockedReasons.put(bookingId, reason);
+        }
+
+        public int getPromotedCount() { return promotedBookingIds.size(); }
+        public List<Integer> getPromotedBookingIds() { return Collections.unmodifiableList(promotedBookingIds); }
+
+        /**
+         * Booking ID -> reason it is still delayed
+         */
+        public Map<Integer, String> getBlockedReasons() { return Collections.unmodifiableMap(blockedReasons); }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("promoted " + promotedBookingIds.size() + " " + promotedBookingIds +
+                                                 ", still delayed " + blockedReasons.size());
+            for (Map.Entry<Integer, String> entry : blockedReasons.entrySet()) {
+                sb.append("\n  #").append(entry.getKey()).append(": ").append(entry.getValue());
+            }
+            return sb.toString();
+        }
+    }
+}
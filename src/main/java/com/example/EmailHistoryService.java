@@ -7,6 +7,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class EmailHistoryService {
+    // Also checked by QueryPlanCheck
+    static final String BILL_HISTORY_QUERY =
+        "SELECT esh.id, esh.billing_id, b.hex_id as bill_id, esh.recipient_email, " +
+        "esh.email_type, esh.subject, esh.sent_date, esh.status, esh.notes " +
+        "FROM email_sent_history esh " +
+        "JOIN billing b ON esh.billing_id = b.id " +
+        "WHERE esh.billing_id = ? " +
+        "ORDER BY esh.sent_date DESC";
     
     /**
      * Log an email sent to the database
@@ -114,13 +122,7 @@ public class EmailHistoryService {
         List<EmailSentRecord> records = new ArrayList<>();
         
         try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                "SELECT esh.id, esh.billing_id, b.hex_id as bill_id, esh.recipient_email, " +
-                "esh.email_type, esh.subject, esh.sent_date, esh.status, esh.notes " +
-                "FROM email_sent_history esh " +
-                "JOIN billing b ON esh.billing_id = b.id " +
-                "WHERE esh.billing_id = ? " +
-                "ORDER BY esh.sent_date DESC")) {
+             PreparedStatement stmt = conn.prepareStatement(BILL_HISTORY_QUERY)) {
             
             stmt.setInt(1, billingId);
             
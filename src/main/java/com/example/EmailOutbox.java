@@ -0,0 +1,450 @@
+package com.example;
+
+import javax.mail.MessagingException;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Persistent outgoing email queue backed by the email_outbox table.
+ *
+ * enqueue() only inserts a row, so UI actions return immediately. Worker threads
+ * claim pending rows in batches and send them over one SMTP connection per worker,
+ * which stays open while there is work and is closed when the queue runs dry.
+ * Failed sends are retried with exponential backoff; the final result of messages
+ * tied to a bill is written to email_sent_history.
+ *
+ * Several workstations can run the outbox against one database. A claimed message
+ * records who claimed it and when (a lease of autotech.mail.leaseSeconds, default
+ * 15 minutes, longer than a batch takes to send). Only messages whose lease has
+ * expired, e.g. because their workstation was closed mid-send, are put back in the
+ * queue, so a starting workstation never re-sends mail another one is sending.
+ *
+ * Point the SMTP settings in EmailService at a local server
+ * (-Dautotech.smtp.host/port/auth) to exercise it without a real mail provider.
+ */
+public class EmailOutbox {
+    private static EmailOutbox instance;
+
+    private static final int CAPACITY = Integer.getInteger("autotech.mail.outboxCapacity", 1000);
+    private static final int WORKER_COUNT = Integer.getInteger("autotech.mail.workers", 1);
+    static final int BATCH_SIZE = 20;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_SECONDS = 30;
+    private static final long MAX_BACKOFF_SECONDS = 30 * 60;
+    // Idle workers re-check the table this often so retries come due without a new enqueue
+    private static final long POLL_INTERVAL_MS = 15_000;
+    private static final long LEASE_SECONDS = Long.getLong("autotech.mail.leaseSeconds", 15 * 60);
+    // Serializes the capacity check and insert of enqueue() across workstations
+    private static final String ENQUEUE_LOCK = "autotech_email_outbox_enqueue";
+    private static final int ENQUEUE_LOCK_TIMEOUT_SECONDS = 10;
+    // Also checked by QueryPlanCheck; bind BATCH_SIZE
+    static final String CLAIM_QUERY =
+        "SELECT id, billing_id, recipient_email, email_type, subject, html_body, attempts " +
+        "FROM email_outbox WHERE status = 'pending' AND next_attempt_at <= NOW() " +
+        "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private final EmailService emailService;
+    // Lock/Condition rather than wait/notify so idle virtual-thread workers don't pin a carrier
+    private final ReentrantLock signalLock = new ReentrantLock();
+    private final Condition workAvailable = signalLock.newCondition();
+    private final List<Future<?>> workers = new ArrayList<>();
+    // Written to claimed_by; unique per outbox, so two on one machine don't share leases
+    private final String owner = ownerId();
+    private volatile boolean running;
+
+    // Package-private so OutboxCheck can pair the queue with an EmailService pointed at a local SMTP server
+    EmailOutbox(EmailService emailService) {
+        this.emailService = emailService;
+    }
+
+    public static synchronized EmailOutbox getInstance() {
+        if (instance == null) {
+            instance = new EmailOutbox(EmailService.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Start the worker threads. Messages left in 'sending' whose lease has expired
+     * (e.g. a workstation was closed mid-send) are put back in the queue first.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        try {
+            reclaimExpiredLeases();
+        } catch (SQLException e) {
+            System.err.println("Email outbox unavailable, emails will be sent directly: " + e.getMessage());
+            return;
+        }
+
+        running = true;
+        // Workers spend their time blocked on SMTP and the database, so they run on virtual threads
+        for (int i = 1; i <= WORKER_COUNT; i++) {
+            workers.add(AppExecutors.runIo("email-outbox-" + i, this::runWorker));
+        }
+        System.out.println("Email outbox started with " + WORKER_COUNT + " worker(s)");
+    }
+
+    /**
+     * Stop the workers. Unsent messages stay in the table and go out on the next start.
+     */
+    public synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        wakeWorkers();
+        for (Future<?> worker : workers) {
+            try {
+                worker.get(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                worker.cancel(true);
+            }
+        }
+        workers.clear();
+        System.out.println("Email outbox stopped");
+    }
+
+    /**
+     * Queue a message for background delivery.
+     * @param billingId bill the message belongs to, or 0; only bill emails are logged to email history
+     * @return false if the queue is full or the message could not be stored or sent
+     */
+    public boolean enqueue(String recipient, String subject, String htmlBody, String emailType, int billingId) {
+        if (!running) {
+            start();
+        }
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            // Without the lock, two clients could both see room for one more message
+            lockEnqueue(conn);
+            try {
+                try (PreparedStatement countStmt = conn.prepareStatement(
+                        "SELECT COUNT(*) FROM email_outbox WHERE status IN ('pending', 'sending')");
+                     ResultSet rs = countStmt.executeQuery()) {
+                    if (rs.next() && rs.getInt(1) >= CAPACITY) {
+                        System.err.println("Email outbox full (" + CAPACITY + " messages), dropping: " + subject);
+                        return false;
+                    }
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "INSERT INTO email_outbox (billing_id, recipient_email, email_type, subject, html_body) " +
+                        "VALUES (?, ?, ?, ?, ?)")) {
+                    if (billingId > 0) {
+                        stmt.setInt(1, billingId);
+                    } else {
+                        stmt.setNull(1, Types.INTEGER);
+                    }
+                    stmt.setString(2, recipient);
+                    stmt.setString(3, emailType);
+                    stmt.setString(4, subject);
+                    stmt.setString(5, htmlBody);
+                    stmt.executeUpdate();
+                }
+            } finally {
+                unlockEnqueue(conn);
+            }
+        } catch (SQLException e) {
+            // No outbox table (older schema) or database down - fall back to sending inline
+            System.err.println("Could not queue email, sending directly: " + e.getMessage());
+            boolean sent = emailService.sendEmailNow(recipient, subject, htmlBody);
+            logHistory(billingId, recipient, emailType, subject, sent ? "sent" : "failed", null);
+            return sent;
+        }
+
+        wakeWorkers();
+        return true;
+    }
+
+    /**
+     * Number of messages waiting to be sent (including ones waiting for a retry)
+     */
+    public int getPendingCount() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM email_outbox WHERE status IN ('pending', 'sending')")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Put messages whose lease has expired back in the queue. Claims made before
+     * leases existed have no claimed_at and count as expired.
+     * @return number of messages re-queued
+     */
+    int reclaimExpiredLeases() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE email_outbox SET status = 'pending', claimed_by = NULL, claimed_at = NULL " +
+                "WHERE status = 'sending' AND (claimed_at IS NULL OR claimed_at < NOW() - INTERVAL ? SECOND)")) {
+            stmt.setLong(1, LEASE_SECONDS);
+            int recovered = stmt.executeUpdate();
+            if (recovered > 0) {
+                System.out.println("Email outbox: re-queued " + recovered + " message(s) with an expired lease");
+            }
+            return recovered;
+        }
+    }
+
+    private static void lockEnqueue(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, ENQUEUE_LOCK);
+            stmt.setInt(2, ENQUEUE_LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for the email outbox lock");
+                }
+            }
+        }
+    }
+
+    private static void unlockEnqueue(Connection conn) {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, ENQUEUE_LOCK);
+            stmt.executeQuery().close();
+        } catch (SQLException e) {
+            System.err.println("Warning: Could not release email outbox lock: " + e.getMessage());
+        }
+    }
+
+    private void wakeWorkers() {
+        signalLock.lock();
+        try {
+            workAvailable.signalAll();
+        } finally {
+            signalLock.unlock();
+        }
+    }
+
+    private void runWorker() {
+        Transport transport = null;
+
+        while (running) {
+            List<OutboxMessage> batch;
+            try {
+                batch = claimBatch();
+            } catch (SQLException e) {
+                System.err.println("Email outbox: could not read queue: " + e.getMessage());
+                batch = new ArrayList<>();
+            }
+
+            if (batch.isEmpty()) {
+                // Nothing due - release the SMTP connection while idle, and pick up
+                // messages a closed workstation left behind
+                transport = closeQuietly(transport);
+                try {
+                    if (reclaimExpiredLeases() > 0) {
+                        continue;
+                    }
+                } catch (SQLException e) {
+                    System.err.println("Email outbox: could not re-queue expired messages: " + e.getMessage());
+                }
+                signalLock.lock();
+                try {
+                    workAvailable.await(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } finally {
+                    signalLock.unlock();
+                }
+                continue;
+            }
+
+            for (OutboxMessage message : batch) {
+                try {
+                    if (transport == null || !transport.isConnected()) {
+                        transport = closeQuietly(transport);
+                        transport = emailService.openTransport();
+                    }
+                    MimeMessage mime = emailService.createMessage(message.recipient, message.subject, message.htmlBody);
+                    transport.sendMessage(mime, mime.getAllRecipients());
+                    markSent(message);
+                } catch (MessagingException e) {
+                    // The connection may be unusable after an error; reconnect for the next message
+                    transport = closeQuietly(transport);
+                    markFailed(message, e.getMessage());
+                } catch (Exception e) {
+                    markFailed(message, e.toString());
+                }
+            }
+        }
+
+        closeQuietly(transport);
+    }
+
+    /**
+     * Move up to BATCH_SIZE due messages from 'pending' to 'sending', leased to this
+     * outbox. SKIP LOCKED lets several workers claim disjoint batches.
+     */
+    private List<OutboxMessage> claimBatch() throws SQLException {
+        List<OutboxMessage> batch = new ArrayList<>();
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement(CLAIM_QUERY)) {
+                    stmt.setInt(1, BATCH_SIZE);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            batch.add(new OutboxMessage(
+                                rs.getInt("id"),
+                                rs.getInt("billing_id"),
+                                rs.getString("recipient_email"),
+                                rs.getString("email_type"),
+                                rs.getString("subject"),
+                                rs.getString("html_body"),
+                                rs.getInt("attempts")
+                            ));
+                        }
+                    }
+                }
+
+                if (!batch.isEmpty()) {
+                    try (PreparedStatement update = conn.prepareStatement(
+                            "UPDATE email_outbox SET status = 'sending', claimed_by = ?, claimed_at = NOW() WHERE id = ?")) {
+                        for (OutboxMessage message : batch) {
+                            update.setString(1, owner);
+                            update.setInt(2, message.id);
+                            update.addBatch();
+                        }
+                        update.executeBatch();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        return batch;
+    }
+
+    private void markSent(OutboxMessage message) {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE email_outbox SET status = 'sent', attempts = attempts + 1, sent_at = NOW(), last_error = NULL, " +
+                "claimed_by = NULL, claimed_at = NULL WHERE id = ? AND claimed_by = ?")) {
+            stmt.setInt(1, message.id);
+            stmt.setString(2, owner);
+            if (stmt.executeUpdate() == 0) {
+                warnLeaseLost(message);
+            }
+        } catch (SQLException e) {
+            System.err.println("Email outbox: could not mark message #" + message.id + " as sent: " + e.getMessage());
+        }
+
+        System.out.println("Email sent successfully to: " + message.recipient);
+        logHistory(message.billingId, message.recipient, message.emailType, message.subject, "sent", null);
+    }
+
+    private void markFailed(OutboxMessage message, String error) {
+        int attempts = message.attempts + 1;
+        boolean giveUp = attempts >= MAX_ATTEMPTS;
+        // 30s, 60s, 120s, ... capped at 30 minutes
+        long backoffSeconds = Math.min(MAX_BACKOFF_SECONDS, BASE_BACKOFF_SECONDS << (attempts - 1));
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE email_outbox SET status = ?, attempts = ?, last_error = ?, " +
+                "next_attempt_at = NOW() + INTERVAL ? SECOND, claimed_by = NULL, claimed_at = NULL " +
+                "WHERE id = ? AND claimed_by = ?")) {
+            stmt.setString(1, giveUp ? "failed" : "pending");
+            stmt.setInt(2, attempts);
+            stmt.setString(3, error);
+            stmt.setLong(4, backoffSeconds);
+            stmt.setInt(5, message.id);
+            stmt.setString(6, owner);
+            if (stmt.executeUpdate() == 0) {
+                warnLeaseLost(message);
+                return;
+            }
+        } catch (SQLException e) {
+            System.err.println("Email outbox: could not update message #" + message.id + ": " + e.getMessage());
+        }
+
+        if (giveUp) {
+            System.err.println("Failed to send email to " + message.recipient + " after " + attempts + " attempts: " + error);
+            logHistory(message.billingId, message.recipient, message.emailType, message.subject, "failed", error);
+        } else {
+            System.err.println("Failed to send email to " + message.recipient + " (attempt " + attempts +
+                               "), retrying in " + backoffSeconds + "s: " + error);
+        }
+    }
+
+    // The lease ran out and the message was re-queued, so another outbox may send it too
+    private static void warnLeaseLost(OutboxMessage message) {
+        System.err.println("Email outbox: lease on message #" + message.id + " expired before it was sent; " +
+                           "raise autotech.mail.leaseSeconds if sends are this slow");
+    }
+
+    private void logHistory(int billingId, String recipient, String emailType, String subject, String status, String notes) {
+        // email_sent_history requires a bill; stock alerts are only logged to the console
+        if (billingId > 0) {
+            EmailHistoryService.logEmailSent(billingId, recipient, emailType, subject, status, notes);
+        }
+    }
+
+    private static String ownerId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        if (host.length() > 60) {
+            host = host.substring(0, 60);
+        }
+        return host + "/" + ProcessHandle.current().pid() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static Transport closeQuietly(Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                // Already disconnected
+            }
+        }
+        return null;
+    }
+
+    private static class OutboxMessage {
+        final int id;
+        final int billingId;
+        final String recipient;
+        final String emailType;
+        final String subject;
+        final String htmlBody;
+        final int attempts;
+
+        OutboxMessage(int id, int billingId, String recipient, String emailType,
+                      String subject, String htmlBody, int attempts) {
+            this.id = id;
+            this.billingId = billingId;
+            this.recipient = recipient;
+            this.emailType = emailType;
+            this.subject = subject;
+            this.htmlBody = htmlBody;
+            this.attempts = attempts;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An HTML email template, parsed once and rendered many times.
+ *
+ * Syntax is a small subset of Mustache:
+ *   {{name}}             value of name, HTML-escaped
+ *   {{#name}}...{{/name}} rendered once per element of a collection, or once if the
+ *                        value is true / any other non-null, non-empty value
+ *   {{^name}}...{{/name}} rendered only if the value is null, false or empty
+ *   {{.}}                the current element inside a section
+ *
+ * Values come from a Model, which answers names with a plain switch instead of
+ * reflection. Inside a section, names the element doesn't know fall back to the
+ * enclosing models. Rendering appends to a per-thread buffer that is reused across
+ * calls, so the only allocation per message is the resulting string.
+ */
+public final class EmailTemplate {
+    // Buffers that grew past this are dropped instead of kept for the thread
+    private static final int MAX_RETAINED_BUFFER = 256 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(8192));
+
+    /**
+     * Data for one template; returns null for names it doesn't have
+     */
+    public interface Model {
+        Object get(String name);
+    }
+
+    private interface Node {
+        void render(StringBuilder out, Scope scope);
+    }
+
+    // Chain of models, innermost first
+    private static final class Scope {
+        final Object value;
+        final Scope parent;
+
+        Scope(Object value, Scope parent) {
+            this.value = value;
+            this.parent = parent;
+        }
+
+        Object lookup(String name) {
+            if (".".equals(name)) {
+                return value;
+            }
+            for (Scope scope = this; scope != null; scope = scope.parent) {
+                if (scope.value instanceof Model) {
+                    Object found = ((Model) scope.value).get(name);
+                    if (found != null) {
+                        return found;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    private final String name;
+    private final List<Node> nodes;
+
+    private EmailTemplate(String name, List<Node> nodes) {
+        this.name = name;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Parse a template from the classpath, e.g. "/email/low_stock.html"
+     */
+    public static EmailTemplate load(String resource) {
+        try (InputStream in = EmailTemplate.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Email template not found on classpath: " + resource);
+            }
+            return parse(resource, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read email template " + resource, e);
+        }
+    }
+
+    public static EmailTemplate parse(String name, String text) {
+        List<List<Node>> stack = new ArrayList<>();
+        List<String> open = new ArrayList<>();
+        List<Boolean> inverted = new ArrayList<>();
+        List<Node> current = new ArrayList<>();
+
+        int pos = 0;
+        while (pos < text.length()) {
+            int start = text.indexOf("{{", pos);
+            if (start < 0) {
+                current.add(literal(text.substring(pos)));
+                break;
+            }
+            if (start > pos) {
+                current.add(literal(text.substring(pos, start)));
+            }
+            int end = text.indexOf("}}", start + 2);
+            if (end < 0) {
+                throw new IllegalArgumentException(name + ": unclosed tag at offset " + start);
+            }
+            String tag = text.substring(start + 2, end).trim();
+            pos = end + 2;
+
+            if (tag.startsWith("#") || tag.startsWith("^")) {
+                stack.add(current);
+                open.add(tag.substring(1).trim());
+                inverted.add(tag.startsWith("^"));
+                current = new ArrayList<>();
+            } else if (tag.startsWith("/")) {
+                String closing = tag.substring(1).trim();
+                if (open.isEmpty() || !open.get(open.size() - 1).equals(closing)) {
+                    throw new IllegalArgumentException(name + ": unexpected {{/" + closing + "}} at offset " + start);
+                }
+                List<Node> body = current;
+                current = stack.remove(stack.size() - 1);
+                String section = open.remove(open.size() - 1);
+                current.add(inverted.remove(inverted.size() - 1)
+                    ? invertedSection(section, body)
+                    : section(section, body));
+            } else {
+                current.add(variable(tag));
+            }
+        }
+        if (!open.isEmpty()) {
+            throw new IllegalArgumentException(name + ": {{#" + open.get(open.size() - 1) + "}} is never closed");
+        }
+        return new EmailTemplate(name, current);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Render the template with the given model
+     */
+    public String render(Model model) {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        try {
+            renderTo(out, model);
+            return out.toString();
+        } finally {
+            if (out.capacity() > MAX_RETAINED_BUFFER) {
+                BUFFER.remove();
+            }
+        }
+    }
+
+    /**
+     * Append the rendered template to out
+     */
+    public void renderTo(StringBuilder out, Model model) {
+        renderAll(nodes, out, new Scope(model, null));
+    }
+
+    private static void renderAll(List<Node> nodes, StringBuilder out, Scope scope) {
+        for (int i = 0, n = nodes.size(); i < n; i++) {
+            nodes.get(i).render(out, scope);
+        }
+    }
+
+    private static Node literal(String text) {
+        return (out, scope) -> out.append(text);
+    }
+
+    private static Node variable(String name) {
+        return (out, scope) -> {
+            Object value = scope.lookup(name);
+            if (value != null) {
+                escape(out, value.toString());
+            }
+        };
+    }
+
+    private static Node section(String name, List<Node> body) {
+        return (out, scope) -> {
+            Object value = scope.lookup(name);
+            if (value instanceof Collection) {
+                for (Object element : (Collection<?>) value) {
+                    renderAll(body, out, new Scope(element, scope));
+                }
+            } else if (!isFalsy(value)) {
+                renderAll(body, out, value instanceof Model ? new Scope(value, scope) : scope);
+            }
+        };
+    }
+
+    private static Node invertedSection(String name, List<Node> body) {
+        return (out, scope) -> {
+            if (isFalsy(scope.lookup(name))) {
+                renderAll(body, out, scope);
+            }
+        };
+    }
+
+    private static boolean isFalsy(Object value) {
+        return value == null
+            || Boolean.FALSE.equals(value)
+            || (value instanceof Collection && ((Collection<?>) value).isEmpty())
+            || (value instanceof String && ((String) value).isEmpty());
+    }
+
+    private static void escape(StringBuilder out, String text) {
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&': out.append("&amp;"); break;
+                case '<': out.append("&lt;"); break;
+                case '>': out.append("&gt;"); break;
+                case '"': out.append("&quot;"); break;
+                case '\'': out.append("&#39;"); break;
+                default: out.append(c);
+            }
+        }
+    }
+}
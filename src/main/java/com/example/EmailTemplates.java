@@ -0,0 +1,221 @@
+package com.example;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The email templates under /email on the classpath and the model of each email.
+ *
+ * All templates are parsed when this class is first used (App touches it at startup,
+ * so a broken template fails there rather than on the first alert). Models are plain
+ * data; rendering one needs no database or SMTP, e.g.
+ *   EmailTemplates.LOW_STOCK.render(new EmailTemplates.StockAlert(items))
+ */
+public final class EmailTemplates {
+    public static final EmailTemplate ZERO_STOCK = EmailTemplate.load("/email/zero_stock.html");
+    public static final EmailTemplate LOW_STOCK = EmailTemplate.load("/email/low_stock.html");
+    public static final EmailTemplate LOW_AVAILABLE_STOCK = EmailTemplate.load("/email/low_available_stock.html");
+    public static final EmailTemplate EXPIRATION = EmailTemplate.load("/email/expiration.html");
+    public static final EmailTemplate BILL_NOTIFICATION = EmailTemplate.load("/email/bill_notification.html");
+    public static final EmailTemplate RECEIPT = EmailTemplate.load("/email/receipt.html");
+
+    private EmailTemplates() {
+        // Static utility
+    }
+
+    /**
+     * Parse every template now instead of on first use
+     */
+    public static void preload() {
+        System.out.println("Email templates loaded: " + ZERO_STOCK.getName() + ", " + LOW_STOCK.getName() + ", " +
+                           LOW_AVAILABLE_STOCK.getName() + ", " + EXPIRATION.getName() + ", " +
+                           BILL_NOTIFICATION.getName() + ", " + RECEIPT.getName());
+    }
+
+    static String money(double amount) {
+        return "₱" + String.format("%.2f", amount);
+    }
+
+    /**
+     * One inventory row of an alert
+     */
+    public static class ItemRow implements EmailTemplate.Model {
+        private final InventoryItem item;
+        private final LocalDate today;
+
+        public ItemRow(InventoryItem item, LocalDate today) {
+            this.item = item;
+            this.today = today;
+        }
+
+        @Override
+        public Object get(String name) {
+            switch (name) {
+                case "hexId": return item.getHexId();
+                case "name": return item.getName();
+                case "category": return item.getCategory();
+                case "quantity": return item.getQuantity();
+                case "reserved": return item.getReservedQuantity();
+                case "available": return item.getAvailableQuantity();
+                case "minimumStock": return item.getMinimumStock();
+                case "unit": return item.getUnit();
+                case "location": return item.getLocation();
+                case "expirationDate": return item.getExpirationDate();
+                case "daysUntilExpiration":
+                    return item.getExpirationDate() != null ? ChronoUnit.DAYS.between(today, item.getExpirationDate()) : null;
+                default: return null;
+            }
+        }
+    }
+
+    private static List<ItemRow> rows(List<InventoryItem> items) {
+        if (items == null) {
+            return Collections.emptyList();
+        }
+        LocalDate today = LocalDate.now();
+        List<ItemRow> rows = new ArrayList<>(items.size());
+        for (InventoryItem item : items) {
+            rows.add(new ItemRow(item, today));
+        }
+        return rows;
+    }
+
+    /**
+     * Zero, low and low-available stock alerts
+     */
+    public static class StockAlert implements EmailTemplate.Model {
+        private final List<ItemRow> items;
+
+        public StockAlert(List<InventoryItem> items) {
+            this.items = rows(items);
+        }
+
+        public int getCount() { return items.size(); }
+
+        @Override
+        public Object get(String name) {
+            return "items".equals(name) ? items : null;
+        }
+    }
+
+    public static class ExpirationAlert implements EmailTemplate.Model {
+        private final List<ItemRow> expired;
+        private final List<ItemRow> expiringSoon;
+
+        public ExpirationAlert(List<InventoryItem> expiringSoonItems, List<InventoryItem> expiredItems) {
+            this.expired = rows(expiredItems);
+            this.expiringSoon = rows(expiringSoonItems);
+        }
+
+        public int getExpiredCount() { return expired.size(); }
+        public int getExpiringSoonCount() { return expiringSoon.size(); }
+
+        @Override
+        public Object get(String name) {
+            switch (name) {
+                case "expired": return expired;
+                case "hasExpired": return !expired.isEmpty();
+                case "expiringSoon": return expiringSoon;
+                case "hasExpiringSoon": return !expiringSoon.isEmpty();
+                default: return null;
+            }
+        }
+    }
+
+    /**
+     * A part line of a bill
+     */
+    public static class PartLine implements EmailTemplate.Model {
+        private final String name;
+        private final int quantity;
+        private final double price;
+
+        public PartLine(String name, int quantity, double price) {
+            this.name = name;
+            this.quantity = quantity;
+            this.price = price;
+        }
+
+        public double getSubtotal() { return quantity * price; }
+
+        @Override
+        public Object get(String key) {
+            switch (key) {
+                case "partName": return name;
+                case "quantity": return quantity;
+                case "unitPrice": return money(price);
+                case "subtotal": return money(getSubtotal());
+                default: return null;
+            }
+        }
+    }
+
+    static List<PartLine> partLines(List<BookingPart> parts) {
+        List<PartLine> lines = new ArrayList<>(parts.size());
+        for (BookingPart part : parts) {
+            lines.add(new PartLine(part.getPartName(), part.getQuantity(), part.getPrice()));
+        }
+        return lines;
+    }
+
+    /**
+     * Everything the bill notification shows. Load with loadAll, which reads any
+     * number of bills through BillDetails.loadAll.
+     */
+    public static class BillNotification implements EmailTemplate.Model {
+        private final BillDetails bill;
+        private final List<PartLine> parts;
+
+        public BillNotification(BillDetails bill) {
+            this.bill = bill;
+            this.parts = partLines(bill.getParts());
+        }
+
+        public int getBillId() { return bill.getBillId(); }
+        public String getBillHexId() { return bill.getBillHexId(); }
+        public double getAmount() { return bill.getAmount(); }
+        public String getCustomerEmail() { return bill.getCustomerEmail(); }
+
+        @Override
+        public Object get(String name) {
+            switch (name) {
+                case "customerName": return bill.getCustomerName();
+                case "bookingHexId": return bill.getBookingHexId();
+                case "services": return bill.getServices();
+                case "hasServices": return !bill.getServices().isEmpty();
+                case "serviceCount": return bill.getServices().size();
+                case "vehicle": return bill.getVehicleInfo();
+                case "serviceDate": return bill.getServiceDate();
+                case "mechanicName": return bill.getMechanicName();
+                case "serviceDescription": return bill.getServiceDescription();
+                case "billHexId": return bill.getBillHexId();
+                case "billDate": return bill.getBillDate();
+                case "serviceCharge": return money(bill.getAmount() - bill.getPartsTotal());
+                case "parts": return parts;
+                case "hasParts": return !parts.isEmpty();
+                case "partsCost": return money(bill.getPartsTotal());
+                case "amount": return money(bill.getAmount());
+                case "paymentStatus": return bill.getPaymentStatus() != null ? bill.getPaymentStatus().toUpperCase() : null;
+                default: return null;
+            }
+        }
+
+        /**
+         * Notifications for the given bills, keyed by bill ID; bills that no longer exist are left out
+         */
+        public static Map<Integer, BillNotification> loadAll(Collection<Integer> billIds) throws SQLException {
+            Map<Integer, BillNotification> models = new HashMap<>();
+            for (BillDetails bill : BillDetails.loadAll(billIds).values()) {
+                models.put(bill.getBillId(), new BillNotification(bill));
+            }
+            return models;
+        }
+    }
+}
@@ -1,59 +1,181 @@
 package com.example;
 
 import java.security.SecureRandom;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Generates PREFIX-XXXXXXXX style IDs.
+ *
+ * Each prefix has a counter in id_sequences (see SequenceAllocator). Counter values
+ * are reserved in blocks and scrambled by a fixed 32-bit permutation, so IDs still
+ * look random but two counter values can never produce the same ID. Each new block
+ * is checked once against the module's table to skip IDs already taken by older,
+ * randomly generated rows.
+ *
+ * If the id_sequences table is missing (older schema) IDs fall back to random
+ * values as before.
+ */
 public class HexIdGenerator {
     private static final SecureRandom random = new SecureRandom();
-    private static final String HEX_CHARS = "0123456789ABCDEF";
-    
+    private static final char[] HEX_CHARS = "0123456789ABCDEF".toCharArray();
+
+    private static final int ID_LENGTH = 8;
+    private static final int BLOCK_SIZE = Integer.getInteger("autotech.hexId.blockSize", 64);
+
+    // Table holding each prefix's IDs, for skipping IDs issued before sequences existed
+    private static final Map<String, String> PREFIX_TABLES = new HashMap<>();
+
+    static {
+        PREFIX_TABLES.put("CUST", "customers");
+        PREFIX_TABLES.put("VEH", "vehicles");
+        PREFIX_TABLES.put("BOOK", "service_bookings");
+        PREFIX_TABLES.put("PART", "parts");
+        PREFIX_TABLES.put("BILL", "billing");
+        PREFIX_TABLES.put("MECH", "mechanics");
+        PREFIX_TABLES.put("INV", "invoices");
+    }
+
+    private static final Map<String, PrefixSequence> sequences = new ConcurrentHashMap<>();
+    private static volatile boolean sequencesAvailable = true;
+
     /**
-     * Generates a random hexadecimal ID with the specified prefix and length
+     * IDs for one prefix, handed out from the current reserved block
+     */
+    private static final class PrefixSequence {
+        private final String prefix;
+        private final char[] prefixChars;
+        private final int key;
+        private final ArrayDeque<String> ready = new ArrayDeque<>(BLOCK_SIZE);
+
+        PrefixSequence(String prefix) {
+            this.prefix = prefix;
+            this.prefixChars = prefix.toCharArray();
+            this.key = prefix.hashCode();
+        }
+
+        synchronized String next() throws SQLException {
+            while (ready.isEmpty()) {
+                refill();
+            }
+            return ready.poll();
+        }
+
+        private void refill() throws SQLException {
+            long start = SequenceAllocator.reserve("hex_id:" + prefix, BLOCK_SIZE);
+            List<String> ids = new ArrayList<>(BLOCK_SIZE);
+            for (int i = 0; i < BLOCK_SIZE; i++) {
+                ids.add(encode(prefixChars, permute((int) (start + i), key) & 0xFFFFFFFFL, ID_LENGTH));
+            }
+            ids.removeAll(findExisting(prefix, ids));
+            ready.addAll(ids);
+        }
+    }
+
+    /**
+     * Generates a hexadecimal ID with the specified prefix and length
      * @param prefix Prefix for the ID (e.g., "CUST", "BOOK", "PART")
      * @param length Length of the hex portion (default 8)
      * @return Generated ID (e.g., "CUST-A1B2C3D4")
      */
     public static String generate(String prefix, int length) {
-        StringBuilder hexId = new StringBuilder();
-        for (int i = 0; i < length; i++) {
-            hexId.append(HEX_CHARS.charAt(random.nextInt(HEX_CHARS.length())));
+        if (length == ID_LENGTH && sequencesAvailable) {
+            try {
+                return sequences.computeIfAbsent(prefix, PrefixSequence::new).next();
+            } catch (SQLException e) {
+                if ("42S02".equals(e.getSQLState())) {
+                    // Table missing (older schema) - stop trying
+                    sequencesAvailable = false;
+                }
+                System.err.println("Warning: Could not reserve hex IDs, using a random ID: " + e.getMessage());
+            }
         }
-        return prefix + "-" + hexId.toString();
+        return encode(prefix.toCharArray(), random.nextLong(), length);
     }
-    
+
     /**
      * Generates a hex ID with default length of 8 characters
      */
     public static String generate(String prefix) {
-        return generate(prefix, 8);
+        return generate(prefix, ID_LENGTH);
     }
-    
+
+    // PREFIX-XXXX... from the low 4*length bits of value, written straight into one char array
+    private static String encode(char[] prefixChars, long value, int length) {
+        char[] buf = new char[prefixChars.length + 1 + length];
+        System.arraycopy(prefixChars, 0, buf, 0, prefixChars.length);
+        buf[prefixChars.length] = '-';
+        for (int i = buf.length - 1; i > prefixChars.length; i--) {
+            buf[i] = HEX_CHARS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        return new String(buf);
+    }
+
+    // Bijective 32-bit mix (murmur3 finalizer): distinct inputs always give distinct outputs
+    static int permute(int x, int key) {
+        x ^= key;
+        x *= 0x9E3779B1;
+        x ^= x >>> 16;
+        x *= 0x85EBCA6B;
+        x ^= x >>> 13;
+        x *= 0xC2B2AE35;
+        x ^= x >>> 16;
+        return x;
+    }
+
+    // IDs from the block that older rows already use
+    private static Set<String> findExisting(String prefix, List<String> ids) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        String table = PREFIX_TABLES.get(prefix);
+        if (table == null || ids.isEmpty()) {
+            return existing;
+        }
+
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                 "SELECT hex_id FROM " + table + " WHERE hex_id IN (" + placeholders + ")")) {
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setString(i + 1, ids.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getString(1));
+                }
+            }
+        }
+        return existing;
+    }
+
     /**
      * Generates hex IDs for different modules
      */
     public static String generateCustomerId() {
         return generate("CUST", 8);
     }
-    
+
     public static String generateVehicleId() {
         return generate("VEH", 8);
     }
-    
+
     public static String generateBookingId() {
         return generate("BOOK", 8);
     }
-    
+
     public static String generatePartId() {
         return generate("PART", 8);
     }
-    
+
     public static String generateBillId() {
         return generate("BILL", 8);
     }
-    
+
     public static String generateMechanicId() {
         return generate("MECH", 8);
     }
-    
+
     public static String generateInvoiceId() {
         return generate("INV", 8);
     }
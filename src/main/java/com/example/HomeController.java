@@ -108,30 +108,16 @@ public class HomeController {
     
     private void loadStatistics() {
         try {
-            ServiceBookingService bookingService = new ServiceBookingService();
+            DashboardStatsService statsService = DashboardStatsService.getInstance();
             
             // Role-specific statistics
             if (currentUser.getRole() == User.UserRole.ADMIN) {
                 // Admin sees everything
-                CustomerService customerService = CustomerService.getInstance();
-                List<Customer> customers = customerService.getAllCustomers();
-                totalCustomersLabel.setText(String.valueOf(customers.size()));
-                
-                List<ServiceBookingViewModel> allBookings = bookingService.getAllBookings();
-                totalBookingsLabel.setText(String.valueOf(allBookings.size()));
-                
-                long pendingCount = allBookings.stream()
-                    .filter(b -> "scheduled".equalsIgnoreCase(b.getStatus()) || 
-                                "in_progress".equalsIgnoreCase(b.getStatus()))
-                    .count();
-                pendingBookingsLabel.setText(String.valueOf(pendingCount));
-                
-                InventoryService inventoryService = InventoryService.getInstance();
-                List<InventoryItem> items = inventoryService.getAllItems();
-                long lowStockCount = items.stream()
-                    .filter(item -> item.getQuantity() <= item.getMinimumStock())
-                    .count();
-                lowStockItemsLabel.setText(String.valueOf(lowStockCount));
+                DashboardStats stats = statsService.getStats();
+                totalCustomersLabel.setText(String.valueOf(stats.getCustomerCount()));
+                totalBookingsLabel.setText(String.valueOf(stats.getTotalBookings()));
+                pendingBookingsLabel.setText(String.valueOf(stats.getPendingBookings()));
+                lowStockItemsLabel.setText(String.valueOf(stats.getLowStockCount()));
                 
             } else if (currentUser.getRole() == User.UserRole.MECHANIC) {
                 // Mechanic sees only their own job-related stats
@@ -139,50 +125,31 @@ public class HomeController {
                 Mechanic mechanic = mechanicService.getMechanicByUserId(currentUser.getId());
                 
                 if (mechanic != null) {
-                    List<ServiceBookingViewModel> myBookings = bookingService.getBookingsForMechanic(mechanic.getId());
+                    DashboardStats stats = statsService.getStatsForMechanic(mechanic.getId());
                     
                     // Hide customer count (not relevant)
                     totalCustomersLabel.setText("N/A");
                     
                     // Show only their bookings
-                    totalBookingsLabel.setText(String.valueOf(myBookings.size()));
+                    totalBookingsLabel.setText(String.valueOf(stats.getTotalBookings()));
                     
                     // Show their pending bookings
-                    long myPendingCount = myBookings.stream()
-                        .filter(b -> "scheduled".equalsIgnoreCase(b.getStatus()) || 
-                                    "in_progress".equalsIgnoreCase(b.getStatus()))
-                        .count();
-                    pendingBookingsLabel.setText(String.valueOf(myPendingCount));
+                    pendingBookingsLabel.setText(String.valueOf(stats.getPendingBookings()));
                     
                     // Show low stock items (relevant for their work)
-                    InventoryService inventoryService = InventoryService.getInstance();
-                    List<InventoryItem> items = inventoryService.getAllItems();
-                    long lowStockCount = items.stream()
-                        .filter(item -> item.getQuantity() <= item.getMinimumStock())
-                        .count();
-                    lowStockItemsLabel.setText(String.valueOf(lowStockCount));
+                    lowStockItemsLabel.setText(String.valueOf(stats.getLowStockCount()));
                 }
                 
             } else if (currentUser.getRole() == User.UserRole.CASHIER) {
                 // Cashier sees billing-related stats
-                CustomerService customerService = CustomerService.getInstance();
-                List<Customer> customers = customerService.getAllCustomers();
-                totalCustomersLabel.setText(String.valueOf(customers.size()));
+                DashboardStats stats = statsService.getStats();
+                totalCustomersLabel.setText(String.valueOf(stats.getCustomerCount()));
                 
                 // Show completed bookings (potential bills)
-                List<ServiceBookingViewModel> allBookings = bookingService.getAllBookings();
-                long completedCount = allBookings.stream()
-                    .filter(b -> "completed".equalsIgnoreCase(b.getStatus()))
-                    .count();
-                totalBookingsLabel.setText(String.valueOf(completedCount));
+                totalBookingsLabel.setText(String.valueOf(stats.getBookingCount("completed")));
                 
                 // Show unpaid bills count
-                BillingService billingService = BillingService.getInstance();
-                List<Bill> bills = billingService.getAllBills();
-                long unpaidCount = bills.stream()
-                    .filter(b -> "Unpaid".equalsIgnoreCase(b.getPaymentStatus()))
-                    .count();
-                pendingBookingsLabel.setText(String.valueOf(unpaidCount));
+                pendingBookingsLabel.setText(String.valueOf(stats.getUnpaidBillCount()));
                 
                 // Hide inventory (not relevant)
                 lowStockItemsLabel.setText("N/A");
@@ -402,12 +369,9 @@ public class HomeController {
                 notificationCount++;
             }
             
-        // Notification 6: Overdue bills
-        BillingService billingService = BillingService.getInstance();
-        List<Bill> bills = billingService.getAllBills();
-        long overdueCount = bills.stream()
-            .filter(b -> "Overdue".equalsIgnoreCase(b.getPaymentStatus()))
-            .count();
+        // Notification 6: Overdue bills, from the daily revenue totals
+        RevenueLedger.Summary revenue = RevenueLedger.getInstance().getSummary();
+        int overdueCount = revenue.getBillCount("Overdue");
         
         if (overdueCount > 0) {
             addNotification(
@@ -418,6 +382,9 @@ public class HomeController {
             notificationCount++;
         }
         
+        // Notification 7: Revenue this month
+        notificationCount = addRevenueNotification(notificationCount, revenue);
+        
         return notificationCount;
     }
     
@@ -488,12 +455,10 @@ public class HomeController {
     
     private int loadCashierNotifications(int notificationCount) throws SQLException {
         BillingService billingService = BillingService.getInstance();
-        List<Bill> bills = billingService.getAllBills();
+        RevenueLedger.Summary revenue = RevenueLedger.getInstance().getSummary();
         
         // Notification 1: Unpaid bills
-        long unpaidCount = bills.stream()
-            .filter(b -> "Unpaid".equalsIgnoreCase(b.getPaymentStatus()))
-            .count();
+        int unpaidCount = revenue.getBillCount("Unpaid");
         
         if (unpaidCount > 0) {
             addNotification(
@@ -505,9 +470,7 @@ public class HomeController {
         }
         
         // Notification 2: Overdue bills
-        long overdueCount = bills.stream()
-            .filter(b -> "Overdue".equalsIgnoreCase(b.getPaymentStatus()))
-            .count();
+        int overdueCount = revenue.getBillCount("Overdue");
         
         if (overdueCount > 0) {
             addNotification(
@@ -519,19 +482,7 @@ public class HomeController {
         }
         
         // Notification 3: Completed bookings ready for billing
-        ServiceBookingService bookingService = new ServiceBookingService();
-        List<ServiceBookingViewModel> completedBookings = bookingService.getAllBookings().stream()
-            .filter(b -> "completed".equalsIgnoreCase(b.getStatus()))
-            .toList();
-        
-        // Check which completed bookings don't have bills yet
-        int readyForBilling = 0;
-        for (ServiceBookingViewModel booking : completedBookings) {
-            Bill bill = billingService.getBillByServiceId(booking.getId());
-            if (bill == null) {
-                readyForBilling++;
-            }
-        }
+        int readyForBilling = billingService.getUnbilledCompletedCount();
         
         if (readyForBilling > 0) {
             addNotification(
@@ -542,6 +493,24 @@ public class HomeController {
             notificationCount++;
         }
         
+        // Notification 4: Revenue this month
+        notificationCount = addRevenueNotification(notificationCount, revenue);
+        
+        return notificationCount;
+    }
+    
+    private int addRevenueNotification(int notificationCount, RevenueLedger.Summary revenue) {
+        if (revenue.getBilledThisMonth() > 0 || revenue.getOutstandingCount() > 0) {
+            addNotification(
+                "Revenue",
+                String.format("₱%,.2f collected this month (₱%,.2f today) of ₱%,.2f billed. " +
+                              "₱%,.2f outstanding across %d bill(s).",
+                              revenue.getPaidThisMonth(), revenue.getPaidToday(), revenue.getBilledThisMonth(),
+                              revenue.getOutstandingAmount(), revenue.getOutstandingCount()),
+                "info"
+            );
+            notificationCount++;
+        }
         return notificationCount;
     }
     
@@ -0,0 +1,153 @@
+package com.example;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Remembers which inventory alerts are currently raised for each part, persisted in
+ * the inventory_alert_state table so restarts don't re-send every alert.
+ *
+ * Alerts are transition based: an alert fires when a part moves into a condition
+ * (e.g. low stock) and re-arms when the part recovers, so it can fire again the
+ * next time the part runs low. Only raised alerts are loaded at startup.
+ */
+public class InventoryAlertState {
+    private static InventoryAlertState instance;
+
+    public enum AlertType {
+        ZERO_STOCK, LOW_STOCK, LOW_AVAILABLE, EXPIRING, EXPIRED
+    }
+
+    // Part ID -> alerts currently raised
+    private final Map<Integer, EnumSet<AlertType>> raised = new HashMap<>();
+    private boolean loaded = false;
+    private boolean persistent = true;
+
+    private InventoryAlertState() {
+        // Private constructor
+    }
+
+    public static synchronized InventoryAlertState getInstance() {
+        if (instance == null) {
+            instance = new InventoryAlertState();
+        }
+        return instance;
+    }
+
+    /**
+     * IDs of parts that have at least one alert raised
+     */
+    public synchronized Set<Integer> getPartsWithRaisedAlerts() {
+        ensureLoaded();
+        return new HashSet<>(raised.keySet());
+    }
+
+    /**
+     * Record the current conditions of the evaluated parts and work out which alerts fire.
+     * Parts missing from the map are left untouched.
+     * @param conditions part ID -> conditions the part is in right now
+     * @return alert type -> IDs of parts that just entered that condition
+     */
+    public synchronized Map<AlertType, Set<Integer>> applyConditions(Map<Integer, EnumSet<AlertType>> conditions) {
+        ensureLoaded();
+
+        Map<AlertType, Set<Integer>> fired = new EnumMap<>(AlertType.class);
+        List<Object[]> toRaise = new ArrayList<>();
+        List<Object[]> toClear = new ArrayList<>();
+
+        for (Map.Entry<Integer, EnumSet<AlertType>> entry : conditions.entrySet()) {
+            int partId = entry.getKey();
+            EnumSet<AlertType> current = entry.getValue();
+            EnumSet<AlertType> previous = raised.getOrDefault(partId, EnumSet.noneOf(AlertType.class));
+
+            for (AlertType type : current) {
+                if (!previous.contains(type)) {
+                    fired.computeIfAbsent(type, t -> new HashSet<>()).add(partId);
+                    toRaise.add(new Object[] { partId, type });
+                }
+            }
+            for (AlertType type : previous) {
+                if (!current.contains(type)) {
+                    toClear.add(new Object[] { partId, type });
+                }
+            }
+
+            if (current.isEmpty()) {
+                raised.remove(partId);
+            } else {
+                raised.put(partId, EnumSet.copyOf(current));
+            }
+        }
+
+        if (persistent && (!toRaise.isEmpty() || !toClear.isEmpty())) {
+            save(toRaise, toClear);
+        }
+        return fired;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT part_id, alert_type FROM inventory_alert_state WHERE active = TRUE")) {
+            while (rs.next()) {
+                try {
+                    AlertType type = AlertType.valueOf(rs.getString("alert_type"));
+                    raised.computeIfAbsent(rs.getInt("part_id"), id -> EnumSet.noneOf(AlertType.class)).add(type);
+                } catch (IllegalArgumentException e) {
+                    // Unknown alert type from a newer version - ignore
+                }
+            }
+            System.out.println("Loaded alert state for " + raised.size() + " part(s)");
+        } catch (SQLException e) {
+            // Table missing (older schema) - keep the state in memory only
+            persistent = false;
+            System.err.println("Warning: Could not load inventory alert state, alerts will not survive restarts: " + e.getMessage());
+        }
+    }
+
+    private void save(List<Object[]> toRaise, List<Object[]> toClear) {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                if (!toRaise.isEmpty()) {
+                    try (PreparedStatement stmt = conn.prepareStatement(
+                            "INSERT INTO inventory_alert_state (part_id, alert_type, active, fired_at) " +
+                            "VALUES (?, ?, TRUE, NOW()) " +
+                            "ON DUPLICATE KEY UPDATE active = TRUE, fired_at = NOW()")) {
+                        for (Object[] row : toRaise) {
+                            stmt.setInt(1, (Integer) row[0]);
+                            stmt.setString(2, ((AlertType) row[1]).name());
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                }
+                if (!toClear.isEmpty()) {
+                    try (PreparedStatement stmt = conn.prepareStatement(
+                            "UPDATE inventory_alert_state SET active = FALSE, cleared_at = NOW() " +
+                            "WHERE part_id = ? AND alert_type = ?")) {
+                        for (Object[] row : toClear) {
+                            stmt.setInt(1, (Integer) row[0]);
+                            stmt.setString(2, ((AlertType) row[1]).name());
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            // The in-memory state is already updated, so this session still won't repeat alerts
+            System.err.println("Warning: Could not save inventory alert state: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.example;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through cache of parts keyed by id, owned by InventoryService.
+ *
+ * The first getAll() loads the parts table once; after that InventoryService's
+ * write paths mark the rows they touch as stale and only those rows are reloaded
+ * (in one query) on the next read. Writes made by other clients are picked up by
+ * polling the row count, BIT_XOR of the ids and MAX(updated_at) every
+ * autotech.inventory.cachePollSeconds (default 30, 0 disables).
+ *
+ * Callers always get copies, so editing an InventoryItem in the UI never changes
+ * the cached row.
+ */
+public class InventoryCache {
+    private static final long POLL_SECONDS = Long.getLong("autotech.inventory.cachePollSeconds", 30);
+
+    /**
+     * How the cache reads rows from the database
+     */
+    public interface Loader {
+        List<InventoryItem> loadAll() throws SQLException;
+        List<InventoryItem> loadByIds(Collection<Integer> ids) throws SQLException;
+        List<InventoryItem> loadUpdatedSince(Timestamp since) throws SQLException;
+    }
+
+    private final Loader loader;
+
+    // All guarded by this
+    private final Map<Integer, InventoryItem> items = new HashMap<>();
+    private final Set<Integer> stale = new HashSet<>();
+    private boolean complete = false;
+    private boolean pollingStarted = false;
+    private Timestamp lastSeenUpdate;
+    private long lastSeenCount = -1;
+    private long lastSeenIdXor;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rowsLoaded = new LongAdder();
+    private final LongAdder externalChanges = new LongAdder();
+
+    public InventoryCache(Loader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Every part, sorted by name
+     */
+    public synchronized List<InventoryItem> getAll() throws SQLException {
+        if (!complete) {
+            misses.increment();
+            reloadAll();
+            startPolling();
+        } else if (!stale.isEmpty()) {
+            misses.increment();
+            reloadStale();
+        } else {
+            hits.increment();
+        }
+
+        List<InventoryItem> result = new ArrayList<>(items.size());
+        for (InventoryItem item : items.values()) {
+            result.add(item.copy());
+        }
+        result.sort(Comparator.comparing(InventoryItem::getName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER)));
+        return result;
+    }
+
+    /**
+     * One part, or null if it does not exist
+     */
+    public synchronized InventoryItem get(int id) throws SQLException {
+        List<InventoryItem> found = getByIds(Collections.singleton(id));
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Several parts; missing IDs are skipped. Only uncached or stale rows hit the database.
+     */
+    public synchronized List<InventoryItem> getByIds(Collection<Integer> ids) throws SQLException {
+        Set<Integer> toLoad = new HashSet<>();
+        for (int id : ids) {
+            if (stale.contains(id) || (!complete && !items.containsKey(id))) {
+                toLoad.add(id);
+            }
+        }
+
+        if (toLoad.isEmpty()) {
+            hits.increment();
+        } else {
+            misses.increment();
+            load(toLoad);
+        }
+
+        List<InventoryItem> result = new ArrayList<>();
+        for (int id : ids) {
+            InventoryItem item = items.get(id);
+            if (item != null) {
+                result.add(item.copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Mark rows as changed; they are reloaded on the next read
+     */
+    public synchronized void invalidate(Collection<Integer> ids) {
+        stale.addAll(ids);
+    }
+
+    public void invalidate(int id) {
+        invalidate(Collections.singleton(id));
+    }
+
+    /**
+     * Drop everything (e.g. after a database reset)
+     */
+    public synchronized void invalidateAll() {
+        items.clear();
+        stale.clear();
+        complete = false;
+        lastSeenCount = -1;
+        lastSeenIdXor = 0;
+        lastSeenUpdate = null;
+    }
+
+    private void reloadAll() throws SQLException {
+        List<InventoryItem> loaded = loader.loadAll();
+        items.clear();
+        stale.clear();
+        for (InventoryItem item : loaded) {
+            items.put(item.getId(), item);
+        }
+        rowsLoaded.add(loaded.size());
+        complete = true;
+    }
+
+    private void reloadStale() throws SQLException {
+        load(new HashSet<>(stale));
+    }
+
+    // Reload the given rows; rows that no longer exist are dropped
+    private void load(Set<Integer> ids) throws SQLException {
+        List<InventoryItem> loaded = loader.loadByIds(ids);
+        for (int id : ids) {
+            items.remove(id);
+        }
+        for (InventoryItem item : loaded) {
+            items.put(item.getId(), item);
+        }
+        stale.removeAll(ids);
+        rowsLoaded.add(loaded.size());
+    }
+
+    private void startPolling() {
+        if (pollingStarted || POLL_SECONDS <= 0) {
+            return;
+        }
+        pollingStarted = true;
+        try {
+            AppExecutors.scheduleAtFixedRate("inventory-cache-poll", this::pollForExternalChanges,
+                                             POLL_SECONDS, POLL_SECONDS, TimeUnit.SECONDS);
+        } catch (RuntimeException e) {
+            System.err.println("Warning: Could not start inventory cache polling: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Pick up rows written outside this service (other workstations, manual SQL).
+     *
+     * A changed row count or id checksum means rows were inserted or deleted (a delete
+     * plus an insert keeps the count but not the ids), so everything is reloaded.
+     * Otherwise rows whose updated_at is at or after the last seen value are reloaded.
+     * updated_at only has one-second precision, so a second write within the second
+     * already seen leaves MAX(updated_at) unchanged; the rows of that second are
+     * therefore re-read on every poll too, which is a handful of rows at most.
+     */
+    void pollForExternalChanges() {
+        long count;
+        long idXor;
+        Timestamp latest;
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                "SELECT COUNT(*) AS total, BIT_XOR(id) AS id_xor, MAX(updated_at) AS last_update FROM parts")) {
+            if (!rs.next()) {
+                return;
+            }
+            count = rs.getLong("total");
+            idXor = rs.getLong("id_xor");
+            latest = rs.getTimestamp("last_update");
+        } catch (SQLException e) {
+            System.err.println("Inventory cache poll failed: " + e.getMessage());
+            return;
+        }
+
+        synchronized (this) {
+            if (!complete) {
+                return;
+            }
+            try {
+                if (lastSeenCount < 0) {
+                    // First poll only records the baseline
+                } else if (count != lastSeenCount || idXor != lastSeenIdXor) {
+                    externalChanges.increment();
+                    reloadAll();
+                } else if (latest != null && (lastSeenUpdate == null || !latest.before(lastSeenUpdate))) {
+                    List<InventoryItem> changed = loader.loadUpdatedSince(lastSeenUpdate != null ? lastSeenUpdate : new Timestamp(0));
+                    for (InventoryItem item : changed) {
+                        items.put(item.getId(), item);
+                        stale.remove(item.getId());
+                    }
+                    rowsLoaded.add(changed.size());
+                    if (lastSeenUpdate == null || latest.after(lastSeenUpdate)) {
+                        externalChanges.increment();
+                    }
+                }
+                lastSeenCount = count;
+                lastSeenIdXor = idXor;
+                lastSeenUpdate = latest;
+            } catch (SQLException e) {
+                System.err.println("Inventory cache refresh failed: " + e.getMessage());
+            }
+        }
+    }
+
+    public long getHitCount() { return hits.sum(); }
+    public long getMissCount() { return misses.sum(); }
+    public long getRowsLoaded() { return rowsLoaded.sum(); }
+    public long getExternalChangeCount() { return externalChanges.sum(); }
+
+    public double getHitRatio() {
+        long total = getHitCount() + getMissCount();
+        return total == 0 ? 0 : (double) getHitCount() / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("InventoryCache[rows=%d, stale=%d, hits=%d, misses=%d, hitRatio=%.2f, rowsLoaded=%d, externalChanges=%d]",
+            items.size(), stale.size(), getHitCount(), getMissCount(), getHitRatio(), getRowsLoaded(), getExternalChangeCount());
+    }
+}
@@ -35,6 +35,10 @@ public class InventoryController {
     private ObservableList<InventoryItem> allInventoryItems = FXCollections.observableArrayList();
     private static final int ITEMS_PER_PAGE = 25;
     private InventoryService inventoryService = InventoryService.getInstance();
+    
+    // Searches run in the background as the user types
+    private final SearchPipeline<List<InventoryItem>> searchPipeline =
+        new SearchPipeline<>("inventory", this::showItems, this::showSearchError);
 
     @FXML
     public void initialize() {
@@ -97,6 +101,12 @@ public class InventoryController {
         // Load data from database
         loadInventoryData();
         
+        // Search as you type
+        searchField.textProperty().addListener((obs, oldText, newText) -> {
+            String searchTerm = newText.trim();
+            searchPipeline.search(searchTerm, () -> inventoryService.searchItems(searchTerm));
+        });
+        
         // Set items to table
         inventoryTable.setItems(inventoryList);
         
@@ -131,23 +141,11 @@ public class InventoryController {
     }
 
     private void loadInventoryData() {
+        // Data changed (or a refresh was asked for), so cached search results are out of date
+        searchPipeline.invalidate();
         try {
             List<InventoryItem> items = inventoryService.getAllItems();
-            allInventoryItems.clear();
-            allInventoryItems.addAll(items);
-            
-            // Update pagination control
-            updatePaginationControl();
-            
-            // Update table - will show first page
-            if (inventoryPagination != null) {
-                updateTablePage(0);
-                inventoryPagination.setCurrentPageIndex(0);
-            } else {
-                inventoryList.clear();
-                inventoryList.addAll(items);
-            }
-            
+            showItems(items);
             statusLabel.setText("Inventory loaded successfully. Total items: " + items.size());
         } catch (SQLException e) {
             e.printStackTrace();
@@ -155,6 +153,23 @@ public class InventoryController {
         }
     }
     
+    private void showItems(List<InventoryItem> items) {
+        allInventoryItems.clear();
+        allInventoryItems.addAll(items);
+        
+        // Update pagination control
+        updatePaginationControl();
+        
+        // Update table - will show first page
+        if (inventoryPagination != null) {
+            updateTablePage(0);
+            inventoryPagination.setCurrentPageIndex(0);
+        } else {
+            inventoryList.clear();
+            inventoryList.addAll(items);
+        }
+    }
+    
     private void setupActionsColumn() {
         // Make part number column clickable
         partNumberColumn.setCellFactory(column -> new TableCell<InventoryItem, String>() {
@@ -231,14 +246,13 @@ public class InventoryController {
     
     @FXML
     private void handleSearch() {
-        String searchTerm = searchField.getText().trim().toLowerCase();
-        try {
-            List<InventoryItem> items = inventoryService.searchItems(searchTerm);
-            inventoryTable.setItems(FXCollections.observableArrayList(items));
-        } catch (SQLException e) {
-            e.printStackTrace();
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to search inventory: " + e.getMessage());
-        }
+        String searchTerm = searchField.getText().trim();
+        searchPipeline.searchNow(searchTerm, () -> inventoryService.searchItems(searchTerm));
+    }
+    
+    private void showSearchError(SQLException e) {
+        e.printStackTrace();
+        showAlert(Alert.AlertType.ERROR, "Error", "Failed to search inventory: " + e.getMessage());
     }
     
     @FXML
@@ -670,6 +684,9 @@ public class InventoryController {
                     // Create or update inventory item
                     boolean success;
                     if (item == null) {
+                        // The field only shows a placeholder for new items
+                        partNumber = inventoryService.generateNextPartNumber();
+                        
                         // Add new item to database
                         success = inventoryService.addItem(
                             partNumber, name, category, quantity,
@@ -686,14 +703,7 @@ public class InventoryController {
                             }
                         }
                         if (success) {
-                            // Check if new item is at or below minimum stock and send email
-                            if (quantity <= minimumStock) {
-                                try {
-                                    inventoryService.checkAndSendLowStockAlert();
-                                } catch (Exception e) {
-                                    System.err.println("Failed to send low stock alert: " + e.getMessage());
-                                }
-                            }
+                            // addItem() queues the low stock check for the new part
                             loadInventoryData();
                             statusLabel.setText("Item added successfully");
                         }
@@ -711,6 +721,7 @@ public class InventoryController {
                         success = inventoryService.updateItem(item);
                         if (success) {
                             inventoryService.updateExpirationDate(item.getId(), expirationDate);
+                            searchPipeline.invalidate();
                             inventoryTable.refresh();
                             statusLabel.setText("Item updated successfully");
                         }
@@ -863,6 +874,7 @@ public class InventoryController {
                 if (success) {
                     // Update local model
                     item.setQuantity(newQuantity);
+                    searchPipeline.invalidate();
                     inventoryTable.refresh();
                     
                     // Display appropriate message
@@ -153,6 +153,15 @@ public class InventoryItem {
         this.expirationDate = expirationDate;
     }
     
+    /**
+     * Independent copy, so cached items can be handed out safely
+     */
+    public InventoryItem copy() {
+        return new InventoryItem(id, hexId, partNumber, name, category,
+                                 quantity, reservedQuantity, expirationDate,
+                                 unit, costPrice, sellingPrice, location, minimumStock);
+    }
+    
     public int getAvailableQuantity() {
         return quantity - reservedQuantity;
     }
@@ -8,33 +8,99 @@ public class InventoryService {
     // Singleton pattern
     private static InventoryService instance;
     
-    // Track sent alerts to prevent duplicates in the same session
-    private Set<String> sentLowStockAlerts = new HashSet<>();
-    private Set<String> sentZeroStockAlerts = new HashSet<>();
-    private Set<String> sentExpirationAlerts = new HashSet<>();
+    // Parts are read far more often than written; see InventoryCache
+    private final InventoryCache cache;
+    
+    // Part numbers reserved from the part_number sequence but not handed out yet
+    private static final int PART_NUMBER_BLOCK = Integer.getInteger("autotech.inventory.partNumberBlock", 20);
+    private final Object partNumberLock = new Object();
+    private long nextPartNumber;
+    private long partNumberLimit;
+    
+    // Also checked by QueryPlanCheck
+    static final String UPDATED_SINCE_QUERY = "SELECT * FROM parts WHERE updated_at >= ?";
+    static final String EXPIRING_SOON_QUERY =
+        "SELECT * FROM parts WHERE expiration_date IS NOT NULL " +
+        "AND expiration_date <= ? AND expiration_date >= CURDATE() ORDER BY expiration_date";
+    
+    // Text search over the cached parts
+    private final SearchIndex searchIndex = new SearchIndex("parts",
+        new SearchIndex.Field[] {
+            new SearchIndex.Field("name", 3),
+            new SearchIndex.Field("part_number", 2, true),
+            new SearchIndex.Field("hex_id", 2),
+            new SearchIndex.Field("category", 1)
+        },
+        new SearchIndex.Loader() {
+            @Override
+            public Map<Integer, String[]> loadAll() throws SQLException {
+                return toSearchRows(getAllItems());
+            }
+            
+            @Override
+            public Map<Integer, String[]> loadByIds(Collection<Integer> ids) throws SQLException {
+                return toSearchRows(getItemsByIds(ids));
+            }
+        });
     
     private InventoryService() {
-        // Empty constructor
+        cache = new InventoryCache(new InventoryCache.Loader() {
+            @Override
+            public List<InventoryItem> loadAll() throws SQLException {
+                return loadAllItems();
+            }
+            
+            @Override
+            public List<InventoryItem> loadByIds(Collection<Integer> ids) throws SQLException {
+                return loadItemsByIds(ids);
+            }
+            
+            @Override
+            public List<InventoryItem> loadUpdatedSince(Timestamp since) throws SQLException {
+                return loadItemsUpdatedSince(since);
+            }
+        });
     }
     
-    public static InventoryService getInstance() {
+    // Synchronized: the instance owns the parts cache, search index and stock checks,
+    // and is reached from background threads as well as the UI
+    public static synchronized InventoryService getInstance() {
         if (instance == null) {
             instance = new InventoryService();
         }
         return instance;
     }
     
+    /**
+     * Next PART-nnnn number. Numbers come from the part_number counter in blocks of
+     * PART_NUMBER_BLOCK, so most calls don't touch the database and two clients
+     * never get the same number. Unused numbers in a block are simply skipped.
+     */
     public String generateNextPartNumber() throws SQLException {
-        try (Connection conn = DatabaseUtil.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) as count FROM parts")) {
-            
-            if (rs.next()) {
-                int count = rs.getInt("count");
-                // Generate part number like: PART-0001, PART-0002, etc.
-                return String.format("PART-%04d", count + 1);
+        synchronized (partNumberLock) {
+            if (nextPartNumber >= partNumberLimit) {
+                try {
+                    nextPartNumber = SequenceAllocator.reserve("part_number", PART_NUMBER_BLOCK, this::highestPartNumber);
+                    partNumberLimit = nextPartNumber + PART_NUMBER_BLOCK;
+                } catch (SQLException e) {
+                    // No id_sequences table (older schema) - continue after the highest number in use
+                    System.err.println("Warning: Could not reserve part numbers: " + e.getMessage());
+                    try (Connection conn = DatabaseUtil.getConnection()) {
+                        return String.format("PART-%04d", highestPartNumber(conn));
+                    }
+                }
             }
-            return "PART-0001";
+            return String.format("PART-%04d", nextPartNumber++);
+        }
+    }
+    
+    // One past the highest PART-nnnn number in use
+    private long highestPartNumber(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT COALESCE(MAX(CAST(SUBSTRING(part_number, 6) AS UNSIGNED)), 0) AS highest " +
+                 "FROM parts WHERE part_number REGEXP '^PART-[0-9]+$'")) {
+            return rs.next() ? rs.getLong("highest") + 1 : 1;
         }
     }
     
@@ -66,7 +132,57 @@ public class InventoryService {
         }
     }
     
+    /**
+     * All parts sorted by name, served from the cache after the first load
+     */
     public List<InventoryItem> getAllItems() throws SQLException {
+        return cache.getAll();
+    }
+    
+    public InventoryItem getItemById(int id) throws SQLException {
+        return cache.get(id);
+    }
+    
+    /**
+     * Several parts by id; unknown IDs are skipped
+     */
+    public List<InventoryItem> getItemsByIds(Collection<Integer> ids) throws SQLException {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return cache.getByIds(ids);
+    }
+    
+    /**
+     * Call after changing parts rows outside this service (e.g. a booking reserving
+     * parts on its own connection): refreshes the cache and queues a stock check
+     */
+    public void partsChanged(Collection<Integer> partIds) {
+        if (partIds == null || partIds.isEmpty()) {
+            return;
+        }
+        cache.invalidate(partIds);
+        searchIndex.invalidate(partIds);
+        StockCheckScheduler.getInstance().requestCheck(partIds);
+    }
+    
+    public void partChanged(int partId) {
+        partsChanged(Collections.singleton(partId));
+    }
+    
+    /**
+     * Forget all cached parts (e.g. after the database was reset)
+     */
+    public void clearCache() {
+        cache.invalidateAll();
+        searchIndex.requestRebuild();
+    }
+    
+    public InventoryCache getCache() {
+        return cache;
+    }
+    
+    private List<InventoryItem> loadAllItems() throws SQLException {
         List<InventoryItem> items = new ArrayList<>();
         
         try (Connection conn = DatabaseUtil.getConnection();
@@ -81,19 +197,46 @@ public class InventoryService {
         return items;
     }
     
-    public InventoryItem getItemById(int id) throws SQLException {
+    // Load several parts in one query; unknown IDs are skipped
+    private List<InventoryItem> loadItemsByIds(Collection<Integer> ids) throws SQLException {
+        List<InventoryItem> items = new ArrayList<>();
+        
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
         try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM parts WHERE id = ?")) {
+             PreparedStatement stmt = conn.prepareStatement(
+                 "SELECT * FROM parts WHERE id IN (" + placeholders + ") ORDER BY name")) {
             
-            stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
+            int index = 1;
+            for (int id : ids) {
+                stmt.setInt(index++, id);
+            }
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    items.add(extractInventoryItemFromResultSet(rs));
+                }
+            }
+        }
+        
+        return items;
+    }
+    
+    // Rows changed at or after the given time (updated_at has one-second precision)
+    private List<InventoryItem> loadItemsUpdatedSince(Timestamp since) throws SQLException {
+        List<InventoryItem> items = new ArrayList<>();
+        
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATED_SINCE_QUERY)) {
             
-            if (rs.next()) {
-                return extractInventoryItemFromResultSet(rs);
+            stmt.setTimestamp(1, since);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    items.add(extractInventoryItemFromResultSet(rs));
+                }
             }
         }
         
-        return null;
+        return items;
     }
     
     public boolean addItem(String partNumber, String name, String category, int quantity, 
@@ -104,7 +247,7 @@ public class InventoryService {
              PreparedStatement stmt = conn.prepareStatement(
                  "INSERT INTO parts (part_number, name, category, quantity_in_stock, unit, " +
                  "cost_price, selling_price, location, reorder_level, hex_id) " +
-                 "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                 "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setString(1, partNumber);
             stmt.setString(2, name);
@@ -120,8 +263,12 @@ public class InventoryService {
             int rowsAffected = stmt.executeUpdate();
             
             // Check if new item is already low stock
-            if (rowsAffected > 0 && quantity < minimumStock) {
-                checkAndSendLowStockAlert();
+            if (rowsAffected > 0) {
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        partChanged(keys.getInt(1));
+                    }
+                }
             }
             
             return rowsAffected > 0;
@@ -151,9 +298,9 @@ public class InventoryService {
             
             int rowsAffected = stmt.executeUpdate();
             
-            // Check if item is now low stock and send immediate alert
-            if (rowsAffected > 0 && item.isLowStock()) {
-                checkAndSendLowStockAlert();
+            // Check if item is now low stock and send alert
+            if (rowsAffected > 0) {
+                partChanged(item.getId());
             }
             
             return rowsAffected > 0;
@@ -171,6 +318,10 @@ public class InventoryService {
             stmt.setInt(1, id);
             
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                cache.invalidate(id);
+                searchIndex.invalidate(id);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -178,32 +329,30 @@ public class InventoryService {
         }
     }
     
+    /**
+     * Build the search index in the background, so the first search doesn't wait for it
+     */
+    public void prepareSearch() {
+        searchIndex.buildInBackground();
+    }
+    
     public List<InventoryItem> searchItems(String searchTerm) throws SQLException {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return getAllItems();
         }
         
-        List<InventoryItem> items = new ArrayList<>();
-        String searchPattern = "%" + searchTerm.toLowerCase() + "%";
-        
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                 "SELECT * FROM parts " +
-                 "WHERE LOWER(part_number) LIKE ? OR LOWER(name) LIKE ? OR LOWER(category) LIKE ? " +
-                 "ORDER BY name")) {
-            
-            stmt.setString(1, searchPattern);
-            stmt.setString(2, searchPattern);
-            stmt.setString(3, searchPattern);
-            
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                items.add(extractInventoryItemFromResultSet(rs));
-            }
+        // Matches come back best first and are read from the cache
+        return cache.getByIds(searchIndex.search(searchTerm, Integer.MAX_VALUE));
+    }
+    
+    private static Map<Integer, String[]> toSearchRows(List<InventoryItem> items) {
+        Map<Integer, String[]> rows = new HashMap<>(items.size() * 2);
+        for (InventoryItem item : items) {
+            rows.put(item.getId(), new String[] {
+                item.getName(), item.getPartNumber(), item.getHexId(), item.getCategory()
+            });
         }
-        
-        return items;
+        return rows;
     }
     
     // Helper method to create InventoryItem objects from ResultSet
@@ -242,9 +391,9 @@ public class InventoryService {
             
             int rowsAffected = stmt.executeUpdate();
             
-            // Check if item is now low stock and send immediate alert
+            // Check if item is now low stock and send alert
             if (rowsAffected > 0) {
-                checkAndSendLowStockAlert();
+                partChanged(itemId);
             }
             
             return rowsAffected > 0;
@@ -255,132 +404,151 @@ public class InventoryService {
     }
     
     // Public method for external triggering (e.g., after booking creation)
-    public void checkStockAfterReservation() {
-        checkAndSendLowStockAlert();
+    public void checkStockAfterReservation(Collection<Integer> partIds) {
+        partsChanged(partIds);
     }
     
-    // Check for low stock items and send immediate alert (public for manual triggers)
+    // Check all parts for low stock and send immediate alert (public for manual triggers)
     public void checkAndSendLowStockAlert() {
-        new Thread(() -> {
-            try {
-                System.out.println("=== Stock Check Triggered ===");
-                List<InventoryItem> allItems = getAllItems();
-                List<InventoryItem> zeroStockItems = new ArrayList<>();
-                List<InventoryItem> lowStockItems = new ArrayList<>();
-                List<InventoryItem> lowAvailableItems = new ArrayList<>();
-                
-                for (InventoryItem item : allItems) {
-                    int qty = item.getQuantity();
-                    int reserved = item.getReservedQuantity();
-                    int available = item.getAvailableQuantity();
-                    int min = item.getMinimumStock();
-                    
-                    System.out.println("Item: " + item.getName() + 
-                                     " | Total: " + qty + 
-                                     " | Reserved: " + reserved + 
-                                     " | Available: " + available + 
-                                     " | Min: " + min);
-                    
-                    if (qty == 0) {
-                        System.out.println("  -> ZERO STOCK! CRITICAL!");
-                        zeroStockItems.add(item);
-                    } else if (item.isLowStock()) {
-                        System.out.println("  -> LOW STOCK! (" + qty + " <= " + min + ")");
-                        lowStockItems.add(item);
-                    } else if (item.isLowAvailableStock()) {
-                        System.out.println("  -> LOW AVAILABLE! (Available " + available + " < " + min + ")");
-                        lowAvailableItems.add(item);
-                    }
-                }
-                
-                // Send critical alert for zero stock items
-                if (!zeroStockItems.isEmpty()) {
-                    List<InventoryItem> newZeroStock = new ArrayList<>();
-                    for (InventoryItem item : zeroStockItems) {
-                        if (!sentZeroStockAlerts.contains(item.getHexId())) {
-                            newZeroStock.add(item);
-                            sentZeroStockAlerts.add(item.getHexId());
-                        }
-                    }
-                    if (!newZeroStock.isEmpty()) {
-                        System.out.println("ZERO STOCK detected! Sending CRITICAL alert for " + newZeroStock.size() + " items.");
-                        EmailService.getInstance().sendZeroStockAlert(newZeroStock);
-                    }
-                }
-                
-                // Send urgent alert for actual low stock (not already sent)
-                if (!lowStockItems.isEmpty()) {
-                    List<InventoryItem> newLowStock = new ArrayList<>();
-                    for (InventoryItem item : lowStockItems) {
-                        if (!sentLowStockAlerts.contains(item.getHexId())) {
-                            newLowStock.add(item);
-                            sentLowStockAlerts.add(item.getHexId());
-                        }
-                    }
-                    if (!newLowStock.isEmpty()) {
-                        System.out.println("Low stock detected! Sending urgent alert for " + newLowStock.size() + " items.");
-                        EmailService.getInstance().sendLowStockAlert(newLowStock);
-                    }
-                }
-                
-                // Send advisory notice for low available stock (heavy reservations)
-                if (!lowAvailableItems.isEmpty()) {
-                    System.out.println("Low available stock detected! Sending advisory for " + lowAvailableItems.size() + " items.");
-                    EmailService.getInstance().sendLowAvailableStockAlert(lowAvailableItems);
-                }
-                
-                // Check for expiring/expired items
-                List<InventoryItem> expiringSoonItems = new ArrayList<>();
-                List<InventoryItem> expiredItems = new ArrayList<>();
-                java.time.LocalDate today = java.time.LocalDate.now();
-                java.time.LocalDate thirtyDaysFromNow = today.plusDays(30);
-                
-                for (InventoryItem item : allItems) {
-                    if (item.getExpirationDate() != null) {
-                        if (item.getExpirationDate().isBefore(today)) {
-                            System.out.println("Item " + item.getName() + " EXPIRED on " + item.getExpirationDate());
-                            expiredItems.add(item);
-                        } else if (item.getExpirationDate().isBefore(thirtyDaysFromNow)) {
-                            System.out.println("Item " + item.getName() + " expiring soon on " + item.getExpirationDate());
-                            expiringSoonItems.add(item);
-                        }
-                    }
-                }
-                
-                // Send expiration alerts (check for new items only)
-                List<InventoryItem> newExpiredItems = new ArrayList<>();
-                List<InventoryItem> newExpiringSoonItems = new ArrayList<>();
-                
-                for (InventoryItem item : expiredItems) {
-                    String key = item.getHexId() + "_expired";
-                    if (!sentExpirationAlerts.contains(key)) {
-                        newExpiredItems.add(item);
-                        sentExpirationAlerts.add(key);
-                    }
-                }
-                
-                for (InventoryItem item : expiringSoonItems) {
-                    String key = item.getHexId() + "_expiring";
-                    if (!sentExpirationAlerts.contains(key)) {
-                        newExpiringSoonItems.add(item);
-                        sentExpirationAlerts.add(key);
-                    }
+        StockCheckScheduler.getInstance().requestFullCheck();
+    }
+    
+    /**
+     * Evaluate the given parts and email alerts for any that newly hit zero/low stock
+     * or are expiring. Called by StockCheckScheduler with just the parts that changed.
+     * Alerts fire on the transition into a condition and re-arm once the part recovers
+     * (see InventoryAlertState), so each problem is reported once, even across restarts.
+     */
+    public void evaluateStockAlerts(List<InventoryItem> items) {
+        LocalDate today = LocalDate.now();
+        LocalDate thirtyDaysFromNow = today.plusDays(30);
+        Map<Integer, EnumSet<InventoryAlertState.AlertType>> conditions = new HashMap<>();
+        
+        for (InventoryItem item : items) {
+            int qty = item.getQuantity();
+            int reserved = item.getReservedQuantity();
+            int available = item.getAvailableQuantity();
+            int min = item.getMinimumStock();
+            EnumSet<InventoryAlertState.AlertType> current = EnumSet.noneOf(InventoryAlertState.AlertType.class);
+            
+            System.out.println("Item: " + item.getName() + 
+                             " | Total: " + qty + 
+                             " | Reserved: " + reserved + 
+                             " | Available: " + available + 
+                             " | Min: " + min);
+            
+            if (qty == 0) {
+                System.out.println("  -> ZERO STOCK! CRITICAL!");
+                current.add(InventoryAlertState.AlertType.ZERO_STOCK);
+            } else if (item.isLowStock()) {
+                System.out.println("  -> LOW STOCK! (" + qty + " <= " + min + ")");
+                current.add(InventoryAlertState.AlertType.LOW_STOCK);
+            } else if (item.isLowAvailableStock()) {
+                System.out.println("  -> LOW AVAILABLE! (Available " + available + " < " + min + ")");
+                current.add(InventoryAlertState.AlertType.LOW_AVAILABLE);
+            }
+            
+            if (item.getExpirationDate() != null) {
+                if (item.getExpirationDate().isBefore(today)) {
+                    System.out.println("Item " + item.getName() + " EXPIRED on " + item.getExpirationDate());
+                    current.add(InventoryAlertState.AlertType.EXPIRED);
+                } else if (item.getExpirationDate().isBefore(thirtyDaysFromNow)) {
+                    System.out.println("Item " + item.getName() + " expiring soon on " + item.getExpirationDate());
+                    current.add(InventoryAlertState.AlertType.EXPIRING);
                 }
-                
-                if (!newExpiredItems.isEmpty() || !newExpiringSoonItems.isEmpty()) {
-                    try {
-                        EmailService.getInstance().sendExpirationAlert(newExpiringSoonItems, newExpiredItems);
-                    } catch (Exception e) {
-                        System.err.println("Error sending expiration alert: " + e.getMessage());
-                    }
+            }
+            
+            conditions.put(item.getId(), current);
+        }
+        
+        // Only parts that just entered a condition are alerted
+        Map<InventoryAlertState.AlertType, Set<Integer>> fired = InventoryAlertState.getInstance().applyConditions(conditions);
+        
+        // Send critical alert for zero stock items
+        List<InventoryItem> newZeroStock = itemsFor(items, fired.get(InventoryAlertState.AlertType.ZERO_STOCK));
+        if (!newZeroStock.isEmpty()) {
+            System.out.println("ZERO STOCK detected! Sending CRITICAL alert for " + newZeroStock.size() + " items.");
+            EmailService.getInstance().sendZeroStockAlert(newZeroStock);
+        }
+        
+        // Send urgent alert for actual low stock
+        List<InventoryItem> newLowStock = itemsFor(items, fired.get(InventoryAlertState.AlertType.LOW_STOCK));
+        if (!newLowStock.isEmpty()) {
+            System.out.println("Low stock detected! Sending urgent alert for " + newLowStock.size() + " items.");
+            EmailService.getInstance().sendLowStockAlert(newLowStock);
+        }
+        
+        // Send advisory notice for low available stock (heavy reservations)
+        List<InventoryItem> newLowAvailable = itemsFor(items, fired.get(InventoryAlertState.AlertType.LOW_AVAILABLE));
+        if (!newLowAvailable.isEmpty()) {
+            System.out.println("Low available stock detected! Sending advisory for " + newLowAvailable.size() + " items.");
+            EmailService.getInstance().sendLowAvailableStockAlert(newLowAvailable);
+        }
+        
+        // Send expiration alerts
+        List<InventoryItem> newExpiredItems = itemsFor(items, fired.get(InventoryAlertState.AlertType.EXPIRED));
+        List<InventoryItem> newExpiringSoonItems = itemsFor(items, fired.get(InventoryAlertState.AlertType.EXPIRING));
+        if (!newExpiredItems.isEmpty() || !newExpiringSoonItems.isEmpty()) {
+            try {
+                EmailService.getInstance().sendExpirationAlert(newExpiringSoonItems, newExpiredItems);
+            } catch (Exception e) {
+                System.err.println("Error sending expiration alert: " + e.getMessage());
+            }
+        }
+        
+        System.out.println("=== Stock Check Complete ===");
+    }
+    
+    private List<InventoryItem> itemsFor(List<InventoryItem> items, Set<Integer> partIds) {
+        List<InventoryItem> result = new ArrayList<>();
+        if (partIds == null) {
+            return result;
+        }
+        for (InventoryItem item : items) {
+            if (partIds.contains(item.getId())) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Parts that may need an alert or have one to re-arm: anything at or below its
+     * reorder level, low on unreserved stock, expired or expiring within 30 days,
+     * plus the given parts (those with raised alerts).
+     *
+     * The stock conditions compare columns with each other, so no index serves them and
+     * MySQL still scans parts; parts is small and the saving is in only sending and
+     * mapping the few matching rows instead of the whole table.
+     */
+    public List<InventoryItem> getAlertCandidates(Collection<Integer> raisedPartIds) throws SQLException {
+        List<InventoryItem> items = new ArrayList<>();
+        StringBuilder query = new StringBuilder(
+            "SELECT * FROM parts WHERE quantity_in_stock <= reorder_level " +
+            "OR quantity_in_stock - reserved_quantity < reorder_level " +
+            "OR (expiration_date IS NOT NULL AND expiration_date < ?)");
+        if (!raisedPartIds.isEmpty()) {
+            query.append(" OR id IN (").append(String.join(", ", Collections.nCopies(raisedPartIds.size(), "?"))).append(")");
+        }
+        query.append(" ORDER BY name");
+        
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query.toString())) {
+            
+            int index = 1;
+            stmt.setDate(index++, java.sql.Date.valueOf(LocalDate.now().plusDays(30)));
+            for (int id : raisedPartIds) {
+                stmt.setInt(index++, id);
+            }
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    items.add(extractInventoryItemFromResultSet(rs));
                 }
-                
-                System.out.println("=== Stock Check Complete ===");
-            } catch (SQLException e) {
-                System.err.println("Error checking low stock: " + e.getMessage());
-                e.printStackTrace();
             }
-        }).start();
+        }
+        
+        return items;
     }
     
     // Reserve parts when booking is created
@@ -396,7 +564,7 @@ public class InventoryService {
             
             // Check if reservation caused low available stock
             if (rowsAffected > 0) {
-                checkAndSendLowStockAlert();
+                partChanged(partId);
             }
             
             return rowsAffected > 0;
@@ -416,7 +584,7 @@ public class InventoryService {
             
             // Check stock after releasing reservation (usually won't trigger alerts)
             if (rowsAffected > 0) {
-                checkAndSendLowStockAlert();
+                partChanged(partId);
             }
             
             return rowsAffected > 0;
@@ -429,9 +597,7 @@ public class InventoryService {
         LocalDate thirtyDaysFromNow = LocalDate.now().plusDays(30);
         
         try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                 "SELECT * FROM parts WHERE expiration_date IS NOT NULL " +
-                 "AND expiration_date <= ? AND expiration_date >= CURDATE() ORDER BY expiration_date")) {
+             PreparedStatement stmt = conn.prepareStatement(EXPIRING_SOON_QUERY)) {
             
             stmt.setDate(1, java.sql.Date.valueOf(thirtyDaysFromNow));
             ResultSet rs = stmt.executeQuery();
@@ -476,6 +642,11 @@ public class InventoryService {
             stmt.setInt(2, itemId);
             
             int rowsAffected = stmt.executeUpdate();
+            
+            // Expiration alerts depend on the date
+            if (rowsAffected > 0) {
+                partChanged(itemId);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -510,76 +681,11 @@ public class InventoryService {
     }
     
     /**
-     * When restocking parts, check if any delayed bookings can now be scheduled
-     */
-    public void checkAndUpdateDelayedBookingsOnRestock(int partId) throws SQLException {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            // Find all delayed bookings that need this part
-            String query = "SELECT DISTINCT sb.id, sb.mechanic_id FROM service_bookings sb " +
-                          "INNER JOIN booking_parts bp ON sb.id = bp.booking_id " +
-                          "WHERE sb.status = 'delayed' AND bp.part_id = ?";
-            
-            try (PreparedStatement stmt = conn.prepareStatement(query)) {
-                stmt.setInt(1, partId);
-                ResultSet rs = stmt.executeQuery();
-                
-                while (rs.next()) {
-                    int bookingId = rs.getInt("id");
-                    int mechanicId = rs.getInt("mechanic_id");
-                    
-                    // Check if all parts for this booking are now available
-                    if (checkAllPartsAvailable(bookingId)) {
-                        // Update booking to scheduled
-                        try (PreparedStatement updateStmt = conn.prepareStatement(
-                            "UPDATE service_bookings SET status = 'scheduled' WHERE id = ?")) {
-                            updateStmt.setInt(1, bookingId);
-                            int updated = updateStmt.executeUpdate();
-                            if (updated > 0) {
-                                System.out.println("✓ Restock: Auto-updated booking #" + bookingId + " from delayed to scheduled");
-                                
-                                // Update mechanic availability
-                                MechanicService mechanicService = new MechanicService();
-                                mechanicService.updateMechanicAvailability(mechanicId);
-                            }
-                        }
-                    }
-                }
-            }
-        }
-    }
-    
-    /**
-     * Check if all parts for a booking are available
+     * When restocking parts, check if any delayed bookings can now be scheduled.
+     * Runs the full set-based promotion so bookings competing for the restocked
+     * part are served in booking order.
      */
-    private boolean checkAllPartsAvailable(int bookingId) throws SQLException {
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                "SELECT bp.part_id, bp.quantity FROM booking_parts bp WHERE bp.booking_id = ?")) {
-            stmt.setInt(1, bookingId);
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                int partId = rs.getInt("part_id");
-                int needed = rs.getInt("quantity");
-                
-                try (PreparedStatement partStmt = conn.prepareStatement(
-                    "SELECT quantity_in_stock, reserved_quantity FROM parts WHERE id = ?")) {
-                    partStmt.setInt(1, partId);
-                    ResultSet partRs = partStmt.executeQuery();
-                    
-                    if (partRs.next()) {
-                        int inStock = partRs.getInt("quantity_in_stock");
-                        int reserved = partRs.getInt("reserved_quantity");
-                        int available = inStock - reserved;
-                        
-                        if (needed > available) {
-                            return false;  // This part not available
-                        }
-                    }
-                }
-            }
-        }
-        return true;  // All parts available
+    public int checkAndUpdateDelayedBookingsOnRestock(int partId) throws SQLException {
+        return new DelayedBookingPromoter().promoteAll().getPromotedCount();
     }
 }
-
@@ -0,0 +1,132 @@
+package com.example;
+
+import java.sql.*;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Labor cost per service type, from service_labor_costs.
+ *
+ * The whole table is loaded in one query into an immutable snapshot, on the caller's
+ * connection, and served from memory after that. Types without a rate are charged
+ * the 'Other' rate (or DEFAULT_RATE if there is none), as BillingService always did.
+ * Types match ignoring case and surrounding spaces, as the old WHERE service_type = ?
+ * lookup did under MySQL's default collation.
+ * AdminController calls invalidate() after editing a rate; edits made on other
+ * workstations are picked up once the snapshot is older than
+ * autotech.laborRates.maxAgeSeconds (default 300).
+ */
+public class LaborRateCatalog {
+    private static LaborRateCatalog instance;
+
+    private static final long MAX_AGE_MS = Long.getLong("autotech.laborRates.maxAgeSeconds", 300) * 1000;
+    private static final String FALLBACK_TYPE = "Other";
+    // Charged when neither the service type nor 'Other' has a rate
+    private static final double DEFAULT_RATE = 500.00;
+
+    /**
+     * One loaded copy of the table; never modified
+     */
+    private static final class Snapshot {
+        final Map<String, Double> rates;
+        final double fallback;
+        final long loadedAt = System.currentTimeMillis();
+
+        Snapshot(Map<String, Double> rates) {
+            this.rates = Collections.unmodifiableMap(rates);
+            this.fallback = rates.getOrDefault(FALLBACK_TYPE, DEFAULT_RATE);
+        }
+
+        double rate(String serviceType) {
+            Double rate = serviceType != null ? rates.get(serviceType.trim()) : null;
+            return rate != null ? rate : fallback;
+        }
+    }
+
+    private volatile Snapshot snapshot;
+    // Bumped by invalidate(), so a load that raced with an edit isn't kept
+    private volatile long version;
+
+    private LaborRateCatalog() {
+        // Private constructor
+    }
+
+    public static synchronized LaborRateCatalog getInstance() {
+        if (instance == null) {
+            instance = new LaborRateCatalog();
+        }
+        return instance;
+    }
+
+    /**
+     * Labor cost of one service type
+     */
+    public double getRate(String serviceType) throws SQLException {
+        return current().rate(serviceType);
+    }
+
+    /**
+     * Total labor cost of a booking's service types. Uses the given connection if the
+     * rates have to be (re)loaded, so billing never opens a second one.
+     */
+    public double getTotal(Connection conn, Collection<String> serviceTypes) throws SQLException {
+        Snapshot current = snapshot;
+        if (isStale(current)) {
+            current = load(conn);
+        }
+        double total = 0.0;
+        for (String serviceType : serviceTypes) {
+            total += current.rate(serviceType);
+        }
+        return total;
+    }
+
+    /**
+     * All rates by service type, as of the last load
+     */
+    public Map<String, Double> getRates() throws SQLException {
+        return current().rates;
+    }
+
+    /**
+     * Drop the loaded rates; the next lookup reloads them (e.g. after a rate is edited)
+     */
+    public synchronized void invalidate() {
+        version++;
+        snapshot = null;
+    }
+
+    private Snapshot current() throws SQLException {
+        Snapshot current = snapshot;
+        if (isStale(current)) {
+            try (Connection conn = DatabaseUtil.getConnection()) {
+                current = load(conn);
+            }
+        }
+        return current;
+    }
+
+    private static boolean isStale(Snapshot current) {
+        return current == null || System.currentTimeMillis() - current.loadedAt > MAX_AGE_MS;
+    }
+
+    private Snapshot load(Connection conn) throws SQLException {
+        long loadingVersion = version;
+        Map<String, Double> rates = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT service_type, labor_cost FROM service_labor_costs")) {
+            while (rs.next()) {
+                rates.put(rs.getString("service_type").trim(), rs.getDouble("labor_cost"));
+            }
+        }
+        Snapshot loaded = new Snapshot(rates);
+        synchronized (this) {
+            if (loadingVersion == version) {
+                snapshot = loaded;
+            }
+        }
+        return loaded;
+    }
+}
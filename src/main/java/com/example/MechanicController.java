@@ -17,7 +17,6 @@ import javafx.stage.Stage;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 public class MechanicController {
 
@@ -40,6 +39,13 @@ public class MechanicController {
     private ObservableList<MechanicViewModel> allMechanics = FXCollections.observableArrayList();
     private static final int ITEMS_PER_PAGE = 25;
     private MechanicService mechanicService = new MechanicService();
+    private MechanicRosterService rosterService = new MechanicRosterService();
+    
+    // Searches run in the background as the user types
+    private final SearchPipeline<List<MechanicRosterService.RosterEntry>> searchPipeline =
+        new SearchPipeline<>("mechanics", this::showSearchResults, this::showSearchError);
+    // Set while Refresh clears the search box and filters, which reloads everything anyway
+    private boolean resettingFilters = false;
     
     // ViewModel for mechanics with additional properties
     public static class MechanicViewModel {
@@ -166,6 +172,10 @@ public class MechanicController {
         
         // Load initial data
         loadMechanics();
+        
+        // Search as you type; a new status filter applies right away
+        searchField.textProperty().addListener((obs, oldText, newText) -> runSearch(false));
+        filterStatusComboBox.valueProperty().addListener((obs, oldValue, newValue) -> runSearch(true));
     }
     
     private void setupActionsColumn() {
@@ -208,16 +218,35 @@ public class MechanicController {
     
     @FXML
     private void handleSearchMechanics() {
+        runSearch(true);
+    }
+    
+    private void runSearch(boolean immediately) {
+        if (resettingFilters) {
+            return;
+        }
         String searchTerm = searchField.getText().trim();
         String statusFilter = filterStatusComboBox.getValue();
+        String key = searchTerm + "|" + statusFilter;
+        SearchPipeline.Query<List<MechanicRosterService.RosterEntry>> query =
+            () -> rosterService.getRoster(searchTerm, statusFilter);
         
-        loadMechanicsFiltered(searchTerm, statusFilter);
+        if (immediately) {
+            searchPipeline.searchNow(key, query);
+        } else {
+            searchPipeline.search(key, query);
+        }
     }
     
     @FXML
     private void handleRefreshMechanics() {
-        searchField.clear();
-        filterStatusComboBox.setValue("All");
+        resettingFilters = true;
+        try {
+            searchField.clear();
+            filterStatusComboBox.setValue("All");
+        } finally {
+            resettingFilters = false;
+        }
         loadMechanics();
     }
     
@@ -260,9 +289,10 @@ public class MechanicController {
     }
     
     private void loadMechanics() {
+        // Data changed (or a refresh was asked for), so cached search results are out of date
+        searchPipeline.invalidate();
         try {
-            List<Mechanic> mechanics = mechanicService.getAllMechanics();
-            updateMechanicViewList(mechanics);
+            updateMechanicViewList(rosterService.getRoster());
         } catch (SQLException e) {
             e.printStackTrace();
             showAlert(Alert.AlertType.ERROR, 
@@ -271,49 +301,31 @@ public class MechanicController {
         }
     }
     
-    private void loadMechanicsFiltered(String searchTerm, String statusFilter) {
-        try {
-            List<Mechanic> mechanics;
-            
-            if (searchTerm.isEmpty() && statusFilter.equals("All")) {
-                mechanics = mechanicService.getAllMechanics();
-            } else {
-                // In a real application, you would implement a filtered query
-                // This is a simplified example
-                mechanics = mechanicService.searchMechanics(searchTerm, statusFilter);
-            }
-            
-            updateMechanicViewList(mechanics);
-            statusLabel.setText("Search complete");
-        } catch (SQLException e) {
-            e.printStackTrace();
-            showAlert(Alert.AlertType.ERROR, 
-                     "Search Error", 
-                     "Error searching mechanics: " + e.getMessage());
-        }
+    private void showSearchResults(List<MechanicRosterService.RosterEntry> roster) {
+        updateMechanicViewList(roster);
+        statusLabel.setText("Search complete");
     }
     
-    private void updateMechanicViewList(List<Mechanic> mechanics) throws SQLException {
+    private void showSearchError(SQLException e) {
+        e.printStackTrace();
+        showAlert(Alert.AlertType.ERROR, 
+                 "Search Error", 
+                 "Error searching mechanics: " + e.getMessage());
+    }
+    
+    // The roster already carries job counts and availability, so no per-mechanic queries here
+    private void updateMechanicViewList(List<MechanicRosterService.RosterEntry> roster) {
         allMechanics.clear();
         
-        // Get current job counts for all mechanics
-        Map<Integer, Integer> jobCounts = mechanicService.getAllMechanicsJobCounts();
-        
-        // Create view models with real-time data
-        for (Mechanic mechanic : mechanics) {
-            // Calculate availability based on current jobs
-            String availability = mechanicService.calculateAvailability(mechanic.getId());
-            
-            // Get current job count
-            int jobCount = jobCounts.getOrDefault(mechanic.getId(), 0);
-            
+        for (MechanicRosterService.RosterEntry entry : roster) {
+            Mechanic mechanic = entry.getMechanic();
             allMechanics.add(new MechanicViewModel(
                 mechanic.getId(),
                 mechanic.getHexId(),
                 mechanic.getName(),
                 mechanic.getSpecialtiesAsString(),
-                availability,
-                jobCount
+                entry.getAvailability(),
+                entry.getActiveJobs()
             ));
         }
         
@@ -338,16 +350,14 @@ public class MechanicController {
     
     private void showMechanicDetails(MechanicViewModel mechanicViewModel) {
         try {
-            // Fetch full mechanic details
-            Mechanic mechanic = mechanicService.getAllMechanics().stream()
-                .filter(m -> m.getId() == mechanicViewModel.getId())
-                .findFirst()
-                .orElse(null);
+            // Fetch full mechanic details with real-time job count and availability
+            MechanicRosterService.RosterEntry entry = rosterService.getRosterEntry(mechanicViewModel.getId());
             
-            if (mechanic == null) {
+            if (entry == null) {
                 showAlert(Alert.AlertType.ERROR, "Error", "Mechanic not found.");
                 return;
             }
+            Mechanic mechanic = entry.getMechanic();
             
             // Create dialog
             Dialog<Void> dialog = new Dialog<>();
@@ -367,8 +377,7 @@ public class MechanicController {
             Label nameLabel = new Label("Name: " + mechanic.getName());
             nameLabel.setStyle("-fx-font-size: 14px; -fx-font-weight: bold;");
             
-            // Get real-time availability
-            String currentAvailability = mechanicService.calculateAvailability(mechanic.getId());
+            String currentAvailability = entry.getAvailability();
             
             // Availability
             Label availabilityLabel = new Label("Availability: " + currentAvailability);
@@ -389,13 +398,18 @@ public class MechanicController {
             }
             
             // Current job count
-            int currentJobCount = mechanicService.getCurrentJobCount(mechanic.getId());
+            int currentJobCount = entry.getActiveJobs();
             Label jobCountLabel = new Label("Current Active Jobs: " + currentJobCount);
             jobCountLabel.setStyle("-fx-font-size: 14px; -fx-font-weight: bold;");
             if (currentJobCount > 0) {
                 jobCountLabel.setStyle("-fx-font-size: 14px; -fx-font-weight: bold; -fx-text-fill: #0066cc;");
             }
             
+            // Today's schedule load
+            Label todayLabel = new Label("Today's Schedule: " + entry.getTodayBookings() + " booking(s), " +
+                                         entry.getTodayMinutes() + " min");
+            todayLabel.setStyle("-fx-font-size: 14px;");
+            
             // Specialties section
             Label specialtiesHeaderLabel = new Label("Specialties:");
             specialtiesHeaderLabel.setStyle("-fx-font-size: 14px; -fx-font-weight: bold; -fx-underline: true;");
@@ -425,6 +439,7 @@ public class MechanicController {
                 nameLabel,
                 availabilityLabel,
                 jobCountLabel,
+                todayLabel,
                 new Separator(),
                 specialtiesHeaderLabel,
                 specialtiesScrollPane
@@ -770,6 +785,7 @@ public class MechanicController {
                 }
                 
                 mechanic.setAvailability(newStatus);
+                searchPipeline.invalidate();
                 mechanicTable.refresh();
                 statusLabel.setText("Status updated successfully");
                 
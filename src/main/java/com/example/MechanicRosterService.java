@@ -0,0 +1,137 @@
+package com.example;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Loads everything the mechanics screen shows in one query: each mechanic with
+ * their active job count, derived availability and today's schedule load.
+ *
+ * Job counts come from one aggregate over service_bookings joined to the
+ * mechanics, so the cost of loading the roster does not grow with the number
+ * of mechanics (MechanicService.calculateAvailability costs two queries each).
+ */
+public class MechanicRosterService {
+
+    // Also checked by QueryPlanCheck, through rosterQuery and ROSTER_ENTRY_QUERY
+    private static final String ROSTER_QUERY =
+        "SELECT m.id, m.hex_id, m.user_id, u.username AS name, m.specialties, m.availability, " +
+        "       COALESCE(j.active_jobs, 0) AS active_jobs, " +
+        "       COALESCE(j.today_bookings, 0) AS today_bookings, " +
+        "       COALESCE(j.today_minutes, 0) AS today_minutes " +
+        "FROM mechanics m " +
+        "JOIN users u ON m.user_id = u.id " +
+        "LEFT JOIN (" +
+        "    SELECT mechanic_id, " +
+        "           SUM(status IN ('scheduled', 'in_progress')) AS active_jobs, " +
+        "           SUM(booking_date = CURDATE() AND status <> 'cancelled') AS today_bookings, " +
+        "           SUM(CASE WHEN booking_date = CURDATE() AND status <> 'cancelled' " +
+        "                    THEN estimated_duration ELSE 0 END) AS today_minutes " +
+        "    FROM service_bookings " +
+        "    WHERE status IN ('scheduled', 'in_progress') OR booking_date = CURDATE() " +
+        "    GROUP BY mechanic_id" +
+        ") j ON j.mechanic_id = m.id ";
+
+    static final String ROSTER_ENTRY_QUERY = ROSTER_QUERY + "WHERE m.id = ?";
+
+    /**
+     * One row of the roster
+     */
+    public static class RosterEntry {
+        private final Mechanic mechanic;
+        private final int activeJobs;
+        private final int todayBookings;
+        private final int todayMinutes;
+
+        public RosterEntry(Mechanic mechanic, int activeJobs, int todayBookings, int todayMinutes) {
+            this.mechanic = mechanic;
+            this.activeJobs = activeJobs;
+            this.todayBookings = todayBookings;
+            this.todayMinutes = todayMinutes;
+        }
+
+        public Mechanic getMechanic() { return mechanic; }
+        public int getActiveJobs() { return activeJobs; }
+        public int getTodayBookings() { return todayBookings; }
+        public int getTodayMinutes() { return todayMinutes; }
+
+        /**
+         * Availability derived from the stored status and active jobs, same rules as
+         * MechanicService.calculateAvailability
+         */
+        public String getAvailability() {
+            return MechanicService.deriveAvailability(mechanic.getAvailability(), activeJobs);
+        }
+    }
+
+    /**
+     * Every mechanic, ordered by name
+     */
+    public List<RosterEntry> getRoster() throws SQLException {
+        return getRoster("", "All");
+    }
+
+    /**
+     * Mechanics whose name or specialties match the search term and whose derived
+     * availability matches the status filter ("All" for any)
+     */
+    public List<RosterEntry> getRoster(String searchTerm, String statusFilter) throws SQLException {
+        boolean hasSearch = searchTerm != null && !searchTerm.isEmpty();
+
+        List<RosterEntry> roster = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(rosterQuery(hasSearch))) {
+
+            if (hasSearch) {
+                String searchPattern = "%" + searchTerm + "%";
+                stmt.setString(1, searchPattern);
+                stmt.setString(2, searchPattern);
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    RosterEntry entry = extractEntry(rs);
+                    // Filter on the derived status so "Busy"/"Overloaded" match what the table shows
+                    if (statusFilter == null || statusFilter.equals("All") ||
+                        statusFilter.equals(entry.getAvailability())) {
+                        roster.add(entry);
+                    }
+                }
+            }
+        }
+
+        return roster;
+    }
+
+    /**
+     * One mechanic's roster row, or null if the mechanic does not exist
+     */
+    public RosterEntry getRosterEntry(int mechanicId) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(ROSTER_ENTRY_QUERY)) {
+
+            stmt.setInt(1, mechanicId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? extractEntry(rs) : null;
+            }
+        }
+    }
+
+    // The whole roster, or with a search bound as two LIKE patterns
+    static String rosterQuery(boolean hasSearch) {
+        return ROSTER_QUERY + (hasSearch ? "WHERE (u.username LIKE ? OR m.specialties LIKE ?) " : "") +
+               "ORDER BY u.username";
+    }
+
+    private RosterEntry extractEntry(ResultSet rs) throws SQLException {
+        Mechanic mechanic = new Mechanic(rs.getInt("id"), rs.getInt("user_id"),
+                                         rs.getString("name"), rs.getString("specialties"));
+        mechanic.setHexId(rs.getString("hex_id"));
+        mechanic.setAvailability(rs.getString("availability"));
+
+        return new RosterEntry(mechanic,
+                               rs.getInt("active_jobs"),
+                               rs.getInt("today_bookings"),
+                               rs.getInt("today_minutes"));
+    }
+}
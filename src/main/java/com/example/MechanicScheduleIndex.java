@@ -0,0 +1,314 @@
+package com.example;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * In-memory index of each mechanic's bookings per day, used for time conflict
+ * checks and free slot suggestions without a database round trip.
+ *
+ * Bookings from today onwards are loaded in one query on first use; earlier days
+ * are loaded on demand. ServiceBookingService reports every booking it creates,
+ * edits, cancels or deletes through bookingChanged()/bookingRemoved(). To pick up
+ * bookings written by other workstations the index is rebuilt when it is older than
+ * autotech.schedule.maxAgeSeconds (default 300).
+ *
+ * Like MechanicService.hasTimeConflict used to, every non-cancelled booking
+ * (including completed and delayed ones) occupies its time range.
+ */
+public class MechanicScheduleIndex {
+    private static MechanicScheduleIndex instance;
+
+    private static final long MAX_AGE_MS = Long.getLong("autotech.schedule.maxAgeSeconds", 300) * 1000;
+
+    private static final String SLOT_COLUMNS =
+        "SELECT id, mechanic_id, booking_date, booking_time, estimated_duration, status FROM service_bookings ";
+    // Also checked by QueryPlanCheck
+    static final String DAY_SLOTS_QUERY = SLOT_COLUMNS + "WHERE booking_date = ? AND status <> 'cancelled'";
+    static final String UPCOMING_SLOTS_QUERY = SLOT_COLUMNS + "WHERE booking_date >= ? AND status <> 'cancelled'";
+
+    /**
+     * One booking occupying [start, end) minutes after midnight
+     */
+    public static final class Slot {
+        private final int bookingId;
+        private final int mechanicId;
+        private final LocalDate date;
+        private final int start;
+        private final int end;
+
+        Slot(int bookingId, int mechanicId, LocalDate date, int start, int end) {
+            this.bookingId = bookingId;
+            this.mechanicId = mechanicId;
+            this.date = date;
+            this.start = start;
+            this.end = end;
+        }
+
+        public int getBookingId() { return bookingId; }
+        public int getMechanicId() { return mechanicId; }
+        public LocalDate getDate() { return date; }
+        public int getStartMinute() { return start; }
+        public int getEndMinute() { return end; }
+
+        boolean overlaps(int otherStart, int otherEnd) {
+            return otherStart < end && otherEnd > start;
+        }
+    }
+
+    // One mechanic's bookings on one day, keyed by start minute
+    private static final class DaySchedule {
+        final TreeMap<Integer, List<Slot>> byStart = new TreeMap<>();
+        // Longest booking ever added; bounds how far back an overlapping booking can start.
+        // Not lowered on removal, which only widens the range scanned.
+        int maxDuration = 0;
+
+        void add(Slot slot) {
+            byStart.computeIfAbsent(slot.start, s -> new ArrayList<>()).add(slot);
+            maxDuration = Math.max(maxDuration, slot.end - slot.start);
+        }
+
+        void remove(Slot slot) {
+            List<Slot> slots = byStart.get(slot.start);
+            if (slots != null) {
+                slots.remove(slot);
+                if (slots.isEmpty()) {
+                    byStart.remove(slot.start);
+                }
+            }
+        }
+    }
+
+    // All guarded by this
+    private final Map<Integer, Map<LocalDate, DaySchedule>> schedules = new HashMap<>();
+    private final Map<Integer, Slot> slotsByBooking = new HashMap<>();
+    private final Set<LocalDate> loadedPastDates = new HashSet<>();
+    private LocalDate loadedFrom;   // every day from here onwards is loaded; null = not built
+    private long builtAt;
+
+    private MechanicScheduleIndex() {
+        // Private constructor
+    }
+
+    public static synchronized MechanicScheduleIndex getInstance() {
+        if (instance == null) {
+            instance = new MechanicScheduleIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * True if the time range overlaps another non-cancelled booking of the mechanic
+     * @param excludeBookingId booking to ignore (the one being edited), or -1
+     */
+    public synchronized boolean hasConflict(int mechanicId, LocalDate date, LocalTime time,
+                                            int durationMinutes, int excludeBookingId) throws SQLException {
+        ensureLoaded(date);
+        DaySchedule day = getDay(mechanicId, date);
+        if (day == null) {
+            return false;
+        }
+
+        int start = toMinutes(time);
+        int end = start + durationMinutes;
+        // Only bookings starting within maxDuration before our start can still be running
+        for (List<Slot> slots : day.byStart.subMap(start - day.maxDuration, false, end, false).values()) {
+            for (Slot slot : slots) {
+                if (slot.bookingId != excludeBookingId && slot.overlaps(start, end)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Earliest start at or after 'earliest' where the mechanic is free for the whole
+     * duration and the job finishes by dayEnd, or null if the day is full
+     * @param excludeBookingId booking to ignore (the one being edited), or -1
+     */
+    public synchronized LocalTime findNextFreeSlot(int mechanicId, LocalDate date, LocalTime earliest,
+                                                   int durationMinutes, LocalTime dayEnd,
+                                                   int excludeBookingId) throws SQLException {
+        ensureLoaded(date);
+        int candidate = toMinutes(earliest);
+        int limit = toMinutes(dayEnd);
+
+        DaySchedule day = getDay(mechanicId, date);
+        if (day != null) {
+            // Walk bookings in start order, pushing the candidate past each one it hits
+            walk:
+            for (List<Slot> slots : day.byStart.values()) {
+                for (Slot slot : slots) {
+                    if (slot.start >= candidate + durationMinutes || candidate >= limit) {
+                        break walk; // Everything after this starts later still
+                    }
+                    if (slot.bookingId != excludeBookingId && slot.overlaps(candidate, candidate + durationMinutes)) {
+                        candidate = slot.end;
+                    }
+                }
+            }
+        }
+
+        if (candidate + durationMinutes > limit) {
+            return null;
+        }
+        return LocalTime.of(candidate / 60, candidate % 60);
+    }
+
+    /**
+     * The mechanic's non-cancelled bookings on a day, ordered by start time
+     */
+    public synchronized List<Slot> getSlots(int mechanicId, LocalDate date) throws SQLException {
+        ensureLoaded(date);
+        List<Slot> result = new ArrayList<>();
+        DaySchedule day = getDay(mechanicId, date);
+        if (day != null) {
+            for (List<Slot> slots : day.byStart.values()) {
+                result.addAll(slots);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Re-read one booking after it was created, edited or changed status
+     */
+    public void bookingChanged(int bookingId) {
+        synchronized (this) {
+            if (loadedFrom == null) {
+                return; // Not built yet - the first use loads it
+            }
+        }
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SLOT_COLUMNS + "WHERE id = ?")) {
+            stmt.setInt(1, bookingId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                synchronized (this) {
+                    removeSlot(bookingId);
+                    if (rs.next()) {
+                        Slot slot = extractSlot(rs);
+                        if (slot != null && loadedFrom != null && isLoaded(slot.date)) {
+                            addSlot(slot);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            // Can't tell what changed, so start over on the next check
+            System.err.println("Warning: Could not refresh schedule for booking #" + bookingId + ": " + e.getMessage());
+            invalidate();
+        }
+    }
+
+    /**
+     * Forget a deleted booking
+     */
+    public synchronized void bookingRemoved(int bookingId) {
+        removeSlot(bookingId);
+    }
+
+    /**
+     * Drop everything; the next check rebuilds (e.g. after bulk deletes or a database reset)
+     */
+    public synchronized void invalidate() {
+        schedules.clear();
+        slotsByBooking.clear();
+        loadedPastDates.clear();
+        loadedFrom = null;
+    }
+
+    private void ensureLoaded(LocalDate date) throws SQLException {
+        if (loadedFrom == null || System.currentTimeMillis() - builtAt > MAX_AGE_MS) {
+            rebuild();
+        }
+        if (date.isBefore(loadedFrom) && !loadedPastDates.contains(date)) {
+            try (Connection conn = DatabaseUtil.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(DAY_SLOTS_QUERY)) {
+                stmt.setDate(1, java.sql.Date.valueOf(date));
+                loadSlots(stmt);
+            }
+            loadedPastDates.add(date);
+        }
+    }
+
+    private void rebuild() throws SQLException {
+        LocalDate today = LocalDate.now();
+        invalidate();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPCOMING_SLOTS_QUERY)) {
+            stmt.setDate(1, java.sql.Date.valueOf(today));
+            loadSlots(stmt);
+        }
+        loadedFrom = today;
+        builtAt = System.currentTimeMillis();
+    }
+
+    private void loadSlots(PreparedStatement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                Slot slot = extractSlot(rs);
+                if (slot != null) {
+                    removeSlot(slot.bookingId);
+                    addSlot(slot);
+                }
+            }
+        }
+    }
+
+    // Null for cancelled or unassigned bookings, which never block time
+    private Slot extractSlot(ResultSet rs) throws SQLException {
+        int mechanicId = rs.getInt("mechanic_id");
+        java.sql.Date date = rs.getDate("booking_date");
+        Time time = rs.getTime("booking_time");
+        if (mechanicId <= 0 || date == null || time == null || "cancelled".equalsIgnoreCase(rs.getString("status"))) {
+            return null;
+        }
+        int start = toMinutes(time.toLocalTime());
+        return new Slot(rs.getInt("id"), mechanicId, date.toLocalDate(), start,
+                        start + rs.getInt("estimated_duration"));
+    }
+
+    private boolean isLoaded(LocalDate date) {
+        return !date.isBefore(loadedFrom) || loadedPastDates.contains(date);
+    }
+
+    private DaySchedule getDay(int mechanicId, LocalDate date) {
+        Map<LocalDate, DaySchedule> days = schedules.get(mechanicId);
+        return days != null ? days.get(date) : null;
+    }
+
+    private void addSlot(Slot slot) {
+        schedules.computeIfAbsent(slot.mechanicId, id -> new HashMap<>())
+                 .computeIfAbsent(slot.date, d -> new DaySchedule())
+                 .add(slot);
+        slotsByBooking.put(slot.bookingId, slot);
+    }
+
+    private void removeSlot(int bookingId) {
+        Slot slot = slotsByBooking.remove(bookingId);
+        if (slot == null) {
+            return;
+        }
+        Map<LocalDate, DaySchedule> days = schedules.get(slot.mechanicId);
+        DaySchedule day = days != null ? days.get(slot.date) : null;
+        if (day != null) {
+            day.remove(slot);
+            if (day.byStart.isEmpty()) {
+                days.remove(slot.date);
+            }
+        }
+    }
+
+    private static int toMinutes(LocalTime time) {
+        return time.toSecondOfDay() / 60;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "MechanicScheduleIndex[bookings=" + slotsByBooking.size() + ", mechanics=" + schedules.size() +
+               ", loadedFrom=" + loadedFrom + ", pastDays=" + loadedPastDates.size() + "]";
+    }
+}
@@ -4,6 +4,11 @@ import java.sql.*;
 import java.util.*;
 
 public class MechanicService {
+    // Also checked by QueryPlanCheck
+    static final String JOB_COUNT_QUERY =
+        "SELECT COUNT(*) as job_count " +
+        "FROM service_bookings " +
+        "WHERE mechanic_id = ? AND status IN ('scheduled', 'in_progress')";
     
     public List<Mechanic> getAllMechanics() throws SQLException {
         List<Mechanic> mechanics = new ArrayList<>();
@@ -154,6 +159,7 @@ public class MechanicService {
             stmt.setString(3, HexIdGenerator.generateMechanicId());
             
             int rowsAffected = stmt.executeUpdate();
+            SchedulingEngine.getInstance().invalidateRoster();
             return rowsAffected > 0;
         }
     }
@@ -168,6 +174,7 @@ public class MechanicService {
             stmt.setInt(3, id);
             
             int rowsAffected = stmt.executeUpdate();
+            SchedulingEngine.getInstance().invalidateRoster();
             return rowsAffected > 0;
         }
     }
@@ -181,6 +188,7 @@ public class MechanicService {
             stmt.setInt(2, mechanicId);
             
             int rowsAffected = stmt.executeUpdate();
+            SchedulingEngine.getInstance().invalidateRoster();
             return rowsAffected > 0;
         }
     }
@@ -218,10 +226,7 @@ public class MechanicService {
      */
     public int getCurrentJobCount(int mechanicId) throws SQLException {
         try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                 "SELECT COUNT(*) as job_count " +
-                 "FROM service_bookings " +
-                 "WHERE mechanic_id = ? AND status IN ('scheduled', 'in_progress')")) {
+             PreparedStatement stmt = conn.prepareStatement(JOB_COUNT_QUERY)) {
             
             stmt.setInt(1, mechanicId);
             ResultSet rs = stmt.executeQuery();
@@ -267,7 +272,7 @@ public class MechanicService {
      * - Manual "Off Duty" status is always respected
      */
     public String calculateAvailability(int mechanicId) throws SQLException {
-        // First check if manually set to Off Duty
+        String manualStatus = null;
         try (Connection conn = DatabaseUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(
                  "SELECT availability FROM mechanics WHERE id = ?")) {
@@ -276,17 +281,26 @@ public class MechanicService {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                String manualStatus = rs.getString("availability");
-                if ("Off Duty".equals(manualStatus)) {
-                    return "Off Duty"; // Respect manual off-duty status
-                }
+                manualStatus = rs.getString("availability");
             }
         }
         
-        // Otherwise, calculate based on job count (excludes delayed jobs)
-        int jobCount = getCurrentJobCount(mechanicId);
-        
-        if (jobCount == 0 || jobCount <= 2) {
+        // Respect manual off-duty status; otherwise use the job count (excludes delayed jobs)
+        if ("Off Duty".equals(manualStatus)) {
+            return "Off Duty";
+        }
+        return deriveAvailability(manualStatus, getCurrentJobCount(mechanicId));
+    }
+    
+    /**
+     * Availability from the stored status and active job count, for callers that
+     * already loaded both (see MechanicRosterService)
+     */
+    public static String deriveAvailability(String manualStatus, int jobCount) {
+        if ("Off Duty".equals(manualStatus)) {
+            return "Off Duty";
+        }
+        if (jobCount <= 2) {
             return "Available";
         } else if (jobCount <= 4) {
             return "Busy";
@@ -311,6 +325,8 @@ public class MechanicService {
             stmt.executeUpdate();
             
             System.out.println("Updated mechanic #" + mechanicId + " availability to: " + newAvailability);
+            // Job count changed, so slot suggestions need fresh load figures
+            SchedulingEngine.getInstance().invalidateRoster();
         }
         
         return newAvailability;
@@ -348,45 +364,18 @@ public class MechanicService {
     
     // Check if mechanic has a time conflict on a specific date and time, excluding a specific booking ID
     public boolean hasTimeConflict(int mechanicId, java.sql.Date date, Time time, int durationMinutes, int excludeBookingId) throws SQLException {
-        StringBuilder query = new StringBuilder(
-            "SELECT sb.booking_time, sb.estimated_duration " +
-            "FROM service_bookings sb " +
-            "WHERE sb.mechanic_id = ? AND sb.booking_date = ? AND sb.status != 'cancelled'");
-        
-        if (excludeBookingId > 0) {
-            query.append(" AND sb.id != ?");
-        }
-        
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query.toString())) {
-            
-            stmt.setInt(1, mechanicId);
-            stmt.setDate(2, date);
-            if (excludeBookingId > 0) {
-                stmt.setInt(3, excludeBookingId);
-            }
-            
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                Time existingTime = rs.getTime("booking_time");
-                int existingDuration = rs.getInt("estimated_duration");
-                
-                // Calculate time ranges
-                long newStartMinutes = time.toLocalTime().toSecondOfDay() / 60;
-                long newEndMinutes = newStartMinutes + durationMinutes;
-                
-                long existingStartMinutes = existingTime.toLocalTime().toSecondOfDay() / 60;
-                long existingEndMinutes = existingStartMinutes + existingDuration;
-                
-                // Check for overlap
-                if ((newStartMinutes < existingEndMinutes) && (newEndMinutes > existingStartMinutes)) {
-                    return true; // Time conflict exists
-                }
-            }
-        }
-        
-        return false; // No time conflict
+        // Answered from the in-memory schedule, no query per check
+        return MechanicScheduleIndex.getInstance().hasConflict(
+            mechanicId, date.toLocalDate(), time.toLocalTime(), durationMinutes, excludeBookingId);
+    }
+    
+    /**
+     * Earliest start time at or after 'earliest' when the mechanic is free for the
+     * given duration and finishes by dayEnd, or null if none is left that day
+     */
+    public java.time.LocalTime findNextFreeSlot(int mechanicId, java.time.LocalDate date, java.time.LocalTime earliest,
+                                                int durationMinutes, java.time.LocalTime dayEnd) throws SQLException {
+        return MechanicScheduleIndex.getInstance().findNextFreeSlot(mechanicId, date, earliest, durationMinutes, dayEnd, -1);
     }
     
     public String determineAvailability(int mechanicId) throws SQLException {
@@ -0,0 +1,172 @@
+package com.example;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Runs EXPLAIN on the application's hot queries and reports any that would scan
+ * a whole table (access type ALL), unless the query lists the table as an allowed
+ * scan.
+ *
+ * On a small development database the optimizer prefers a full scan even where an
+ * index fits, so the check tells it to cost index lookups as cheap as on a large
+ * table (max_seeks_for_key). A scan that is still chosen means no index serves the
+ * query at any size.
+ *
+ * Run it after a schema change:
+ *   mvn -q compile exec:java -Dapp.mainClass=com.example.QueryPlanCheck
+ * The exit code is 1 when a problem was found. Queries are registered by the
+ * constant or builder the service itself uses, so the check sees the real
+ * statement; when a new query is added to a hot path, expose it the same way and
+ * register it here along with sample parameters.
+ */
+public final class QueryPlanCheck {
+
+    /**
+     * One registered query with sample parameter values
+     */
+    static final class HotQuery {
+        final String name;
+        final String sql;
+        final Object[] params;
+        // Tables (as named or aliased in the query) it is expected to read in full, e.g. small lookup tables
+        final Set<String> allowedScans = new HashSet<>();
+
+        HotQuery(String name, String sql, Object... params) {
+            this.name = name;
+            this.sql = sql;
+            this.params = params;
+        }
+
+        HotQuery allowScan(String... tables) {
+            allowedScans.addAll(Arrays.asList(tables));
+            return this;
+        }
+    }
+
+    // The statements the services run, taken from their constants, with sample parameters
+    private static final List<HotQuery> HOT_QUERIES = Arrays.asList(
+        new HotQuery("schedule load for a past day",
+            MechanicScheduleIndex.DAY_SLOTS_QUERY, Date.valueOf(LocalDate.now().minusDays(7))),
+        new HotQuery("schedule index load",
+            MechanicScheduleIndex.UPCOMING_SLOTS_QUERY, Date.valueOf(LocalDate.now())),
+        new HotQuery("mechanic active jobs", MechanicService.JOB_COUNT_QUERY, 1),
+        new HotQuery("delayed bookings", DelayedBookingPromoter.delayedBookingsQuery(false)),
+        new HotQuery("delayed bookings of a mechanic", DelayedBookingPromoter.delayedBookingsQuery(true), 1),
+        new HotQuery("delayed booking parts", DelayedBookingPromoter.DELAYED_PARTS_QUERY),
+        new HotQuery("bookings promoted by a booking", ServiceBookingService.PROMOTED_BY_QUERY, 1),
+        bookingsPage("booking list page", 0, null, "Active", null, null),
+        bookingsPage("booking list next page", 0, null, "Active", null,
+            new BookingPage.Cursor(LocalDate.now(), Integer.MAX_VALUE)),
+        bookingsPage("booking list by status", 0, null, "Cancelled", null, null),
+        bookingsPage("mechanic's booking list", 1, null, "All", null, null),
+        bookingsPage("booking list for a day", 0, null, "All", LocalDate.now(), null),
+        bookingsPage("booking search", 0, Arrays.asList(1, 2, 3), "All", null, null),
+        new HotQuery("booking parts", ServiceBookingService.BOOKING_PARTS_QUERY, 1),
+        new HotQuery("booking services", ServiceBookingService.BOOKING_SERVICES_QUERY, 1),
+        new HotQuery("bill for booking", BillingService.BILL_EXISTS_QUERY, 1),
+        new HotQuery("service types to bill", BillingService.BOOKING_SERVICE_TYPES_QUERY, 1),
+        new HotQuery("parts cost to bill", BillingService.BOOKING_PARTS_COST_QUERY, 1),
+        new HotQuery("unbilled completed bookings", BillingService.UNBILLED_BOOKINGS_QUERY),
+        new HotQuery("unbilled service types", BillingService.UNBILLED_SERVICE_TYPES_QUERY),
+        new HotQuery("unbilled parts costs", BillingService.UNBILLED_PARTS_COSTS_QUERY),
+        new HotQuery("email history of bill", EmailHistoryService.BILL_HISTORY_QUERY, 1),
+        new HotQuery("customer vehicles", VehicleService.CUSTOMER_VEHICLES_QUERY, 1),
+        new HotQuery("parts changed since", InventoryService.UPDATED_SINCE_QUERY,
+            new Timestamp(System.currentTimeMillis())),
+        new HotQuery("parts expiring", InventoryService.EXPIRING_SOON_QUERY,
+            Date.valueOf(LocalDate.now().plusDays(30))),
+        new HotQuery("email outbox batch", EmailOutbox.CLAIM_QUERY, EmailOutbox.BATCH_SIZE),
+        new HotQuery("mechanic roster", MechanicRosterService.rosterQuery(false))
+            .allowScan("m"),
+        new HotQuery("mechanic roster search", MechanicRosterService.rosterQuery(true), "%a%", "%a%")
+            .allowScan("m"),
+        new HotQuery("mechanic roster entry", MechanicRosterService.ROSTER_ENTRY_QUERY, 1)
+    );
+
+    private static HotQuery bookingsPage(String name, int mechanicId, List<Integer> searchIds, String statusFilter,
+                                         LocalDate dateFilter, BookingPage.Cursor after) {
+        List<Object> params = new ArrayList<>();
+        String sql = ServiceBookingService.bookingsPageQuery(mechanicId, searchIds, statusFilter, dateFilter, after,
+                                                             ServiceBookingService.DEFAULT_PAGE_SIZE, params);
+        return new HotQuery(name, sql, params.toArray());
+    }
+
+    private QueryPlanCheck() {
+        // Static utility
+    }
+
+    public static void main(String[] args) {
+        int exitCode = 0;
+        try {
+            List<String> problems = check();
+            if (problems.isEmpty()) {
+                System.out.println("✓ All " + HOT_QUERIES.size() + " hot queries use an index");
+            } else {
+                for (String problem : problems) {
+                    System.err.println("✗ " + problem);
+                }
+                exitCode = 1;
+            }
+        } catch (SQLException e) {
+            System.err.println("✗ Query plan check failed: " + e.getMessage());
+            exitCode = 2;
+        } finally {
+            DatabaseUtil.shutdown();
+        }
+        System.exit(exitCode);
+    }
+
+    /**
+     * EXPLAIN every registered query
+     * @return one message per full table scan; empty if none
+     */
+    public static List<String> check() throws SQLException {
+        List<String> problems = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SET SESSION max_seeks_for_key = 1");
+            }
+            try {
+                for (HotQuery query : HOT_QUERIES) {
+                    problems.addAll(explain(conn, query));
+                }
+            } finally {
+                // The connection goes back to the pool
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("SET SESSION max_seeks_for_key = DEFAULT");
+                }
+            }
+        }
+        return problems;
+    }
+
+    private static List<String> explain(Connection conn, HotQuery query) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + query.sql)) {
+            for (int i = 0; i < query.params.length; i++) {
+                stmt.setObject(i + 1, query.params[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String table = rs.getString("table");
+                    String accessType = rs.getString("type");
+                    String possibleKeys = rs.getString("possible_keys");
+                    // <derivedN> and <unionN> are the query's own temporary results; how they
+                    // were filled shows up in their own rows
+                    if ("ALL".equals(accessType) && table != null && !table.startsWith("<")
+                            && !query.allowedScans.contains(table)) {
+                        problems.add(query.name + ": full scan of " + table +
+                                     (possibleKeys == null ? " (no usable index)" : " (possible keys " + possibleKeys + " not used)"));
+                    }
+                }
+            }
+        }
+        return problems;
+    }
+}
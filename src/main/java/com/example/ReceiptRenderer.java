@@ -0,0 +1,227 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders bill receipts to HTML from the receipt email template and keeps the result.
+ *
+ * Everything on a receipt (bill, customer, vehicle, mechanic, services and parts) is
+ * read through BillDetails.loadAll, for one bill or a whole batch. Receipts are
+ * cached by bill hex ID and a version derived from the bill fields shown on them, as
+ * loaded from the database, so reprinting or emailing the same receipt reuses it; a
+ * payment changes the version and the next request renders it again. A cached
+ * receipt is also re-rendered when the booking's services or parts changed since,
+ * checked with one small query per batch. Exported files are named by hex ID and
+ * version and are only written when missing.
+ */
+public class ReceiptRenderer {
+    private static ReceiptRenderer instance;
+
+    private static final int CACHE_SIZE = Integer.getInteger("autotech.receipts.cacheSize", 500);
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    // Latest receipt per bill hex ID, least recently used first
+    private final Map<String, Receipt> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Receipt> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private ReceiptRenderer() {
+        // Private constructor
+    }
+
+    public static synchronized ReceiptRenderer getInstance() {
+        if (instance == null) {
+            instance = new ReceiptRenderer();
+        }
+        return instance;
+    }
+
+    /**
+     * Receipt for one bill, rendered if the cached one is missing or out of date
+     */
+    public Receipt getReceipt(Bill bill) throws SQLException {
+        return getReceipts(List.of(bill)).get(0);
+    }
+
+    /**
+     * Receipts for several bills, in the same order; bills not cached are loaded together
+     */
+    public List<Receipt> getReceipts(List<Bill> bills) throws SQLException {
+        Receipt[] receipts = new Receipt[bills.size()];
+        Map<Integer, Integer> missing = new LinkedHashMap<>();
+        Map<Integer, Integer> hits = new LinkedHashMap<>();
+        synchronized (cache) {
+            for (int i = 0; i < bills.size(); i++) {
+                Bill bill = bills.get(i);
+                Receipt cached = cache.get(bill.getHexId());
+                if (cached != null && cached.version.equals(version(bill))) {
+                    receipts[i] = cached;
+                    hits.put(bill.getId(), i);
+                } else {
+                    missing.put(bill.getId(), i);
+                }
+            }
+        }
+
+        // Services and parts can change without touching the bill; re-render those receipts
+        if (!hits.isEmpty()) {
+            Map<Integer, String> linesVersions = BillDetails.loadLinesVersions(hits.keySet());
+            for (Map.Entry<Integer, Integer> entry : hits.entrySet()) {
+                Receipt cached = receipts[entry.getValue()];
+                if (!cached.getLinesVersion().equals(linesVersions.get(entry.getKey()))) {
+                    receipts[entry.getValue()] = null;
+                    missing.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Integer, Receipt> loaded = load(new ArrayList<>(missing.keySet()));
+            synchronized (cache) {
+                for (Map.Entry<Integer, Integer> entry : missing.entrySet()) {
+                    Bill bill = bills.get(entry.getValue());
+                    Receipt receipt = loaded.get(entry.getKey());
+                    if (receipt == null) {
+                        throw new SQLException("Bill " + bill.getHexId() + " no longer exists");
+                    }
+                    cache.put(bill.getHexId(), receipt);
+                    receipts[entry.getValue()] = receipt;
+                }
+            }
+        }
+        List<Receipt> result = new ArrayList<>(receipts.length);
+        Collections.addAll(result, receipts);
+        return result;
+    }
+
+    /**
+     * Write each bill's receipt to dir as <hex ID>-<version>.html
+     * @return number of files written; receipts already exported are skipped
+     */
+    public int exportHtml(List<Bill> bills, Path dir) throws SQLException, IOException {
+        Files.createDirectories(dir);
+        int written = 0;
+        for (Receipt receipt : getReceipts(bills)) {
+            Path file = dir.resolve(receipt.getFileName());
+            if (!Files.exists(file)) {
+                Files.writeString(file, receipt.getHtml(), StandardCharsets.UTF_8);
+                written++;
+            }
+        }
+        return written;
+    }
+
+    // Short hash of the bill fields that appear on the receipt, as the caller has them
+    static String version(Bill bill) {
+        return version(bill.getHexId() + '|' + bill.getBillDate() + '|' + bill.getAmount() + '|' +
+                       bill.getPaymentStatus() + '|' + bill.getPaymentMethod() + '|' +
+                       bill.getCustomerName() + '|' + bill.getVehicleInfo());
+    }
+
+    // The same hash of what was actually loaded; a receipt is versioned by its own content
+    static String version(BillDetails bill) {
+        return version(bill.getBillHexId() + '|' + bill.getBillDate() + '|' + bill.getAmount() + '|' +
+                       bill.getPaymentStatus() + '|' + bill.getPaymentMethod() + '|' +
+                       bill.getCustomerName() + '|' + bill.getVehicleInfo());
+    }
+
+    private static String version(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 6; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM has SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Map<Integer, Receipt> load(List<Integer> billIds) throws SQLException {
+        Map<Integer, Receipt> receipts = new HashMap<>();
+        LocalDateTime issuedAt = LocalDateTime.now();
+        for (BillDetails bill : BillDetails.loadAll(billIds).values()) {
+            Receipt receipt = new Receipt(bill, issuedAt);
+            receipt.html = EmailTemplates.RECEIPT.render(receipt);
+            receipts.put(bill.getBillId(), receipt);
+        }
+        return receipts;
+    }
+
+    /**
+     * One rendered receipt; the content never changes once rendered
+     */
+    public static class Receipt implements EmailTemplate.Model {
+        private final BillDetails bill;
+        private final LocalDateTime issuedAt;
+        private final List<EmailTemplates.PartLine> partLines;
+        private final String version;
+        private String html;
+
+        private Receipt(BillDetails bill, LocalDateTime issuedAt) {
+            this.bill = bill;
+            this.issuedAt = issuedAt;
+            this.version = version(bill);
+            this.partLines = EmailTemplates.partLines(bill.getParts());
+        }
+
+        public String getHexId() { return bill.getBillHexId(); }
+        public String getVersion() { return version; }
+        public LocalDate getBillDate() { return bill.getBillDate(); }
+        // When the receipt was rendered; shown as its time
+        public String getIssuedTime() { return issuedAt.format(TIME_FORMAT); }
+        public double getAmount() { return bill.getAmount(); }
+        public String getPaymentStatus() { return bill.getPaymentStatus(); }
+        public String getPaymentMethod() { return bill.getPaymentMethod(); }
+        public String getCustomerName() { return bill.getCustomerName(); }
+        public String getVehicleInfo() { return bill.getVehicleInfo(); }
+        public String getMechanicName() { return bill.getMechanicName(); }
+        public List<String> getServices() { return bill.getServices(); }
+        public List<BookingPart> getParts() { return bill.getParts(); }
+        public double getPartsTotal() { return bill.getPartsTotal(); }
+        public String getLinesVersion() { return bill.getLinesVersion(); }
+        public String getHtml() { return html; }
+
+        public String getFileName() { return getHexId() + "-" + version + ".html"; }
+
+        @Override
+        public Object get(String name) {
+            switch (name) {
+                case "billHexId": return bill.getBillHexId();
+                case "billDate": return bill.getBillDate();
+                case "issuedTime": return getIssuedTime();
+                case "customerName": return bill.getCustomerName();
+                case "vehicle": return bill.getVehicleInfo();
+                case "services": return bill.getServices();
+                case "mechanicName": return bill.getMechanicName();
+                case "amount": return EmailTemplates.money(bill.getAmount());
+                case "paymentStatus": return bill.getPaymentStatus();
+                case "paymentMethod": return bill.getPaymentMethod();
+                case "parts": return partLines;
+                case "hasParts": return !partLines.isEmpty();
+                case "partsCost": return EmailTemplates.money(bill.getPartsTotal());
+                default: return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.example;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bill counts and amounts per day and payment status, kept in billing_daily_totals.
+ *
+ * BillingService (and VehicleService when it deletes bills) adjusts the totals on its
+ * own connection, in the same transaction as the bill change, so the reports below
+ * read a few pre-aggregated rows instead of the whole billing history. Bills are
+ * counted on their bill date; the payment date isn't stored, so "paid this month"
+ * means bills dated this month that are now paid. Partial bills count in full as
+ * outstanding for the same reason. rebuild() recomputes everything from billing,
+ * e.g. after bills were loaded or edited outside the application.
+ */
+public class RevenueLedger {
+    private static RevenueLedger instance;
+
+    private static final String ADJUST_SQL =
+        "INSERT INTO billing_daily_totals (bill_date, payment_status, bill_count, total_amount) " +
+        "VALUES (COALESCE(?, CURRENT_DATE), ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE bill_count = bill_count + ?, total_amount = total_amount + ?";
+
+    // Per-period totals; %s is the period expression
+    private static final String PERIOD_SQL =
+        "SELECT %s AS period, " +
+        "SUM(CASE WHEN payment_status <> 'Cancelled' THEN bill_count ELSE 0 END) AS bill_count, " +
+        "SUM(CASE WHEN payment_status <> 'Cancelled' THEN total_amount ELSE 0 END) AS billed_amount, " +
+        "SUM(CASE WHEN payment_status = 'Paid' THEN total_amount ELSE 0 END) AS paid_amount, " +
+        "SUM(CASE WHEN payment_status IN ('Unpaid', 'Partial') THEN total_amount ELSE 0 END) AS outstanding_amount " +
+        "FROM billing_daily_totals WHERE bill_date BETWEEN ? AND ? " +
+        "GROUP BY period ORDER BY period";
+
+    private RevenueLedger() {
+        // Private constructor
+    }
+
+    public static synchronized RevenueLedger getInstance() {
+        if (instance == null) {
+            instance = new RevenueLedger();
+        }
+        return instance;
+    }
+
+    /**
+     * Add bills to a day's totals (negative count and amount to remove them)
+     *
+     * @param billDate bill date, or null for today's date on the database server
+     */
+    public void adjust(Connection conn, LocalDate billDate, String paymentStatus,
+                       int billCount, double amount) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(ADJUST_SQL)) {
+            stmt.setDate(1, billDate != null ? Date.valueOf(billDate) : null);
+            stmt.setString(2, paymentStatus);
+            stmt.setInt(3, billCount);
+            stmt.setDouble(4, amount);
+            stmt.setInt(5, billCount);
+            stmt.setDouble(6, amount);
+            stmt.executeUpdate();
+        }
+    }
+
+    public void billCreated(Connection conn, LocalDate billDate, String paymentStatus, double amount) throws SQLException {
+        adjust(conn, billDate, paymentStatus, 1, amount);
+    }
+
+    public void billDeleted(Connection conn, LocalDate billDate, String paymentStatus, double amount) throws SQLException {
+        adjust(conn, billDate, paymentStatus, -1, -amount);
+    }
+
+    /**
+     * Move a bill from one payment status to another
+     */
+    public void billStatusChanged(Connection conn, LocalDate billDate, String oldStatus, String newStatus,
+                                  double amount) throws SQLException {
+        if (oldStatus != null && oldStatus.equalsIgnoreCase(newStatus)) {
+            return;
+        }
+        billDeleted(conn, billDate, oldStatus, amount);
+        billCreated(conn, billDate, newStatus, amount);
+    }
+
+    /**
+     * Remove the bills matching a WHERE condition on billing, before they are deleted
+     * in the same transaction
+     */
+    public void billsDeleted(Connection conn, String condition, int param) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO billing_daily_totals (bill_date, payment_status, bill_count, total_amount) " +
+                "SELECT * FROM (SELECT bill_date, payment_status, -COUNT(*) AS n, -SUM(amount) AS amount " +
+                "FROM billing WHERE bill_date IS NOT NULL AND " + condition + " " +
+                "GROUP BY bill_date, payment_status) AS removed " +
+                "ON DUPLICATE KEY UPDATE bill_count = billing_daily_totals.bill_count + removed.n, " +
+                "total_amount = billing_daily_totals.total_amount + removed.amount")) {
+            stmt.setInt(1, param);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Recompute all totals from the billing table. Joins the caller's transaction if
+     * one is open, like adjust; otherwise runs in a transaction of its own.
+     */
+    public void rebuild(Connection conn) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        if (autoCommit) {
+            conn.setAutoCommit(false);
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM billing_daily_totals");
+            stmt.executeUpdate(
+                "INSERT INTO billing_daily_totals (bill_date, payment_status, bill_count, total_amount) " +
+                "SELECT bill_date, payment_status, COUNT(*), SUM(amount) FROM billing WHERE bill_date IS NOT NULL " +
+                "GROUP BY bill_date, payment_status");
+            if (autoCommit) {
+                conn.commit();
+            }
+        } catch (SQLException e) {
+            if (autoCommit) {
+                conn.rollback();
+            }
+            throw e;
+        } finally {
+            if (autoCommit) {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Totals for each day in the range that has bills
+     */
+    public List<PeriodTotals> getDailyTotals(LocalDate from, LocalDate to) throws SQLException {
+        return loadPeriods("bill_date", from, to);
+    }
+
+    /**
+     * Totals for each month in the range that has bills; periods start on the 1st
+     */
+    public List<PeriodTotals> getMonthlyTotals(YearMonth from, YearMonth to) throws SQLException {
+        return loadPeriods("DATE_FORMAT(bill_date, '%Y-%m-01')", from.atDay(1), to.atEndOfMonth());
+    }
+
+    private List<PeriodTotals> loadPeriods(String period, LocalDate from, LocalDate to) throws SQLException {
+        List<PeriodTotals> totals = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(String.format(PERIOD_SQL, period))) {
+            stmt.setDate(1, Date.valueOf(from));
+            stmt.setDate(2, Date.valueOf(to));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    totals.add(new PeriodTotals(LocalDate.parse(rs.getString("period")),
+                        rs.getInt("bill_count"), rs.getDouble("billed_amount"),
+                        rs.getDouble("paid_amount"), rs.getDouble("outstanding_amount")));
+                }
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Today's and this month's revenue plus the outstanding balance, in one query
+     */
+    public Summary getSummary() throws SQLException {
+        LocalDate today = LocalDate.now();
+        Summary summary = new Summary();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                "SELECT payment_status, SUM(bill_count) AS bill_count, SUM(total_amount) AS amount, " +
+                "SUM(CASE WHEN bill_date >= ? THEN total_amount ELSE 0 END) AS month_amount, " +
+                "SUM(CASE WHEN bill_date = ? THEN total_amount ELSE 0 END) AS today_amount " +
+                "FROM billing_daily_totals GROUP BY payment_status")) {
+            stmt.setDate(1, Date.valueOf(today.withDayOfMonth(1)));
+            stmt.setDate(2, Date.valueOf(today));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String status = rs.getString("payment_status");
+                    int count = rs.getInt("bill_count");
+                    double amount = rs.getDouble("amount");
+                    summary.billCounts.merge(status.toLowerCase(), count, Integer::sum);
+                    if ("Paid".equalsIgnoreCase(status)) {
+                        summary.paidToday += rs.getDouble("today_amount");
+                        summary.paidThisMonth += rs.getDouble("month_amount");
+                    } else if ("Unpaid".equalsIgnoreCase(status) || "Partial".equalsIgnoreCase(status)) {
+                        summary.outstandingAmount += amount;
+                        summary.outstandingCount += count;
+                    }
+                    if (!"Cancelled".equalsIgnoreCase(status)) {
+                        summary.billedThisMonth += rs.getDouble("month_amount");
+                    }
+                }
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Bill totals for one day or month
+     */
+    public static class PeriodTotals {
+        private final LocalDate periodStart;
+        private final int billCount;
+        private final double billedAmount;
+        private final double paidAmount;
+        private final double outstandingAmount;
+
+        public PeriodTotals(LocalDate periodStart, int billCount, double billedAmount,
+                            double paidAmount, double outstandingAmount) {
+            this.periodStart = periodStart;
+            this.billCount = billCount;
+            this.billedAmount = billedAmount;
+            this.paidAmount = paidAmount;
+            this.outstandingAmount = outstandingAmount;
+        }
+
+        public LocalDate getPeriodStart() { return periodStart; }
+        // Bills that weren't cancelled
+        public int getBillCount() { return billCount; }
+        public double getBilledAmount() { return billedAmount; }
+        public double getPaidAmount() { return paidAmount; }
+        public double getOutstandingAmount() { return outstandingAmount; }
+    }
+
+    /**
+     * Figures for the home dashboard
+     */
+    public static class Summary {
+        private final Map<String, Integer> billCounts = new HashMap<>();
+        private double paidToday;
+        private double paidThisMonth;
+        private double billedThisMonth;
+        private double outstandingAmount;
+        private int outstandingCount;
+
+        public double getPaidToday() { return paidToday; }
+        public double getPaidThisMonth() { return paidThisMonth; }
+        public double getBilledThisMonth() { return billedThisMonth; }
+        // Unpaid and partially paid bills
+        public double getOutstandingAmount() { return outstandingAmount; }
+        public int getOutstandingCount() { return outstandingCount; }
+
+        /**
+         * Number of bills with a payment status, of any date
+         */
+        public int getBillCount(String paymentStatus) {
+            return billCounts.getOrDefault(paymentStatus.toLowerCase(), 0);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.example;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Suggests the earliest (mechanic, date, time) slots for a set of services.
+ *
+ * Mechanics come from MechanicRosterService (cached for a short while) and their
+ * bookings from MechanicScheduleIndex, so a suggestion needs no database round
+ * trip once both are warm and can be recomputed whenever the booking form changes.
+ *
+ * Off-duty mechanics are skipped, as are overloaded ones (their bookings would be
+ * delayed) unless nobody else is free. Mechanics whose specialties cover the
+ * requested services are preferred; ties on start time go to the mechanic with
+ * the fewest active jobs.
+ */
+public class SchedulingEngine {
+    private static SchedulingEngine instance;
+
+    // Matches the times offered in the booking form
+    private static final LocalTime DAY_START = LocalTime.of(8, 0);
+    private static final LocalTime LAST_START = LocalTime.of(17, 0);
+    private static final LocalTime DAY_END = LocalTime.of(18, 0);
+    private static final int SLOT_MINUTES = 30;
+
+    private static final int DEFAULT_DURATION = 60;
+    private static final int HORIZON_DAYS = Integer.getInteger("autotech.schedule.horizonDays", 14);
+    private static final long ROSTER_TTL_MS = Long.getLong("autotech.schedule.rosterCacheSeconds", 30) * 1000;
+
+    // Typical job length in minutes per service type
+    private static final Map<String, Integer> SERVICE_DURATIONS = new HashMap<>();
+    // Specialty keywords that qualify a mechanic for a service type; types not listed suit anyone
+    private static final Map<String, List<String>> SERVICE_SPECIALTIES = new HashMap<>();
+
+    static {
+        SERVICE_DURATIONS.put("regular maintenance", 60);
+        SERVICE_DURATIONS.put("oil change", 30);
+        SERVICE_DURATIONS.put("tire service", 45);
+        SERVICE_DURATIONS.put("tire rotation", 30);
+        SERVICE_DURATIONS.put("wheel alignment", 60);
+        SERVICE_DURATIONS.put("battery replacement", 30);
+        SERVICE_DURATIONS.put("brake service", 90);
+        SERVICE_DURATIONS.put("brake replacement", 120);
+        SERVICE_DURATIONS.put("engine repair", 180);
+        SERVICE_DURATIONS.put("engine tune-up", 120);
+        SERVICE_DURATIONS.put("engine overhaul", 480);
+        SERVICE_DURATIONS.put("transmission service", 120);
+        SERVICE_DURATIONS.put("electrical system", 90);
+        SERVICE_DURATIONS.put("electrical system repair", 120);
+        SERVICE_DURATIONS.put("a/c service", 90);
+        SERVICE_DURATIONS.put("air conditioning service", 90);
+
+        SERVICE_SPECIALTIES.put("brake service", Arrays.asList("brake"));
+        SERVICE_SPECIALTIES.put("brake replacement", Arrays.asList("brake"));
+        SERVICE_SPECIALTIES.put("engine repair", Arrays.asList("engine"));
+        SERVICE_SPECIALTIES.put("engine tune-up", Arrays.asList("engine"));
+        SERVICE_SPECIALTIES.put("engine overhaul", Arrays.asList("engine"));
+        SERVICE_SPECIALTIES.put("transmission service", Arrays.asList("transmission"));
+        SERVICE_SPECIALTIES.put("electrical system", Arrays.asList("electrical"));
+        SERVICE_SPECIALTIES.put("electrical system repair", Arrays.asList("electrical"));
+        SERVICE_SPECIALTIES.put("a/c service", Arrays.asList("air conditioning", "a/c", "hvac"));
+        SERVICE_SPECIALTIES.put("air conditioning service", Arrays.asList("air conditioning", "a/c", "hvac"));
+        SERVICE_SPECIALTIES.put("wheel alignment", Arrays.asList("suspension", "alignment", "tire"));
+    }
+
+    /**
+     * One suggested booking slot
+     */
+    public static class SlotSuggestion {
+        private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("EEE MMM d");
+
+        private final Mechanic mechanic;
+        private final LocalDate date;
+        private final LocalTime time;
+        private final int durationMinutes;
+        private final int activeJobs;
+        private final boolean specialist;
+
+        public SlotSuggestion(Mechanic mechanic, LocalDate date, LocalTime time, int durationMinutes,
+                              int activeJobs, boolean specialist) {
+            this.mechanic = mechanic;
+            this.date = date;
+            this.time = time;
+            this.durationMinutes = durationMinutes;
+            this.activeJobs = activeJobs;
+            this.specialist = specialist;
+        }
+
+        public Mechanic getMechanic() { return mechanic; }
+        public LocalDate getDate() { return date; }
+        public LocalTime getTime() { return time; }
+        public int getDurationMinutes() { return durationMinutes; }
+        public int getActiveJobs() { return activeJobs; }
+        public boolean isSpecialist() { return specialist; }
+
+        /**
+         * Time in the booking form's HH:mm format
+         */
+        public String getTimeString() {
+            return String.format("%02d:%02d", time.getHour(), time.getMinute());
+        }
+
+        @Override
+        public String toString() {
+            return date.format(DATE_FORMAT) + " " + getTimeString() + " - " + mechanic.getName() +
+                   " (" + activeJobs + " active job" + (activeJobs == 1 ? "" : "s") + ")" +
+                   (specialist ? " ★" : "");
+        }
+    }
+
+    private final MechanicRosterService rosterService = new MechanicRosterService();
+
+    // Guarded by this
+    private List<MechanicRosterService.RosterEntry> roster;
+    private long rosterLoadedAt;
+
+    private SchedulingEngine() {
+        // Private constructor
+    }
+
+    public static synchronized SchedulingEngine getInstance() {
+        if (instance == null) {
+            instance = new SchedulingEngine();
+        }
+        return instance;
+    }
+
+    /**
+     * Estimated job length for a set of service types, in minutes
+     */
+    public static int estimateDuration(Collection<String> serviceTypes) {
+        int total = 0;
+        for (String type : serviceTypes) {
+            if (type != null && !type.trim().isEmpty()) {
+                total += SERVICE_DURATIONS.getOrDefault(type.trim().toLowerCase(), DEFAULT_DURATION);
+            }
+        }
+        return total > 0 ? total : DEFAULT_DURATION;
+    }
+
+    /**
+     * Up to 'limit' earliest feasible slots on or after fromDate
+     * @param excludeBookingId booking being edited (its own slot is free), or -1
+     */
+    public List<SlotSuggestion> suggestSlots(Collection<String> serviceTypes, LocalDate fromDate,
+                                             int limit, int excludeBookingId) throws SQLException {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        int duration = estimateDuration(serviceTypes);
+        List<List<String>> required = requiredSpecialties(serviceTypes);
+
+        List<MechanicRosterService.RosterEntry> candidates = new ArrayList<>();
+        List<MechanicRosterService.RosterEntry> overloaded = new ArrayList<>();
+        for (MechanicRosterService.RosterEntry entry : getRoster()) {
+            String availability = entry.getAvailability();
+            if ("Off Duty".equals(availability)) {
+                continue;
+            }
+            ("Overloaded".equals(availability) ? overloaded : candidates).add(entry);
+        }
+        if (candidates.isEmpty()) {
+            candidates = overloaded;
+        }
+
+        // Prefer specialists, but fall back to everyone when nobody covers the services
+        List<MechanicRosterService.RosterEntry> specialists = new ArrayList<>();
+        for (MechanicRosterService.RosterEntry entry : candidates) {
+            if (!required.isEmpty() && coversAll(entry.getMechanic(), required)) {
+                specialists.add(entry);
+            }
+        }
+        List<MechanicRosterService.RosterEntry> pool = specialists.isEmpty() ? candidates : specialists;
+
+        List<SlotSuggestion> suggestions = new ArrayList<>();
+        for (MechanicRosterService.RosterEntry entry : pool) {
+            collectSlots(entry, !specialists.isEmpty(), fromDate, duration, limit, excludeBookingId, suggestions);
+        }
+
+        suggestions.sort(Comparator.comparing(SlotSuggestion::getDate)
+            .thenComparing(SlotSuggestion::getTime)
+            .thenComparingInt(SlotSuggestion::getActiveJobs)
+            .thenComparing(s -> s.getMechanic().getName(), Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+        return suggestions.size() > limit ? new ArrayList<>(suggestions.subList(0, limit)) : suggestions;
+    }
+
+    /**
+     * Forget the cached roster, e.g. after a mechanic's status or workload changed
+     */
+    public synchronized void invalidateRoster() {
+        roster = null;
+    }
+
+    private synchronized List<MechanicRosterService.RosterEntry> getRoster() throws SQLException {
+        if (roster == null || System.currentTimeMillis() - rosterLoadedAt > ROSTER_TTL_MS) {
+            roster = rosterService.getRoster();
+            rosterLoadedAt = System.currentTimeMillis();
+        }
+        return roster;
+    }
+
+    // Up to 'limit' of this mechanic's earliest free starts on the half-hour grid
+    private void collectSlots(MechanicRosterService.RosterEntry entry, boolean specialist, LocalDate fromDate,
+                              int duration, int limit, int excludeBookingId,
+                              List<SlotSuggestion> out) throws SQLException {
+        MechanicScheduleIndex index = MechanicScheduleIndex.getInstance();
+        int mechanicId = entry.getMechanic().getId();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate day = fromDate.isBefore(now.toLocalDate()) ? now.toLocalDate() : fromDate;
+        int found = 0;
+
+        for (int d = 0; d < HORIZON_DAYS && found < limit; d++, day = day.plusDays(1)) {
+            int from = toMinutes(DAY_START);
+            if (day.equals(now.toLocalDate())) {
+                from = Math.max(from, toMinutes(now.toLocalTime()) + 1);
+            }
+
+            while (found < limit) {
+                from = alignToGrid(from);
+                if (from > toMinutes(LAST_START)) {
+                    break;
+                }
+                LocalTime free = index.findNextFreeSlot(mechanicId, day, toTime(from), duration, DAY_END, excludeBookingId);
+                if (free == null) {
+                    break;
+                }
+                int start = toMinutes(free);
+                if (start != alignToGrid(start)) {
+                    from = start; // Free mid-slot; re-check from the next grid time
+                    continue;
+                }
+                if (start > toMinutes(LAST_START)) {
+                    break;
+                }
+                out.add(new SlotSuggestion(entry.getMechanic(), day, free, duration, entry.getActiveJobs(), specialist));
+                found++;
+                from = start + SLOT_MINUTES;
+            }
+        }
+    }
+
+    // For each service needing a specialist, the keywords that qualify a mechanic
+    private static List<List<String>> requiredSpecialties(Collection<String> serviceTypes) {
+        List<List<String>> required = new ArrayList<>();
+        for (String type : serviceTypes) {
+            if (type != null) {
+                List<String> keywords = SERVICE_SPECIALTIES.get(type.trim().toLowerCase());
+                if (keywords != null) {
+                    required.add(keywords);
+                }
+            }
+        }
+        return required;
+    }
+
+    private static boolean coversAll(Mechanic mechanic, List<List<String>> required) {
+        String specialties = mechanic.getSpecialtiesAsString().toLowerCase();
+        for (List<String> keywords : required) {
+            boolean covered = false;
+            for (String keyword : keywords) {
+                if (specialties.contains(keyword)) {
+                    covered = true;
+                    break;
+                }
+            }
+            if (!covered) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int alignToGrid(int minutes) {
+        return ((minutes + SLOT_MINUTES - 1) / SLOT_MINUTES) * SLOT_MINUTES;
+    }
+
+    private static int toMinutes(LocalTime time) {
+        return time.toSecondOfDay() / 60;
+    }
+
+    private static LocalTime toTime(int minutes) {
+        return LocalTime.of(minutes / 60, minutes % 60);
+    }
+}
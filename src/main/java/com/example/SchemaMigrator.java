@@ -0,0 +1,331 @@
+package com.example;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Brings an existing AutoTech database up to the current schema.
+ *
+ * setup.sql creates the baseline; everything added since is a numbered migration
+ * below. Applied versions are recorded in schema_migrations, so each migration runs
+ * once per database. App runs migrate() before its window opens (disable with
+ * -Dautotech.db.migrateOnStartup=false) and DatabaseReset runs it after setup.sql.
+ *
+ * Steps are written to be safe on databases that already have some of the changes
+ * (tables created with IF NOT EXISTS, indexes and columns only added when missing),
+ * because setup.sql and earlier hand-applied scripts may have got there first. A
+ * named lock keeps two workstations starting at once from migrating concurrently.
+ *
+ * To change the schema, append a migration with the next version number; never
+ * edit one that has been released.
+ */
+public final class SchemaMigrator {
+    private static final String LOCK_NAME = "autotech_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    /**
+     * One change to the schema
+     */
+    interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    static final class Migration {
+        final int version;
+        final String description;
+        final List<Step> steps;
+
+        Migration(int version, String description, Step... steps) {
+            this.version = version;
+            this.description = description;
+            this.steps = Arrays.asList(steps);
+        }
+    }
+
+    private static final List<Migration> MIGRATIONS = Arrays.asList(
+        new Migration(1, "Tables added after the first release",
+            sql("CREATE TABLE IF NOT EXISTS id_sequences (" +
+                "name VARCHAR(50) PRIMARY KEY, " +
+                "next_value BIGINT NOT NULL DEFAULT 0)"),
+            sql("CREATE TABLE IF NOT EXISTS inventory_alert_state (" +
+                "part_id INT NOT NULL, " +
+                "alert_type VARCHAR(20) NOT NULL " +
+                "    CHECK (alert_type IN ('ZERO_STOCK', 'LOW_STOCK', 'LOW_AVAILABLE', 'EXPIRING', 'EXPIRED')), " +
+                "active BOOLEAN NOT NULL DEFAULT TRUE, " +
+                "fired_at TIMESTAMP NULL DEFAULT NULL, " +
+                "cleared_at TIMESTAMP NULL DEFAULT NULL, " +
+                "PRIMARY KEY (part_id, alert_type), " +
+                "FOREIGN KEY (part_id) REFERENCES parts(id) ON DELETE CASCADE, " +
+                "INDEX idx_alert_state_active (active))"),
+            sql("CREATE TABLE IF NOT EXISTS email_outbox (" +
+                "id INT AUTO_INCREMENT PRIMARY KEY, " +
+                "billing_id INT DEFAULT NULL, " +
+                "recipient_email VARCHAR(100) NOT NULL, " +
+                "email_type VARCHAR(50) NOT NULL, " +
+                "subject VARCHAR(255) NOT NULL, " +
+                "html_body MEDIUMTEXT NOT NULL, " +
+                "status VARCHAR(20) NOT NULL DEFAULT 'pending' CHECK (status IN ('pending', 'sending', 'sent', 'failed')), " +
+                "attempts INT NOT NULL DEFAULT 0, " +
+                "next_attempt_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                "last_error TEXT, " +
+                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                "sent_at TIMESTAMP NULL DEFAULT NULL, " +
+                "FOREIGN KEY (billing_id) REFERENCES billing(id) ON DELETE CASCADE, " +
+                "INDEX idx_outbox_status_next (status, next_attempt_at))")),
+
+        new Migration(2, "Indexes for the hot booking, parts and billing queries",
+            // Conflict checks, job counts and a mechanic's booking list; also serves the mechanic_id foreign key
+            createIndex("service_bookings", "idx_bookings_mechanic_date_status", "mechanic_id, booking_date, status"),
+            // Delayed/scheduled scans and status-filtered lists, in date order
+            createIndex("service_bookings", "idx_bookings_status_date", "status, booking_date"),
+            // Schedule loads and the booking list's (booking_date, id) order; InnoDB appends the id itself
+            createIndex("service_bookings", "idx_bookings_date", "booking_date"),
+            // Covered by the composite indexes above; dropping them saves work on every booking write
+            dropIndex("service_bookings", "idx_bookings_mechanic"),
+            dropIndex("service_bookings", "idx_bookings_status"),
+            // Demoting bookings that were promoted by a cancelled one
+            createIndex("service_bookings", "idx_bookings_promoted_by", "promoted_by_booking_id"),
+            // Parts and services of a booking, without touching the table rows
+            createIndex("booking_parts", "idx_booking_parts_booking_part", "booking_id, part_id, quantity"),
+            createIndex("booking_services", "idx_booking_services_booking_type", "booking_id, service_type"),
+            // InventoryCache polls MAX(updated_at) and reloads rows changed since
+            createIndex("parts", "idx_parts_updated_at", "updated_at"),
+            createIndex("parts", "idx_parts_expiration", "expiration_date"),
+            // Billing per booking and per period
+            createIndex("billing", "idx_billing_service", "service_id"),
+            createIndex("billing", "idx_billing_date", "bill_date"),
+            createIndex("email_sent_history", "idx_billing_id", "billing_id")),
+
+        new Migration(3, "Daily billing totals for revenue reporting",
+            // Maintained by RevenueLedger as bills are created, paid and deleted
+            sql("CREATE TABLE IF NOT EXISTS billing_daily_totals (" +
+                "bill_date DATE NOT NULL, " +
+                "payment_status VARCHAR(20) NOT NULL, " +
+                "bill_count INT NOT NULL DEFAULT 0, " +
+                "total_amount DECIMAL(14,2) NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (bill_date, payment_status))"),
+            // Backfill from the existing bills
+            sql("DELETE FROM billing_daily_totals"),
+            sql("INSERT INTO billing_daily_totals (bill_date, payment_status, bill_count, total_amount) " +
+                "SELECT bill_date, payment_status, COUNT(*), SUM(amount) FROM billing WHERE bill_date IS NOT NULL " +
+                "GROUP BY bill_date, payment_status")),
+
+        new Migration(4, "Leases on email outbox messages being sent",
+            // Which workstation is sending a message and since when, so only expired claims are re-queued
+            addColumn("email_outbox", "claimed_by", "VARCHAR(100) NULL DEFAULT NULL"),
+            addColumn("email_outbox", "claimed_at", "TIMESTAMP NULL DEFAULT NULL")),
+
+        new Migration(5, "At most one bill per booking",
+            // Bookings billed twice before this must be sorted out by hand; bills are not deleted here
+            requireUnique("billing", "service_id"),
+            createIndex("billing", "uq_billing_service", "service_id", true),
+            // Covered by the unique index
+            dropIndex("billing", "idx_billing_service"))
+    );
+
+    private SchemaMigrator() {
+        // Static utility
+    }
+
+    /**
+     * Apply all pending migrations to the application database
+     * @return number of migrations applied
+     */
+    public static int migrate() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            return migrate(conn);
+        }
+    }
+
+    /**
+     * Apply all pending migrations to the connection's current database
+     */
+    public static int migrate(Connection conn) throws SQLException {
+        lock(conn);
+        try {
+            createHistoryTable(conn);
+            Set<Integer> applied = appliedVersions(conn);
+
+            int count = 0;
+            for (Migration migration : MIGRATIONS) {
+                if (applied.contains(migration.version)) {
+                    continue;
+                }
+                long start = System.currentTimeMillis();
+                for (Step step : migration.steps) {
+                    step.apply(conn);
+                }
+                record(conn, migration, System.currentTimeMillis() - start);
+                System.out.println("Applied schema migration " + migration.version + ": " + migration.description);
+                count++;
+            }
+            if (count == 0) {
+                System.out.println("Database schema is up to date (version " + getLatestVersion() + ")");
+            }
+            return count;
+        } finally {
+            unlock(conn);
+        }
+    }
+
+    /**
+     * Version the schema reaches once every migration is applied
+     */
+    public static int getLatestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    /**
+     * Versions recorded in schema_migrations, oldest first
+     */
+    public static List<Integer> getAppliedVersions() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            List<Integer> versions = new ArrayList<>(appliedVersions(conn));
+            versions.sort(null);
+            return versions;
+        }
+    }
+
+    static Step sql(String statement) {
+        return conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(statement);
+            }
+        };
+    }
+
+    static Step createIndex(String table, String name, String columns) {
+        return createIndex(table, name, columns, false);
+    }
+
+    // MySQL has no CREATE INDEX IF NOT EXISTS, so look the index up first
+    static Step createIndex(String table, String name, String columns, boolean unique) {
+        return conn -> {
+            if (!indexExists(conn, table, name)) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("CREATE " + (unique ? "UNIQUE " : "") + "INDEX " + name + " ON " + table +
+                                 " (" + columns + ")");
+                }
+            }
+        };
+    }
+
+    // Fails with the offending values instead of MySQL's bare duplicate-key error
+    static Step requireUnique(String table, String column) {
+        return conn -> {
+            List<String> duplicates = new ArrayList<>();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(
+                     "SELECT " + column + " FROM " + table + " GROUP BY " + column +
+                     " HAVING COUNT(*) > 1 ORDER BY " + column + " LIMIT 20")) {
+                while (rs.next()) {
+                    duplicates.add(rs.getString(1));
+                }
+            }
+            if (!duplicates.isEmpty()) {
+                throw new SQLException(table + "." + column + " must be unique but these values repeat: " +
+                                       String.join(", ", duplicates));
+            }
+        };
+    }
+
+    static Step addColumn(String table, String column, String definition) {
+        return conn -> {
+            if (!columnExists(conn, table, column)) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+                }
+            }
+        };
+    }
+
+    static Step dropIndex(String table, String name) {
+        return conn -> {
+            if (indexExists(conn, table, name)) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("DROP INDEX " + name + " ON " + table);
+                }
+            }
+        };
+    }
+
+    private static boolean indexExists(Connection conn, String table, String name) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT 1 FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ? LIMIT 1")) {
+            stmt.setString(1, table);
+            stmt.setString(2, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static boolean columnExists(Connection conn, String table, String column) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT 1 FROM information_schema.columns " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ? LIMIT 1")) {
+            stmt.setString(1, table);
+            stmt.setString(2, column);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static void createHistoryTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_migrations (" +
+                         "version INT PRIMARY KEY, " +
+                         "description VARCHAR(200) NOT NULL, " +
+                         "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                         "execution_ms INT NOT NULL DEFAULT 0)");
+        }
+    }
+
+    private static Set<Integer> appliedVersions(Connection conn) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version FROM schema_migrations")) {
+            while (rs.next()) {
+                versions.add(rs.getInt(1));
+            }
+        }
+        return versions;
+    }
+
+    private static void record(Connection conn, Migration migration, long elapsedMs) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO schema_migrations (version, description, execution_ms) VALUES (?, ?, ?)")) {
+            stmt.setInt(1, migration.version);
+            stmt.setString(2, migration.description);
+            stmt.setLong(3, elapsedMs);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static void lock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for another client to finish migrating the schema");
+                }
+            }
+        }
+    }
+
+    private static void unlock(Connection conn) {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        } catch (SQLException e) {
+            System.err.println("Warning: Could not release schema migration lock: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package com.example;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process inverted index for the search boxes.
+ *
+ * Each document is a row (customer, vehicle, part, booking) with a few text
+ * fields. Words are lower-cased and kept in a sorted term map, so a query word
+ * matches:
+ * - the same word (best),
+ * - words it is a prefix of ("rob" finds "roberto"),
+ * - words one typo away, two for long words ("robrto", "toyta").
+ * Fields marked as substring fields (phone and plate numbers) also index word
+ * suffixes, so "4567" still finds "09171234567". Suffixes only take part in exact
+ * and prefix matching, and typos are only forgiven for words made of letters: a
+ * phone number or code with one wrong digit is a different number. Every query
+ * word must match; results are ranked by match quality and field weight.
+ *
+ * The index is built from a full load, outside the lock searches take, either by
+ * buildInBackground() at startup or by the first search. The owning service calls
+ * invalidate() from its write paths; those rows are re-read before the next search. Changes
+ * made elsewhere are picked up by a background rebuild once the index is older
+ * than autotech.search.maxAgeSeconds (default 300), or when requestRebuild() is
+ * called (e.g. a customer rename changes the text of their bookings).
+ */
+public class SearchIndex {
+    private static final long MAX_AGE_MS = Long.getLong("autotech.search.maxAgeSeconds", 300) * 1000;
+
+    // Suffixes shorter than this are not indexed for substring fields
+    private static final int MIN_SUFFIX_LENGTH = 3;
+
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int FUZZY = 1;
+
+    /**
+     * How the index reads rows: id -> field values, in the order of the fields
+     */
+    public interface Loader {
+        Map<Integer, String[]> loadAll() throws SQLException;
+        Map<Integer, String[]> loadByIds(Collection<Integer> ids) throws SQLException;
+    }
+
+    /**
+     * A searchable column
+     */
+    public static final class Field {
+        private final String name;
+        private final int weight;
+        private final boolean substring;
+
+        public Field(String name, int weight, boolean substring) {
+            this.name = name;
+            this.weight = weight;
+            this.substring = substring;
+        }
+
+        public Field(String name, int weight) {
+            this(name, weight, false);
+        }
+
+        public String getName() { return name; }
+    }
+
+    private final String name;
+    private final Field[] fields;
+    private final Loader loader;
+
+    // Held while the first full load runs, so concurrent first searches wait for one build
+    private final Object buildLock = new Object();
+
+    // All guarded by this
+    private Terms terms = new Terms();
+    private final Set<Integer> stale = new HashSet<>();
+    private final Set<Integer> changedDuringRebuild = new HashSet<>();
+    private boolean built = false;
+    private boolean rebuildQueued = false;
+    private long builtAt;
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+
+    public SearchIndex(String name, Field[] fields, Loader loader) {
+        this.name = name;
+        this.fields = fields;
+        this.loader = loader;
+    }
+
+    /**
+     * IDs of the documents matching every word of the query, best matches first
+     * @param limit maximum number of IDs to return
+     */
+    public List<Integer> search(String query, int limit) throws SQLException {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return new ArrayList<>();
+        }
+        searches.increment();
+
+        ensureBuilt();
+        synchronized (this) {
+            ensureFresh();
+
+            Map<Integer, Integer> scores = null;
+            for (String word : new LinkedHashSet<>(words)) {
+                Map<Integer, Integer> wordScores = matchWord(word);
+                if (scores == null) {
+                    scores = wordScores;
+                } else {
+                    scores.keySet().retainAll(wordScores.keySet());
+                    for (Map.Entry<Integer, Integer> entry : scores.entrySet()) {
+                        entry.setValue(entry.getValue() + wordScores.get(entry.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+
+            List<Map.Entry<Integer, Integer>> ranked = new ArrayList<>(scores.entrySet());
+            // Higher score first, then newer rows first
+            ranked.sort((a, b) -> a.getValue().equals(b.getValue())
+                ? Integer.compare(b.getKey(), a.getKey())
+                : Integer.compare(b.getValue(), a.getValue()));
+
+            List<Integer> ids = new ArrayList<>(Math.min(limit, ranked.size()));
+            for (int i = 0; i < ranked.size() && i < limit; i++) {
+                ids.add(ranked.get(i).getKey());
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * Rows changed (or were deleted); they are re-read before the next search
+     */
+    public synchronized void invalidate(Collection<Integer> ids) {
+        stale.addAll(ids);
+        if (rebuildQueued) {
+            // The rebuild may have read these rows before they changed
+            changedDuringRebuild.addAll(ids);
+        }
+    }
+
+    public void invalidate(int id) {
+        invalidate(Collections.singleton(id));
+    }
+
+    /**
+     * Rebuild in the background; searches keep using the current index meanwhile
+     */
+    public synchronized void requestRebuild() {
+        if (!built || rebuildQueued) {
+            return; // The first search builds it anyway
+        }
+        rebuildQueued = true;
+        if (!AppExecutors.runCoalesced("search-index-" + name, this::rebuildQuietly)) {
+            rebuildQueued = false;
+        }
+    }
+
+    /**
+     * Build the index on the background pool, so the first search doesn't wait for it
+     */
+    public void buildInBackground() {
+        AppExecutors.runCoalesced("search-index-" + name, () -> {
+            try {
+                ensureBuilt();
+            } catch (SQLException e) {
+                System.err.println("Search index '" + name + "' build failed: " + e.getMessage());
+            }
+        });
+    }
+
+    private synchronized boolean isBuilt() {
+        return built;
+    }
+
+    // Rows invalidated while this runs are left in stale and re-read by ensureFresh()
+    private void ensureBuilt() throws SQLException {
+        if (isBuilt()) {
+            return;
+        }
+        synchronized (buildLock) {
+            if (!isBuilt()) {
+                Terms indexed = index(loader.loadAll());
+                synchronized (this) {
+                    install(indexed);
+                }
+            }
+        }
+    }
+
+    // Caller holds the lock
+    private void ensureFresh() throws SQLException {
+        if (System.currentTimeMillis() - builtAt > MAX_AGE_MS) {
+            requestRebuild();
+        }
+
+        if (!stale.isEmpty()) {
+            Set<Integer> ids = new HashSet<>(stale);
+            Map<Integer, String[]> rows = loader.loadByIds(ids);
+            for (int id : ids) {
+                terms.remove(id);
+                String[] values = rows.get(id);
+                if (values != null) {
+                    terms.add(id, values);
+                }
+            }
+            stale.removeAll(ids);
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            // Load and index without holding the lock so searches aren't blocked meanwhile
+            Terms rebuilt = index(loader.loadAll());
+            synchronized (this) {
+                install(rebuilt);
+                stale.addAll(changedDuringRebuild);
+                changedDuringRebuild.clear();
+                rebuildQueued = false;
+            }
+        } catch (SQLException e) {
+            synchronized (this) {
+                changedDuringRebuild.clear();
+                rebuildQueued = false;
+                builtAt = System.currentTimeMillis(); // Don't retry on every search
+            }
+            System.err.println("Search index '" + name + "' rebuild failed: " + e.getMessage());
+        }
+    }
+
+    private Terms index(Map<Integer, String[]> rows) {
+        Terms indexed = new Terms();
+        for (Map.Entry<Integer, String[]> row : rows.entrySet()) {
+            indexed.add(row.getKey(), row.getValue());
+        }
+        return indexed;
+    }
+
+    // Caller holds the lock
+    private void install(Terms indexed) {
+        terms = indexed;
+        built = true;
+        builtAt = System.currentTimeMillis();
+        rebuilds.increment();
+        System.out.println("Search index '" + name + "' built: " + indexed.docCount() + " rows, " +
+                           indexed.termCount() + " terms");
+    }
+
+    /**
+     * The sorted term maps of one build. Whole words and the suffixes of substring
+     * fields are kept apart so typo matching only ever scans words; words made of
+     * letters are also listed in fuzzyWords, sharing their doc maps with words.
+     */
+    private final class Terms {
+        final TreeMap<String, Map<Integer, Integer>> words = new TreeMap<>();      // term -> doc -> weight
+        final TreeMap<String, Map<Integer, Integer>> suffixes = new TreeMap<>();
+        final TreeMap<String, Map<Integer, Integer>> fuzzyWords = new TreeMap<>();
+        final Map<Integer, Set<String>> docWords = new HashMap<>();                // doc -> its terms, for removal
+        final Map<Integer, Set<String>> docSuffixes = new HashMap<>();
+
+        void add(int id, String[] values) {
+            Map<String, Integer> wordWeights = new HashMap<>();
+            Map<String, Integer> suffixWeights = new HashMap<>();
+            for (int f = 0; f < fields.length && f < values.length; f++) {
+                for (String word : tokenize(values[f])) {
+                    wordWeights.merge(word, fields[f].weight, Math::max);
+                    if (fields[f].substring) {
+                        for (int i = 1; i + MIN_SUFFIX_LENGTH <= word.length(); i++) {
+                            suffixWeights.merge(word.substring(i), fields[f].weight, Math::max);
+                        }
+                    }
+                }
+            }
+            for (Map.Entry<String, Integer> term : wordWeights.entrySet()) {
+                Map<Integer, Integer> docs = words.get(term.getKey());
+                if (docs == null) {
+                    docs = new HashMap<>();
+                    words.put(term.getKey(), docs);
+                    if (isLetters(term.getKey())) {
+                        fuzzyWords.put(term.getKey(), docs);
+                    }
+                }
+                docs.put(id, term.getValue());
+            }
+            for (Map.Entry<String, Integer> term : suffixWeights.entrySet()) {
+                suffixes.computeIfAbsent(term.getKey(), t -> new HashMap<>()).put(id, term.getValue());
+            }
+            docWords.put(id, wordWeights.keySet());
+            if (!suffixWeights.isEmpty()) {
+                docSuffixes.put(id, suffixWeights.keySet());
+            }
+        }
+
+        void remove(int id) {
+            Set<String> removed = docWords.remove(id);
+            if (removed != null) {
+                for (String term : removed) {
+                    if (removeFrom(words, term, id)) {
+                        fuzzyWords.remove(term);
+                    }
+                }
+            }
+            removed = docSuffixes.remove(id);
+            if (removed != null) {
+                for (String term : removed) {
+                    removeFrom(suffixes, term, id);
+                }
+            }
+        }
+
+        // True if the term no longer has any docs
+        private boolean removeFrom(Map<String, Map<Integer, Integer>> postings, String term, int id) {
+            Map<Integer, Integer> docs = postings.get(term);
+            if (docs == null) {
+                return false;
+            }
+            docs.remove(id);
+            if (docs.isEmpty()) {
+                postings.remove(term);
+                return true;
+            }
+            return false;
+        }
+
+        int docCount() { return docWords.size(); }
+        int termCount() { return words.size() + suffixes.size(); }
+    }
+
+    // Doc -> best score for one query word
+    private Map<Integer, Integer> matchWord(String word) {
+        Map<Integer, Integer> scores = new HashMap<>();
+
+        // Exact and prefix matches are one contiguous range of each sorted term map
+        addRange(scores, terms.words, word);
+        addRange(scores, terms.suffixes, word);
+
+        // Typos: only letter words, compared with letter words sharing the first letter
+        // and of similar length
+        if (word.length() >= 4 && isLetters(word)) {
+            int maxEdits = word.length() >= 8 ? 2 : 1;
+            String first = word.substring(0, 1);
+            for (Map.Entry<String, Map<Integer, Integer>> entry :
+                    terms.fuzzyWords.subMap(first, true, first + Character.MAX_VALUE, false).entrySet()) {
+                String term = entry.getKey();
+                if (term.startsWith(word) || term.length() < word.length() - maxEdits) {
+                    continue;
+                }
+                // Compare against the start of longer terms so typos in a prefix still match
+                String candidate = term.length() > word.length() + maxEdits
+                    ? term.substring(0, word.length()) : term;
+                if (withinEdits(word, candidate, maxEdits)) {
+                    addScores(scores, entry.getValue(), FUZZY);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private static void addRange(Map<Integer, Integer> scores, TreeMap<String, Map<Integer, Integer>> postings,
+                                 String word) {
+        for (Map.Entry<String, Map<Integer, Integer>> entry :
+                postings.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+            int quality = entry.getKey().length() == word.length() ? EXACT : PREFIX;
+            addScores(scores, entry.getValue(), quality);
+        }
+    }
+
+    static boolean isLetters(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isLetter(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addScores(Map<Integer, Integer> scores, Map<Integer, Integer> docs, int quality) {
+        for (Map.Entry<Integer, Integer> doc : docs.entrySet()) {
+            scores.merge(doc.getKey(), quality * doc.getValue(), Math::max);
+        }
+    }
+
+    // Optimal string alignment distance (edits incl. adjacent swaps) <= max, stopping early
+    static boolean withinEdits(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return false;
+        }
+        int[] prevPrev = new int[b.length() + 1];
+        int[] prev = new int[b.length() + 1];
+        int[] curr = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            curr[0] = i;
+            int rowMin = curr[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                curr[j] = Math.min(Math.min(prev[j] + 1, curr[j - 1] + 1), prev[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    curr[j] = Math.min(curr[j], prevPrev[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, curr[j]);
+            }
+            if (rowMin > max) {
+                return false;
+            }
+            int[] recycled = prevPrev;
+            prevPrev = prev;
+            prev = curr;
+            curr = recycled;
+        }
+        return prev[b.length()] <= max;
+    }
+
+    // Lower-cased runs of letters and digits
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Rows loaded by ID, put back in the ranked order of the IDs
+     */
+    public static <T> List<T> inRankOrder(List<Integer> ids, Map<Integer, T> rows) {
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            T row = rows.get(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * "?, ?, ?" for an IN list of n values
+     */
+    public static String placeholders(int n) {
+        return String.join(", ", Collections.nCopies(n, "?"));
+    }
+
+    public long getSearchCount() { return searches.sum(); }
+    public long getRebuildCount() { return rebuilds.sum(); }
+
+    @Override
+    public synchronized String toString() {
+        return "SearchIndex[" + name + ", rows=" + terms.docCount() + ", terms=" + terms.termCount() +
+               ", stale=" + stale.size() + ", searches=" + getSearchCount() + ", rebuilds=" + getRebuildCount() + "]";
+    }
+}
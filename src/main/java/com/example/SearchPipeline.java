@@ -0,0 +1,180 @@
+package com.example;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.util.Duration;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Runs a list screen's searches on the background pool instead of the JavaFX thread.
+ *
+ * - search(): for typing. Each keystroke restarts a short delay
+ *   (autotech.search.debounceMillis, default 250) and only the term the user
+ *   stops at is queried.
+ * - searchNow(): no delay, for the Search button and filter changes.
+ *
+ * A newer search supersedes the older one: a query still waiting in the pool is
+ * cancelled, and one already running on the database finishes but its result is
+ * dropped, so a slow stale query can never overwrite a newer result.
+ *
+ * Results are cached per key (the term plus any filters) in a small LRU cache for
+ * autotech.search.cacheSeconds (default 30). Call invalidate() when the screen
+ * changes data. All methods must be called on the JavaFX thread; results and
+ * errors are delivered there too.
+ */
+public class SearchPipeline<T> {
+    private static final long DEBOUNCE_MS = Long.getLong("autotech.search.debounceMillis", 250);
+    private static final long CACHE_TTL_MS = Long.getLong("autotech.search.cacheSeconds", 30) * 1000;
+    private static final int CACHE_SIZE = Integer.getInteger("autotech.search.cacheSize", 32);
+
+    /**
+     * The query behind one search; runs on a background thread
+     */
+    public interface Query<T> {
+        T run() throws SQLException;
+    }
+
+    private static final class CachedResult<T> {
+        final T value;
+        final long storedAt = System.currentTimeMillis();
+
+        CachedResult(T value) {
+            this.value = value;
+        }
+
+        boolean isFresh() {
+            return System.currentTimeMillis() - storedAt <= CACHE_TTL_MS;
+        }
+    }
+
+    private final String name;
+    private final Consumer<T> onResult;
+    private final Consumer<SQLException> onError;
+    private final PauseTransition delay = new PauseTransition(Duration.millis(DEBOUNCE_MS));
+
+    // Least recently used entry first
+    private final Map<String, CachedResult<T>> cache = new LinkedHashMap<String, CachedResult<T>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedResult<T>> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    // Written on the JavaFX thread only; read by queued tasks to skip superseded work
+    private volatile long generation;
+    private Future<?> running;
+
+    private long cacheHits;
+    private long queries;
+    private long superseded;
+
+    /**
+     * @param onResult shows a result; called on the JavaFX thread for the latest search only
+     * @param onError reports a failed search; called on the JavaFX thread
+     */
+    public SearchPipeline(String name, Consumer<T> onResult, Consumer<SQLException> onError) {
+        this.name = name;
+        this.onResult = onResult;
+        this.onError = onError;
+    }
+
+    /**
+     * Run the query once the user pauses typing
+     */
+    public void search(String key, Query<T> query) {
+        cancel();
+        long gen = generation;
+        delay.setOnFinished(e -> {
+            if (gen == generation) {
+                start(gen, key, query);
+            }
+        });
+        delay.playFromStart();
+    }
+
+    /**
+     * Run the query right away
+     */
+    public void searchNow(String key, Query<T> query) {
+        cancel();
+        start(generation, key, query);
+    }
+
+    /**
+     * Drop any pending or running search; its result will not be shown
+     */
+    public void cancel() {
+        delay.stop();
+        generation++;
+        if (running != null) {
+            if (!running.isDone()) {
+                superseded++;
+                running.cancel(false);
+            }
+            running = null;
+        }
+    }
+
+    /**
+     * Cancel and forget cached results, e.g. after adding, editing or deleting a row
+     */
+    public void invalidate() {
+        cancel();
+        cache.clear();
+    }
+
+    private void start(long gen, String key, Query<T> query) {
+        CachedResult<T> cached = cache.get(key);
+        if (cached != null && cached.isFresh()) {
+            cacheHits++;
+            onResult.accept(cached.value);
+            return;
+        }
+
+        queries++;
+        running = AppExecutors.submitInBackground("search-" + name, () -> {
+            if (gen != generation) {
+                return; // Superseded while waiting in the queue
+            }
+            try {
+                T result = query.run();
+                Platform.runLater(() -> deliver(gen, key, result));
+            } catch (SQLException e) {
+                Platform.runLater(() -> {
+                    if (gen == generation) {
+                        onError.accept(e);
+                    }
+                });
+            }
+        });
+
+        if (running == null) {
+            // Pool saturated - search on this thread as before rather than not at all
+            try {
+                deliver(gen, key, query.run());
+            } catch (SQLException e) {
+                onError.accept(e);
+            }
+        }
+    }
+
+    private void deliver(long gen, String key, T result) {
+        if (gen != generation) {
+            return; // A newer search started meanwhile
+        }
+        running = null;
+        cache.put(key, new CachedResult<>(result));
+        onResult.accept(result);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchPipeline[" + name + ", queries=" + queries + ", cacheHits=" + cacheHits +
+               ", superseded=" + superseded + ", cached=" + cache.size() + "]";
+    }
+}
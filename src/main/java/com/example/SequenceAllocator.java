@@ -0,0 +1,66 @@
+package com.example;
+
+import java.sql.*;
+
+/**
+ * Reserves ranges of numbers from named counters in the id_sequences table.
+ *
+ * Each reservation is a single atomic UPDATE, so every client (and every thread)
+ * gets a disjoint range; callers hand the numbers out from memory and only come
+ * back when their range is used up.
+ */
+public final class SequenceAllocator {
+
+    private SequenceAllocator() {
+        // Static utility
+    }
+
+    /**
+     * Computes the first value of a counter that does not exist yet, e.g. from
+     * numbers already in use. Only called the first time a counter is used.
+     */
+    public interface InitialValue {
+        long compute(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Reserve 'count' consecutive values of a counter, creating it if needed
+     * @return the first reserved value; the range is [result, result + count)
+     */
+    public static long reserve(String name, int count, InitialValue initialValue) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            if (advance(conn, name, count) == 0) {
+                // New counter; a concurrent insert by another client is fine
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "INSERT IGNORE INTO id_sequences (name, next_value) VALUES (?, ?)")) {
+                    stmt.setString(1, name);
+                    stmt.setLong(2, initialValue.compute(conn));
+                    stmt.executeUpdate();
+                }
+                if (advance(conn, name, count) == 0) {
+                    throw new SQLException("Could not reserve values from sequence " + name);
+                }
+            }
+
+            // LAST_INSERT_ID(expr) set by the UPDATE is private to this connection
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT LAST_INSERT_ID()")) {
+                rs.next();
+                return rs.getLong(1) - count;
+            }
+        }
+    }
+
+    public static long reserve(String name, int count) throws SQLException {
+        return reserve(name, count, conn -> 0);
+    }
+
+    private static int advance(Connection conn, String name, int count) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE id_sequences SET next_value = LAST_INSERT_ID(next_value + ?) WHERE name = ?")) {
+            stmt.setInt(1, count);
+            stmt.setString(2, name);
+            return stmt.executeUpdate();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example;
 
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
@@ -63,6 +64,8 @@ public class ServiceBookingController {
     private ComboBox<Mechanic> mechanicComboBox;
     private DatePicker bookingDatePicker;
     private ComboBox<String> timeComboBox;
+    private ComboBox<SchedulingEngine.SlotSuggestion> suggestedSlotComboBox;
+    private boolean applyingSuggestion = false;
     private ComboBox<String> serviceTypeComboBox;
     private TextArea serviceDescriptionArea;
     
@@ -83,10 +86,16 @@ public class ServiceBookingController {
     
     // Pagination variables
     private int currentPage = 0;
-    private int rowsPerPage = 25;
-    private static final int ITEMS_PER_PAGE = 25;
-    private ObservableList<ServiceBookingViewModel> allBookings = FXCollections.observableArrayList();
+    private int rowsPerPage = ServiceBookingService.DEFAULT_PAGE_SIZE;
+    private BookingPager activePager;
+    private BookingPager cancelledPager;
     private boolean isMechanicView = false;
+    
+    // Searches run in the background as the user types
+    private final SearchPipeline<BookingSearchResult> searchPipeline =
+        new SearchPipeline<>("bookings", this::showSearchResult, this::showSearchError);
+    // Set while Refresh clears the search box and filters, which reloads everything anyway
+    private boolean resettingFilters = false;
     private int currentMechanicId = 0;
     
     public ServiceBookingController() {
@@ -120,20 +129,11 @@ public class ServiceBookingController {
         
         // Load initial data
         loadBookings();
-    }
-    
-    // Service booking methods
-    private boolean updateTable() {
-        try {
-            // Load bookings
-            List<ServiceBookingViewModel> bookings = bookingService.getAllBookings();
-            bookingList.setAll(bookings);
-            return true;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to load bookings: " + e.getMessage());
-            return false;
-        }
+        
+        // Search as you type; new filters apply right away
+        searchField.textProperty().addListener((obs, oldText, newText) -> runSearch(false));
+        filterStatusComboBox.valueProperty().addListener((obs, oldValue, newValue) -> runSearch(true));
+        filterDatePicker.valueProperty().addListener((obs, oldValue, newValue) -> runSearch(true));
     }
     
     private void setupTableColumns() {
@@ -309,18 +309,50 @@ public class ServiceBookingController {
     
     @FXML
     private void handleSearchBookings() {
+        runSearch(true);
+    }
+    
+    private void runSearch(boolean immediately) {
+        if (resettingFilters) {
+            return;
+        }
         String searchTerm = searchField.getText().trim();
         String statusFilter = filterStatusComboBox.getValue();
         LocalDate dateFilter = filterDatePicker.getValue();
-        
-        loadBookingsFiltered(searchTerm, statusFilter, dateFilter);
+        String key = searchTerm + "|" + statusFilter + "|" + dateFilter;
+        SearchPipeline.Query<BookingSearchResult> query =
+            () -> activePager.fetchFirstPage(searchTerm, statusFilter, dateFilter);
+        
+        if (immediately) {
+            searchPipeline.searchNow(key, query);
+        } else {
+            searchPipeline.search(key, query);
+        }
+    }
+    
+    private void showSearchResult(BookingSearchResult result) {
+        activePager.show(result);
+        updateTotalBookingsLabel();
+        statusLabel.setText("Search complete");
+    }
+    
+    private void showSearchError(SQLException e) {
+        e.printStackTrace();
+        showAlert(Alert.AlertType.ERROR, 
+                 "Search Error", 
+                 "Error searching bookings: " + e.getMessage());
     }
     
     @FXML
     private void handleRefreshBookings() {
-        searchField.clear();
-        filterStatusComboBox.setValue("Active");
-        filterDatePicker.setValue(null);
+        resettingFilters = true;
+        try {
+            searchField.clear();
+            filterStatusComboBox.setValue("Active");
+            filterDatePicker.setValue(null);
+        } finally {
+            resettingFilters = false;
+        }
         loadBookings();
     }
     
@@ -330,29 +362,12 @@ public class ServiceBookingController {
     }
     
     private void setupPagination() {
+        // Rows are fetched page by page as the table scrolls, so the page-number control is not needed
         if (bookingPagination != null) {
-            bookingPagination.setPageFactory(pageIndex -> {
-                updateTablePage(pageIndex);
-                return bookingTable;
-            });
-        }
-    }
-    
-    private void updateTablePage(int pageIndex) {
-        int fromIndex = pageIndex * ITEMS_PER_PAGE;
-        int toIndex = Math.min(fromIndex + ITEMS_PER_PAGE, allBookings.size());
-        
-        bookingList.clear();
-        if (fromIndex < allBookings.size()) {
-            bookingList.addAll(allBookings.subList(fromIndex, toIndex));
-        }
-    }
-    
-    private void updatePaginationControl() {
-        if (bookingPagination != null) {
-            int pageCount = (int) Math.ceil((double) allBookings.size() / ITEMS_PER_PAGE);
-            bookingPagination.setPageCount(Math.max(1, pageCount));
+            bookingPagination.setVisible(false);
+            bookingPagination.setManaged(false);
         }
+        activePager = new BookingPager(bookingTable, bookingList);
     }
     
     private void loadBookings() {
@@ -361,43 +376,10 @@ public class ServiceBookingController {
     }
     
     private void loadBookingsFiltered(String searchTerm, String statusFilter, LocalDate dateFilter) {
+        // Data changed (or a refresh was asked for), so cached search results are out of date
+        searchPipeline.invalidate();
         try {
-            List<ServiceBookingViewModel> bookings;
-            
-            // Get the current logged-in user
-            User currentUser = UserService.getInstance().getCurrentUser();
-            
-            // If user is a mechanic, only show their bookings
-            if (currentUser != null && currentUser.getRole() == User.UserRole.MECHANIC) {
-                // Get the mechanic ID for this user
-                Mechanic mechanic = mechanicService.getMechanicByUserId(currentUser.getId());
-                if (mechanic != null) {
-                    bookings = bookingService.searchBookingsForMechanic(mechanic.getId(), searchTerm, statusFilter, dateFilter);
-                } else {
-                    // User is a mechanic but doesn't have a mechanic record yet
-                    bookings = new ArrayList<>();
-                }
-            } else {
-                // Admin or other roles see all bookings
-                bookings = bookingService.searchBookings(searchTerm, statusFilter, dateFilter);
-            }
-            
-            // THIS IS WHERE THE TABLE GETS POPULATED:
-            allBookings.clear();                    // Clear all bookings
-            allBookings.addAll(bookings);           // Add new bookings from database
-            
-            // Update pagination control
-            updatePaginationControl();
-            
-            // Update table - will show first page
-            if (bookingPagination != null) {
-                updateTablePage(0);                 // Explicitly update to first page
-                bookingPagination.setCurrentPageIndex(0);
-            } else {
-                bookingList.clear();
-                bookingList.addAll(bookings);
-            }
-            
+            activePager.reset(searchTerm, statusFilter, dateFilter);
             updateTotalBookingsLabel();             // Update the count label
             statusLabel.setText("Search complete"); // Update status
         } catch (SQLException e) {
@@ -409,7 +391,189 @@ public class ServiceBookingController {
     }
     
     private void updateTotalBookingsLabel() {
-        totalBookingsLabel.setText("Total bookings: " + bookingList.size());
+        totalBookingsLabel.setText("Total bookings: " + bookingList.size() + (activePager.hasMore() ? "+" : ""));
+    }
+    
+    /**
+     * Resolve which bookings the current user may see: 0 = all mechanics,
+     * a mechanic ID for mechanic accounts, or -1 if the account has no mechanic record.
+     */
+    private int resolveVisibleMechanicId() throws SQLException {
+        User currentUser = UserService.getInstance().getCurrentUser();
+        
+        // If user is a mechanic, only show their bookings
+        if (currentUser != null && currentUser.getRole() == User.UserRole.MECHANIC) {
+            Mechanic mechanic = mechanicService.getMechanicByUserId(currentUser.getId());
+            return mechanic != null ? mechanic.getId() : -1;
+        }
+        return 0;
+    }
+    
+    /**
+     * First page of a booking search, with what is needed to fetch the pages after it
+     */
+    private static final class BookingSearchResult {
+        final String searchTerm;
+        final String statusFilter;
+        final LocalDate dateFilter;
+        final int mechanicId;
+        final BookingPage page;
+        
+        BookingSearchResult(String searchTerm, String statusFilter, LocalDate dateFilter,
+                            int mechanicId, BookingPage page) {
+            this.searchTerm = searchTerm;
+            this.statusFilter = statusFilter;
+            this.dateFilter = dateFilter;
+            this.mechanicId = mechanicId;
+            this.page = page;
+        }
+    }
+    
+    /**
+     * Keeps a table filled with keyset-paginated bookings, fetching the next page
+     * only when the user scrolls near the bottom of what is already loaded.
+     */
+    private class BookingPager {
+        private final TableView<ServiceBookingViewModel> table;
+        private final ObservableList<ServiceBookingViewModel> items;
+        private String searchTerm;
+        private String statusFilter;
+        private LocalDate dateFilter;
+        private int mechanicId;
+        private BookingPage.Cursor nextCursor;
+        private boolean hasMore;
+        private boolean loading;
+        // Set after a page is loaded; the next layout decides whether the viewport needs more rows
+        private boolean fillPending;
+        
+        BookingPager(TableView<ServiceBookingViewModel> table, ObservableList<ServiceBookingViewModel> items) {
+            this.table = table;
+            this.items = items;
+            // The scroll bar only exists once the table skin has been created
+            table.skinProperty().addListener((obs, oldSkin, newSkin) -> attachScrollListener());
+            // Rows and scroll bar are sized in layout, so check the viewport once it is done
+            table.needsLayoutProperty().addListener((obs, wasNeeded, needed) -> {
+                if (!needed) {
+                    checkViewport();
+                }
+            });
+            attachScrollListener();
+        }
+        
+        void reset(String searchTerm, String statusFilter, LocalDate dateFilter) throws SQLException {
+            this.searchTerm = searchTerm;
+            this.statusFilter = statusFilter;
+            this.dateFilter = dateFilter;
+            this.mechanicId = resolveVisibleMechanicId();
+            this.nextCursor = null;
+            this.hasMore = mechanicId >= 0;
+            items.clear();
+            table.scrollTo(0);
+            loadNextPage();
+        }
+        
+        boolean hasMore() {
+            return hasMore;
+        }
+        
+        // Runs on a background thread; show() then displays the result
+        BookingSearchResult fetchFirstPage(String searchTerm, String statusFilter, LocalDate dateFilter) throws SQLException {
+            int visibleMechanicId = resolveVisibleMechanicId();
+            BookingPage page = visibleMechanicId >= 0
+                ? bookingService.getBookingsPage(visibleMechanicId, searchTerm, statusFilter, dateFilter, null, rowsPerPage)
+                : new BookingPage(new ArrayList<>(), null);
+            return new BookingSearchResult(searchTerm, statusFilter, dateFilter, visibleMechanicId, page);
+        }
+        
+        void show(BookingSearchResult result) {
+            this.searchTerm = result.searchTerm;
+            this.statusFilter = result.statusFilter;
+            this.dateFilter = result.dateFilter;
+            this.mechanicId = result.mechanicId;
+            this.nextCursor = result.page.getNextCursor();
+            this.hasMore = result.page.hasMore();
+            items.setAll(result.page.getBookings());
+            table.scrollTo(0);
+            fillViewport();
+        }
+        
+        void loadNextPage() throws SQLException {
+            if (loading || !hasMore) {
+                return;
+            }
+            loading = true;
+            try {
+                BookingPage page = bookingService.getBookingsPage(
+                    mechanicId, searchTerm, statusFilter, dateFilter, nextCursor, rowsPerPage);
+                items.addAll(page.getBookings());
+                nextCursor = page.getNextCursor();
+                hasMore = page.hasMore();
+            } finally {
+                loading = false;
+            }
+            fillViewport();
+        }
+        
+        // If the loaded rows don't fill the viewport there is nothing to scroll, so another
+        // page is needed. That is only known after the table has laid them out.
+        private void fillViewport() {
+            fillPending = hasMore;
+            if (fillPending) {
+                table.requestLayout();
+            }
+        }
+        
+        private void checkViewport() {
+            if (!fillPending || loading) {
+                return;
+            }
+            attachScrollListener();
+            ScrollBar bar = findVerticalScrollBar();
+            if (table.getSkin() == null || bar == null) {
+                // Not shown yet (e.g. a tab that was never selected); the first layout retries
+                return;
+            }
+            fillPending = false;
+            if (!bar.isVisible()) {
+                // Not while the table is still in its layout pass
+                Platform.runLater(this::loadNextPageQuietly);
+            }
+        }
+        
+        private void loadNextPageQuietly() {
+            try {
+                loadNextPage();
+                if (table == bookingTable) {
+                    updateTotalBookingsLabel();
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+                statusLabel.setText("Error loading more bookings: " + e.getMessage());
+            }
+        }
+        
+        private void attachScrollListener() {
+            ScrollBar bar = findVerticalScrollBar();
+            if (bar == null || bar.getProperties().containsKey(BookingPager.class)) {
+                return;
+            }
+            bar.getProperties().put(BookingPager.class, this);
+            bar.valueProperty().addListener((obs, oldValue, newValue) -> {
+                // Prefetch when the user is within the last 10% of the loaded rows
+                if (hasMore && newValue.doubleValue() >= bar.getMax() * 0.9) {
+                    loadNextPageQuietly();
+                }
+            });
+        }
+        
+        private ScrollBar findVerticalScrollBar() {
+            for (javafx.scene.Node node : table.lookupAll(".scroll-bar")) {
+                if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == javafx.geometry.Orientation.VERTICAL) {
+                    return (ScrollBar) node;
+                }
+            }
+            return null;
+        }
     }
     
     /**
@@ -506,6 +670,9 @@ public class ServiceBookingController {
         cancelledTable.getColumns().addAll(cIdCol, cDateCol, cTimeCol, cCustomerCol, 
                                           cVehicleCol, cMechanicCol, cStatusCol, cActionsCol);
         
+        cancelledTable.setItems(FXCollections.observableArrayList());
+        cancelledPager = new BookingPager(cancelledTable, cancelledTable.getItems());
+        
         cancelledTab.setContent(cancelledTable);
         bookingTabPane.getTabs().add(cancelledTab);
     }
@@ -513,41 +680,11 @@ public class ServiceBookingController {
 
     private void loadCancelledBookings() {
         try {
-            List<ServiceBookingViewModel> cancelledBookings;
-            
-            // Get the current logged-in user
-            User currentUser = UserService.getInstance().getCurrentUser();
-            
-            // If user is a mechanic, only show their cancelled bookings
-            if (currentUser != null && currentUser.getRole() == User.UserRole.MECHANIC) {
-                Mechanic mechanic = mechanicService.getMechanicByUserId(currentUser.getId());
-                if (mechanic != null) {
-                    cancelledBookings = bookingService.getCancelledBookingsForMechanic(mechanic.getId());
-                } else {
-                    cancelledBookings = new ArrayList<>();
-                }
-            } else {
-                // Admin sees all cancelled bookings
-                cancelledBookings = bookingService.getCancelledBookings();
-            }
+            // Mechanics only see their own cancelled bookings (resolved by the pager)
+            cancelledPager.reset("", "Cancelled", null);
             
-            // Get the cancelled tab and its table
-            Tab cancelledTab = bookingTabPane.getTabs().stream()
-                    .filter(tab -> tab.getText().equals("Cancelled Bookings"))
-                    .findFirst()
-                    .orElse(null);
-            
-            if (cancelledTab != null && cancelledTab.getContent() instanceof TableView) {
-                @SuppressWarnings("unchecked")
-                TableView<ServiceBookingViewModel> cancelledTable = 
-                        (TableView<ServiceBookingViewModel>) cancelledTab.getContent();
-                
-                ObservableList<ServiceBookingViewModel> cancelledList = 
-                        FXCollections.observableArrayList(cancelledBookings);
-                cancelledTable.setItems(cancelledList);
-                
-                statusLabel.setText("Loaded " + cancelledBookings.size() + " cancelled booking(s)");
-            }
+            int loaded = cancelledPager.items.size();
+            statusLabel.setText("Loaded " + loaded + (cancelledPager.hasMore() ? "+" : "") + " cancelled booking(s)");
         } catch (SQLException e) {
             e.printStackTrace();
             showAlert(Alert.AlertType.ERROR, 
@@ -1097,6 +1234,11 @@ public class ServiceBookingController {
                             return;
                         }
                     }
+                    List<Integer> restoredPartIds = new ArrayList<>();
+                    for (BookingPart part : parts) {
+                        restoredPartIds.add(part.getPartId());
+                    }
+                    InventoryService.getInstance().partsChanged(restoredPartIds);
                     System.out.println("Restored and re-reserved " + parts.size() + " parts for undone completed booking");
                 }
             }
@@ -1219,12 +1361,12 @@ public class ServiceBookingController {
                     
                     if (customer != null && customer.getEmail() != null && !customer.getEmail().trim().isEmpty()) {
                         boolean emailSent = EmailService.getInstance().sendBillNotification(
-                            customer, booking, newBill);
+                            customer, newBill);
                         
                         if (emailSent) {
                             showAlert(Alert.AlertType.INFORMATION, 
                                      "Bill Created Successfully", 
-                                     "Bill has been generated and customer has been notified via email.\n\n" +
+                                     "Bill has been generated and an email notification has been queued for the customer.\n\n" +
                                      "Bill ID: " + newBill.getHexId() + "\n" +
                                      "Amount: ₱" + String.format("%.2f", newBill.getAmount()) + "\n" +
                                      "Email sent to: " + customer.getEmail());
@@ -1431,10 +1573,69 @@ public class ServiceBookingController {
         grid.add(timeLabel, 0, row + 2);
         grid.add(timeComboBox, 1, row + 2, 2, 1);
         
+        // Earliest free slots for the selected services; picking one fills mechanic, date and time
+        Label suggestionLabel = new Label("Suggested:");
+        suggestionLabel.getStyleClass().add("form-label");
+        suggestedSlotComboBox = new ComboBox<>();
+        suggestedSlotComboBox.setMaxWidth(Double.MAX_VALUE);
+        suggestedSlotComboBox.setPromptText("Add services to see available slots");
+        suggestedSlotComboBox.valueProperty().addListener((obs, oldVal, newVal) -> applySlotSuggestion(newVal));
+        
+        grid.add(suggestionLabel, 0, row + 3);
+        grid.add(suggestedSlotComboBox, 1, row + 3, 2, 1);
+        
         // Add extra spacing after the date/time section
         Label spacer = new Label();
         spacer.setMinHeight(20); // 20 pixels of space
-        grid.add(spacer, 0, row + 3, 3, 1);
+        grid.add(spacer, 0, row + 4, 3, 1);
+    }
+    
+    /**
+     * Recompute slot suggestions from the in-memory schedule (no per-mechanic queries)
+     */
+    private void refreshSlotSuggestions() {
+        if (suggestedSlotComboBox == null || applyingSuggestion) {
+            return;
+        }
+        List<String> serviceTypes = new ArrayList<>();
+        for (Map<String, String> service : servicesList) {
+            serviceTypes.add(service.get("type"));
+        }
+        if (serviceTypes.isEmpty()) {
+            suggestedSlotComboBox.getItems().clear();
+            return;
+        }
+        
+        LocalDate fromDate = bookingDatePicker.getValue() != null ? bookingDatePicker.getValue() : LocalDate.now();
+        int excludeBookingId = currentEditingBooking != null ? currentEditingBooking.getId() : -1;
+        try {
+            List<SchedulingEngine.SlotSuggestion> suggestions =
+                SchedulingEngine.getInstance().suggestSlots(serviceTypes, fromDate, 5, excludeBookingId);
+            suggestedSlotComboBox.setItems(FXCollections.observableArrayList(suggestions));
+            suggestedSlotComboBox.setPromptText(suggestions.isEmpty()
+                ? "No free slots in the next two weeks"
+                : suggestions.size() + " suggested slot(s)");
+        } catch (SQLException e) {
+            System.err.println("Could not compute slot suggestions: " + e.getMessage());
+        }
+    }
+    
+    private void applySlotSuggestion(SchedulingEngine.SlotSuggestion suggestion) {
+        if (suggestion == null || applyingSuggestion) {
+            return;
+        }
+        applyingSuggestion = true;
+        try {
+            mechanicComboBox.getItems().forEach(mechanic -> {
+                if (mechanic.getId() == suggestion.getMechanic().getId()) {
+                    mechanicComboBox.setValue(mechanic);
+                }
+            });
+            bookingDatePicker.setValue(suggestion.getDate());
+            timeComboBox.setValue(suggestion.getTimeString());
+        } finally {
+            applyingSuggestion = false;
+        }
     }
     
     private void setupServiceTypeAndDescription(GridPane grid, int row) {
@@ -1865,14 +2066,19 @@ public class ServiceBookingController {
             setupVehicleSelection(grid, 2);  // Start at row 2 to leave space
             setupMechanicSelection(grid, 4);  // Start at row 4 to leave space
             setupDateTimeSelectors(grid, 6);  // Start at row 6 to leave space
-            setupServiceTypeAndDescription(grid, 9);         // Start at row 9 to leave space after date/time
-            setupPartsSelection(grid, 12);  // Start at row 12 for parts selection
+            setupServiceTypeAndDescription(grid, 11);        // Start at row 11 to leave space after date/time
+            setupPartsSelection(grid, 14);  // Start at row 14 for parts selection
             
             // If editing an existing booking, populate fields
             if (existingBooking != null) {
                 populateExistingData(existingBooking);
             }
             
+            // Keep slot suggestions in step with the chosen services and date
+            servicesList.addListener((ListChangeListener<Map<String, String>>) change -> refreshSlotSuggestions());
+            bookingDatePicker.valueProperty().addListener((obs, oldVal, newVal) -> refreshSlotSuggestions());
+            refreshSlotSuggestions();
+            
             // Set up the dialog pane with proper sizing
             DialogPane dialogPane = bookingDialog.getDialogPane();
             dialogPane.setContent(grid);
@@ -2043,23 +2249,7 @@ public class ServiceBookingController {
                     
                     // Check parts availability and mechanic status using try-with-resources
                     try (Connection checkConn = DatabaseUtil.getConnection()) {
-                        for (BookingPart part : partsToUse) {
-                            try (PreparedStatement checkStmt = checkConn.prepareStatement(
-                                "SELECT quantity_in_stock, reserved_quantity FROM parts WHERE id = ?")) {
-                                checkStmt.setInt(1, part.getPartId());
-                                ResultSet rs = checkStmt.executeQuery();
-                                if (rs.next()) {
-                                    int totalStock = rs.getInt("quantity_in_stock");
-                                    int reserved = rs.getInt("reserved_quantity");
-                                    int available = totalStock - reserved;
-                                    if (part.getQuantity() > available) {
-                                        hasInsufficientParts = true;
-                                        System.out.println("Insufficient parts for: " + part.getPartName() + 
-                                                         " (needed: " + part.getQuantity() + ", available: " + available + ")");
-                                    }
-                                }
-                            }
-                        }
+                        hasInsufficientParts = bookingService.hasInsufficientParts(checkConn, partsToUse);
                         
                         // Check mechanic availability
                         try (PreparedStatement mechanicStmt = checkConn.prepareStatement(
@@ -2106,12 +2296,16 @@ public class ServiceBookingController {
                         try (PreparedStatement reserveStmt = conn.prepareStatement(
                             "UPDATE parts SET reserved_quantity = reserved_quantity + ? WHERE id = ?")) {
                             
+                            List<Integer> reservedPartIds = new ArrayList<>();
                             for (BookingPart part : partsToUse) {
                                 reserveStmt.setInt(1, part.getQuantity());
                                 reserveStmt.setInt(2, part.getPartId());
-                                reserveStmt.executeUpdate();
+                                reserveStmt.addBatch();
+                                reservedPartIds.add(part.getPartId());
                             }
+                            reserveStmt.executeBatch();
                             conn.commit();
+                            InventoryService.getInstance().partsChanged(reservedPartIds);
                         } catch (SQLException e) {
                             conn.rollback();
                             throw e;
@@ -2138,16 +2332,10 @@ public class ServiceBookingController {
                     // Save selected parts to booking_parts table
                     if (selectedPartsList != null && !selectedPartsList.isEmpty()) {
                         System.out.println("Saving " + selectedPartsList.size() + " parts...");
-                        for (BookingPart part : selectedPartsList) {
-                            boolean partSaved = bookingService.addBookingPart(
-                                bookingId,
-                                part.getPartId(),
-                                part.getQuantity(),
-                                part.getPrice()
-                            );
-                            if (!partSaved) {
-                                System.err.println("Warning: Could not save part: " + part.getPartName());
-                            }
+                        try {
+                            bookingService.addBookingParts(bookingId, selectedPartsList);
+                        } catch (SQLException e) {
+                            System.err.println("Warning: Could not save booking parts: " + e.getMessage());
                         }
                     } else {
                         System.out.println("No parts selected for this booking.");
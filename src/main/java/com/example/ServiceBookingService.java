@@ -3,11 +3,72 @@ package com.example;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Set;
 
 public class ServiceBookingService {
+    // Default number of rows per page for getBookingsPage
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    private static final String BOOKING_LIST_SELECT =
+        "SELECT sb.*, c.name as customer_name, " +
+        "CONCAT(v.brand, ' ', v.model, ' (', v.plate_number, ')') as vehicle_info, " +
+        "u.username as mechanic_name " +
+        "FROM service_bookings sb " +
+        "JOIN customers c ON sb.customer_id = c.id " +
+        "JOIN vehicles v ON sb.vehicle_id = v.id " +
+        "LEFT JOIN mechanics m ON sb.mechanic_id = m.id " +
+        "LEFT JOIN users u ON m.user_id = u.id ";
+
+    // The statements below are also checked by QueryPlanCheck
+    static final String PROMOTED_BY_QUERY =
+        "SELECT id FROM service_bookings WHERE status = 'scheduled' AND promoted_by_booking_id = ?";
+    static final String BOOKING_PARTS_QUERY =
+        "SELECT bp.id, bp.booking_id, bp.part_id, p.name as part_name, bp.quantity, bp.price_at_time " +
+        "FROM booking_parts bp " +
+        "JOIN parts p ON bp.part_id = p.id " +
+        "WHERE bp.booking_id = ?";
+    static final String BOOKING_SERVICES_QUERY =
+        "SELECT id, service_type, service_description FROM booking_services WHERE booking_id = ? ORDER BY id ASC";
+
+    // Searches matching more bookings than this join a temporary table instead of an IN list
+    private static final int MAX_SEARCH_IDS = Integer.getInteger("autotech.search.maxBookingIds", 1000);
+
+    // Shared by all instances; see getSearchIndex()
+    private static final SearchIndex searchIndex = new SearchIndex("bookings",
+        new SearchIndex.Field[] {
+            new SearchIndex.Field("customer", 3),
+            new SearchIndex.Field("plate_number", 3, true),
+            new SearchIndex.Field("hex_id", 2),
+            new SearchIndex.Field("mechanic", 2),
+            new SearchIndex.Field("services", 1)
+        },
+        new SearchIndex.Loader() {
+            @Override
+            public Map<Integer, String[]> loadAll() throws SQLException {
+                return loadSearchRows(null);
+            }
+
+            @Override
+            public Map<Integer, String[]> loadByIds(Collection<Integer> ids) throws SQLException {
+                return loadSearchRows(ids);
+            }
+        });
+
+    /**
+     * Search index over booking text (customer name, plate, mechanic, services).
+     * Other services call requestRebuild() when they change that text.
+     */
+    public static SearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
     private ServiceBookingViewModel createViewModel(ResultSet rs) throws SQLException {
         ServiceBookingViewModel booking = new ServiceBookingViewModel();
         booking.setId(rs.getInt("id"));
@@ -117,6 +178,10 @@ public class ServiceBookingService {
                 }
                 
                 conn.commit();
+                if (bookingId > 0) {
+                    MechanicScheduleIndex.getInstance().bookingChanged(bookingId);
+                    searchIndex.invalidate(bookingId);
+                }
                 return rowsAffected > 0;
             } catch (SQLException e) {
                 conn.rollback();
@@ -205,203 +270,263 @@ public class ServiceBookingService {
         return bookings;
     }
     
-    public List<ServiceBookingViewModel> searchBookings(
-            String searchTerm, String statusFilter, LocalDate dateFilter) throws SQLException {
-        
-        List<ServiceBookingViewModel> bookings = new ArrayList<>();
-        
-        StringBuilder query = new StringBuilder(
-            "SELECT sb.*, c.name as customer_name, " +
-            "CONCAT(v.brand, ' ', v.model, ' (', v.plate_number, ')') as vehicle_info, " +
-            "u.username as mechanic_name " +
-            "FROM service_bookings sb " +
-            "JOIN customers c ON sb.customer_id = c.id " +
-            "JOIN vehicles v ON sb.vehicle_id = v.id " +
-            "LEFT JOIN mechanics m ON sb.mechanic_id = m.id " +
-            "LEFT JOIN users u ON m.user_id = u.id " +
-            "WHERE 1=1 "
-        );
-        
-        List<Object> params = new ArrayList<>();
-        
-        // Add search condition
+    /**
+     * Fetch one page of bookings, newest first, using a (booking_date, id) keyset cursor.
+     * Cost depends on the page size, not on how many bookings exist.
+     * @param mechanicId limit to this mechanic's bookings, or 0 for all mechanics
+     * @param statusFilter "All", "Active" (everything except cancelled) or a status name such as "Cancelled"
+     * @param after cursor from the previous page, or null for the first page
+     * @param pageSize maximum number of bookings to return
+     */
+    public BookingPage getBookingsPage(int mechanicId, String searchTerm, String statusFilter,
+                                       LocalDate dateFilter, BookingPage.Cursor after, int pageSize) throws SQLException {
+        if (pageSize <= 0) {
+            pageSize = DEFAULT_PAGE_SIZE;
+        }
+
+        // The search index answers the search, whatever the number of matches
+        List<Integer> searchIds = null;
         if (searchTerm != null && !searchTerm.isEmpty()) {
-            query.append("AND (c.name LIKE ? OR v.plate_number LIKE ? OR u.username LIKE ? OR EXISTS (SELECT 1 FROM booking_services bs2 WHERE bs2.booking_id = sb.id AND bs2.service_type LIKE ?)) ");
-            String searchPattern = "%" + searchTerm + "%";
-            params.add(searchPattern);
-            params.add(searchPattern);
-            params.add(searchPattern);
-            params.add(searchPattern);
+            searchIds = searchIndex.search(searchTerm, Integer.MAX_VALUE);
+            if (searchIds.isEmpty()) {
+                return new BookingPage(new ArrayList<>(), null);
+            }
         }
-        
+        boolean matchTable = searchIds != null && searchIds.size() > MAX_SEARCH_IDS;
+
+        List<Object> params = new ArrayList<>();
+        String query = bookingsPageQuery(mechanicId, searchIds, statusFilter, dateFilter, after, pageSize, params);
+
+        List<ServiceBookingViewModel> bookings = new ArrayList<>();
+        boolean hasMore = false;
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            if (matchTable) {
+                fillSearchMatches(conn, searchIds);
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                for (int i = 0; i < params.size(); i++) {
+                    stmt.setObject(i + 1, params.get(i));
+                }
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        if (bookings.size() == pageSize) {
+                            hasMore = true;
+                            break;
+                        }
+                        bookings.add(createViewModel(rs));
+                    }
+                }
+            } finally {
+                if (matchTable) {
+                    dropSearchMatches(conn);
+                }
+            }
+        }
+
+        BookingPage.Cursor nextCursor = hasMore
+            ? BookingPage.Cursor.after(bookings.get(bookings.size() - 1))
+            : null;
+        return new BookingPage(bookings, nextCursor);
+    }
+
+    /**
+     * The statement getBookingsPage runs, with its parameters added to params; also
+     * checked by QueryPlanCheck. searchIds are the search matches, or null for no search.
+     */
+    static String bookingsPageQuery(int mechanicId, List<Integer> searchIds, String statusFilter,
+                                    LocalDate dateFilter, BookingPage.Cursor after, int pageSize,
+                                    List<Object> params) {
+        StringBuilder query = new StringBuilder(BOOKING_LIST_SELECT).append("WHERE 1=1 ");
+
+        if (mechanicId > 0) {
+            query.append("AND sb.mechanic_id = ? ");
+            params.add(mechanicId);
+        }
+
+        if (searchIds != null) {
+            appendSearchCondition(query, params, searchIds);
+        }
+
         // Add status filter
         if (statusFilter != null) {
             if (statusFilter.equals("Active")) {
-                // "Active" means all statuses except cancelled
                 query.append("AND sb.status != 'cancelled' ");
             } else if (!statusFilter.equals("All")) {
                 query.append("AND sb.status = ? ");
-                params.add(statusFilter.toLowerCase());
+                params.add(statusFilter.toLowerCase().replace(" ", "_"));
             }
         }
-        
+
         // Add date filter
         if (dateFilter != null) {
             query.append("AND sb.booking_date = ? ");
             params.add(Date.valueOf(dateFilter));
         }
-        
-        query.append("ORDER BY sb.id DESC");
-        
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query.toString())) {
-            
-            // Set parameters
-            for (int i = 0; i < params.size(); i++) {
-                stmt.setObject(i + 1, params.get(i));
-            }
-            
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                bookings.add(createViewModel(rs));
+
+        // Keyset condition: rows strictly after the cursor in (booking_date DESC, id DESC) order
+        if (after != null) {
+            query.append("AND (sb.booking_date < ? OR (sb.booking_date = ? AND sb.id < ?)) ");
+            params.add(Date.valueOf(after.getBookingDate()));
+            params.add(Date.valueOf(after.getBookingDate()));
+            params.add(after.getId());
+        }
+
+        // Fetch one extra row to learn whether another page exists
+        query.append("ORDER BY sb.booking_date DESC, sb.id DESC LIMIT ?");
+        params.add(pageSize + 1);
+        return query.toString();
+    }
+
+    // Restrict a booking list query to the search matches: an IN list, or the
+    // temporary table filled by fillSearchMatches() when there are too many for one
+    private static void appendSearchCondition(StringBuilder query, List<Object> params, List<Integer> ids) {
+        if (ids.size() <= MAX_SEARCH_IDS) {
+            query.append("AND sb.id IN (").append(SearchIndex.placeholders(ids.size())).append(") ");
+            params.addAll(ids);
+        } else {
+            query.append("AND sb.id IN (SELECT id FROM booking_search_matches) ");
+        }
+    }
+
+    // The temporary table is private to the connection; it is dropped again before the
+    // connection goes back to the pool
+    private static void fillSearchMatches(Connection conn, List<Integer> ids) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TEMPORARY TABLE IF NOT EXISTS booking_search_matches (id INT PRIMARY KEY)");
+            stmt.execute("DELETE FROM booking_search_matches");
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO booking_search_matches (id) VALUES (?)")) {
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setInt(1, ids.get(i));
+                stmt.addBatch();
+                if ((i + 1) % MAX_SEARCH_IDS == 0) {
+                    stmt.executeBatch();
+                }
             }
+            stmt.executeBatch();
         }
-        
-        return bookings;
     }
-    
-    public List<ServiceBookingViewModel> searchBookingsForMechanic(
-            int mechanicId, String searchTerm, String statusFilter, LocalDate dateFilter) throws SQLException {
-        
-        List<ServiceBookingViewModel> bookings = new ArrayList<>();
-        
-        StringBuilder query = new StringBuilder(
-            "SELECT sb.*, c.name as customer_name, " +
-            "CONCAT(v.brand, ' ', v.model, ' (', v.plate_number, ')') as vehicle_info, " +
-            "u.username as mechanic_name " +
+
+    private static void dropSearchMatches(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TEMPORARY TABLE IF EXISTS booking_search_matches");
+        }
+    }
+
+    // Searchable text of all bookings, or only the given ones
+    private static Map<Integer, String[]> loadSearchRows(Collection<Integer> ids) throws SQLException {
+        Map<Integer, String[]> rows = new HashMap<>();
+        if (ids != null && ids.isEmpty()) {
+            return rows;
+        }
+
+        String query =
+            "SELECT sb.id, c.name AS customer, v.plate_number, sb.hex_id, u.username AS mechanic, " +
+            "(SELECT GROUP_CONCAT(bs.service_type SEPARATOR ' ') FROM booking_services bs WHERE bs.booking_id = sb.id) AS services " +
             "FROM service_bookings sb " +
             "JOIN customers c ON sb.customer_id = c.id " +
             "JOIN vehicles v ON sb.vehicle_id = v.id " +
             "LEFT JOIN mechanics m ON sb.mechanic_id = m.id " +
-            "LEFT JOIN users u ON m.user_id = u.id " +
-            "WHERE sb.mechanic_id = ? "
-        );
-        
-        List<Object> params = new ArrayList<>();
-        params.add(mechanicId);
-        
-        // Add search condition
-        if (searchTerm != null && !searchTerm.isEmpty()) {
-            query.append("AND (c.name LIKE ? OR v.plate_number LIKE ? OR u.username LIKE ? OR EXISTS (SELECT 1 FROM booking_services bs2 WHERE bs2.booking_id = sb.id AND bs2.service_type LIKE ?)) ");
-            String searchPattern = "%" + searchTerm + "%";
-            params.add(searchPattern);
-            params.add(searchPattern);
-            params.add(searchPattern);
-            params.add(searchPattern);
-        }
-        
-        // Add status filter
-        if (statusFilter != null) {
-            if (statusFilter.equals("Active")) {
-                // "Active" means all statuses except cancelled
-                query.append("AND sb.status != 'cancelled' ");
-            } else if (!statusFilter.equals("All")) {
-                query.append("AND sb.status = ? ");
-                params.add(statusFilter.toLowerCase());
-            }
-        }
-        
-        // Add date filter
-        if (dateFilter != null) {
-            query.append("AND sb.booking_date = ? ");
-            params.add(Date.valueOf(dateFilter));
-        }
-        
-        query.append("ORDER BY sb.id DESC");
-        
+            "LEFT JOIN users u ON m.user_id = u.id" +
+            (ids != null ? " WHERE sb.id IN (" + SearchIndex.placeholders(ids.size()) + ")" : "");
         try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query.toString())) {
-            
-            // Set parameters
-            for (int i = 0; i < params.size(); i++) {
-                stmt.setObject(i + 1, params.get(i));
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+
+            if (ids != null) {
+                int i = 1;
+                for (int id : ids) {
+                    stmt.setInt(i++, id);
+                }
             }
-            
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                bookings.add(createViewModel(rs));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.put(rs.getInt("id"), new String[] {
+                        rs.getString("customer"), rs.getString("plate_number"), rs.getString("hex_id"),
+                        rs.getString("mechanic"), rs.getString("services")
+                    });
+                }
             }
         }
-        
-        return bookings;
+        return rows;
     }
-    
+
     /**
-     * Get all cancelled bookings
+     * Check whether any of the parts lacks enough unreserved stock.
+     * All parts are read in one query; quantities of the same part are added up.
      */
-    public List<ServiceBookingViewModel> getCancelledBookings() throws SQLException {
-        List<ServiceBookingViewModel> bookings = new ArrayList<>();
+    public boolean hasInsufficientParts(Connection conn, List<BookingPart> parts) throws SQLException {
+        if (parts == null || parts.isEmpty()) {
+            return false;
+        }
         
-        String query = "SELECT sb.*, c.name as customer_name, " +
-                      "CONCAT(v.brand, ' ', v.model, ' (', v.plate_number, ')') as vehicle_info, " +
-                      "u.username as mechanic_name " +
-                      "FROM service_bookings sb " +
-                      "JOIN customers c ON sb.customer_id = c.id " +
-                      "JOIN vehicles v ON sb.vehicle_id = v.id " +
-                      "LEFT JOIN mechanics m ON sb.mechanic_id = m.id " +
-                      "LEFT JOIN users u ON m.user_id = u.id " +
-                      "WHERE sb.status = 'cancelled' " +
-                      "ORDER BY sb.id DESC";
+        Map<Integer, Integer> needed = new LinkedHashMap<>();
+        Map<Integer, String> names = new HashMap<>();
+        for (BookingPart part : parts) {
+            needed.merge(part.getPartId(), part.getQuantity(), Integer::sum);
+            names.put(part.getPartId(), part.getPartName());
+        }
         
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-            
-            ResultSet rs = stmt.executeQuery();
+        String placeholders = String.join(", ", Collections.nCopies(needed.size(), "?"));
+        boolean insufficient = false;
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT id, quantity_in_stock, reserved_quantity FROM parts WHERE id IN (" + placeholders + ")")) {
+            int index = 1;
+            for (int partId : needed.keySet()) {
+                stmt.setInt(index++, partId);
+            }
             
-            while (rs.next()) {
-                ServiceBookingViewModel booking = createViewModel(rs);
-                bookings.add(booking);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int partId = rs.getInt("id");
+                    int available = rs.getInt("quantity_in_stock") - rs.getInt("reserved_quantity");
+                    if (available < needed.get(partId)) {
+                        insufficient = true;
+                        System.out.println("Insufficient parts for: " + names.get(partId) + 
+                                         " (needed: " + needed.get(partId) + ", available: " + available + ")");
+                    }
+                }
             }
         }
-        
-        return bookings;
+        return insufficient;
     }
     
     /**
-     * Get cancelled bookings for a specific mechanic
+     * Insert all parts of a booking with one batched statement
      */
-    public List<ServiceBookingViewModel> getCancelledBookingsForMechanic(int mechanicId) throws SQLException {
-        List<ServiceBookingViewModel> bookings = new ArrayList<>();
-        
-        String query = "SELECT sb.*, c.name as customer_name, " +
-                      "CONCAT(v.brand, ' ', v.model, ' (', v.plate_number, ')') as vehicle_info, " +
-                      "u.username as mechanic_name " +
-                      "FROM service_bookings sb " +
-                      "JOIN customers c ON sb.customer_id = c.id " +
-                      "JOIN vehicles v ON sb.vehicle_id = v.id " +
-                      "LEFT JOIN mechanics m ON sb.mechanic_id = m.id " +
-                      "LEFT JOIN users u ON m.user_id = u.id " +
-                      "WHERE sb.mechanic_id = ? AND sb.status = 'cancelled' " +
-                      "ORDER BY sb.id DESC";
+    public boolean addBookingParts(int bookingId, List<BookingPart> parts) throws SQLException {
+        if (parts == null || parts.isEmpty()) {
+            return true;
+        }
         
         try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-            
-            stmt.setInt(1, mechanicId);
-            ResultSet rs = stmt.executeQuery();
+             PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO booking_parts (booking_id, part_id, quantity, price_at_time) VALUES (?, ?, ?, ?)")) {
             
-            while (rs.next()) {
-                ServiceBookingViewModel booking = createViewModel(rs);
-                bookings.add(booking);
+            conn.setAutoCommit(false);
+            try {
+                for (BookingPart part : parts) {
+                    stmt.setInt(1, bookingId);
+                    stmt.setInt(2, part.getPartId());
+                    stmt.setInt(3, part.getQuantity());
+                    stmt.setDouble(4, part.getPrice());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
         }
-        
-        return bookings;
     }
     
-    public boolean createBooking(int customerId, int vehicleId, int mechanicId, 
+    public boolean createBooking(int customerId, int vehicleId, int mechanicId,
                                LocalDate bookingDate, String bookingTime, 
                                String serviceType, String serviceDescription, String status) throws SQLException {
         
@@ -442,6 +567,8 @@ public class ServiceBookingService {
                         bsStmt.executeBatch();
                     }
                 }
+                MechanicScheduleIndex.getInstance().bookingChanged(bookingId);
+                searchIndex.invalidate(bookingId);
             }
             
             return rowsAffected > 0;
@@ -465,31 +592,18 @@ public class ServiceBookingService {
             conn = DatabaseUtil.getConnection();
             conn.setAutoCommit(false);
             
-            // Check if all parts have sufficient available quantity
-            boolean hasInsufficientParts = false;
+            // Check if all parts have sufficient available quantity (one query for all parts)
+            boolean hasInsufficientParts = hasInsufficientParts(conn, partsToUse);
             
-            for (BookingPart part : partsToUse) {
-                checkStmt = conn.prepareStatement(
-                    "SELECT quantity_in_stock, reserved_quantity FROM parts WHERE id = ?");
-                checkStmt.setInt(1, part.getPartId());
-                rs = checkStmt.executeQuery();
-                
-                if (rs.next()) {
-                    int availableQty = rs.getInt("quantity_in_stock") - rs.getInt("reserved_quantity");
-                    if (availableQty < part.getQuantity()) {
-                        hasInsufficientParts = true;
-                    }
-                }
-                rs.close();
-                checkStmt.close();
-            }
-            
-            // Check mechanic availability and workload
+            // Check mechanic availability and workload (5+ active jobs = overloaded) in one query
             boolean mechanicOffDuty = false;
             boolean mechanicOverloaded = false;
             
             checkStmt = conn.prepareStatement(
-                "SELECT availability FROM mechanics WHERE id = ?");
+                "SELECT m.availability, " +
+                "(SELECT COUNT(*) FROM service_bookings sb " +
+                " WHERE sb.mechanic_id = m.id AND sb.status IN ('scheduled', 'in_progress')) AS job_count " +
+                "FROM mechanics m WHERE m.id = ?");
             checkStmt.setInt(1, mechanicId);
             rs = checkStmt.executeQuery();
             
@@ -498,18 +612,7 @@ public class ServiceBookingService {
                 if ("Off Duty".equalsIgnoreCase(availability)) {
                     mechanicOffDuty = true;
                 }
-            }
-            rs.close();
-            checkStmt.close();
-            
-            // Check actual job count to determine if overloaded (5+ jobs)
-            checkStmt = conn.prepareStatement(
-                "SELECT COUNT(*) as job_count FROM service_bookings " +
-                "WHERE mechanic_id = ? AND status IN ('scheduled', 'in_progress')");
-            checkStmt.setInt(1, mechanicId);
-            rs = checkStmt.executeQuery();
-            
-            if (rs.next()) {
+                
                 int jobCount = rs.getInt("job_count");
                 if (jobCount >= 5) {
                     mechanicOverloaded = true;
@@ -525,7 +628,7 @@ public class ServiceBookingService {
             // Create the booking WITHOUT service columns that don't exist
             stmt = conn.prepareStatement(
                 "INSERT INTO service_bookings (customer_id, vehicle_id, mechanic_id, booking_date, booking_time, " +
-                "status, hex_id) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                "status, hex_id, estimated_duration) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
                 PreparedStatement.RETURN_GENERATED_KEYS);
             
             stmt.setInt(1, customerId);
@@ -535,6 +638,7 @@ public class ServiceBookingService {
             stmt.setTime(5, Time.valueOf(bookingTime + ":00"));
             stmt.setString(6, finalStatus);
             stmt.setString(7, HexIdGenerator.generateBookingId());
+            stmt.setInt(8, SchedulingEngine.estimateDuration(serviceTypesOf(servicesList)));
             
             int affectedRows = stmt.executeUpdate();
             int bookingId = -1;
@@ -564,7 +668,7 @@ public class ServiceBookingService {
                 }
             }
             
-            // Reserve parts immediately using the SAME connection
+            // Reserve parts immediately using the SAME connection, as one batch
             if (bookingId > 0 && !partsToUse.isEmpty()) {
                 reserveStmt = conn.prepareStatement(
                     "UPDATE parts SET reserved_quantity = reserved_quantity + ? WHERE id = ?");
@@ -572,21 +676,25 @@ public class ServiceBookingService {
                 for (BookingPart part : partsToUse) {
                     reserveStmt.setInt(1, part.getQuantity());
                     reserveStmt.setInt(2, part.getPartId());
-                    reserveStmt.executeUpdate();
+                    reserveStmt.addBatch();
                 }
+                reserveStmt.executeBatch();
             }
             
             conn.commit();
             
-            // Trigger stock check after successfully reserving parts
+            if (bookingId > 0) {
+                MechanicScheduleIndex.getInstance().bookingChanged(bookingId);
+                searchIndex.invalidate(bookingId);
+            }
+            
+            // Trigger stock check of the reserved parts (debounced, runs in the background)
             if (bookingId > 0 && !partsToUse.isEmpty()) {
-                new Thread(() -> {
-                    try {
-                        InventoryService.getInstance().checkStockAfterReservation();
-                    } catch (Exception e) {
-                        System.err.println("Error checking stock after reservation: " + e.getMessage());
-                    }
-                }).start();
+                Set<Integer> reservedPartIds = new HashSet<>();
+                for (BookingPart part : partsToUse) {
+                    reservedPartIds.add(part.getPartId());
+                }
+                InventoryService.getInstance().checkStockAfterReservation(reservedPartIds);
             }
             
             // Update mechanic availability after creating booking (if not delayed)
@@ -628,6 +736,17 @@ public class ServiceBookingService {
         }
     }
     
+    // Service types from the booking form's services list
+    private static List<String> serviceTypesOf(List<Map<String, String>> servicesList) {
+        List<String> types = new ArrayList<>();
+        if (servicesList != null) {
+            for (Map<String, String> service : servicesList) {
+                types.add(service.get("type"));
+            }
+        }
+        return types;
+    }
+    
     public boolean updateBooking(int id, int customerId, int vehicleId, int mechanicId, 
                                LocalDate bookingDate, String bookingTime, 
                                List<Map<String, String>> servicesList, String status) throws SQLException {
@@ -636,7 +755,7 @@ public class ServiceBookingService {
             conn.setAutoCommit(false);
             try (PreparedStatement stmt = conn.prepareStatement(
                 "UPDATE service_bookings SET customer_id = ?, vehicle_id = ?, mechanic_id = ?, " +
-                "booking_date = ?, booking_time = ?, status = ? WHERE id = ?")) {
+                "booking_date = ?, booking_time = ?, status = ?, estimated_duration = ? WHERE id = ?")) {
             
                 stmt.setInt(1, customerId);
                 stmt.setInt(2, vehicleId);
@@ -644,7 +763,8 @@ public class ServiceBookingService {
                 stmt.setDate(4, Date.valueOf(bookingDate));
                 stmt.setTime(5, Time.valueOf(bookingTime + ":00")); // Add seconds
                 stmt.setString(6, status);
-                stmt.setInt(7, id);
+                stmt.setInt(7, SchedulingEngine.estimateDuration(serviceTypesOf(servicesList)));
+                stmt.setInt(8, id);
                 
                 int rowsAffected = stmt.executeUpdate();
                 
@@ -675,6 +795,10 @@ public class ServiceBookingService {
                 }
                 
                 conn.commit();
+                if (rowsAffected > 0) {
+                    MechanicScheduleIndex.getInstance().bookingChanged(id);
+                    searchIndex.invalidate(id);
+                }
                 return rowsAffected > 0;
             } catch (SQLException e) {
                 conn.rollback();
@@ -716,14 +840,16 @@ public class ServiceBookingService {
             
             int rowsAffected = stmt.executeUpdate();
             
+            // Cancelling frees the mechanic's time slot
+            if (rowsAffected > 0) {
+                MechanicScheduleIndex.getInstance().bookingChanged(bookingId);
+            }
+            
             // If status changed to completed, deduct parts from inventory
             if (rowsAffected > 0 && "completed".equalsIgnoreCase(newStatus)) {
                 try {
+                    // Also queues a stock check of the deducted parts
                     deductPartsFromInventory(bookingId);
-                    
-                    // Trigger inventory check for low stock and expiration alerts
-                    System.out.println("Booking completed - triggering inventory check...");
-                    InventoryService.getInstance().checkAndSendLowStockAlert();
                 } catch (SQLException e) {
                     // Log the error but don't fail the status update
                     System.err.println("Warning: Could not deduct parts from inventory: " + e.getMessage());
@@ -757,6 +883,8 @@ public class ServiceBookingService {
             stmt.setInt(1, bookingId);
             
             int rowsAffected = stmt.executeUpdate();
+            MechanicScheduleIndex.getInstance().bookingRemoved(bookingId);
+            searchIndex.invalidate(bookingId);
             return rowsAffected > 0;
         }
     }
@@ -780,11 +908,7 @@ public class ServiceBookingService {
         List<BookingPart> parts = new ArrayList<>();
         
         try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                "SELECT bp.id, bp.booking_id, bp.part_id, p.name as part_name, bp.quantity, bp.price_at_time " +
-                "FROM booking_parts bp " +
-                "JOIN parts p ON bp.part_id = p.id " +
-                "WHERE bp.booking_id = ?")) {
+             PreparedStatement stmt = conn.prepareStatement(BOOKING_PARTS_QUERY)) {
             
             stmt.setInt(1, bookingId);
             ResultSet rs = stmt.executeQuery();
@@ -861,6 +985,13 @@ public class ServiceBookingService {
             }
             
             conn.commit();
+            
+            // Trigger inventory check for low stock alerts on the deducted parts
+            Set<Integer> deductedPartIds = new HashSet<>();
+            for (BookingPart part : parts) {
+                deductedPartIds.add(part.getPartId());
+            }
+            InventoryService.getInstance().partsChanged(deductedPartIds);
             return true;
             
         } catch (SQLException e) {
@@ -896,124 +1027,7 @@ public class ServiceBookingService {
     
     // Check and update delayed bookings that can now proceed
     public int checkAndUpdateDelayedBookings() throws SQLException {
-        int updatedCount = 0;
-        
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            // Get all delayed bookings - simplified query without unnecessary joins
-            String query = "SELECT id, mechanic_id FROM service_bookings WHERE status = 'delayed'";
-            
-            System.out.println("=== Checking for delayed bookings ===");
-            
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(query)) {
-                
-                while (rs.next()) {
-                    int bookingId = rs.getInt("id");
-                    int mechanicId = rs.getInt("mechanic_id");
-                    
-                    System.out.println("\n--- Found delayed booking #" + bookingId + " (mechanic: " + mechanicId + ") ---");
-                    
-                    // Check if mechanic is now available
-                    boolean mechanicAvailable = true;
-                    String mechanicQuery = "SELECT availability FROM mechanics WHERE id = ?";
-                    try (PreparedStatement mechanicStmt = conn.prepareStatement(mechanicQuery)) {
-                        mechanicStmt.setInt(1, mechanicId);
-                        ResultSet mechanicRs = mechanicStmt.executeQuery();
-                        if (mechanicRs.next()) {
-                            String availability = mechanicRs.getString("availability");
-                            mechanicAvailable = "Available".equalsIgnoreCase(availability);
-                            System.out.println("  Mechanic status: " + availability + " -> " + (mechanicAvailable ? "OK" : "NOT AVAILABLE"));
-                        } else {
-                            System.out.println("  WARNING: Mechanic #" + mechanicId + " not found!");
-                            mechanicAvailable = false;
-                        }
-                    }
-                    
-                    // Check if all parts are now available
-                    boolean partsAvailable = true;
-                    
-                    // Get booking parts using the same connection
-                    List<BookingPart> parts = new ArrayList<>();
-                    String partsQuery = "SELECT bp.id, bp.booking_id, bp.part_id, p.name as part_name, bp.quantity, bp.price_at_time " +
-                                       "FROM booking_parts bp " +
-                                       "JOIN parts p ON bp.part_id = p.id " +
-                                       "WHERE bp.booking_id = ?";
-                    try (PreparedStatement partsStmt = conn.prepareStatement(partsQuery)) {
-                        partsStmt.setInt(1, bookingId);
-                        ResultSet partsRs = partsStmt.executeQuery();
-                        while (partsRs.next()) {
-                            BookingPart part = new BookingPart(
-                                partsRs.getInt("booking_id"),
-                                partsRs.getInt("part_id"),
-                                partsRs.getString("part_name"),
-                                partsRs.getInt("quantity"),
-                                partsRs.getDouble("price_at_time")
-                            );
-                            part.setId(partsRs.getInt("id"));
-                            parts.add(part);
-                        }
-                    }
-                    
-                    System.out.println("Checking delayed booking #" + bookingId + " with " + parts.size() + " parts");
-                    
-                    for (BookingPart part : parts) {
-                        String partQuery = "SELECT quantity_in_stock, reserved_quantity FROM parts WHERE id = ?";
-                        try (PreparedStatement partStmt = conn.prepareStatement(partQuery)) {
-                            partStmt.setInt(1, part.getPartId());
-                            ResultSet partRs = partStmt.executeQuery();
-                            if (partRs.next()) {
-                                int totalStock = partRs.getInt("quantity_in_stock");
-                                int reserved = partRs.getInt("reserved_quantity");
-                                
-                                // For delayed bookings, the parts ARE already reserved
-                                // We need to check if total stock is now enough
-                                // Available = total - (reserved - this_booking_reserved)
-                                // Which simplifies to: total - reserved + part.quantity
-                                int otherReserved = reserved - part.getQuantity();
-                                int availableForThisBooking = totalStock - otherReserved;
-                                
-                                System.out.println("  Part: " + part.getPartName() + 
-                                                 ", Need: " + part.getQuantity() + 
-                                                 ", Total Stock: " + totalStock + 
-                                                 ", Total Reserved: " + reserved + 
-                                                 ", Other Reserved: " + otherReserved + 
-                                                 ", Available: " + availableForThisBooking);
-                                
-                                if (part.getQuantity() > availableForThisBooking) {
-                                    partsAvailable = false;
-                                    System.out.println("  -> INSUFFICIENT");
-                                    break;
-                                } else {
-                                    System.out.println("  -> OK");
-                                }
-                            }
-                        }
-                    }
-                    
-                    // If both mechanic and parts are available, update status to scheduled
-                    if (mechanicAvailable && partsAvailable) {
-                        System.out.println("  ✓ BOTH CONDITIONS MET - Updating to scheduled");
-                        String updateQuery = "UPDATE service_bookings SET status = 'scheduled' WHERE id = ?";
-                        try (PreparedStatement updateStmt = conn.prepareStatement(updateQuery)) {
-                            updateStmt.setInt(1, bookingId);
-                            int updated = updateStmt.executeUpdate();
-                            if (updated > 0) {
-                                updatedCount++;
-                                System.out.println("  ✓ SUCCESS: Auto-updated booking #" + bookingId + " from delayed to scheduled");
-                            } else {
-                                System.out.println("  ✗ FAILED: Could not update booking #" + bookingId);
-                            }
-                        }
-                    } else {
-                        System.out.println("  ✗ NOT READY: mechanicAvailable=" + mechanicAvailable + ", partsAvailable=" + partsAvailable);
-                    }
-                }
-                
-                System.out.println("\n=== SUMMARY: Found and checked delayed bookings, updated " + updatedCount + " ===\n");
-            }
-        }
-        
-        return updatedCount;
+        return new DelayedBookingPromoter().promoteAll().getPromotedCount();
     }
     
     // Set bookings to delayed when mechanic becomes unavailable
@@ -1061,147 +1075,7 @@ public class ServiceBookingService {
     }
     
     public int checkAndUpdateDelayedBookingsForMechanic(int mechanicId, int triggeringBookingId) throws SQLException {
-        int updatedCount = 0;
-        MechanicService mechanicService = new MechanicService();
-        
-        // Check if mechanic can now accept bookings
-        if (!mechanicService.canAcceptNewBooking(mechanicId)) {
-            System.out.println("Mechanic #" + mechanicId + " still overloaded, cannot update delayed bookings");
-            return 0;
-        }
-        
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            // Get delayed bookings for this mechanic only, ordered by booking date/time (earliest first)
-            String query = "SELECT id FROM service_bookings WHERE mechanic_id = ? AND status = 'delayed' " +
-                          "ORDER BY booking_date ASC, booking_time ASC";
-            
-            System.out.println("=== Checking delayed bookings for mechanic #" + mechanicId + " (triggered by booking #" + triggeringBookingId + ") ===");
-            
-            try (PreparedStatement stmt = conn.prepareStatement(query)) {
-                stmt.setInt(1, mechanicId);
-                ResultSet rs = stmt.executeQuery();
-                
-                while (rs.next()) {
-                    // Re-check capacity before each booking (in case we've scheduled some already)
-                    if (!mechanicService.canAcceptNewBooking(mechanicId)) {
-                        System.out.println("Mechanic #" + mechanicId + " reached capacity (5+ jobs), stopping delayed booking updates");
-                        break;
-                    }
-                    
-                    int bookingId = rs.getInt("id");
-                    
-                    System.out.println("\n--- Checking delayed booking #" + bookingId + " ---");
-                    
-                    // Check if all parts are now available
-                    boolean partsAvailable = true;
-                    
-                    // Get booking parts
-                    List<BookingPart> parts = new ArrayList<>();
-                    String partsQuery = "SELECT bp.id, bp.booking_id, bp.part_id, p.name as part_name, bp.quantity, bp.price_at_time " +
-                                       "FROM booking_parts bp " +
-                                       "JOIN parts p ON bp.part_id = p.id " +
-                                       "WHERE bp.booking_id = ?";
-                    try (PreparedStatement partsStmt = conn.prepareStatement(partsQuery)) {
-                        partsStmt.setInt(1, bookingId);
-                        ResultSet partsRs = partsStmt.executeQuery();
-                        while (partsRs.next()) {
-                            BookingPart part = new BookingPart(
-                                partsRs.getInt("booking_id"),
-                                partsRs.getInt("part_id"),
-                                partsRs.getString("part_name"),
-                                partsRs.getInt("quantity"),
-                                partsRs.getDouble("price_at_time")
-                            );
-                            part.setId(partsRs.getInt("id"));
-                            parts.add(part);
-                        }
-                    }
-                    
-                    System.out.println("Checking delayed booking #" + bookingId + " with " + parts.size() + " parts");
-                    
-                    for (BookingPart part : parts) {
-                        String partQuery = "SELECT quantity_in_stock, reserved_quantity FROM parts WHERE id = ?";
-                        try (PreparedStatement partStmt = conn.prepareStatement(partQuery)) {
-                            partStmt.setInt(1, part.getPartId());
-                            ResultSet partRs = partStmt.executeQuery();
-                            if (partRs.next()) {
-                                int totalStock = partRs.getInt("quantity_in_stock");
-                                int reserved = partRs.getInt("reserved_quantity");
-                                int otherReserved = reserved - part.getQuantity();
-                                int availableForThisBooking = totalStock - otherReserved;
-                                
-                                System.out.println("  Part: " + part.getPartName() + 
-                                                 ", Need: " + part.getQuantity() + 
-                                                 ", Available: " + availableForThisBooking);
-                                
-                                if (part.getQuantity() > availableForThisBooking) {
-                                    partsAvailable = false;
-                                    System.out.println("  -> INSUFFICIENT PARTS");
-                                    break;
-                                } else {
-                                    System.out.println("  -> OK");
-                                }
-                            }
-                        }
-                    }
-                    
-                    // If parts are available AND mechanic can accept, update to scheduled
-                    if (partsAvailable) {
-                        System.out.println("  ✓ Parts available and mechanic has capacity - Updating to scheduled");
-                        // Mark this booking as promoted by the triggering booking (so we can revert it if the triggering booking is undone)
-                        // If triggeringBookingId is -1, don't track it (manual promotion from controller)
-                        // If column doesn't exist, just update status without the tracking
-                        try {
-                            String updateQuery = "UPDATE service_bookings SET status = 'scheduled'" + 
-                                               (triggeringBookingId > 0 ? ", promoted_by_booking_id = ?" : "") + 
-                                               " WHERE id = ?";
-                            try (PreparedStatement updateStmt = conn.prepareStatement(updateQuery)) {
-                                if (triggeringBookingId > 0) {
-                                    updateStmt.setInt(1, triggeringBookingId);  // Store which booking caused this promotion
-                                    updateStmt.setInt(2, bookingId);
-                                } else {
-                                    updateStmt.setInt(1, bookingId);
-                                }
-                                int updated = updateStmt.executeUpdate();
-                                if (updated > 0) {
-                                    updatedCount++;
-                                    if (triggeringBookingId > 0) {
-                                        System.out.println("  ✓ SUCCESS: Auto-updated booking #" + bookingId + " from delayed to scheduled (promoted by booking #" + triggeringBookingId + ")");
-                                    } else {
-                                        System.out.println("  ✓ SUCCESS: Auto-updated booking #" + bookingId + " from delayed to scheduled");
-                                    }
-                                    
-                                    // Update mechanic availability after each scheduled booking
-                                    mechanicService.updateMechanicAvailability(mechanicId);
-                                } else {
-                                    System.out.println("  ✗ FAILED: Could not update booking #" + bookingId);
-                                }
-                            }
-                        } catch (SQLException e) {
-                            // Column might not exist or other error - try simpler update
-                            try (PreparedStatement updateStmt = conn.prepareStatement(
-                                "UPDATE service_bookings SET status = 'scheduled' WHERE id = ?")) {
-                                updateStmt.setInt(1, bookingId);
-                                int updated = updateStmt.executeUpdate();
-                                if (updated > 0) {
-                                    updatedCount++;
-                                    System.out.println("  ✓ SUCCESS: Auto-updated booking #" + bookingId + " from delayed to scheduled");
-                                    mechanicService.updateMechanicAvailability(mechanicId);
-                                } else {
-                                    System.out.println("  ✗ FAILED: Could not update booking #" + bookingId);
-                                }
-                            }
-                        }
-                    } else {
-                        System.out.println("  ✗ NOT READY: Parts still insufficient");
-                    }
-                }
-                
-                System.out.println("\n=== SUMMARY: Updated " + updatedCount + " delayed booking(s) for mechanic #" + mechanicId + " ===\n");
-            }
-        }
-        
-        return updatedCount;
+        return new DelayedBookingPromoter().promoteForMechanic(mechanicId, triggeringBookingId).getPromotedCount();
     }
     
     /**
@@ -1244,8 +1118,7 @@ public class ServiceBookingService {
         // Approach 1: Direct tracking via promoted_by_booking_id (if column exists)
         try {
             try (Connection conn = DatabaseUtil.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(
-                    "SELECT id FROM service_bookings WHERE status = 'scheduled' AND promoted_by_booking_id = ?")) {
+                 PreparedStatement stmt = conn.prepareStatement(PROMOTED_BY_QUERY)) {
                 stmt.setInt(1, bookingId);
                 ResultSet rs = stmt.executeQuery();
                 while (rs.next()) {
@@ -1306,6 +1179,10 @@ public class ServiceBookingService {
                 }
             }
             System.out.println("Reverted booking #" + bookingId + " back to " + originalStatus);
+            if (success) {
+                // Undoing a cancellation takes the time slot again
+                MechanicScheduleIndex.getInstance().bookingChanged(bookingId);
+            }
             
             // Revert affected bookings back to delayed status
             if (!affectedBookingIds.isEmpty()) {
@@ -1392,7 +1269,7 @@ public class ServiceBookingService {
             
             // Now query with correct columns
             String query = hasServiceDescription 
-                ? "SELECT id, service_type, service_description FROM booking_services WHERE booking_id = ? ORDER BY id ASC"
+                ? BOOKING_SERVICES_QUERY
                 : "SELECT id, service_type FROM booking_services WHERE booking_id = ? ORDER BY id ASC";
                 
             try (PreparedStatement finalStmt = conn.prepareStatement(query)) {
@@ -1476,8 +1353,7 @@ public class ServiceBookingService {
     public List<BookingServiceTableItem> getBookingServicesForTable(int bookingId) throws SQLException {
         List<BookingServiceTableItem> services = new ArrayList<>();
         try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                "SELECT id, service_type, service_description FROM booking_services WHERE booking_id = ? ORDER BY id ASC")) {
+             PreparedStatement stmt = conn.prepareStatement(BOOKING_SERVICES_QUERY)) {
             stmt.setInt(1, bookingId);
             ResultSet rs = stmt.executeQuery();
             
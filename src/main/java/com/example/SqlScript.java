@@ -0,0 +1,90 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a SQL script into statements.
+ *
+ * Semicolons only end a statement outside of quoted strings, quoted identifiers
+ * and comments, so a ';' inside a default value or a comment no longer cuts a
+ * statement in two. Comments are dropped from the returned statements.
+ */
+public final class SqlScript {
+
+    private SqlScript() {
+        // Static utility
+    }
+
+    /**
+     * Statements of a script on the classpath, e.g. "/database/setup.sql"
+     */
+    public static List<String> load(String resource) throws IOException {
+        try (InputStream in = SqlScript.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("SQL script not found on classpath: " + resource);
+            }
+            return split(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    public static List<String> split(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int n = script.length();
+        int i = 0;
+
+        while (i < n) {
+            char c = script.charAt(i);
+            char next = i + 1 < n ? script.charAt(i + 1) : '\0';
+
+            if (c == '\'' || c == '"' || c == '`') {
+                // Copy the quoted text as is; a doubled quote or backslash escape does not end it
+                int end = i + 1;
+                while (end < n) {
+                    char q = script.charAt(end);
+                    if (q == '\\' && c != '`') {
+                        end += 2;
+                    } else if (q == c && end + 1 < n && script.charAt(end + 1) == c) {
+                        end += 2;
+                    } else if (q == c) {
+                        break;
+                    } else {
+                        end++;
+                    }
+                }
+                end = Math.min(end + 1, n);
+                current.append(script, i, end);
+                i = end;
+            } else if ((c == '-' && next == '-') || c == '#') {
+                // Line comment
+                while (i < n && script.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '/' && next == '*') {
+                int end = script.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 2;
+                current.append(' ');
+            } else if (c == ';') {
+                addStatement(statements, current);
+                i++;
+            } else {
+                current.append(c);
+                i++;
+            }
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder current) {
+        String sql = current.toString().trim();
+        if (!sql.isEmpty()) {
+            statements.add(sql);
+        }
+        current.setLength(0);
+    }
+}
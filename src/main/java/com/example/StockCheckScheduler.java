@@ -0,0 +1,166 @@
+package com.example;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Debounces inventory stock checks.
+ *
+ * Code that changes stock calls requestCheck(partId). Requests arriving within the
+ * debounce window (autotech.stock.debounceMs, default 5s) are merged into one run
+ * that reloads and evaluates only the parts that changed, so ten bookings in a
+ * minute cost a couple of small queries instead of ten full table scans and
+ * possibly ten alert emails.
+ *
+ * It also drives the periodic full check (every 6 hours by default) which
+ * re-evaluates every part needing attention and sends the StockMonitorService
+ * reminder emails.
+ */
+public class StockCheckScheduler {
+    private static StockCheckScheduler instance;
+
+    private static final long DEBOUNCE_MS = Long.getLong("autotech.stock.debounceMs", 5000);
+
+    // Pending work, guarded by this
+    private final Set<Integer> pendingPartIds = new HashSet<>();
+    private boolean fullCheckPending = false;
+    private boolean remindersPending = false;
+    private ScheduledFuture<?> pendingRun;
+    private ScheduledFuture<?> periodicCheck;
+
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder runCount = new LongAdder();
+    private final LongAdder partsEvaluated = new LongAdder();
+
+    private StockCheckScheduler() {
+        // Private constructor
+    }
+
+    public static synchronized StockCheckScheduler getInstance() {
+        if (instance == null) {
+            instance = new StockCheckScheduler();
+        }
+        return instance;
+    }
+
+    /**
+     * Re-evaluate one part after its stock or reservations changed
+     */
+    public void requestCheck(int partId) {
+        requestCheck(Collections.singleton(partId));
+    }
+
+    /**
+     * Re-evaluate several parts after their stock or reservations changed
+     */
+    public synchronized void requestCheck(Collection<Integer> partIds) {
+        if (partIds == null || partIds.isEmpty()) {
+            return;
+        }
+        requestCount.increment();
+        pendingPartIds.addAll(partIds);
+        scheduleRun();
+    }
+
+    /**
+     * Re-evaluate every part that is in, or just left, an alert condition (startup, manual trigger)
+     */
+    public synchronized void requestFullCheck() {
+        requestCount.increment();
+        fullCheckPending = true;
+        scheduleRun();
+    }
+
+    /**
+     * Start the periodic full check with reminder emails. The first run waits one
+     * interval; the startup check (requestFullCheck) only sends alerts not sent before.
+     */
+    public synchronized void startPeriodicCheck(long interval, TimeUnit unit) {
+        stopPeriodicCheck();
+        periodicCheck = AppExecutors.scheduleAtFixedRate("stock-check-periodic", () -> {
+            synchronized (this) {
+                requestCount.increment();
+                fullCheckPending = true;
+                remindersPending = true;
+                scheduleRun();
+            }
+        }, interval, interval, unit);
+    }
+
+    public synchronized void stopPeriodicCheck() {
+        if (periodicCheck != null) {
+            periodicCheck.cancel(false);
+            periodicCheck = null;
+        }
+    }
+
+    public synchronized boolean isPeriodicCheckRunning() {
+        return periodicCheck != null;
+    }
+
+    // The first request opens the window; later ones ride along until it closes
+    private void scheduleRun() {
+        if (pendingRun == null) {
+            pendingRun = AppExecutors.schedule("stock-check-debounce", this::flush, DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        synchronized (this) {
+            pendingRun = null;
+        }
+        // Coalesced so a slow run and the next window never evaluate concurrently
+        AppExecutors.runCoalesced("stock-check", this::runPendingCheck);
+    }
+
+    private void runPendingCheck() {
+        Set<Integer> partIds;
+        boolean fullCheck;
+        boolean reminders;
+        synchronized (this) {
+            partIds = new HashSet<>(pendingPartIds);
+            pendingPartIds.clear();
+            fullCheck = fullCheckPending;
+            reminders = remindersPending;
+            fullCheckPending = false;
+            remindersPending = false;
+        }
+        if (!fullCheck && partIds.isEmpty()) {
+            return;
+        }
+
+        InventoryService inventoryService = InventoryService.getInstance();
+        try {
+            // A full check only needs parts in an alert condition plus those with alerts to re-arm
+            List<InventoryItem> items = fullCheck
+                ? inventoryService.getAlertCandidates(InventoryAlertState.getInstance().getPartsWithRaisedAlerts())
+                : inventoryService.getItemsByIds(partIds);
+
+            System.out.println("=== Stock Check: " + (fullCheck ? items.size() + " part(s) needing attention" :
+                               items.size() + " changed part(s)") + " ===");
+            runCount.increment();
+            partsEvaluated.add(items.size());
+
+            inventoryService.evaluateStockAlerts(items);
+            if (reminders) {
+                StockMonitorService.getInstance().checkStockLevels(items);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error checking stock levels: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    public long getRequestCount() { return requestCount.sum(); }
+    public long getRunCount() { return runCount.sum(); }
+    public long getPartsEvaluated() { return partsEvaluated.sum(); }
+
+    @Override
+    public String toString() {
+        return "StockCheckScheduler[requests=" + getRequestCount() + ", runs=" + getRunCount() +
+               ", partsEvaluated=" + getPartsEvaluated() + "]";
+    }
+}
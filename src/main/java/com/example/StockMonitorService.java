@@ -3,12 +3,10 @@ package com.example;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
 
 public class StockMonitorService {
     private static StockMonitorService instance;
-    private Timer timer;
     private boolean isMonitoring = false;
     
     // Check interval: every 6 hours (in milliseconds)
@@ -35,15 +33,9 @@ public class StockMonitorService {
             return;
         }
         
-        timer = new Timer("StockMonitorTimer", true); // daemon thread
-        
-        // Schedule the task to run immediately and then every CHECK_INTERVAL
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                checkStockLevels();
-            }
-        }, 0, CHECK_INTERVAL);
+        // Remind every CHECK_INTERVAL; the scheduler merges these runs with any
+        // stock checks triggered by bookings at the same time
+        StockCheckScheduler.getInstance().startPeriodicCheck(CHECK_INTERVAL, TimeUnit.MILLISECONDS);
         
         isMonitoring = true;
         System.out.println("Stock monitoring started. Checking every " + (CHECK_INTERVAL / 1000 / 60) + " minutes.");
@@ -53,10 +45,7 @@ public class StockMonitorService {
      * Stop monitoring stock levels
      */
     public void stopMonitoring() {
-        if (timer != null) {
-            timer.cancel();
-            timer = null;
-        }
+        StockCheckScheduler.getInstance().stopPeriodicCheck();
         isMonitoring = false;
         System.out.println("Stock monitoring stopped.");
     }
@@ -65,55 +54,60 @@ public class StockMonitorService {
      * Check stock levels and send alerts if needed
      */
     public void checkStockLevels() {
+        try {
+            checkStockLevels(InventoryService.getInstance().getAllItems());
+        } catch (SQLException e) {
+            System.err.println("Error checking stock levels: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Send reminder alerts for already-loaded items (used by the periodic full check)
+     */
+    public void checkStockLevels(List<InventoryItem> allItems) {
         System.out.println("Checking stock levels...");
         
-        try {
-            List<InventoryItem> allItems = InventoryService.getInstance().getAllItems();
-            List<InventoryItem> lowStockItems = new ArrayList<>();
-            List<InventoryItem> lowAvailableItems = new ArrayList<>();
-            
-            // Find items with low stock or low available stock
-            for (InventoryItem item : allItems) {
-                if (item.isLowStock()) {
-                    lowStockItems.add(item);
-                } else if (item.isLowAvailableStock()) {
-                    lowAvailableItems.add(item);
-                }
+        List<InventoryItem> lowStockItems = new ArrayList<>();
+        List<InventoryItem> lowAvailableItems = new ArrayList<>();
+        
+        // Find items with low stock or low available stock
+        for (InventoryItem item : allItems) {
+            if (item.isLowStock()) {
+                lowStockItems.add(item);
+            } else if (item.isLowAvailableStock()) {
+                lowAvailableItems.add(item);
             }
+        }
+        
+        // Send urgent low stock alerts
+        if (!lowStockItems.isEmpty()) {
+            System.out.println("Found " + lowStockItems.size() + " items with low stock.");
             
-            // Send urgent low stock alerts
-            if (!lowStockItems.isEmpty()) {
-                System.out.println("Found " + lowStockItems.size() + " items with low stock.");
-                
-                boolean emailSent = EmailService.getInstance().sendLowStockAlert(lowStockItems);
-                
-                if (emailSent) {
-                    System.out.println("Low stock alert email sent successfully.");
-                } else {
-                    System.err.println("Failed to send low stock alert email.");
-                }
-            }
+            boolean emailSent = EmailService.getInstance().sendLowStockAlert(lowStockItems);
             
-            // Send advisory for low available stock (heavy reservations)
-            if (!lowAvailableItems.isEmpty()) {
-                System.out.println("Found " + lowAvailableItems.size() + " items with low available stock.");
-                
-                boolean emailSent = EmailService.getInstance().sendLowAvailableStockAlert(lowAvailableItems);
-                
-                if (emailSent) {
-                    System.out.println("Low available stock notice sent successfully.");
-                } else {
-                    System.err.println("Failed to send low available stock notice.");
-                }
+            if (emailSent) {
+                System.out.println("Low stock alert email sent successfully.");
+            } else {
+                System.err.println("Failed to send low stock alert email.");
             }
+        }
+        
+        // Send advisory for low available stock (heavy reservations)
+        if (!lowAvailableItems.isEmpty()) {
+            System.out.println("Found " + lowAvailableItems.size() + " items with low available stock.");
             
-            if (lowStockItems.isEmpty() && lowAvailableItems.isEmpty()) {
-                System.out.println("All items are at adequate stock levels.");
-            }
+            boolean emailSent = EmailService.getInstance().sendLowAvailableStockAlert(lowAvailableItems);
             
-        } catch (SQLException e) {
-            System.err.println("Error checking stock levels: " + e.getMessage());
-            e.printStackTrace();
+            if (emailSent) {
+                System.out.println("Low available stock notice sent successfully.");
+            } else {
+                System.err.println("Failed to send low available stock notice.");
+            }
+        }
+        
+        if (lowStockItems.isEmpty() && lowAvailableItems.isEmpty()) {
+            System.out.println("All items are at adequate stock levels.");
         }
     }
     
@@ -121,7 +115,7 @@ public class StockMonitorService {
      * Perform an immediate stock check (manual trigger)
      */
     public void checkStockNow() {
-        new Thread(() -> checkStockLevels()).start();
+        AppExecutors.runCoalesced("stock-monitor-check", () -> checkStockLevels());
     }
     
     public boolean isMonitoring() {
@@ -2,16 +2,48 @@ package com.example;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class VehicleService {
     private static VehicleService instance;
     
+    // Most matches a search returns
+    private static final int SEARCH_LIMIT = 500;
+    
+    // Also checked by QueryPlanCheck
+    static final String CUSTOMER_VEHICLES_QUERY = "SELECT * FROM vehicles WHERE customer_id = ? ORDER BY id";
+    
+    private final SearchIndex searchIndex = new SearchIndex("vehicles",
+        new SearchIndex.Field[] {
+            new SearchIndex.Field("plate_number", 3, true),
+            new SearchIndex.Field("hex_id", 2),
+            new SearchIndex.Field("brand", 2),
+            new SearchIndex.Field("model", 2),
+            new SearchIndex.Field("type", 1),
+            new SearchIndex.Field("year", 1)
+        },
+        new SearchIndex.Loader() {
+            @Override
+            public Map<Integer, String[]> loadAll() throws SQLException {
+                return loadSearchRows(null);
+            }
+            
+            @Override
+            public Map<Integer, String[]> loadByIds(Collection<Integer> ids) throws SQLException {
+                return loadSearchRows(ids);
+            }
+        });
+    
     private VehicleService() {
         // Initialize service
     }
     
-    public static VehicleService getInstance() {
+    // Synchronized: the instance owns the search index, and App warms it up from a
+    // background thread while the UI is creating controllers
+    public static synchronized VehicleService getInstance() {
         if (instance == null) {
             instance = new VehicleService();
         }
@@ -22,7 +54,7 @@ public class VehicleService {
         try (Connection conn = DatabaseUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(
                  "INSERT INTO vehicles (customer_id, type, brand, model, year, plate_number, hex_id) " +
-                 "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                 "VALUES (?, ?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setInt(1, customerId);
             stmt.setString(2, type);
@@ -33,6 +65,11 @@ public class VehicleService {
             stmt.setString(7, HexIdGenerator.generateVehicleId());
             
             int rowsAffected = stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    searchIndex.invalidate(keys.getInt(1));
+                }
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -44,8 +81,7 @@ public class VehicleService {
         List<Vehicle> vehicles = new ArrayList<>();
         
         try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                 "SELECT * FROM vehicles WHERE customer_id = ? ORDER BY id")) {
+             PreparedStatement stmt = conn.prepareStatement(CUSTOMER_VEHICLES_QUERY)) {
             
             stmt.setInt(1, customerId);
             ResultSet rs = stmt.executeQuery();
@@ -81,6 +117,9 @@ public class VehicleService {
             stmt.setInt(6, vehicle.getId());
             
             int rowsAffected = stmt.executeUpdate();
+            searchIndex.invalidate(vehicle.getId());
+            // Bookings are searchable by plate number
+            ServiceBookingService.getSearchIndex().requestRebuild();
             return rowsAffected > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -170,6 +209,9 @@ public class VehicleService {
             conn.setAutoCommit(false); // Start transaction
             
             // Step 1: Delete billing records for completed/cancelled bookings of this vehicle
+            RevenueLedger.getInstance().billsDeleted(conn,
+                "service_id IN (SELECT id FROM service_bookings WHERE vehicle_id = ? AND status IN ('completed', 'cancelled'))",
+                vehicleId);
             try (PreparedStatement stmt = conn.prepareStatement(
                  "DELETE FROM billing WHERE service_id IN " +
                  "(SELECT id FROM service_bookings WHERE vehicle_id = ? AND status IN ('completed', 'cancelled'))")) {
@@ -192,6 +234,9 @@ public class VehicleService {
                 
                 if (rowsAffected > 0) {
                     conn.commit(); // Commit transaction
+                    searchIndex.invalidate(vehicleId);
+                    // Completed bookings were removed from the schedule
+                    MechanicScheduleIndex.getInstance().invalidate();
                     return true;
                 } else {
                     conn.rollback(); // Rollback if vehicle deletion failed
@@ -282,4 +327,74 @@ public class VehicleService {
         
         return vehicles;
     }
-}
+    
+    /**
+     * Build the search index in the background, so the first search doesn't wait for it
+     */
+    public void prepareSearch() {
+        searchIndex.buildInBackground();
+    }
+    
+    /**
+     * Vehicles matching every word of the search term (plate, brand, model, ...),
+     * best matches first. Served by the in-memory search index.
+     */
+    public List<Vehicle> searchVehicles(String searchTerm) throws SQLException {
+        List<Integer> ids = searchIndex.search(searchTerm, SEARCH_LIMIT);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        Map<Integer, Vehicle> found = new HashMap<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                 "SELECT * FROM vehicles WHERE id IN (" + SearchIndex.placeholders(ids.size()) + ")")) {
+            
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setInt(i + 1, ids.get(i));
+            }
+            
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                int id = rs.getInt("id");
+                found.put(id, new Vehicle(id, rs.getString("hex_id"), rs.getInt("customer_id"),
+                    rs.getString("type"), rs.getString("brand"), rs.getString("model"),
+                    rs.getString("year"), rs.getString("plate_number")));
+            }
+        }
+        
+        return SearchIndex.inRankOrder(ids, found);
+    }
+    
+    // Searchable text of all vehicles, or only the given ones
+    private Map<Integer, String[]> loadSearchRows(Collection<Integer> ids) throws SQLException {
+        Map<Integer, String[]> rows = new HashMap<>();
+        if (ids != null && ids.isEmpty()) {
+            return rows;
+        }
+        
+        String query = "SELECT id, plate_number, hex_id, brand, model, type, year FROM vehicles" +
+            (ids != null ? " WHERE id IN (" + SearchIndex.placeholders(ids.size()) + ")" : "");
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            
+            if (ids != null) {
+                int i = 1;
+                for (int id : ids) {
+                    stmt.setInt(i++, id);
+                }
+            }
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.put(rs.getInt("id"), new String[] {
+                        rs.getString("plate_number"), rs.getString("hex_id"), rs.getString("brand"),
+                        rs.getString("model"), rs.getString("type"), rs.getString("year")
+                    });
+                }
+            }
+        }
+        return rows;
+    }
+}
\ No newline at end of file
@@ -33,6 +33,12 @@ INSERT INTO users (username, password, email, role_id) VALUES
     ('mechanic', 'mech123', 'mechanic@autotech.com', (SELECT id FROM roles WHERE name = 'MECHANIC'));
 
 
+-- Named counters handed out in blocks by SequenceAllocator (hex IDs, part numbers)
+CREATE TABLE id_sequences (
+    name VARCHAR(50) PRIMARY KEY,
+    next_value BIGINT NOT NULL DEFAULT 0
+);
+
 -- Create customers table
 CREATE TABLE IF NOT EXISTS customers (
     id INT AUTO_INCREMENT PRIMARY KEY,
@@ -202,6 +208,20 @@ CREATE TABLE parts (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
 );
 
+-- Inventory alert state: which alerts are currently raised for each part, so alerts
+-- fire once when a part enters a condition and re-arm when it recovers (survives restarts)
+CREATE TABLE inventory_alert_state (
+    part_id INT NOT NULL,
+    alert_type VARCHAR(20) NOT NULL
+        CHECK (alert_type IN ('ZERO_STOCK', 'LOW_STOCK', 'LOW_AVAILABLE', 'EXPIRING', 'EXPIRED')),
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    fired_at TIMESTAMP NULL DEFAULT NULL,
+    cleared_at TIMESTAMP NULL DEFAULT NULL,
+    PRIMARY KEY (part_id, alert_type),
+    FOREIGN KEY (part_id) REFERENCES parts(id) ON DELETE CASCADE,
+    INDEX idx_alert_state_active (active)
+);
+
 -- Booking parts junction table (which parts will be used in which booking)
 CREATE TABLE IF NOT EXISTS booking_parts (
     id INT AUTO_INCREMENT PRIMARY KEY,
@@ -301,6 +321,24 @@ CREATE TABLE email_sent_history (
     INDEX idx_recipient_email (recipient_email)
 );
 
+-- Create outgoing email queue (drained in the background by EmailOutbox)
+CREATE TABLE email_outbox (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    billing_id INT DEFAULT NULL,
+    recipient_email VARCHAR(100) NOT NULL,
+    email_type VARCHAR(50) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    html_body MEDIUMTEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'pending' CHECK (status IN ('pending', 'sending', 'sent', 'failed')),
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP NULL DEFAULT NULL,
+    FOREIGN KEY (billing_id) REFERENCES billing(id) ON DELETE CASCADE,
+    INDEX idx_outbox_status_next (status, next_attempt_at)
+);
+
 -- Add indexes for the billing table
 CREATE INDEX idx_billing_customer ON billing(customer_id);
 CREATE INDEX idx_billing_service ON billing(service_id);